@@ -60,6 +60,7 @@ import org.apache.commons.lang.StringUtils;
 import org.jenkinsci.Symbol;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 
 import javax.annotation.Nonnull;
@@ -72,6 +73,8 @@ import static com.microfocus.application.automation.tools.commonResultUpload.Par
 
 public class CommonResultUploadBuilder extends Recorder implements SimpleBuildStep {
 
+    private static final int MAX_UPLOAD_THREADS = 16;
+
     @DataBoundConstructor
     public CommonResultUploadBuilder(
             String almServerName, String credentialsId, String almDomain,
@@ -121,6 +124,7 @@ public class CommonResultUploadBuilder extends Recorder implements SimpleBuildSt
         params.put(TESTING_RESULT_FILE, Util.replaceMacro(testingResultFile, varResolver));
         params.put(FIELD_MAPPING, Util.replaceMacro(fieldMapping, varResolver));
         params.put(CREATE_NEW_TEST, String.valueOf(createNewTest));
+        params.put(UPLOAD_THREADS, String.valueOf(getUploadThreads()));
 
         Uploader uploader = new Uploader(run, workspace, logger, params);
         uploader.upload();
@@ -224,6 +228,22 @@ public class CommonResultUploadBuilder extends Recorder implements SimpleBuildSt
             return FormValidation.ok();
         }
 
+        public FormValidation doCheckUploadThreads(@QueryParameter String value) {
+            if (StringUtils.isBlank(value)) {
+                return FormValidation.ok();
+            }
+            try {
+                int threads = Integer.parseInt(value.trim());
+                if (threads < 1 || threads > MAX_UPLOAD_THREADS) {
+                    return FormValidation.error("Upload threads must be between 1 and " + MAX_UPLOAD_THREADS);
+                }
+            } catch (NumberFormatException e) {
+                return FormValidation.error("Upload threads must be a number");
+            }
+
+            return FormValidation.ok();
+        }
+
         public FormValidation doCheckTestingResultFile(@QueryParameter String value) {
             if (StringUtils.isBlank(value)) {
                 return FormValidation.error("Testing result file must be set");
@@ -318,6 +338,7 @@ public class CommonResultUploadBuilder extends Recorder implements SimpleBuildSt
     private String runStatusMapping;
     private String fieldMapping;
     private boolean createNewTest;
+    private int uploadThreads;
 
     public String getAlmServerName() {
         return almServerName;
@@ -407,4 +428,13 @@ public class CommonResultUploadBuilder extends Recorder implements SimpleBuildSt
         this.createNewTest = createNewTest;
     }
 
+    public int getUploadThreads() {
+        return Math.min(Math.max(uploadThreads, 1), MAX_UPLOAD_THREADS);
+    }
+
+    @DataBoundSetter
+    public void setUploadThreads(int uploadThreads) {
+        this.uploadThreads = uploadThreads;
+    }
+
 }
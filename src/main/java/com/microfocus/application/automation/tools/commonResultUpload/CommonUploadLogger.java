@@ -32,6 +32,7 @@ import com.microfocus.application.automation.tools.sse.sdk.Logger;
 
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class CommonUploadLogger implements Logger {
@@ -42,10 +43,45 @@ public class CommonUploadLogger implements Logger {
 
     private List<String> failedMessages;
     private PrintStream printStream;
+    private CommonUploadLogger parent;
+    private List<String> bufferedMessages;
 
     public CommonUploadLogger(PrintStream printStream) {
         this.printStream = printStream;
-        failedMessages = new ArrayList<>();
+        failedMessages = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    private CommonUploadLogger(CommonUploadLogger parent) {
+        this.parent = parent;
+        failedMessages = Collections.synchronizedList(new ArrayList<String>());
+        bufferedMessages = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    /**
+     * Create a logger which keeps its messages until it is flushed into this one.
+     * Concurrent uploads use it so that their output is printed in a stable order.
+     */
+    public CommonUploadLogger createBuffered() {
+        return new CommonUploadLogger(this);
+    }
+
+    /**
+     * Move the buffered messages and the failed messages into the parent logger.
+     */
+    public void flush() {
+        if (parent == null) {
+            return;
+        }
+        synchronized (bufferedMessages) {
+            for (String message : bufferedMessages) {
+                parent.log(message);
+            }
+            bufferedMessages.clear();
+        }
+        synchronized (failedMessages) {
+            parent.failedMessages.addAll(failedMessages);
+            failedMessages.clear();
+        }
     }
 
     public void error(String message) {
@@ -66,7 +102,9 @@ public class CommonUploadLogger implements Logger {
 
     @Override
     public void log(String message) {
-        if (printStream != null) {
+        if (bufferedMessages != null) {
+            bufferedMessages.add(message);
+        } else if (printStream != null) {
             printStream.println(message);
         }
     }
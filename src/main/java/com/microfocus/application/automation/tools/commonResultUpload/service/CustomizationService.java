@@ -50,12 +50,29 @@ public class CustomizationService {
     private CommonUploadLogger logger;
     private Map<String, Map<String, String>> subtypeCache;
     private Map<String, Map<String, String>> fieldCache;
+    private Map<String, Boolean> versioningCache;
 
     public CustomizationService(RestClient client, CommonUploadLogger logger) {
         this.client = client;
         this.logger = logger;
         subtypeCache = new HashMap<>();
         fieldCache = new HashMap<>();
+        versioningCache = new HashMap<>();
+    }
+
+    private CustomizationService(CustomizationService shared, CommonUploadLogger logger) {
+        this.client = shared.client;
+        this.logger = logger;
+        subtypeCache = shared.subtypeCache;
+        fieldCache = shared.fieldCache;
+        versioningCache = shared.versioningCache;
+    }
+
+    /**
+     * Get a service sharing the caches of this one and logging into the given logger.
+     */
+    public CustomizationService withLogger(CommonUploadLogger logger) {
+        return logger == this.logger ? this : new CustomizationService(this, logger);
     }
 
     public String getRunSubtypeIdByTestInstance(String testInstanceSubtypeId) {
@@ -82,6 +99,12 @@ public class CustomizationService {
     }
 
     public Map<String, String> getEntitySubTypes(String entityName) {
+        synchronized (subtypeCache) {
+            return loadEntitySubTypes(entityName);
+        }
+    }
+
+    private Map<String, String> loadEntitySubTypes(String entityName) {
         if (subtypeCache.get(entityName) == null) {
             String suffix = String.format("customization/entities/%s/types", entityName);
             String url = client.buildRestRequest(suffix);
@@ -110,6 +133,12 @@ public class CustomizationService {
     }
 
     public Map<String, String> getEntityFields(String entityName) {
+        synchronized (fieldCache) {
+            return loadEntityFields(entityName);
+        }
+    }
+
+    private Map<String, String> loadEntityFields(String entityName) {
         if (fieldCache.get(entityName) == null) {
             String suffix = String.format("customization/entities/%s/fields", entityName);
             String url = client.buildRestRequest(suffix);
@@ -134,6 +163,16 @@ public class CustomizationService {
     }
 
     public boolean isVersioningEnabled(String entityName) {
+        synchronized (versioningCache) {
+            return loadVersioningEnabled(entityName);
+        }
+    }
+
+    private boolean loadVersioningEnabled(String entityName) {
+        Boolean cached = versioningCache.get(entityName);
+        if (cached != null) {
+            return cached;
+        }
         String suffix = String.format("customization/entities/%s", entityName);
         String url = client.buildRestRequest(suffix);
         Response response = client.httpGet(
@@ -145,7 +184,9 @@ public class CustomizationService {
             logger.log(String.format("INFO: -- Get Entity Resource Descriptor success. [%s]", entityName));
             Document document = XPathUtils.getDocument(response.toString());
             Element element = (Element) document.getElementsByTagName("SupportsVC").item(0);
-            return "true".equals(element.getTextContent());
+            boolean versioningEnabled = "true".equals(element.getTextContent());
+            versioningCache.put(entityName, versioningEnabled);
+            return versioningEnabled;
         } else {
             logger.log("ERR: Get entities failed from: " + url);
             logger.log("ERR: " + response.getFailure());
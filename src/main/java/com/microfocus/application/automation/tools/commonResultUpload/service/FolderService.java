@@ -32,18 +32,69 @@ import com.microfocus.application.automation.tools.results.service.AlmRestTool;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Finds and creates folders and the entities inside them.
+ * A FolderService lives for one upload: folder trees and the entities found in them are read once
+ * and then looked up in memory. It is shared by the concurrent test set uploads of the upload.
+ */
 public class FolderService {
 
     private static final String FOLDER_SEPERATOR = "\\";
+    private static final int ID_QUERY_SIZE = 100;
     private RestService restService;
 
+    // Folders by prefix, parent id and name
+    private Map<String, Map<String, String>> folderCache = new HashMap<>();
+    // Sub folder ids by prefix and folder id, only for folders whose children were loaded
+    private Map<String, List<String>> subFolders = new HashMap<>();
+    // Entities of a folder tree by entity prefix, folder prefix, root folder id and fields
+    private Map<String, EntityIndex> entityIndexes = new HashMap<>();
+    // Entities created by the upload by entity prefix, in creation order
+    private Map<String, List<Map<String, String>>> createdEntities = new HashMap<>();
+    // Changes whenever a folder is created, folder listings read before it are not cached
+    private AtomicInteger folderVersion = new AtomicInteger();
+    // Locks of the find-or-create decisions by prefix, folder id and entity identity or folder name
+    private ConcurrentMap<String, Object> entityLocks = new ConcurrentHashMap<>();
+    // Guards the caches, shared with the services created by withRestService. It is only held while the
+    // caches are read or changed, never during a request to ALM.
+    private final Object lock;
+
     public FolderService(RestService restService) {
         this.restService = restService;
+        this.lock = new Object();
+    }
+
+    private FolderService(FolderService shared, RestService restService) {
+        this.restService = restService;
+        this.lock = shared.lock;
+        this.folderCache = shared.folderCache;
+        this.subFolders = shared.subFolders;
+        this.entityIndexes = shared.entityIndexes;
+        this.createdEntities = shared.createdEntities;
+        this.folderVersion = shared.folderVersion;
+        this.entityLocks = shared.entityLocks;
+    }
+
+    /**
+     * Get a service sharing the caches and locks of this one and sending its requests,
+     * and so its log, through the given rest service.
+     */
+    public FolderService withRestService(RestService restService) {
+        return restService == this.restService ? this : new FolderService(this, restService);
     }
 
     public Map<String, String> createOrFindPath(String prefix, String parentId, String path) {
@@ -65,23 +116,58 @@ public class FolderService {
     }
 
     public Map<String, String> createFolder(String prefix, String parentId, String folderName) {
-        Map<String, String> existsFolder = checkFolderExits(prefix, parentId, folderName);
-        if (existsFolder == null) {
-            existsFolder = new HashMap<>();
-            existsFolder.put(AlmCommonProperties.PARENT_ID, parentId);
-            existsFolder.put(AlmCommonProperties.NAME, folderName);
-            return restService.create(prefix, existsFolder);
-        } else {
+        String key = getKey(prefix, parentId, folderName);
+        // Concurrent uploads must not both create the folder, lookups of other folders go on
+        synchronized (entityLocks.computeIfAbsent(key, k -> new Object())) {
+            Map<String, String> existsFolder;
+            synchronized (lock) {
+                existsFolder = folderCache.get(key);
+            }
+            if (existsFolder != null) {
+                return existsFolder;
+            }
+
+            existsFolder = checkFolderExits(prefix, parentId, folderName);
+            if (existsFolder == null) {
+                existsFolder = new HashMap<>();
+                existsFolder.put(AlmCommonProperties.PARENT_ID, parentId);
+                existsFolder.put(AlmCommonProperties.NAME, folderName);
+                existsFolder = restService.create(prefix, existsFolder);
+                if (existsFolder != null) {
+                    folderCreated(prefix, parentId, existsFolder.get(AlmCommonProperties.ID));
+                }
+            }
+            if (existsFolder != null) {
+                synchronized (lock) {
+                    folderCache.put(key, existsFolder);
+                }
+            }
             return existsFolder;
         }
     }
 
+    private void folderCreated(String prefix, String parentId, String folderId) {
+        synchronized (lock) {
+            // Cached lists are read outside of the lock, they are replaced rather than changed
+            List<String> siblings = subFolders.get(getKey(prefix, parentId));
+            if (siblings != null) {
+                siblings = new ArrayList<>(siblings);
+                siblings.add(folderId);
+                subFolders.put(getKey(prefix, parentId), siblings);
+                subFolders.put(getKey(prefix, folderId), new ArrayList<String>());
+            }
+            // The folder trees of the indexes may have changed
+            entityIndexes.clear();
+            folderVersion.incrementAndGet();
+        }
+    }
+
     public Map<String, String> checkFolderExits(String prefix, String parentId, String folderName) {
         String query = String.format("fields=id,name&query={parent-id[%s];name[%s]}",
                 parentId,
                 AlmRestTool.getEncodedString(folderName));
         List<Map<String, String>> entities = restService.get(null, prefix, query);
-        if (entities.size() > 0) {
+        if (entities != null && entities.size() > 0) {
             return entities.get(0);
         } else {
             return null;
@@ -93,17 +179,82 @@ public class FolderService {
         return restService.get(null, prefix, query);
     }
 
+    /**
+     * Get the ids of a folder and all its sub folders, in depth first order.
+     * Sub folders are loaded level by level, with one query for many parents.
+     */
+    public List<String> getFolderTree(String prefix, String rootFolderId) {
+        // Sub folders of the tree, taken from the cache or loaded without holding the lock
+        Map<String, List<String>> tree = new HashMap<>();
+        List<String> level = new ArrayList<>();
+        level.add(rootFolderId);
+        while (!level.isEmpty()) {
+            List<String> nextLevel = new ArrayList<>();
+            for (List<String> chunk : chunks(level)) {
+                Map<String, List<String>> loaded = new LinkedHashMap<>();
+                int version;
+                synchronized (lock) {
+                    version = folderVersion.get();
+                    for (String folderId : chunk) {
+                        List<String> children = subFolders.get(getKey(prefix, folderId));
+                        if (children == null) {
+                            loaded.put(folderId, new ArrayList<String>());
+                        } else {
+                            tree.put(folderId, children);
+                            nextLevel.addAll(children);
+                        }
+                    }
+                }
+                if (loaded.isEmpty()) {
+                    continue;
+                }
+                String query = String.format("fields=id,name,parent-id&query={parent-id[%s]}",
+                        joinIds(new ArrayList<>(loaded.keySet())));
+                for (Map<String, String> folder : restService.getAll(prefix, query)) {
+                    List<String> children = loaded.get(folder.get(AlmCommonProperties.PARENT_ID));
+                    if (children != null) {
+                        children.add(folder.get(AlmCommonProperties.ID));
+                        nextLevel.add(folder.get(AlmCommonProperties.ID));
+                    }
+                }
+                tree.putAll(loaded);
+                synchronized (lock) {
+                    // Only complete listings are kept, and none read while a folder was created
+                    if (folderVersion.get() == version) {
+                        for (Map.Entry<String, List<String>> children : loaded.entrySet()) {
+                            subFolders.putIfAbsent(getKey(prefix, children.getKey()), children.getValue());
+                        }
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+
+        List<String> folderTree = new ArrayList<>();
+        addInDepthFirstOrder(folderTree, tree, rootFolderId);
+        return folderTree;
+    }
+
+    private static void addInDepthFirstOrder(List<String> folderTree, Map<String, List<String>> tree, String folderId) {
+        folderTree.add(folderId);
+        List<String> children = tree.get(folderId);
+        if (children != null) {
+            for (String child : children) {
+                addInDepthFirstOrder(folderTree, tree, child);
+            }
+        }
+    }
+
     public Map<String, String> findEntityInFolder(
             Map<String, String> testFolder,
             Map<String, String> test,
             String entityPrefix,
             String folderPrefix,
             String[] queryFields) {
-        List<Map<String, String>> foundTests = new ArrayList<>();
+        String folderId = testFolder.get(AlmCommonProperties.ID);
 
         // Make criteria fields.
-        test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID,
-                testFolder.get(AlmCommonProperties.ID));
+        test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID, folderId);
 
         if (test.get(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.ID) != null
                 && !test.get(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.ID).isEmpty()) {
@@ -113,33 +264,234 @@ public class FolderService {
                     test.get(AlmCommonProperties.NAME));
         }
 
-        findEntityInFolderAndSub(foundTests, test, entityPrefix, folderPrefix, queryFields);
-        return foundTests.size() > 0 ? foundTests.get(0) : null;
+        int version;
+        synchronized (lock) {
+            version = folderVersion.get();
+        }
+        List<String> folderTree = getFolderTree(folderPrefix, folderId);
+        Map<String, String> found = isNameCriteriaOnly(test)
+                ? findEntityByName(test, entityPrefix, folderPrefix, folderTree, queryFields, version)
+                : findEntityByCriteria(test, entityPrefix, folderTree, queryFields);
+
+        // Criteria are turned into fields, the parent is where the entity was found.
+        test.put(AlmCommonProperties.PARENT_ID, found != null
+                ? found.get(AlmCommonProperties.PARENT_ID)
+                : folderId);
+        return found != null ? new HashMap<>(found) : null;
     }
 
-    private void findEntityInFolderAndSub(List<Map<String, String>> foundTests,
-                                          Map<String, String> test, String entityPrefix,
-                                          String folderPrefix, String[] queryFields) {
-        List<Map<String, String>> existTests = restService.get(null,
-                entityPrefix, CriteriaTranslator.getCriteriaString(queryFields, test));
+    /**
+     * Get the lock to hold while finding an entity in a folder and creating it if not found, so that
+     * concurrent uploads do not both create it. Uploads of other entities are not blocked by it.
+     */
+    public Object getEntityLock(String entityPrefix, Map<String, String> folder, Map<String, String> entity) {
+        Map<String, String> identity = new TreeMap<>();
+        for (Map.Entry<String, String> field : entity.entrySet()) {
+            if (field.getKey().startsWith(CriteriaTranslator.CRITERIA_PREFIX)
+                    && !field.getKey().equals(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID)) {
+                identity.put(field.getKey(), field.getValue());
+            }
+        }
+        identity.put(AlmCommonProperties.NAME, String.valueOf(entity.get(AlmCommonProperties.NAME)).toLowerCase());
+        String folderId = folder != null ? folder.get(AlmCommonProperties.ID) : "";
+        return entityLocks.computeIfAbsent(getKey(entityPrefix, folderId, identity.toString()), key -> new Object());
+    }
 
-        if (existTests == null || existTests.size() == 0) {
-            // Not in current folder, find in sub folders
-            List<Map<String, String>> subFolders =
-                    getSubFolders(folderPrefix, test.get(AlmCommonProperties.PARENT_ID));
+    /**
+     * Register an entity created in a folder, so that it can be found by later lookups.
+     */
+    public void entityCreated(String entityPrefix, Map<String, String> entity) {
+        if (entity == null) {
+            return;
+        }
+        synchronized (lock) {
+            getCreatedEntities(entityPrefix).add(new HashMap<>(entity));
+            for (Map.Entry<String, EntityIndex> index : entityIndexes.entrySet()) {
+                if (index.getKey().startsWith(entityPrefix + "|")
+                        && index.getValue().folderIds.contains(entity.get(AlmCommonProperties.PARENT_ID))) {
+                    index.getValue().add(new HashMap<>(entity));
+                }
+            }
+        }
+    }
+
+    private List<Map<String, String>> getCreatedEntities(String entityPrefix) {
+        return createdEntities.computeIfAbsent(entityPrefix, prefix -> new ArrayList<Map<String, String>>());
+    }
 
-            if (subFolders != null) {
-                for (Map<String, String> subfolder : subFolders) {
-                    // Make criteria fields.
-                    test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID,
-                            subfolder.get(AlmCommonProperties.ID));
-                    test.put(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.NAME,
-                            test.get(AlmCommonProperties.NAME));
-                    findEntityInFolderAndSub(foundTests, test, entityPrefix, folderPrefix, queryFields);
+    private static boolean isNameCriteriaOnly(Map<String, String> test) {
+        for (String key : test.keySet()) {
+            if (key.startsWith(CriteriaTranslator.CRITERIA_PREFIX)
+                    && !key.equals(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID)
+                    && !key.equals(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.NAME)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param version the folder version the folder tree was read at, the index is not kept if folders were
+     *                created since
+     */
+    private Map<String, String> findEntityByName(Map<String, String> test, String entityPrefix, String folderPrefix,
+                                                 List<String> folderTree, String[] queryFields, int version) {
+        String rootFolderId = folderTree.get(0);
+        String[] fields = withParentId(queryFields);
+        String key = getKey(entityPrefix, folderPrefix, rootFolderId, String.join(",", fields));
+        EntityIndex index;
+        int created;
+        synchronized (lock) {
+            index = entityIndexes.get(key);
+            created = getCreatedEntities(entityPrefix).size();
+        }
+        if (index == null) {
+            // Loaded without holding the lock, concurrent lookups of other indexes go on
+            EntityIndex loaded = new EntityIndex(folderTree);
+            for (List<String> chunk : chunks(folderTree)) {
+                String query = String.format("fields=%s&query={parent-id[%s]}", String.join(",", fields), joinIds(chunk));
+                for (Map<String, String> entity : restService.getAll(entityPrefix, query)) {
+                    loaded.add(entity);
                 }
             }
-        } else {
-            foundTests.addAll(existTests);
+            synchronized (lock) {
+                // Entities created while the index was loaded may be missing from the listing
+                List<Map<String, String>> createdEntities = getCreatedEntities(entityPrefix);
+                for (Map<String, String> entity : createdEntities.subList(created, createdEntities.size())) {
+                    if (loaded.folderIds.contains(entity.get(AlmCommonProperties.PARENT_ID))
+                            && !loaded.contains(entity)) {
+                        loaded.add(new HashMap<>(entity));
+                    }
+                }
+                index = entityIndexes.get(key);
+                if (index == null) {
+                    index = loaded;
+                    if (folderVersion.get() == version) {
+                        entityIndexes.put(key, index);
+                    }
+                }
+            }
+        }
+
+        String name = test.remove(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.NAME);
+        test.remove(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID);
+        test.put(AlmCommonProperties.NAME, name);
+        synchronized (lock) {
+            return index.find(name);
+        }
+    }
+
+    private Map<String, String> findEntityByCriteria(Map<String, String> test, String entityPrefix,
+                                                     List<String> folderTree, String[] queryFields) {
+        test.remove(CriteriaTranslator.CRITERIA_PREFIX + AlmCommonProperties.PARENT_ID);
+        String criteria = CriteriaTranslator.getCriteriaString(withParentId(queryFields), test);
+
+        // Folders are queried in depth first order, the first folder with matches wins.
+        final Map<String, Integer> positions = getPositions(folderTree);
+        for (List<String> chunk : chunks(folderTree)) {
+            String query = criteria.replace("&query={",
+                    String.format("&query={parent-id[%s];", joinIds(chunk)));
+            List<Map<String, String>> existTests = restService.getAll(entityPrefix, query);
+            if (!existTests.isEmpty()) {
+                Collections.sort(existTests, new Comparator<Map<String, String>>() {
+                    @Override
+                    public int compare(Map<String, String> o1, Map<String, String> o2) {
+                        return Integer.compare(getPosition(positions, o1), getPosition(positions, o2));
+                    }
+                });
+                return existTests.get(0);
+            }
+        }
+        return null;
+    }
+
+    private static String[] withParentId(String[] queryFields) {
+        for (String field : queryFields) {
+            if (field.equals(AlmCommonProperties.PARENT_ID)) {
+                return queryFields;
+            }
+        }
+        String[] fields = new String[queryFields.length + 1];
+        System.arraycopy(queryFields, 0, fields, 0, queryFields.length);
+        fields[queryFields.length] = AlmCommonProperties.PARENT_ID;
+        return fields;
+    }
+
+    private static Map<String, Integer> getPositions(List<String> folderTree) {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < folderTree.size(); i++) {
+            positions.put(folderTree.get(i), i);
+        }
+        return positions;
+    }
+
+    private static int getPosition(Map<String, Integer> positions, Map<String, String> entity) {
+        Integer position = positions.get(entity.get(AlmCommonProperties.PARENT_ID));
+        return position != null ? position : Integer.MAX_VALUE;
+    }
+
+    private static List<List<String>> chunks(List<String> ids) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += ID_QUERY_SIZE) {
+            chunks.add(ids.subList(i, Math.min(i + ID_QUERY_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static String joinIds(List<String> ids) {
+        return String.join("%20OR%20", ids);
+    }
+
+    private static String getKey(String... parts) {
+        return String.join("|", parts);
+    }
+
+    /**
+     * Entities of a folder tree by lower case name. Entities of the same name are kept
+     * in the depth first order of their folders.
+     */
+    private static class EntityIndex {
+
+        private final Map<String, Integer> positions;
+        private final Set<String> folderIds;
+        private final Map<String, List<Map<String, String>>> entitiesByName = new HashMap<>();
+
+        EntityIndex(List<String> folderTree) {
+            positions = getPositions(folderTree);
+            folderIds = new HashSet<>(folderTree);
+        }
+
+        void add(Map<String, String> entity) {
+            String name = String.valueOf(entity.get(AlmCommonProperties.NAME)).toLowerCase();
+            List<Map<String, String>> entities = entitiesByName.get(name);
+            if (entities == null) {
+                entities = new ArrayList<>();
+                entitiesByName.put(name, entities);
+            }
+            int position = getPosition(positions, entity);
+            int i = entities.size();
+            while (i > 0 && getPosition(positions, entities.get(i - 1)) > position) {
+                i--;
+            }
+            entities.add(i, entity);
+        }
+
+        boolean contains(Map<String, String> entity) {
+            List<Map<String, String>> entities =
+                    entitiesByName.get(String.valueOf(entity.get(AlmCommonProperties.NAME)).toLowerCase());
+            if (entities != null) {
+                for (Map<String, String> indexed : entities) {
+                    if (String.valueOf(indexed.get(AlmCommonProperties.ID)).equals(entity.get(AlmCommonProperties.ID))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        Map<String, String> find(String name) {
+            List<Map<String, String>> entities = entitiesByName.get(String.valueOf(name).toLowerCase());
+            return entities != null ? entities.get(0) : null;
         }
     }
 }
@@ -46,6 +46,8 @@ import java.util.Map;
 
 public class RestService {
 
+    private static final int PAGE_SIZE = 1000;
+
     private RestClient restClient;
     private CreateAlmEntityEntityRequest createAlmEntityRequest;
     private GetAlmEntityRequest getAlmEntityRequest;
@@ -71,6 +73,27 @@ public class RestService {
         return getAlmEntityRequest.perform(id, restPrefix, queryString);
     }
 
+    /**
+     * Get all the entities matching the query, requesting them page by page.
+     * Fails if any page cannot be read rather than returning part of the entities.
+     */
+    public List<Map<String, String>> getAll(String restPrefix, String queryString) {
+        List<Map<String, String>> entities = new ArrayList<>();
+        int startIndex = 1;
+        while (true) {
+            List<Map<String, String>> page = get(null, restPrefix,
+                    String.format("%s&page-size=%d&start-index=%d", queryString, PAGE_SIZE, startIndex));
+            if (page == null) {
+                throw new SSEException(String.format("Failed to get %s starting at %d.", restPrefix, startIndex));
+            }
+            entities.addAll(page);
+            if (page.size() < PAGE_SIZE) {
+                return entities;
+            }
+            startIndex += PAGE_SIZE;
+        }
+    }
+
     public Map<String, String> update(String restPrefix, Map<String, String> valueMap) {
         udt.translate(restPrefix, valueMap);
         return updateAlmEntityRequest.perform(restPrefix, valueMap);
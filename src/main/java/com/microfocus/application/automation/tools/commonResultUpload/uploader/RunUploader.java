@@ -128,13 +128,13 @@ public class RunUploader {
                 }
             }
             if (StringUtils.isNotEmpty(attachment) && updateResult != null) {
-                AttachmentUploadService.getInstance().upload(attachment, RUN_PREFIX, updateResult.get("id"));
+                AttachmentUploadService.getInstance().upload(attachment, RUN_PREFIX, updateResult.get("id"), logger);
             }
 
         } else {
             Map<String, String> createdRun = restService.create(RUN_PREFIX, run);
             if (StringUtils.isNotEmpty(attachment)) {
-                AttachmentUploadService.getInstance().upload(attachment, RUN_PREFIX, createdRun.get("id"));
+                AttachmentUploadService.getInstance().upload(attachment, RUN_PREFIX, createdRun.get("id"), logger);
             }
         }
     }
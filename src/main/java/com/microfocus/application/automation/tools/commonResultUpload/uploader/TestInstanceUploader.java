@@ -81,7 +81,7 @@ public class TestInstanceUploader {
                 }
 
                 if (StringUtils.isNotEmpty(attachment)) {
-                    AttachmentUploadService.getInstance().upload(attachment, TEST_INSTANCE_PREFIX, testinstance.get("id"));
+                    AttachmentUploadService.getInstance().upload(attachment, TEST_INSTANCE_PREFIX, testinstance.get("id"), logger);
                 }
 
                 // Upload run
@@ -68,44 +68,46 @@ public class TestSetUploader {
         Map<String, String> folder = createOrFindTestsetFolder();
 
         for (XmlResultEntity xmlResultEntity : xmlResultEntities) {
-            Map<String, String> testset = xmlResultEntity.getValueMap();
-
-            // Find if there is test set with same name in the defined folder
-            Map<String, String> existTestset = folderService.findEntityInFolder(folder, testset,
-                    TEST_SET_REST_PREFIX, TEST_SET_FOLDERS_REST_PREFIX,
-                    new String[]{"id", "name", "subtype-id"});
-
-            uploadOrUpdateTestset(existTestset, testset, xmlResultEntity);
+            upload(folder, xmlResultEntity);
         }
     }
 
-    private boolean uploadOrUpdateTestset(Map<String, String> existTestset,
-                                          Map<String, String> testset, XmlResultEntity xmlResultEntity) {
+    /**
+     * Upload one test set into the test set folder.
+     */
+    public void upload(Map<String, String> folder, XmlResultEntity xmlResultEntity) {
+        Map<String, String> testset = xmlResultEntity.getValueMap();
         Map<String, String> newTestset;
         String attachemnt = null;
 
-        if (existTestset != null) {
-            // If yes, use the exist one to update.
-            newTestset = existTestset;
-        } else {
-            // If no, create test set under folder
-            attachemnt = testset.get("attachment");
-            testset.remove("attachment");
-            newTestset =  restService.create(TEST_SET_REST_PREFIX, testset);
+        // Concurrent uploads must not both create the same test set, uploads of other test sets go on
+        synchronized (folderService.getEntityLock(TEST_SET_REST_PREFIX, folder, testset)) {
+            // Find if there is test set with same name in the defined folder
+            Map<String, String> existTestset = folderService.findEntityInFolder(folder, testset,
+                    TEST_SET_REST_PREFIX, TEST_SET_FOLDERS_REST_PREFIX,
+                    new String[]{"id", "name", "subtype-id"});
+
+            if (existTestset != null) {
+                // If yes, use the exist one to update.
+                newTestset = existTestset;
+            } else {
+                // If no, create test set under folder
+                attachemnt = testset.get("attachment");
+                testset.remove("attachment");
+                newTestset =  restService.create(TEST_SET_REST_PREFIX, testset);
+                folderService.entityCreated(TEST_SET_REST_PREFIX, newTestset);
+            }
         }
 
-        if (newTestset == null) {
-            return false;
-        } else {
+        if (newTestset != null) {
             if (StringUtils.isNotEmpty(attachemnt)) {
-                AttachmentUploadService.getInstance().upload(attachemnt, TEST_SET_REST_PREFIX, newTestset.get("id"));
+                AttachmentUploadService.getInstance().upload(attachemnt, TEST_SET_REST_PREFIX, newTestset.get("id"), logger);
             }
             testuploader.upload(newTestset, xmlResultEntity.getSubEntities());
         }
-        return true;
     }
 
-    private Map<String, String> createOrFindTestsetFolder() {
+    public Map<String, String> createOrFindTestsetFolder() {
         if (!StringUtils.isEmpty(params.get(ALM_TESTSET_FOLDER))) {
             return folderService.createOrFindPath(
                     TEST_SET_FOLDERS_REST_PREFIX,
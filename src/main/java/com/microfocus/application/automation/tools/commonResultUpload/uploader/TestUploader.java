@@ -85,38 +85,7 @@ public class TestUploader {
             test.remove("attachment");
 
             if (!StringUtils.isEmpty(params.get(ALM_TEST_FOLDER))) {
-                // Create or find a exists folder
-                Map<String, String> folder = folderService.createOrFindPath(
-                        TEST_FOLDERS_REST_PREFIX, "2", params.get(ALM_TEST_FOLDER));
-                if (folder == null) {
-                    continue;
-                }
-
-                // Find exists test under folder
-                Map<String, String> existsTest = folderService.findEntityInFolder(folder, test,
-                        TEST_REST_PREFIX, TEST_FOLDERS_REST_PREFIX,
-                        new String[]{"id", "name", SUB_TYPE_ID, VC_VERSION_NUMBER});
-                if (existsTest != null) {
-                    // If exists, update the test.
-                    existsTest.putAll(test);
-                    newTest = restService.update(TEST_REST_PREFIX, existsTest);
-                } else {
-                    logger.log("Test not found by criteria:");
-                    for (Map.Entry<String, String> entry : test.entrySet()) {
-                        if (entry.getKey().equals("name") || entry.getKey().startsWith(CriteriaTranslator.CRITERIA_PREFIX)) {
-                            logger.log("----" + entry.getKey() + "=" + entry.getValue());
-                        }
-                    }
-
-                    // If not, create the test under the folder
-                    test.put(AlmCommonProperties.PARENT_ID, folder.get(AlmCommonProperties.ID));
-                    if (params.get(CREATE_NEW_TEST).equals("true")) {
-                        newTest = restService.create(TEST_REST_PREFIX, test);
-                    } else {
-                        newTest = null;
-                        logger.log("Test not found and not created: " + test.toString());
-                    }
-                }
+                newTest = findOrCreateTestInFolder(test);
             } else {
                 // If no path was specified, put test under root
                 test.put(AlmCommonProperties.PARENT_ID, "0");
@@ -139,6 +108,48 @@ public class TestUploader {
         }
     }
 
+    private Map<String, String> findOrCreateTestInFolder(Map<String, String> test) {
+        Map<String, String> newTest;
+        // Create or find a exists folder
+        Map<String, String> folder = folderService.createOrFindPath(
+                TEST_FOLDERS_REST_PREFIX, "2", params.get(ALM_TEST_FOLDER));
+        if (folder == null) {
+            return null;
+        }
+
+        Map<String, String> existsTest;
+        // Concurrent uploads must not both create the same test, uploads of other tests go on
+        synchronized (folderService.getEntityLock(TEST_REST_PREFIX, folder, test)) {
+            // Find exists test under folder
+            existsTest = folderService.findEntityInFolder(folder, test,
+                    TEST_REST_PREFIX, TEST_FOLDERS_REST_PREFIX,
+                    new String[]{"id", "name", SUB_TYPE_ID, VC_VERSION_NUMBER});
+            if (existsTest == null) {
+                logger.log("Test not found by criteria:");
+                for (Map.Entry<String, String> entry : test.entrySet()) {
+                    if (entry.getKey().equals("name") || entry.getKey().startsWith(CriteriaTranslator.CRITERIA_PREFIX)) {
+                        logger.log("----" + entry.getKey() + "=" + entry.getValue());
+                    }
+                }
+
+                // If not, create the test under the folder
+                test.put(AlmCommonProperties.PARENT_ID, folder.get(AlmCommonProperties.ID));
+                if (params.get(CREATE_NEW_TEST).equals("true")) {
+                    newTest = restService.create(TEST_REST_PREFIX, test);
+                    folderService.entityCreated(TEST_REST_PREFIX, newTest);
+                } else {
+                    newTest = null;
+                    logger.log("Test not found and not created: " + test.toString());
+                }
+                return newTest;
+            }
+        }
+
+        // If exists, update the test.
+        existsTest.putAll(test);
+        return restService.update(TEST_REST_PREFIX, existsTest);
+    }
+
     private void getVersionNumberForVC(Map<String, String> newTest) {
         // Some test type doesn't have version support
         for (String noVersionTest : NO_VERSION_TESTS) {
@@ -27,6 +27,7 @@
  */
 package com.microfocus.application.automation.tools.commonResultUpload.uploader;
 
+import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.commonResultUpload.CommonUploadLogger;
 import com.microfocus.application.automation.tools.commonResultUpload.service.CustomizationService;
 import com.microfocus.application.automation.tools.commonResultUpload.service.FolderService;
@@ -39,21 +40,34 @@ import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.
 import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.RunStatusMap;
 import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.XmlReader;
 import com.microfocus.application.automation.tools.commonResultUpload.xmlreader.model.XmlResultEntity;
+import com.microfocus.application.automation.tools.rest.EndpointStatistics;
 import com.microfocus.application.automation.tools.rest.RestClient;
 import com.microfocus.application.automation.tools.results.service.AlmRestTool;
 import com.microfocus.application.automation.tools.results.service.AttachmentUploadService;
+import com.microfocus.application.automation.tools.settings.RunnerMiscSettingsGlobalConfiguration;
 import com.microfocus.application.automation.tools.sse.sdk.authenticator.AuthenticationTool;
 import hudson.FilePath;
 import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import static com.microfocus.application.automation.tools.commonResultUpload.ParamConstant.*;
 
 public class Uploader {
 
+    private static final ConcurrentMap<String, Semaphore> SERVER_REQUEST_PERMITS = new ConcurrentHashMap<>();
+
     private RestClient restClient;
     private Map<String, String> params;
     private CommonUploadLogger logger;
@@ -73,10 +87,11 @@ public class Uploader {
     }
 
     public void upload() {
-        restClient = new RestClient(params.get(ALM_SERVER_URL),
+        restClient = RestClient.create(params.get(ALM_SERVER_URL),
                 params.get(ALM_DOMAIN),
                 params.get(ALM_PROJECT),
                 params.get(USERNAME));
+        restClient.setRequestPermits(getServerRequestPermits(params.get(ALM_SERVER_URL)));
 
         boolean login = AuthenticationTool.getInstance().authenticate(restClient,
                 params.get(USERNAME), params.get(PASS),
@@ -95,36 +110,135 @@ public class Uploader {
             if (xmlResultEntities == null || xmlResultEntities.size() == 0) {
                 return;
             }
-            TestSetUploader testSetUploader = getTestSetUploader();
-            if (testSetUploader == null) {
+            RunStatusMap runStatusMap = RunStatusMapLoader.load(params.get(RUN_STATUS_MAPPING), logger);
+            if (runStatusMap == null) {
                 return;
             }
             AlmRestTool almRestTool = new AlmRestTool(restClient, logger);
             params.put(ACTUAL_USER, almRestTool.getActualUsername());
-            testSetUploader.upload(xmlResultEntities);
+
+            int threads = getUploadThreads();
+            if (threads > 1 && xmlResultEntities.size() > 1) {
+                uploadConcurrently(xmlResultEntities, runStatusMap.getStatus(), threads);
+            } else {
+                getTestSetUploader(logger, runStatusMap.getStatus()).upload(xmlResultEntities);
+            }
+            logRequestStatistics();
         } else {
             logger.error("Login failed.");
         }
     }
 
+    /**
+     * The uploads to the same ALM server share a limit of concurrent requests,
+     * the limit is the maximum of pooled connections per ALM server.
+     */
+    private static Semaphore getServerRequestPermits(String serverUrl) {
+        int permits = RunnerMiscSettingsGlobalConfiguration.DEFAULT_ALM_MAX_CONNECTIONS_PER_ROUTE;
+        try {
+            permits = RunnerMiscSettingsGlobalConfiguration.getInstance().getAlmMaxConnectionsPerRoute();
+        } catch (NullPointerException | IllegalStateException ignored) {
+            // keep the default
+        }
+        final int maxRequests = permits;
+        return SERVER_REQUEST_PERMITS.computeIfAbsent(serverUrl + "#" + maxRequests,
+                key -> new Semaphore(maxRequests, true));
+    }
+
+    private void logRequestStatistics() {
+        logger.info("ALM requests:");
+        for (Map.Entry<String, EndpointStatistics> endpoint : restClient.getEndpointStatistics().entrySet()) {
+            logger.info(endpoint.getKey() + ": " + endpoint.getValue());
+        }
+    }
+
+    private int getUploadThreads() {
+        try {
+            return Math.max(1, Integer.parseInt(params.get(UPLOAD_THREADS)));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Upload the test sets with several workers. Each test set logs into its own buffer, the buffers
+     * are printed in the order of the test sets so the output does not depend on the scheduling.
+     * A failed test set does not stop the others, the first failure is thrown once all of them are done,
+     * as the upload in a single thread would.
+     */
+    private void uploadConcurrently(List<XmlResultEntity> xmlResultEntities,
+                                    final Map<String, String> runStatus, int threads) {
+        logger.info(String.format("Uploading %d test sets with %d threads.", xmlResultEntities.size(), threads));
+        final Map<String, String> folder = getTestSetUploader(logger, runStatus).createOrFindTestsetFolder();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, xmlResultEntities.size()),
+                new NamingThreadFactory(new DaemonThreadFactory(), Uploader.class.getSimpleName()));
+        List<CommonUploadLogger> testsetLoggers = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        Throwable failure = null;
+        try {
+            for (final XmlResultEntity xmlResultEntity : xmlResultEntities) {
+                final CommonUploadLogger testsetLogger = logger.createBuffered();
+                testsetLoggers.add(testsetLogger);
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        getTestSetUploader(testsetLogger, runStatus).upload(folder, xmlResultEntity);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    testsetLoggers.get(i).error("Test set upload failed: " + e.getCause());
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                }
+                testsetLoggers.get(i).flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Test set upload interrupted.");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw new SSEException(failure);
+        }
+    }
+
     private void init() {
         cs = new CustomizationService(restClient, logger);
         vs = new VersionControlService(restClient, logger);
         udt = new UDFTranslator(cs, logger);
         rs = new RestService(restClient, logger, udt);
         fs = new FolderService(rs);
-        AttachmentUploadService.init(run, workspace, restClient, logger);
+        AttachmentUploadService.init(run, workspace, restClient, logger, getUploadThreads());
     }
 
-    private TestSetUploader getTestSetUploader() {
-        RunStatusMap runStatusMap = RunStatusMapLoader.load(params.get(RUN_STATUS_MAPPING), logger);
-        if (runStatusMap == null) {
-            return null;
-        }
-        RunUploader runu = new RunUploader(logger, params, rs, cs, runStatusMap.getStatus());
-        TestInstanceUploader tiu = new TestInstanceUploader(logger, params, rs, runu, cs);
-        TestUploader testu = new TestUploader(logger, params, rs, fs, tiu, cs, vs);
-        return new TestSetUploader(logger, params, rs, fs, testu);
+    private TestSetUploader getTestSetUploader(CommonUploadLogger logger, Map<String, String> runStatus) {
+        // Services keep their state shared, but log into the given logger
+        CustomizationService customizationService = cs.withLogger(logger);
+        RestService restService = logger == this.logger
+                ? rs
+                : new RestService(restClient, logger, new UDFTranslator(customizationService, logger));
+        VersionControlService versionControlService = logger == this.logger
+                ? vs
+                : new VersionControlService(restClient, logger);
+        RunUploader runu = new RunUploader(logger, params, restService, customizationService, runStatus);
+        TestInstanceUploader tiu = new TestInstanceUploader(logger, params, restService, runu, customizationService);
+        FolderService folderService = fs.withRestService(restService);
+        TestUploader testu = new TestUploader(logger, params, restService, folderService, tiu, customizationService,
+                versionControlService);
+        return new TestSetUploader(logger, params, restService, folderService, testu);
     }
 
     private List<XmlResultEntity> getUploadData() {
@@ -28,25 +28,41 @@
 
 package com.microfocus.application.automation.tools.octane;
 
-import com.squareup.tape.FileObjectQueue;
+import com.squareup.tape.FileException;
+import com.squareup.tape.QueueFile;
 import net.sf.json.JSONObject;
 import net.sf.json.JSONSerializer;
 import org.apache.commons.io.IOUtils;
 
 import java.io.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Created by benmeior on 11/21/2016
  *
- * Base implementation of ResultQueue: backed up by FileObjectQueue, persisted
+ * Base implementation of ResultQueue: backed up by QueueFile, persisted
+ *
+ * Each element of the queue file is a versioned binary record holding one or more items, so a batch of items is
+ * committed to the file at once. Elements written as JSON by previous versions are still read.
  */
 
 public abstract class AbstractResultQueueImpl implements ResultQueue {
 
 	private static final int RETRIES = 3;
+	private static final byte FORMAT_VERSION = 1;
+	private static final byte LEGACY_JSON_START = '{';
 	private final int MAX_RETRIES;
 
-	private FileObjectQueue<QueueItem> queue;
+	private File queueFile;
+	private QueueFile queue;
+	private int size;
+
+	//items of the first element of the queue file that were not removed yet
+	private final ArrayDeque<QueueItem> head = new ArrayDeque<>();
 
 	private QueueItem currentItem;
 
@@ -59,13 +75,27 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	}
 
 	protected void init(File queueFile) throws IOException {
-		queue = new FileObjectQueue<>(queueFile, new JsonConverter());
+		this.queueFile = queueFile;
+		queue = new QueueFile(queueFile);
+		int[] count = new int[1];
+		queue.forEach((in, length) -> count[0] += countItems(new DataInputStream(in)));
+		size = count[0];
 	}
 
 	@Override
 	public synchronized QueueItem peekFirst() {
 		if (currentItem == null) {
-			currentItem = queue.peek();
+			try {
+				while (head.isEmpty() && queue.size() > 0) {
+					head.addAll(decode(queue.peek()));
+					if (head.isEmpty()) {
+						queue.remove();
+					}
+				}
+			} catch (IOException e) {
+				throw new FileException("Failed to peek.", e, queueFile);
+			}
+			currentItem = head.peekFirst();
 		}
 		return currentItem;
 	}
@@ -75,7 +105,7 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 		if (currentItem != null) {
 			boolean retry;
 			if (++currentItem.failCount <= MAX_RETRIES) {
-				queue.add(currentItem);
+				add(currentItem);
 				retry = true;
 			} else {
 				retry = false;
@@ -92,8 +122,16 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 	@Override
 	public synchronized void remove() {
 		if (currentItem != null) {
-			queue.remove();
+			head.pollFirst();
+			size--;
 			currentItem = null;
+			if (head.isEmpty()) {
+				try {
+					queue.remove();
+				} catch (IOException e) {
+					throw new FileException("Failed to remove.", e, queueFile);
+				}
+			}
 		} else {
 			throw new IllegalStateException("no outstanding item");
 		}
@@ -101,68 +139,152 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 
 	@Override
 	public synchronized void add(QueueItem item) {
-		queue.add(item);
+		add(Collections.singletonList(item));
+	}
+
+	@Override
+	public synchronized void add(Collection<QueueItem> items) {
+		if (items.isEmpty()) {
+			return;
+		}
+		try {
+			queue.add(encode(items));
+		} catch (IOException e) {
+			throw new FileException("Failed to add entry.", e, queueFile);
+		}
+		size += items.size();
 	}
 
 	@Override
 	public synchronized void add(String projectName, int buildNumber) {
-		queue.add(new QueueItem(projectName, buildNumber));
+		add(new QueueItem(projectName, buildNumber));
 	}
 
 	@Override
 	public synchronized void add(String projectName, String type, int buildNumber) {
-		queue.add(new QueueItem(projectName, type, buildNumber));
+		add(new QueueItem(projectName, type, buildNumber));
 	}
 
 	@Override
 	public synchronized void add(String projectName, int buildNumber, String workspace) {
-		queue.add(new QueueItem(projectName, buildNumber, workspace));
+		add(new QueueItem(projectName, buildNumber, workspace));
 	}
 
 	@Override
 	public synchronized void add(String instanceId, String projectName, int buildNumber, String workspace) {
 		QueueItem item = new QueueItem(projectName, buildNumber, workspace);
 		item.setInstanceId(instanceId);
-		queue.add(item);
+		add(item);
 	}
 
-	public int size() {
-		return queue.size();
+	public synchronized int size() {
+		return size;
 	}
 
 	@Override
 	public synchronized void clear() {
-		while (queue.size() > 0) {
-			queue.remove();
+		try {
+			queue.clear();
+		} catch (IOException e) {
+			throw new FileException("Failed to clear.", e, queueFile);
 		}
+		head.clear();
+		size = 0;
 		currentItem = null;
 	}
 
 	@Override
 	public void close() {
 		if (queue != null) {
-			queue.close();
+			try {
+				queue.close();
+			} catch (IOException e) {
+				throw new FileException("Failed to close.", e, queueFile);
+			}
 		}
 	}
 
-	private static class JsonConverter implements FileObjectQueue.Converter<QueueItem> {
+	static byte[] encode(Collection<QueueItem> items) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * items.size());
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(FORMAT_VERSION);
+		out.writeInt(items.size());
+		for (QueueItem item : items) {
+			writeString(out, item.projectName);
+			out.writeInt(item.buildNumber);
+			out.writeInt(item.failCount);
+			writeString(out, item.workspace);
+			writeString(out, item.type);
+			out.writeLong(item.sendAfter);
+			writeString(out, item.instanceId);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	static List<QueueItem> decode(byte[] bytes) throws IOException {
+		if (bytes.length > 0 && bytes[0] == LEGACY_JSON_START) {
+			return Collections.singletonList(JsonConverter.from(bytes));
+		}
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+		int count = readHeader(in);
+		List<QueueItem> items = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String projectName = readString(in);
+			int buildNumber = in.readInt();
+			int failCount = in.readInt();
+			QueueItem item = new QueueItem(projectName, buildNumber, failCount, readString(in));
+			item.setType(readString(in));
+			item.setSendAfter(in.readLong());
+			item.setInstanceId(readString(in));
+			items.add(item);
+		}
+		return items;
+	}
+
+	private static int countItems(DataInputStream in) throws IOException {
+		byte first = in.readByte();
+		if (first == LEGACY_JSON_START) {
+			return 1;
+		}
+		return readHeader(first, in);
+	}
+
+	private static int readHeader(DataInputStream in) throws IOException {
+		return readHeader(in.readByte(), in);
+	}
+
+	private static int readHeader(byte version, DataInputStream in) throws IOException {
+		if (version != FORMAT_VERSION) {
+			throw new IOException("unsupported queue item format version " + version);
+		}
+		return in.readInt();
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * Reads the items written as JSON by previous versions
+	 */
+	private static class JsonConverter {
 
 		public static final String INSTANCE_ID = "instanceId";
 
-		@Override
-		public QueueItem from(byte[] bytes) throws IOException {
+		private static QueueItem from(byte[] bytes) throws IOException {
 			JSONObject json = (JSONObject) JSONSerializer.toJSON(IOUtils.toString(new ByteArrayInputStream(bytes)));
 			return objectFromJson(json);
 		}
 
-		@Override
-		public void toStream(QueueItem item, OutputStream bytes) throws IOException {
-			JSONObject json = jsonFromObject(item);
-			OutputStreamWriter writer = new OutputStreamWriter(bytes);
-			writer.append(json.toString());
-			writer.close();
-		}
-
 		private static QueueItem objectFromJson(JSONObject json) {
 			QueueItem queueItem = json.containsKey("workspace") ?
 					new QueueItem(
@@ -185,17 +307,5 @@ public abstract class AbstractResultQueueImpl implements ResultQueue {
 			}
 			return queueItem;
 		}
-
-		private static JSONObject jsonFromObject(QueueItem item) {
-			JSONObject json = new JSONObject();
-			json.put("project", item.projectName);
-			json.put("build", item.buildNumber);
-			json.put("count", item.failCount);
-			json.put("workspace", item.workspace);
-			json.put("type", item.type);
-			json.put("sendAfter", item.sendAfter);
-            json.put(INSTANCE_ID, item.instanceId);
-			return json;
-		}
 	}
 }
@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.octane;
 
 import java.io.Serializable;
+import java.util.Collection;
 
 @SuppressWarnings("squid:S2039")
 public interface ResultQueue {
@@ -41,6 +42,11 @@ public interface ResultQueue {
 
 	void add(QueueItem item);
 
+	/**
+	 * Add items at once, they are committed to the queue file in one write
+	 */
+	void add(Collection<QueueItem> items);
+
 	void add(String projectName, int buildNumber);
 
 	void add(String projectName, String type, int buildNumber);
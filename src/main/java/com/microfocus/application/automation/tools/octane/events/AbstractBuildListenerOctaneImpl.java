@@ -113,7 +113,7 @@ public final class AbstractBuildListenerOctaneImpl extends RunListener<AbstractB
 
 	private void publishFinishEvent(AbstractBuild build) {
 		try {
-			boolean hasTests = testListener.processBuild(build);
+			boolean hasTests = testListener.enqueueBuild(build);
 			CIEvent event = dtoFactory.newDTO(CIEvent.class)
 					.setEventType(CIEventType.FINISHED)
 					.setProject(BuildHandlerUtils.getJobCiId(build))
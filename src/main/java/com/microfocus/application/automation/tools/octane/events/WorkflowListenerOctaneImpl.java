@@ -47,6 +47,8 @@ import com.microfocus.application.automation.tools.octane.tests.TestListener;
 import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
 import hudson.Extension;
 import hudson.model.Result;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
 import org.apache.logging.log4j.Logger;
 import org.jenkinsci.plugins.workflow.actions.TimingAction;
 import org.jenkinsci.plugins.workflow.actions.WarningAction;
@@ -56,6 +58,7 @@ import org.jenkinsci.plugins.workflow.flow.GraphListener;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
+import javax.annotation.Nonnull;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -156,7 +159,15 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
 
 	private void sendPipelineFinishedEvent(WorkflowRun parentRun) {
 		workflowJobStarted.remove(getBuildKey(parentRun));
-		boolean hasTests = testListener.processBuild(parentRun);
+		try {
+			publishPipelineFinishedEvent(parentRun);
+		} finally {
+			CIEventCausesFactory.clearCausesCache(parentRun);
+		}
+	}
+
+	private void publishPipelineFinishedEvent(WorkflowRun parentRun) {
+		boolean hasTests = testListener.enqueueBuild(parentRun);
 
 		CIEvent event = dtoFactory.newDTO(CIEvent.class)
 				.setEventType(CIEventType.FINISHED)
@@ -251,4 +262,20 @@ public class WorkflowListenerOctaneImpl implements GraphListener {
         }
 		return false;
     }
-}
\ No newline at end of file
+
+	/**
+	 * Drops the cached stage causes of pipelines that completed or were deleted without a FINISHED event being sent.
+	 */
+	@Extension
+	public static class CausesCacheListener extends RunListener<WorkflowRun> {
+		@Override
+		public void onCompleted(WorkflowRun run, @Nonnull TaskListener listener) {
+			CIEventCausesFactory.clearCausesCache(run);
+		}
+
+		@Override
+		public void onDeleted(WorkflowRun run) {
+			CIEventCausesFactory.clearCausesCache(run);
+		}
+	}
+}
@@ -46,13 +46,17 @@ import hudson.Extension;
 import hudson.model.AbstractBuild;
 import hudson.model.Job;
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import jenkins.model.Jenkins;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
 
 /**
  * This class is responsible to send discovered uft tests to Octane.
@@ -60,6 +64,9 @@ import java.util.concurrent.TimeUnit;
  * after connection is up - this dispatcher will send tests to Octane.
  * <p>
  * Actually list of discovered tests are persisted in job run directory. Queue contains only reference to that job run.
+ * <p>
+ * Each octane configuration has a queue of its own, dispatched in parallel with the others and postponed on its own
+ * when its octane is down.
  */
 @Extension
 public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWork {
@@ -67,9 +74,23 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
     private static final Logger logger = SDKBasedLoggerProvider.getLogger(UftTestDiscoveryDispatcher.class);
 
     private static final int MAX_DISPATCH_TRIALS = 5;
+    private static final int DEFAULT_THREADS = 4;
+    private static final long MIN_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(30);
 
     private UftTestDiscoveryQueue queue;
 
+    //queue key -> queue of the octane configuration
+    private final Map<String, UftTestDiscoveryQueue> instanceQueues = new ConcurrentHashMap<>();
+    //keys of the queues being dispatched
+    private final Set<String> dispatching = ConcurrentHashMap.newKeySet();
+    //queue key -> time the queue is dispatched again after its octane was found down, and the delay that was used
+    private final Map<String, Long> retryAfter = new ConcurrentHashMap<>();
+    private final Map<String, Long> retryDelays = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+    private volatile boolean persistedQueuesLoaded = false;
+
     private volatile boolean stopped = false;
 
     public UftTestDiscoveryDispatcher() {
@@ -107,7 +128,8 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             return;
         }
 
-        if (queue.peekFirst() == null) {
+        loadPersistedQueues();
+        if (queue.peekFirst() == null && instanceQueues.values().stream().allMatch(q -> q.peekFirst() == null)) {
             return;
         }
 
@@ -116,32 +138,71 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             return;
         }
 
+        //results queued by previous versions are moved to the queue of their configuration
+        dispatch(queue);
+
+        //each configuration queue is dispatched by its own task, so a down octane only delays its own results
+        long now = System.currentTimeMillis();
+        for (UftTestDiscoveryQueue instanceQueue : instanceQueues.values()) {
+            String key = instanceQueue.getKey();
+            Long retryAt = retryAfter.get(key);
+            if (instanceQueue.peekFirst() == null || (retryAt != null && retryAt > now) || !dispatching.add(key)) {
+                continue;
+            }
+            try {
+                getExecutor().execute(() -> {
+                    try {
+                        dispatch(instanceQueue);
+                    } finally {
+                        dispatching.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                dispatching.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Dispatch the items of a queue in order, until the queue is empty or its octane is found down
+     */
+    private void dispatch(UftTestDiscoveryQueue discoveryQueue) {
         ResultQueue.QueueItem item = null;
         try {
-            while ((item = queue.peekFirst()) != null) {
-                if (queueContainsPostponedItems(item)) {
-                    //all postponed items are in the end of queue, so it we encountered one postponed item, other postponed items will come after it, so we do break
-                    break;
-                }
-
+            while (!stopped && (item = discoveryQueue.peekFirst()) != null) {
                 Job project = (Job) Jenkins.get().getItemByFullName(item.getProjectName());
                 if (project == null) {
                     logger.warn("Project [" + item.getProjectName() + "] no longer exists, pending discovered tests can't be submitted");
-                    queue.remove();
+                    discoveryQueue.remove();
                     continue;
                 }
 
                 AbstractBuild build = (AbstractBuild) project.getBuildByNumber(item.getBuildNumber());
                 if (build == null) {
                     logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer exists, pending discovered tests can't be submitted");
-                    queue.remove();
+                    discoveryQueue.remove();
                     continue;
                 }
 
                 UftTestDiscoveryResult result = UFTTestDetectionService.readDetectionResults(build);
                 if (result == null) {
                     logger.warn("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] no longer contains valid detection result file");
-                    queue.remove();
+                    discoveryQueue.remove();
+                    continue;
+                }
+
+                if (discoveryQueue.getKey().isEmpty()) {
+                    //item of the default queue, move it to the queue of its configuration
+                    String instanceId = SdkStringUtils.isNotEmpty(item.getInstanceId()) ? item.getInstanceId() : result.getConfigurationId();
+                    if (SdkStringUtils.isEmpty(instanceId)) {
+                        logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have a configuration, pending discovered tests can't be submitted");
+                        discoveryQueue.remove();
+                        continue;
+                    }
+                    item.setInstanceId(instanceId);
+                    item.setSendAfter(0);
+                    getInstanceQueue(instanceId).add(item);
+                    discoveryQueue.remove();
                     continue;
                 }
 
@@ -150,23 +211,24 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
                     client = OctaneSDK.getClientByInstanceId(result.getConfigurationId());
                 } catch (Exception e) {
                     logger.error("Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] does not have valid configuration " + result.getConfigurationId() + " : " + e.getMessage());
-                    queue.remove();
+                    discoveryQueue.remove();
                     continue;
                 }
 
                 if (!client.getConfigurationService().isConnected()) {
+                    long delay = postpone(discoveryQueue.getKey());
                     logger.info(client.getConfigurationService().getConfiguration().getLocationForLog() +
-                            " - Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] - octane is down , postponing sending UFT tests ");
-                    //if octane is down - put current item to the end of queue and try wth other items (that might be from another octane)
-                    item.setSendAfter(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1));
-                    queue.remove();
-                    queue.add(item);
-                    continue;
+                            " - Build [" + item.getProjectName() + "#" + item.getBuildNumber() + "] - octane is down , postponing sending UFT tests by " +
+                            TimeUnit.MILLISECONDS.toSeconds(delay) + " seconds");
+                    //results of other octane configurations are dispatched by their own queues
+                    return;
                 }
 
                 logger.warn("Persistence [" + item.getProjectName() + "#" + item.getBuildNumber() + "]");
                 dispatchDetectionResults(item, client.getEntitiesService(), result, build);
-                queue.remove();
+                discoveryQueue.remove();
+                retryAfter.remove(discoveryQueue.getKey());
+                retryDelays.remove(discoveryQueue.getKey());
             }
         } catch (OctaneRestException e) {
             String reasonDesc = StringUtils.isNotEmpty(e.getData().getDescriptionTranslated()) ? e.getData().getDescriptionTranslated() : e.getData().getDescription();
@@ -175,30 +237,79 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
             } else {
                 logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  : " + reasonDesc);
             }
-            queue.remove();
+            discoveryQueue.remove();
         } catch (Exception e) {
             if (item != null) {
                 item.incrementFailCount();
                 if (item.incrementFailCount() > MAX_DISPATCH_TRIALS) {
-                    queue.remove();
+                    discoveryQueue.remove();
                     logger.error("Failed to  persist discovery of [" + item.getProjectName() + "#" + item.getBuildNumber() + "]  after " + MAX_DISPATCH_TRIALS + " trials");
                 }
             }
         }
     }
 
-    private boolean queueContainsPostponedItems(ResultQueue.QueueItem queueItem) {
-        if (queueItem.getSendAfter() > 0 && queueItem.getSendAfter() > System.currentTimeMillis()) {
-            //all postponed items are in the end of queue, so it we encountered one postponed item, other postponed items will come after it, so we do break
-            return true;
+    /**
+     * Postpone dispatching of a configuration queue, the delay doubles on each consecutive failure
+     *
+     * @return the delay in ms
+     */
+    private long postpone(String key) {
+        long delay = retryDelays.merge(key, MIN_RETRY_DELAY, (previous, min) -> Math.min(previous * 2, MAX_RETRY_DELAY));
+        retryAfter.put(key, System.currentTimeMillis() + delay);
+        return delay;
+    }
+
+    private UftTestDiscoveryQueue getInstanceQueue(String instanceId) {
+        return instanceQueues.computeIfAbsent(UftTestDiscoveryQueue.toKey(instanceId), key -> {
+            try {
+                return new UftTestDiscoveryQueue(key);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to create UFT discovery queue of " + instanceId, e);
+            }
+        });
+    }
+
+    /**
+     * Open the configuration queues left from before restart
+     */
+    private void loadPersistedQueues() {
+        if (persistedQueuesLoaded) {
+            return;
         }
-        return false;
+        persistedQueuesLoaded = true;
+        for (String key : UftTestDiscoveryQueue.findPersistedKeys()) {
+            try {
+                getInstanceQueue(key);
+            } catch (IllegalStateException e) {
+                logger.error("Failed to open UFT discovery queue " + key + " : " + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = DEFAULT_THREADS;
+            String value = System.getProperty("UftTestDiscoveryDispatcher.Threads");
+            if (!SdkStringUtils.isEmpty(value)) {
+                threads = Math.max(1, Integer.parseInt(value.trim()));
+            }
+            executor = Executors.newFixedThreadPool(threads,
+                    new NamingThreadFactory(new DaemonThreadFactory(), UftTestDiscoveryDispatcher.class.getSimpleName()));
+        }
+        return executor;
     }
 
     public void close() {
-        logger.info("stopping the UFT dispatcher and closing its queue");
+        logger.info("stopping the UFT dispatcher and closing its queues");
         stopped = true;
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
         queue.close();
+        instanceQueues.values().forEach(UftTestDiscoveryQueue::close);
     }
 
     @Override
@@ -222,7 +333,11 @@ public class UftTestDiscoveryDispatcher extends AbstractSafeLoggingAsyncPeriodWo
      * @param buildNumber build number
      */
     public void enqueueResult(String instanceId, String projectName, int buildNumber, String workspace) {
-        queue.add(instanceId, projectName, buildNumber, workspace);
+        if (SdkStringUtils.isEmpty(instanceId)) {
+            queue.add(instanceId, projectName, buildNumber, workspace);
+        } else {
+            getInstanceQueue(instanceId).add(instanceId, projectName, buildNumber, workspace);
+        }
     }
 
 }
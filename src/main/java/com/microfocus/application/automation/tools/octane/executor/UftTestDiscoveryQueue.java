@@ -33,14 +33,62 @@ import jenkins.model.Jenkins;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Queue for uft test discovery before dispatching
+ * Queue for uft test discovery before dispatching.
+ * Discovery results of each Octane configuration are kept in a queue of their own, so results for an unreachable
+ * Octane server don't hold back the results for the others. The default queue holds the results queued by previous
+ * versions, they are moved to the queue of their configuration when dispatched.
  */
 public class UftTestDiscoveryQueue extends AbstractResultQueueImpl {
 
+    private static final String QUEUE_FILE_PREFIX = "octane-uft-tests-queue";
+    private static final String QUEUE_FILE_SUFFIX = ".dat";
+
+    private final String key;
+
     public UftTestDiscoveryQueue() throws IOException {
-        File queueFile = new File(Jenkins.getInstanceOrNull().getRootDir(), "octane-uft-tests-queue.dat");
+        this("");
+    }
+
+    UftTestDiscoveryQueue(String key) throws IOException {
+        this.key = key;
+        File queueFile = new File(Jenkins.getInstanceOrNull().getRootDir(), key.isEmpty() ?
+                QUEUE_FILE_PREFIX + QUEUE_FILE_SUFFIX :
+                QUEUE_FILE_PREFIX + "-" + key + QUEUE_FILE_SUFFIX);
         init(queueFile);
     }
+
+    /**
+     * @return key of the Octane configuration this queue is for, empty for the default queue
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * @param instanceId Octane configuration id
+     * @return key of the queue of the configuration, usable in a file name
+     */
+    static String toKey(String instanceId) {
+        return instanceId.replaceAll("[^a-zA-Z0-9_-]", "_");
+    }
+
+    /**
+     * @return keys of the configuration queues persisted in the Jenkins root dir
+     */
+    static List<String> findPersistedKeys() {
+        List<String> keys = new ArrayList<>();
+        File[] files = Jenkins.getInstanceOrNull().getRootDir().listFiles((dir, name) ->
+                name.startsWith(QUEUE_FILE_PREFIX + "-") && name.endsWith(QUEUE_FILE_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                keys.add(name.substring(QUEUE_FILE_PREFIX.length() + 1, name.length() - QUEUE_FILE_SUFFIX.length()));
+            }
+        }
+        return keys;
+    }
 }
@@ -49,9 +49,11 @@ import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Causes Factory is a collection of static stateless methods to extract/traverse/transform causes chains of the runs
+ * Causes Factory is a collection of static methods to extract/traverse/transform causes chains of the runs
+ * (flow node causes of running pipelines are cached per run)
  * User: gullery
  * Date: 20/10/14
  */
@@ -59,6 +61,8 @@ import java.util.*;
 public final class CIEventCausesFactory {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(CIEventCausesFactory.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
+	//  flow node causes of running workflow runs, per run id and node id
+	private static final Map<String, Map<String, FlowNodeCauses>> flowCausesCache = new ConcurrentHashMap<>();
 
 	private CIEventCausesFactory() {
 	}
@@ -126,12 +130,41 @@ public final class CIEventCausesFactory {
 	}
 
 	public static List<CIEventCause> processCauses(FlowNode flowNode) {
+		WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
+		Map<String, FlowNodeCauses> runCache;
+		if (parentRun.isBuilding() && !flowNode.getExecution().isComplete()) {
+			runCache = flowCausesCache.computeIfAbsent(parentRun.getExternalizableId(), id -> new ConcurrentHashMap<>());
+		} else {
+			runCache = new HashMap<>();
+		}
 		List<CIEventCause> causes = new LinkedList<>();
-		processCauses(flowNode, causes, new LinkedHashSet<>());
+		processCauses(flowNode, causes, new LinkedHashSet<>(), runCache);
 		return causes;
 	}
 
-	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes, Set<FlowNode> startStagesToSkip) {
+	/**
+	 * Drop the flow node causes cached for the run, to be called once the run is completed or deleted
+	 *
+	 * @param run workflow run
+	 */
+	public static void clearCausesCache(Run<?, ?> run) {
+		flowCausesCache.remove(run.getExternalizableId());
+	}
+
+	//  the walk appends the causes of a node and updates the stages to skip; both outcomes depend only on the node's ancestors
+	//  (which do not change) and on the stages to skip on entry, so they are recorded once per node and stages to skip
+	//  and replayed when the same node is reached again, e.g. through the shared ancestors of parallel branches
+	private static void processCauses(FlowNode flowNode, List<CIEventCause> causes, Set<String> startStagesToSkip, Map<String, FlowNodeCauses> cache) {
+		String cacheKey = startStagesToSkip.isEmpty() ? flowNode.getId() : flowNode.getId() + "|" + String.join(",", new TreeSet<>(startStagesToSkip));
+		FlowNodeCauses cached = cache.get(cacheKey);
+		if (cached != null) {
+			causes.addAll(cached.causes);
+			startStagesToSkip.clear();
+			startStagesToSkip.addAll(cached.startStagesToSkip);
+			return;
+		}
+
+		List<CIEventCause> nodeCauses = new LinkedList<>();
 		//  we reached the start of the flow - add WorkflowRun as an initial UPSTREAM cause
 		if (flowNode.getParents().isEmpty()) {
 			WorkflowRun parentRun = BuildHandlerUtils.extractParentRun(flowNode);
@@ -140,34 +173,37 @@ public final class CIEventCausesFactory {
 					.setProject(BuildHandlerUtils.getJobCiId(parentRun))
 					.setBuildCiId(BuildHandlerUtils.getBuildCiId(parentRun))
 					.setCauses(CIEventCausesFactory.processCauses((parentRun)));
-			causes.add(cause);
+			nodeCauses.add(cause);
 		}
 
 		//  if we are calculating causes for the END STEP - exclude it's own START STEP from calculation
 		if (BuildHandlerUtils.isStageEndNode(flowNode)) {
-			startStagesToSkip.add(((StepEndNode) flowNode).getStartNode());
+			startStagesToSkip.add(((StepEndNode) flowNode).getStartNode().getId());
 		}
 
 		for (FlowNode parent : flowNode.getParents()) {
 			if (BuildHandlerUtils.isStageEndNode(parent)) {
-				startStagesToSkip.add(((StepEndNode) parent).getStartNode());
-				processCauses(parent, causes, startStagesToSkip);
+				startStagesToSkip.add(((StepEndNode) parent).getStartNode().getId());
+				processCauses(parent, nodeCauses, startStagesToSkip, cache);
 			} else if (BuildHandlerUtils.isStageStartNode(parent)) {
-				if (!startStagesToSkip.contains(parent)) {
+				if (!startStagesToSkip.contains(parent.getId())) {
 					CIEventCause cause = dtoFactory.newDTO(CIEventCause.class)
 							.setType(CIEventCauseType.UPSTREAM)
 							.setProject(parent.getDisplayName())
 							.setBuildCiId(String.valueOf(BuildHandlerUtils.extractParentRun(parent).getNumber()));
-					causes.add(cause);
-					processCauses(parent, cause.getCauses(), startStagesToSkip);
+					nodeCauses.add(cause);
+					processCauses(parent, cause.getCauses(), startStagesToSkip, cache);
 				} else {
-					startStagesToSkip.remove(parent);
-					processCauses(parent, causes, startStagesToSkip);
+					startStagesToSkip.remove(parent.getId());
+					processCauses(parent, nodeCauses, startStagesToSkip, cache);
 				}
 			} else {
-				processCauses(parent, causes, startStagesToSkip);
+				processCauses(parent, nodeCauses, startStagesToSkip, cache);
 			}
 		}
+
+		cache.put(cacheKey, new FlowNodeCauses(nodeCauses, startStagesToSkip));
+		causes.addAll(nodeCauses);
 	}
 
 	private static String resolveJobCiId(String jobPlainName) {
@@ -223,4 +259,14 @@ public final class CIEventCausesFactory {
 			this.parentFlowNodeId = parentFlowNodeId;
 		}
 	}
+
+	private final static class FlowNodeCauses {
+		private final List<CIEventCause> causes;
+		private final Set<String> startStagesToSkip;
+
+		private FlowNodeCauses(List<CIEventCause> causes, Set<String> startStagesToSkip) {
+			this.causes = causes;
+			this.startStagesToSkip = new HashSet<>(startStagesToSkip);
+		}
+	}
 }
@@ -199,29 +199,46 @@ public abstract class AbstractProjectProcessor<T extends Job> {
 				});
 			}
 
-			job.getBuilds().forEach(build -> {
-				if (!foundInfo.found) {
-					Run aBuild = (Run) build;
-					aBuild.getActions(ParametersAction.class).forEach(action -> {
-						if (checkIfParamExistAndEqual(action, paramName, paramValue)) {
-							if (aBuild.isBuilding()) {
-								status.setBuildStatus(CIBuildStatus.RUNNING);
-							} else {
-								status.setBuildStatus(CIBuildStatus.FINISHED);
-								status.setResult(BuildHandlerUtils.translateRunResult(aBuild));
-							}
-							status.setAllBuildParams(ParameterProcessors.getInstances(aBuild));
-							status.setBuildCiId(BuildHandlerUtils.getBuildCiId(aBuild));
-							foundInfo.found = true;
-						}
-					});
+			if (!foundInfo.found && SdkStringUtils.isNotEmpty(paramValue)) {
+				Run aBuild = findBuildByParameter(paramName, paramValue);
+				if (aBuild != null) {
+					if (aBuild.isBuilding()) {
+						status.setBuildStatus(CIBuildStatus.RUNNING);
+					} else {
+						status.setBuildStatus(CIBuildStatus.FINISHED);
+						status.setResult(BuildHandlerUtils.translateRunResult(aBuild));
+					}
+					status.setAllBuildParams(ParameterProcessors.getInstances(aBuild));
+					status.setBuildCiId(BuildHandlerUtils.getBuildCiId(aBuild));
 				}
-			});
+			}
 		}
 
 		return status;
 	}
 
+	/**
+	 * Finds the newest build that ran with the given parameter value through the {@link BuildParameterIndex} of the job,
+	 * so the build history is not loaded. The index is rebuilt if it points to a build that does not hold the value.
+	 */
+	private Run findBuildByParameter(String paramName, String paramValue) {
+		BuildParameterIndex index = BuildParameterIndex.get(job);
+		for (int attempt = 0; attempt < 2; attempt++) {
+			Integer buildNumber = index.findBuildNumber(job, paramName, paramValue);
+			if (buildNumber == null) {
+				return null;
+			}
+			Run<?, ?> aBuild = job.getBuildByNumber(buildNumber);
+			if (aBuild != null && aBuild.getActions(ParametersAction.class).stream()
+					.anyMatch(action -> checkIfParamExistAndEqual(action, paramName, paramValue))) {
+				return aBuild;
+			}
+			logger.info("build parameter index of " + job.getFullName() + " is out of date, rebuilding it");
+			index.rebuild(job);
+		}
+		return null;
+	}
+
 	private String getParameterValueIfExist(ParametersAction parametersAction, String paramName) {
 		ParameterValue pv = parametersAction.getParameter(paramName);
 		if (pv != null) {
@@ -0,0 +1,286 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.projects;
+
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.ParameterValue;
+import hudson.model.ParametersAction;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Index of the string parameter values of the builds of a job, used to find the newest build that ran with a given
+ * parameter value without loading the build history.
+ * <p>
+ * The index keeps the numbers of all the builds that ran with a value, so deleting the newest of them falls back to
+ * the next one. It is built once out of the existing builds, then kept up to date by a {@link RunListener} as builds
+ * start and are deleted. It is persisted in the job folder so it survives a restart. The loaded indexes are dropped
+ * by an {@link ItemListener} when their job is deleted or renamed.
+ */
+public final class BuildParameterIndex {
+
+	private static final Logger logger = SDKBasedLoggerProvider.getLogger(BuildParameterIndex.class);
+	private static final String INDEX_FILE_NAME = "octaneBuildParameterIndex.xml";
+	private static final Map<String, BuildParameterIndex> indexes = new HashMap<>();
+
+	// persisted state
+	private int lastIndexedBuild;
+	private Map<String, Map<String, TreeSet<Integer>>> builds = new HashMap<>();
+
+	private BuildParameterIndex() {
+	}
+
+	/**
+	 * Gets the index of the given job, loading it from the job folder the first time.
+	 *
+	 * @param job the job
+	 * @return the index
+	 */
+	public static BuildParameterIndex get(Job<?, ?> job) {
+		synchronized (indexes) {
+			BuildParameterIndex index = indexes.get(job.getFullName());
+			if (index == null) {
+				index = new BuildParameterIndex();
+				index.load(job);
+				indexes.put(job.getFullName(), index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Gets the index of the given job only if one was built before.
+	 */
+	private static BuildParameterIndex getIfExists(Job<?, ?> job) {
+		synchronized (indexes) {
+			BuildParameterIndex index = indexes.get(job.getFullName());
+			if (index == null && new File(job.getRootDir(), INDEX_FILE_NAME).exists()) {
+				index = get(job);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Drops the loaded indexes of the given item and of the items below it.
+	 *
+	 * @param fullName the full name of a job or folder
+	 */
+	static void forget(String fullName) {
+		synchronized (indexes) {
+			Iterator<String> names = indexes.keySet().iterator();
+			while (names.hasNext()) {
+				String name = names.next();
+				if (name.equals(fullName) || name.startsWith(fullName + "/")) {
+					names.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the newest build that ran with the given parameter value.
+	 *
+	 * @param job        the job of the index
+	 * @param paramName  the parameter name
+	 * @param paramValue the parameter value
+	 * @return the build number, or null if no indexed build ran with this value
+	 */
+	public synchronized Integer findBuildNumber(Job<?, ?> job, String paramName, String paramValue) {
+		if (refresh(job)) {
+			save(job);
+		}
+		Map<String, TreeSet<Integer>> values = builds.get(paramName);
+		TreeSet<Integer> buildNumbers = values == null ? null : values.get(paramValue);
+		return buildNumbers == null || buildNumbers.isEmpty() ? null : buildNumbers.last();
+	}
+
+	/**
+	 * Drops the index and builds it again out of the existing builds, e.g. when it points to a build that does not
+	 * hold the indexed value anymore.
+	 *
+	 * @param job the job of the index
+	 */
+	public synchronized void rebuild(Job<?, ?> job) {
+		lastIndexedBuild = 0;
+		builds = new HashMap<>();
+		refresh(job);
+		save(job);
+	}
+
+	/**
+	 * Indexes the builds newer than the last indexed one, newest first.
+	 * The first refresh of a job visits all of its builds, the next ones only the builds started since.
+	 */
+	private boolean refresh(Job<?, ?> job) {
+		Run<?, ?> lastBuild = job.getLastBuild();
+		if (lastBuild == null || lastBuild.getNumber() <= lastIndexedBuild) {
+			return false;
+		}
+
+		Run<?, ?> run = lastBuild;
+		while (run != null && run.getNumber() > lastIndexedBuild) {
+			index(run);
+			run = run.getPreviousBuild();
+		}
+		lastIndexedBuild = lastBuild.getNumber();
+		return true;
+	}
+
+	private boolean index(Run<?, ?> run) {
+		boolean changed = false;
+		for (ParametersAction action : run.getActions(ParametersAction.class)) {
+			for (ParameterValue parameterValue : action.getParameters()) {
+				Object value = parameterValue.getValue();
+				if (!(value instanceof String) || ((String) value).isEmpty()) {
+					continue;
+				}
+				changed |= builds.computeIfAbsent(parameterValue.getName(), name -> new HashMap<>())
+						.computeIfAbsent((String) value, v -> new TreeSet<>())
+						.add(run.getNumber());
+			}
+		}
+		return changed;
+	}
+
+	synchronized void add(Run<?, ?> run) {
+		boolean changed = index(run);
+		if (run.getNumber() == lastIndexedBuild + 1) {
+			lastIndexedBuild = run.getNumber();
+			changed = true;
+		}
+		if (changed) {
+			save(run.getParent());
+		}
+	}
+
+	synchronized void evict(Run<?, ?> run) {
+		boolean changed = false;
+		Iterator<Map<String, TreeSet<Integer>>> params = builds.values().iterator();
+		while (params.hasNext()) {
+			Map<String, TreeSet<Integer>> values = params.next();
+			Iterator<TreeSet<Integer>> buildNumbers = values.values().iterator();
+			while (buildNumbers.hasNext()) {
+				TreeSet<Integer> valueBuilds = buildNumbers.next();
+				changed |= valueBuilds.remove(run.getNumber());
+				if (valueBuilds.isEmpty()) {
+					buildNumbers.remove();
+				}
+			}
+			if (values.isEmpty()) {
+				params.remove();
+			}
+		}
+		if (changed) {
+			save(run.getParent());
+		}
+	}
+
+	private static XmlFile getIndexFile(Job<?, ?> job) {
+		return new XmlFile(Items.XSTREAM2, new File(job.getRootDir(), INDEX_FILE_NAME));
+	}
+
+	private void load(Job<?, ?> job) {
+		XmlFile indexFile = getIndexFile(job);
+		if (!indexFile.exists()) {
+			return;
+		}
+		try {
+			indexFile.unmarshal(this);
+			if (builds == null) {
+				builds = new HashMap<>();
+			}
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Failed to load the build parameter index of " + job.getFullName() + ", rebuilding it", e);
+			lastIndexedBuild = 0;
+			builds = new HashMap<>();
+		}
+	}
+
+	private void save(Job<?, ?> job) {
+		try {
+			getIndexFile(job).write(this);
+		} catch (IOException e) {
+			logger.warn("Failed to save the build parameter index of " + job.getFullName(), e);
+		}
+	}
+
+	/**
+	 * Keeps the indexes of the jobs up to date as builds start and are deleted.
+	 */
+	@Extension
+	public static class BuildParameterIndexListener extends RunListener<Run<?, ?>> {
+		@Override
+		public void onStarted(Run<?, ?> run, TaskListener listener) {
+			BuildParameterIndex index = getIfExists(run.getParent());
+			if (index != null) {
+				index.add(run);
+			}
+		}
+
+		@Override
+		public void onDeleted(Run<?, ?> run) {
+			BuildParameterIndex index = getIfExists(run.getParent());
+			if (index != null) {
+				index.evict(run);
+			}
+		}
+	}
+
+	/**
+	 * Drops the loaded indexes of deleted and renamed jobs, a renamed job loads its index again from its new folder.
+	 */
+	@Extension
+	public static class JobLocationListener extends ItemListener {
+		@Override
+		public void onDeleted(Item item) {
+			forget(item.getFullName());
+		}
+
+		@Override
+		public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+			forget(oldFullName);
+		}
+	}
+}
@@ -48,7 +48,9 @@ import hudson.remoting.VirtualChannel;
 import hudson.scm.ChangeLogSet;
 import hudson.scm.SCM;
 import hudson.tasks.Mailer;
+import hudson.util.DaemonThreadFactory;
 import hudson.util.DescribableList;
+import hudson.util.NamingThreadFactory;
 import jenkins.MasterToSlaveFileCallable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.reflect.FieldUtils;
@@ -62,10 +64,13 @@ import org.eclipse.jgit.errors.NoMergeBaseException;
 import org.eclipse.jgit.internal.JGitText;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
@@ -73,6 +78,10 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Created by gullery on 31/03/2015.
@@ -82,6 +91,18 @@ class GitSCMProcessor implements SCMProcessor {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(GitSCMProcessor.class);
 	private static final DTOFactory dtoFactory = DTOFactory.getInstance();
 	private static final String MASTER = "refs/remotes/origin/master";
+	private static final int BLAME_THREADS = Integer.getInteger(GitSCMProcessor.class.getName() + ".blameThreads", 4);
+	private static final int BLAME_CACHE_SIZE = 5000;
+	// files bigger than this are treated as binary by the line enricher, no line ranges are computed for them
+	private static final int MAX_DIFF_FILE_SIZE = Integer.getInteger(GitSCMProcessor.class.getName() + ".maxDiffFileSize", 5 * 1024 * 1024);
+
+	//  repository dir, file path and blob id at HEAD -> blame of the file, kept on the node running the line enricher
+	private static final Map<String, RevisionsMap> blameCache = Collections.synchronizedMap(new LinkedHashMap<String, RevisionsMap>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, RevisionsMap> eldest) {
+			return size() > BLAME_CACHE_SIZE;
+		}
+	});
 
 	@Override
 	public SCMData getSCMData(AbstractBuild build, SCM scm) {
@@ -105,7 +126,7 @@ class GitSCMProcessor implements SCMProcessor {
 		try {
 			FilePath workspace = build.getWorkspace();
 			if (workspace != null) {
-				scmData = workspace.act(new LineEnricherCallable(getCheckoutDir(build), scmData));
+				scmData = workspace.act(new LineEnricherCallable(getCheckoutDir(build), scmData, BLAME_THREADS));
 				logger.debug("Line enricher: process took: " + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
 			} else {
 				logger.warn("Line enricher: workspace is null");
@@ -350,10 +371,12 @@ class GitSCMProcessor implements SCMProcessor {
 	private static final class LineEnricherCallable extends MasterToSlaveFileCallable<SCMData> {
 		private final String checkoutDir;
 		private final SCMData scmData;
+		private final int blameThreads;
 
-		private LineEnricherCallable(String checkoutDir, SCMData scmData) {
+		private LineEnricherCallable(String checkoutDir, SCMData scmData, int blameThreads) {
 			this.checkoutDir = checkoutDir;
 			this.scmData = scmData;
+			this.blameThreads = blameThreads;
 		}
 
 		@Override
@@ -365,50 +388,70 @@ class GitSCMProcessor implements SCMProcessor {
 					return null;
 				}
 
-				try (RevWalk rw = new RevWalk(repo);
+				// one reader for the whole commit range, so trees and blobs shared by consecutive commits are read once
+				try (ObjectReader reader = repo.newObjectReader();
+				     RevWalk rw = new RevWalk(reader);
 				     DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+					df.setReader(reader, repo.getConfig());
 					df.setDiffComparator(RawTextComparator.DEFAULT);
-					df.setRepository(repo);
 					df.setDetectRenames(true);
+					df.setBinaryFileThreshold(MAX_DIFF_FILE_SIZE);
 
 					//add blame data to scm data
 					Set<String> committedFiles = getAddedOrEditedFiles(scmData);
-					List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles);
+					List<SCMFileBlame> fileBlameList = getBlameData(repo, committedFiles, blameThreads);
 					scmData.setFileBlameList(fileBlameList);
 
 					for (SCMCommit curCommit : scmData.getCommits()) {
 						Map<String, SCMChange> fileChanges = new HashMap<>();
-						curCommit.getChanges().forEach(change -> fileChanges.put(change.getFile(), change));
+						curCommit.getChanges().stream()
+								.filter(change -> StringUtils.isNotEmpty(change.getFile()))
+								.forEach(change -> fileChanges.put(change.getFile(), change));
+						if (fileChanges.isEmpty()) {
+							continue;
+						}
 						RevCommit commit = rw.parseCommit(repo.resolve(curCommit.getRevId())); // Any ref will work here (HEAD, a sha1, tag, branch)
 						RevCommit parent = rw.parseCommit(commit.getParent(0).getId());
 
+						// only walk the paths reported in the commit changes, both sides of a rename are among them
+						df.setPathFilter(PathFilterGroup.createFromStrings(fileChanges.keySet()));
 						List<DiffEntry> diffs = df.scan(parent.getTree(), commit.getTree());
 						// FOR EACH FILE
 						for (DiffEntry diff : diffs) { // each file change will be in seperate diff
-							EditList fileEdits = df.toFileHeader(diff).toEditList();
 							switch (diff.getChangeType()) {
 								case ADD:
 									// old path == null, need to use new path
-									handleAddLinesDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+									SCMChange addedChange = fileChanges.get(diff.getNewPath());
+									if (addedChange != null) {
+										handleAddLinesDiff(df.toFileHeader(diff).toEditList(), addedChange);
+									}
 									break;
 								case COPY:
-									// need to validate this type
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+								case MODIFY:
+									// copy - need to validate this type
+									SCMChange modifiedChange = fileChanges.get(diff.getNewPath());
+									if (modifiedChange != null) {
+										handleModifyDiff(df.toFileHeader(diff).toEditList(), modifiedChange);
+									}
 									break;
 								case DELETE:
 									// new path == null, need to use old path
-									handleDeleteLinesDiff(fileEdits, fileChanges.get(diff.getOldPath()));
-									break;
-								case MODIFY:
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+									SCMChange removedChange = fileChanges.get(diff.getOldPath());
+									if (removedChange != null) {
+										handleDeleteLinesDiff(df.toFileHeader(diff).toEditList(), removedChange);
+									}
 									break;
 								case RENAME:
 									// enrich delete event with 'rename to' data
 									SCMChange deletedChange = fileChanges.get(diff.getOldPath());
 									SCMChange newRenamedFile = fileChanges.get(diff.getNewPath());
-									deletedChange.setRenamedToFile(newRenamedFile.getFile());
+									if (deletedChange != null && newRenamedFile != null) {
+										deletedChange.setRenamedToFile(newRenamedFile.getFile());
+									}
 									// handle changes
-									handleModifyDiff(fileEdits, fileChanges.get(diff.getNewPath()));
+									if (newRenamedFile != null) {
+										handleModifyDiff(df.toFileHeader(diff).toEditList(), newRenamedFile);
+									}
 									break;
 								default:
 									break;
@@ -429,47 +472,119 @@ class GitSCMProcessor implements SCMProcessor {
 		return filesCommittedInPPR;
 	}
 
-	private static List<SCMFileBlame> getBlameData(Repository repo, Set<String> files) {
-		BlameCommand blamer = new BlameCommand(repo);
+	/**
+	 * Blames the given files at HEAD. Files are blamed in parallel by up to {@code threads} threads, and files whose
+	 * content at HEAD was already blamed on this node (same repository, path and blob id) reuse the previous result.
+	 */
+	private static List<SCMFileBlame> getBlameData(Repository repo, Set<String> files, int threads) {
+		long startTime = System.currentTimeMillis();
 		List<SCMFileBlame> fileBlameList = new ArrayList<>();
 		ObjectId commitID;
-		try {
+		RevCommit headCommit;
+		try (RevWalk rw = new RevWalk(repo)) {
 			commitID = repo.resolve(Constants.HEAD);
-			for (String filePath : files) {
-				blamer.setStartCommit(commitID);
-				blamer.setFilePath(filePath);
-				BlameResult blameResult = blamer.call();
-				if (blameResult == null) {
+			if (commitID == null) {
+				logger.error("failed to resolve repo head");
+				return fileBlameList;
+			}
+			headCommit = rw.parseCommit(commitID);
+		} catch (IOException e) {
+			logger.error("failed to resolve repo head", e);
+			return fileBlameList;
+		}
+
+		String repoKey = repo.getDirectory().getAbsolutePath() + File.pathSeparator;
+		Map<String, RevisionsMap> blamed = new LinkedHashMap<>();
+		Map<String, String> cacheKeys = new HashMap<>();
+		int cacheHits = 0;
+		for (String filePath : files) {
+			try (TreeWalk treeWalk = TreeWalk.forPath(repo, filePath, headCommit.getTree())) {
+				if (treeWalk == null) {
+					// not in HEAD, nothing to blame
 					continue;
 				}
-				RawText rawText = blameResult.getResultContents();
-				int fileSize = rawText.size();
-
-				RevisionsMap revisionsMap = new RevisionsMap();
-
-				if (fileSize > 0) {
-					String startRangeRevision = blameResult.getSourceCommit(0).getName();
-					int startRange = 1;
-					for (int i = 1; i < fileSize; i++) {
-						String currentRevision = blameResult.getSourceCommit(i).getName();
-						if (!currentRevision.equals(startRangeRevision)) {
-							LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
-							revisionsMap.addRangeToRevision(startRangeRevision, range);
-							startRange = i + 1;
-							startRangeRevision = currentRevision;
+				String cacheKey = repoKey + filePath + File.pathSeparator + treeWalk.getObjectId(0).getName();
+				RevisionsMap revisionsMap = blameCache.get(cacheKey);
+				if (revisionsMap != null) {
+					cacheHits++;
+				} else {
+					cacheKeys.put(filePath, cacheKey);
+				}
+				blamed.put(filePath, revisionsMap);
+			} catch (IOException e) {
+				logger.error("failed to resolve " + filePath + " in repo head", e);
+			}
+		}
+
+		if (!cacheKeys.isEmpty()) {
+			ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, cacheKeys.size())),
+					new NamingThreadFactory(new DaemonThreadFactory(), GitSCMProcessor.class.getSimpleName() + "-blame"));
+			try {
+				Map<String, Future<RevisionsMap>> futures = new HashMap<>();
+				for (String filePath : cacheKeys.keySet()) {
+					futures.put(filePath, executor.submit(() -> blame(repo, commitID, filePath)));
+				}
+				for (Map.Entry<String, Future<RevisionsMap>> future : futures.entrySet()) {
+					String filePath = future.getKey();
+					try {
+						RevisionsMap revisionsMap = future.getValue().get();
+						if (revisionsMap != null) {
+							blameCache.put(cacheKeys.get(filePath), revisionsMap);
 						}
+						blamed.put(filePath, revisionsMap);
+					} catch (ExecutionException e) {
+						logger.error("failed to get blame result from git for " + filePath, e.getCause());
+						blamed.remove(filePath);
 					}
 				}
-				fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
+			} catch (InterruptedException e) {
+				logger.error("interrupted while waiting for blame results from git", e);
+				Thread.currentThread().interrupt();
+				return fileBlameList;
+			} finally {
+				executor.shutdownNow();
 			}
-		} catch (IOException e) {
-			logger.error("failed to resolve repo head", e);
-		} catch (GitAPIException e) {
-			logger.error("failed to get blame result from git", e);
 		}
+
+		blamed.forEach((filePath, revisionsMap) -> {
+			if (revisionsMap != null) {
+				fileBlameList.add(new SCMFileBlameImpl(filePath, revisionsMap));
+			}
+		});
+		logger.info("Line enricher: blamed " + fileBlameList.size() + " files (" + cacheHits + " from cache) in "
+				+ (System.currentTimeMillis() - startTime) + " ms");
 		return fileBlameList;
 	}
 
+	private static RevisionsMap blame(Repository repo, ObjectId commitID, String filePath) throws GitAPIException {
+		BlameCommand blamer = new BlameCommand(repo);
+		blamer.setStartCommit(commitID);
+		blamer.setFilePath(filePath);
+		BlameResult blameResult = blamer.call();
+		if (blameResult == null) {
+			return null;
+		}
+		RawText rawText = blameResult.getResultContents();
+		int fileSize = rawText.size();
+
+		RevisionsMap revisionsMap = new RevisionsMap();
+
+		if (fileSize > 0) {
+			String startRangeRevision = blameResult.getSourceCommit(0).getName();
+			int startRange = 1;
+			for (int i = 1; i < fileSize; i++) {
+				String currentRevision = blameResult.getSourceCommit(i).getName();
+				if (!currentRevision.equals(startRangeRevision)) {
+					LineRange range = new LineRange(startRange, i);//line numbers starting from 1 not from 0.
+					revisionsMap.addRangeToRevision(startRangeRevision, range);
+					startRange = i + 1;
+					startRangeRevision = currentRevision;
+				}
+			}
+		}
+		return revisionsMap;
+	}
+
 	private static void handleModifyDiff(EditList fileEdits, SCMChange scmChange) {
 		if (scmChange != null) {
 			for (Edit edit : fileEdits) {
@@ -43,6 +43,14 @@ public abstract class OctaneTestsExtension implements ExtensionPoint {
 
 	public abstract boolean supports(Run<?, ?> build) throws IOException, InterruptedException;
 
+	/**
+	 * Whether the finished build is expected to have test results, checked before its reports are parsed.
+	 * By default any supported build is, extensions override it to leave out builds they support without holding
+	 * their own reports.
+	 */
+	public boolean expectsTestResults(Run<?, ?> build) throws IOException, InterruptedException {
+		return supports(build);
+	}
 
 	public abstract TestResultContainer getTestResults(Run<?, ?> build, String jenkinsRootUrl) throws IOException, InterruptedException, TestProcessingException;
 
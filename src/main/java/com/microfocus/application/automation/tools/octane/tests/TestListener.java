@@ -51,7 +51,56 @@ public class TestListener {
 	public static final String TEST_RESULT_FILE = "mqmTests.xml";
 
 
+	/**
+	 * Queue the test results of a finished run for background processing by {@link TestResultDispatcher}.
+	 * Test results are expected as soon as a test extension expects them for the run, before its reports are parsed;
+	 * if the processing then finds no tests, an empty test result is pushed so Octane does not wait for them
+	 *
+	 * @param run finished run
+	 * @return true if test results are expected for the run, they are pushed to Octane once processed
+	 */
+	public boolean enqueueBuild(Run run) {
+		if (!isTestResultExpected(run)) {
+			return false;
+		}
+		try {
+			Jenkins.get().getExtensionList(TestResultDispatcher.class).get(0).enqueue(run);
+			return true;
+		} catch (Exception e) {
+			logger.error("failed to enqueue " + run + " for test results processing, processing it now", e);
+			return processBuild(run);
+		}
+	}
+
+	private boolean isTestResultExpected(Run run) {
+		for (OctaneTestsExtension ext : OctaneTestsExtension.all()) {
+			try {
+				if (ext.expectsTestResults(run)) {
+					return true;
+				}
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (Exception e) {
+				logger.error("failed to check test results support of " + run, e);
+			}
+		}
+		return false;
+	}
+
 	public boolean processBuild(Run run) {
+		return processBuild(run, false);
+	}
+
+	/**
+	 * Process the test results of the run and push them to Octane
+	 *
+	 * @param run                 finished run
+	 * @param testResultAnnounced true if the FINISHED event of the run already told Octane to expect test results,
+	 *                            then an empty test result is pushed when no tests are found
+	 * @return true if tests were found and pushed
+	 */
+	public boolean processBuild(Run run, boolean testResultAnnounced) {
 		FilePath resultPath = new FilePath(new FilePath(run.getRootDir()), TEST_RESULT_FILE);
 		TestResultXmlWriter resultWriter = new TestResultXmlWriter(resultPath, run);
 		boolean success = true;
@@ -78,13 +127,9 @@ public class TestListener {
 				// we don't push individual maven module results (although we create the file for future use)
 				if (!"hudson.maven.MavenBuild".equals(run.getClass().getName())) {
 					if (success && hasTests) {
-						String projectFullName = BuildHandlerUtils.getJobCiId(run);
-						String parents = BuildHandlerUtils.getRootJobCiIds(run);
-						logger.info("enqueued build '" + projectFullName + " #" + run.getNumber() + "' for test result submission");
-						if (projectFullName != null) {
-							OctaneSDK.getClients().forEach(octaneClient ->
-									octaneClient.getTestsService().enqueuePushTestsResult(projectFullName, String.valueOf(run.getNumber()), parents));
-						}
+						pushTestResults(run);
+					} else if (testResultAnnounced) {
+						pushNoTestResults(run, resultPath);
 					}
 				}
 			} catch (XMLStreamException xmlse) {
@@ -94,4 +139,26 @@ public class TestListener {
 		}
 		return success && hasTests;
 	}
+
+	private void pushNoTestResults(Run run, FilePath resultPath) {
+		TestResultXmlWriter resultWriter = new TestResultXmlWriter(resultPath, run);
+		try {
+			resultWriter.writeNoResults();
+			resultWriter.close();
+		} catch (Exception e) {
+			logger.error("failed to write empty test results of " + run, e);
+			return;
+		}
+		pushTestResults(run);
+	}
+
+	private void pushTestResults(Run run) {
+		String projectFullName = BuildHandlerUtils.getJobCiId(run);
+		String parents = BuildHandlerUtils.getRootJobCiIds(run);
+		logger.info("enqueued build '" + projectFullName + " #" + run.getNumber() + "' for test result submission");
+		if (projectFullName != null) {
+			OctaneSDK.getClients().forEach(octaneClient ->
+					octaneClient.getTestsService().enqueuePushTestsResult(projectFullName, String.valueOf(run.getNumber()), parents));
+		}
+	}
 }
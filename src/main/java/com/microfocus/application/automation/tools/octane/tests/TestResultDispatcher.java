@@ -0,0 +1,283 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.google.inject.Inject;
+import com.hp.octane.integrations.utils.SdkStringUtils;
+import com.microfocus.application.automation.tools.octane.ResultQueue;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import hudson.Extension;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is responsible to process test results of finished runs (junitResult.xml->mqmTests.xml) in the background,
+ * so the build completion thread is not blocked by parsing large reports.
+ * Class uses file-based queue so runs that were not processed before Jenkins went down are processed after restart.
+ * Processing is done by a bounded pool, runs that do not fit in the pool are picked up by the periodic work.
+ */
+@Extension
+public class TestResultDispatcher extends AbstractSafeLoggingAsyncPeriodWork {
+
+    private static final Logger logger = SDKBasedLoggerProvider.getLogger(TestResultDispatcher.class);
+
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_CAPACITY = 100;
+
+    private TestResultQueue queue;
+    private ThreadPoolExecutor executor;
+
+    //runs submitted to the pool and the time they were submitted at
+    private final Map<String, Long> inProgress = new ConcurrentHashMap<>();
+    //runs that were processed but are still in the file queue, behind a run that is still in progress
+    private final Set<String> processed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    private volatile boolean stopped = false;
+
+    public TestResultDispatcher() {
+        super("Octane Test Result Dispatcher");
+    }
+
+    @Inject
+    public void setTestResultQueue(TestResultQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Queue test results of a finished run for processing
+     *
+     * @param run finished run
+     */
+    public void enqueue(Run run) {
+        enqueue(new ResultQueue.QueueItem(run.getParent().getFullName(), run.getNumber()));
+    }
+
+    void enqueue(ResultQueue.QueueItem item) {
+        queue.add(item);
+        submit(item);
+    }
+
+    @Override
+    protected void doExecute(TaskListener listener) {
+        if (stopped) {
+            return;
+        }
+
+        //rotate the queue: drop processed runs, resubmit runs that are not in progress (rejected by a full pool or left from before restart)
+        synchronized (queue) {
+            int size = queue.size();
+            List<ResultQueue.QueueItem> pending = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ResultQueue.QueueItem item = queue.peekFirst();
+                if (item == null) {
+                    break;
+                }
+                queue.remove();
+                if (!processed.remove(getKey(item))) {
+                    submit(item);
+                    pending.add(item);
+                }
+            }
+            //written back in one batch
+            queue.add(pending);
+        }
+
+        if (queue.size() > 0) {
+            logger.info(String.format("test results processing: %d queued, %d in progress, %d processed, average latency %d ms, max latency %d ms",
+                    queue.size(), getInProgressCount(), getProcessedCount(), getAverageLatency(), getMaxLatency()));
+        }
+    }
+
+    private void submit(ResultQueue.QueueItem item) {
+        String key = getKey(item);
+        if (stopped || inProgress.putIfAbsent(key, System.currentTimeMillis()) != null) {
+            return;
+        }
+        try {
+            getExecutor().execute(() -> process(item, key));
+        } catch (RejectedExecutionException e) {
+            //stays in the file queue, the periodic work will submit it again
+            inProgress.remove(key);
+            logger.info("test results processing pool is full, " + key + " will be processed later");
+        }
+    }
+
+    private void process(ResultQueue.QueueItem item, String key) {
+        try {
+            processItem(item, key);
+        } catch (Throwable t) {
+            logger.error("failed to process test results of " + key, t);
+        } finally {
+            Long submitted = inProgress.get(key);
+            if (submitted != null) {
+                long latency = System.currentTimeMillis() - submitted;
+                processedCount.incrementAndGet();
+                totalLatency.addAndGet(latency);
+                maxLatency.accumulateAndGet(latency, Math::max);
+            }
+            //under the queue lock, so the rotation can't see the run as neither processed nor in progress and submit it again
+            synchronized (queue) {
+                processed.add(key);
+                inProgress.remove(key);
+                if (!stopped) {
+                    removeProcessedHead();
+                }
+            }
+        }
+    }
+
+    void processItem(ResultQueue.QueueItem item, String key) {
+        Run run = getRun(item);
+        if (run != null) {
+            //the FINISHED event of a queued run already announced its test results
+            Jenkins.get().getExtensionList(TestListener.class).get(0).processBuild(run, true);
+        } else {
+            logger.warn("Build [" + key + "] no longer exists, its test results can't be processed");
+        }
+    }
+
+    private void removeProcessedHead() {
+        synchronized (queue) {
+            ResultQueue.QueueItem item;
+            while ((item = queue.peekFirst()) != null && processed.remove(getKey(item))) {
+                queue.remove();
+            }
+        }
+    }
+
+    private static Run getRun(ResultQueue.QueueItem item) {
+        Job job = Jenkins.get().getItemByFullName(item.getProjectName(), Job.class);
+        return job == null ? null : job.getBuildByNumber(item.getBuildNumber());
+    }
+
+    private static String getKey(ResultQueue.QueueItem item) {
+        return item.getProjectName() + " #" + item.getBuildNumber();
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            int threads = getIntProperty("TestResultDispatcher.Threads", DEFAULT_THREADS);
+            executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(getIntProperty("TestResultDispatcher.Capacity", DEFAULT_CAPACITY)),
+                    new NamingThreadFactory(new DaemonThreadFactory(), TestResultDispatcher.class.getSimpleName()));
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        if (!SdkStringUtils.isEmpty(value)) {
+            try {
+                return Math.max(1, Integer.parseInt(value.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Illegal value of " + name + " : " + value);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Wait until all the queued test results are processed
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if nothing is left to process
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (!inProgress.isEmpty() || queue.size() > processed.size()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(100);
+        }
+        return true;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getInProgressCount() {
+        return inProgress.size();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * @return average time in ms from queueing test results of a run till they are processed
+     */
+    public long getAverageLatency() {
+        long count = processedCount.get();
+        return count == 0 ? 0 : totalLatency.get() / count;
+    }
+
+    public long getMaxLatency() {
+        return maxLatency.get();
+    }
+
+    public void close() {
+        logger.info("stopping the test result dispatcher and closing its queue");
+        stopped = true;
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        queue.close();
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        String value = System.getProperty("TestResultDispatcher.Period"); // let's us config the recurrence period. default is 10 seconds.
+        if (!SdkStringUtils.isEmpty(value)) {
+            return Long.parseLong(value);
+        }
+        return TimeUnit.SECONDS.toMillis(10);
+    }
+}
@@ -50,6 +50,7 @@ import org.jenkinsci.plugins.workflow.actions.WorkspaceAction;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
 import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
 import org.jenkinsci.plugins.workflow.flow.FlowExecution;
+import org.jenkinsci.plugins.workflow.graph.BlockStartNode;
 import org.jenkinsci.plugins.workflow.graph.FlowEndNode;
 import org.jenkinsci.plugins.workflow.graph.FlowGraphWalker;
 import org.jenkinsci.plugins.workflow.graph.FlowNode;
@@ -58,9 +59,7 @@ import org.jenkinsci.plugins.workflow.job.WorkflowRun;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Generic utilities handling Job/Run metadata extraction/transformation/processing
@@ -69,6 +68,15 @@ import java.util.Set;
 public class BuildHandlerUtils {
 	private static final Logger logger = SDKBasedLoggerProvider.getLogger(BuildHandlerUtils.class);
 	public static final String JOB_LEVEL_SEPARATOR = "/job/";
+	private static final int WORKSPACE_CACHE_SIZE = 200;
+
+	//  completed WorkflowRun id -> id of the flow node holding its workspace ("" if there is none), least recently used are dropped
+	private static final Map<String, String> workspaceNodeIds = Collections.synchronizedMap(new LinkedHashMap<String, String>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > WORKSPACE_CACHE_SIZE;
+		}
+	});
 
 	public static BuildDescriptor getBuildType(Run<?, ?> run) {
 		for (BuildHandlerExtension ext : BuildHandlerExtension.all()) {
@@ -102,23 +110,74 @@ public class BuildHandlerUtils {
 			return ((AbstractBuild) run).getWorkspace();
 		}
 		if (run instanceof WorkflowRun) {
-			FlowExecution fe = ((WorkflowRun) run).getExecution();
-			if (fe != null) {
-				FlowGraphWalker w = new FlowGraphWalker(fe);
-				for (FlowNode n : w) {
-					WorkspaceAction action = n.getAction(WorkspaceAction.class);
+			WorkspaceAction action = findWorkspaceAction((WorkflowRun) run);
+			if (action != null) {
+				FilePath workspace = action.getWorkspace();
+				if (workspace == null) {
+					workspace = handleWorkspaceActionWithoutWorkspace(action);
+				}
+				return workspace;
+			}
+		}
+
+		logger.error("BuildHandlerUtils.getWorkspace - run is not handled. Run type : " + run.getClass());
+		return null;
+	}
+
+	private static WorkspaceAction findWorkspaceAction(WorkflowRun run) {
+		FlowExecution fe = run.getExecution();
+		if (fe == null) {
+			return null;
+		}
+
+		//  completed run - the flow graph won't change anymore, reuse the node found by the previous lookup
+		boolean completed = !run.isBuilding();
+		String runId = run.getExternalizableId();
+		if (completed) {
+			String nodeId = workspaceNodeIds.get(runId);
+			if (nodeId != null) {
+				if (nodeId.isEmpty()) {
+					return null;
+				}
+				try {
+					FlowNode node = fe.getNode(nodeId);
+					WorkspaceAction action = node != null ? node.getAction(WorkspaceAction.class) : null;
+					if (action != null) {
+						return action;
+					}
+				} catch (IOException ioe) {
+					logger.warn("failed to load flow node " + nodeId + " of " + run + " : " + ioe.getMessage());
+				}
+			}
+		} else {
+			//  running pipeline - the workspace of the node block enclosing a current head
+			for (FlowNode head : fe.getCurrentHeads()) {
+				WorkspaceAction action = head.getAction(WorkspaceAction.class);
+				if (action != null) {
+					return action;
+				}
+				for (BlockStartNode block : head.iterateEnclosingBlocks()) {
+					action = block.getAction(WorkspaceAction.class);
 					if (action != null) {
-						FilePath workspace = action.getWorkspace();
-						if (workspace == null) {
-							workspace = handleWorkspaceActionWithoutWorkspace(action);
-						}
-						return workspace;
+						return action;
 					}
 				}
 			}
 		}
 
-		logger.error("BuildHandlerUtils.getWorkspace - run is not handled. Run type : " + run.getClass());
+		FlowGraphWalker w = new FlowGraphWalker(fe);
+		for (FlowNode n : w) {
+			WorkspaceAction action = n.getAction(WorkspaceAction.class);
+			if (action != null) {
+				if (completed) {
+					workspaceNodeIds.put(runId, n.getId());
+				}
+				return action;
+			}
+		}
+		if (completed) {
+			workspaceNodeIds.put(runId, "");
+		}
 		return null;
 	}
 
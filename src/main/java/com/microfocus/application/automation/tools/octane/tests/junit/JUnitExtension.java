@@ -44,7 +44,6 @@ import com.microfocus.application.automation.tools.octane.tests.build.BuildHandl
 import com.microfocus.application.automation.tools.octane.tests.detection.MFToolsDetectionExtension;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFields;
 import com.microfocus.application.automation.tools.octane.tests.detection.ResultFieldsDetectionService;
-import com.microfocus.application.automation.tools.octane.tests.impl.ObjectStreamIterator;
 import com.microfocus.application.automation.tools.settings.RunnerMiscSettingsGlobalConfiguration;
 import hudson.Extension;
 import hudson.FilePath;
@@ -97,6 +96,14 @@ public class JUnitExtension extends OctaneTestsExtension {
 		}
 	}
 
+	/**
+	 * A matrix parent only holds the aggregated test action of its configurations, with no JUnit report of its own.
+	 */
+	@Override
+	public boolean expectsTestResults(Run<?, ?> run) {
+		return supports(run) && ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName()) || new File(run.getRootDir(), JUNIT_RESULT_XML).exists());
+	}
+
 	@Override
 	public TestResultContainer getTestResults(Run<?, ?> run, String jenkinsRootUrl) throws IOException, InterruptedException {
 		logger.debug("Collecting JUnit results");
@@ -118,7 +125,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 			}
 			FilePath filePath = getTestResultsFromWorkspace(run, jenkinsRootUrl, getResultsOnController, workspace, Collections.singletonList(resultFile),hpRunnerType);
 			ResultFields detectedFields = getResultFields(run);
-			return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+			return new TestResultContainer(new JUnitTestResultSpillIterator(filePath), detectedFields);
 		} else {
 			//avoid java.lang.NoClassDefFoundError when maven plugin is not present
 			if ("hudson.maven.MavenModuleSetBuild".equals(run.getClass().getName())) {
@@ -139,7 +146,7 @@ public class JUnitExtension extends OctaneTestsExtension {
 				if (!resultFiles.isEmpty()) {
 					ResultFields detectedFields = getResultFields(run);
 					FilePath filePath = getTestResultsFromWorkspace(run, jenkinsRootUrl, getResultsOnController, workspace, resultFiles,HPRunnerType.NONE);
-					return new TestResultContainer(new ObjectStreamIterator<>(filePath), detectedFields);
+					return new TestResultContainer(new JUnitTestResultSpillIterator(filePath), detectedFields);
 				}
 			}
 			logger.debug("No JUnit result report found");
@@ -282,23 +289,16 @@ public class JUnitExtension extends OctaneTestsExtension {
 
 		@Override
 		public FilePath invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
-			OutputStream os = filePath.write();
-			BufferedOutputStream bos = new BufferedOutputStream(os);
-			ObjectOutputStream oos = new ObjectOutputStream(bos);
-
-			try {
+			try (JUnitTestResultSpillWriter writer = new JUnitTestResultSpillWriter(filePath.write())) {
 				for (FilePath report : reports) {
 					JUnitXmlIterator iterator = new JUnitXmlIterator(report.read(), moduleDetection, workspace, sharedCheckOutDirectory, jobName, buildId, buildStarted, stripPackageAndClass, hpRunnerType, jenkinsRootUrl, additionalContext,testParserRegEx, octaneSupportsSteps,nodeName);
 					while (iterator.hasNext()) {
-						oos.writeObject(iterator.next());
+						writer.write(iterator.next());
 					}
 				}
 			} catch (XMLStreamException e) {
 				throw new IOException(e);
 			}
-			os.flush();
-
-			oos.close();
 			return filePath;
 		}
 
@@ -0,0 +1,202 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.hp.octane.integrations.testresults.XmlWritableTestResult;
+import com.hp.octane.integrations.uft.ufttestresults.schema.UftResultIterationData;
+import com.microfocus.application.automation.tools.octane.configuration.SDKBasedLoggerProvider;
+import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
+import hudson.FilePath;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader of the spill file written by {@link JUnitTestResultSpillWriter}.
+ * Results are decoded one record at a time, so only the name dictionary is kept in memory.
+ */
+public class JUnitTestResultSpillIterator implements Iterator<XmlWritableTestResult> {
+	private static Logger logger = SDKBasedLoggerProvider.getLogger(JUnitTestResultSpillIterator.class);
+
+	private static final TestResultStatus[] STATUSES = TestResultStatus.values();
+
+	private final DataInputStream in;
+	private final List<String> dictionary = new ArrayList<>();
+	private byte[] recordBytes = new byte[512];
+	private JUnitTestResult next;
+	private boolean closed;
+
+	public JUnitTestResultSpillIterator(FilePath filePath) throws IOException, InterruptedException {
+		this(filePath.read());
+	}
+
+	public JUnitTestResultSpillIterator(InputStream is) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(is));
+		int magic;
+		try {
+			magic = in.readInt();
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		if (magic != JUnitTestResultSpillWriter.MAGIC) {
+			in.close();
+			throw new IOException("Unexpected test results spill file format");
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next != null) {
+			return true;
+		}
+		if (closed) {
+			return false;
+		}
+		try {
+			next = readRecord();
+		} catch (IOException | ClassNotFoundException e) {
+			logger.error("Failed to read test result record", e); // NON-NLS
+			next = null;
+		}
+		if (next == null) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public XmlWritableTestResult next() {
+		if (hasNext()) {
+			JUnitTestResult value = next;
+			next = null;
+			return value;
+		} else {
+			throw new NoSuchElementException();
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	private JUnitTestResult readRecord() throws IOException, ClassNotFoundException {
+		int first = in.read();
+		if (first < 0) {
+			return null;
+		}
+		int length = (int) readVarLong(in, first);
+		if (recordBytes.length < length) {
+			recordBytes = new byte[length];
+		}
+		in.readFully(recordBytes, 0, length);
+		DataInputStream record = new DataInputStream(new ByteArrayInputStream(recordBytes, 0, length));
+
+		String moduleName = readDictionaryString(record);
+		String packageName = readDictionaryString(record);
+		String className = readDictionaryString(record);
+		String testName = readString(record);
+		byte status = record.readByte();
+		long duration = readVarLong(record, record.readUnsignedByte());
+		long started = readVarLong(record, record.readUnsignedByte());
+		TestError testError = null;
+		if (record.readBoolean()) {
+			testError = new TestError(readString(record), readString(record), readString(record));
+		}
+		String externalReportUrl = readString(record);
+		String description = readString(record);
+		String runnerTypeName = readDictionaryString(record);
+		String externalRunId = readString(record);
+		boolean octaneSupportsSteps = record.readBoolean();
+		List<UftResultIterationData> uftResultData = null;
+		if (record.readBoolean()) {
+			int size = (int) readVarLong(record, record.readUnsignedByte());
+			byte[] data = new byte[size];
+			record.readFully(data);
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+				uftResultData = (List<UftResultIterationData>) ois.readObject();
+			}
+		}
+
+		return new JUnitTestResult(moduleName, packageName, className, testName,
+				status < 0 ? null : STATUSES[status], duration, started, testError, externalReportUrl, description,
+				runnerTypeName == null ? null : HPRunnerType.valueOf(runnerTypeName), externalRunId, uftResultData, octaneSupportsSteps);
+	}
+
+	private String readDictionaryString(DataInputStream record) throws IOException {
+		int code = (int) readVarLong(record, record.readUnsignedByte());
+		if (code == JUnitTestResultSpillWriter.DICT_NULL) {
+			return null;
+		} else if (code == JUnitTestResultSpillWriter.DICT_NEW) {
+			String value = readString(record);
+			dictionary.add(value);
+			return value;
+		} else {
+			return dictionary.get(code - JUnitTestResultSpillWriter.DICT_REF_OFFSET);
+		}
+	}
+
+	private static String readString(DataInputStream record) throws IOException {
+		int length = (int) readVarLong(record, record.readUnsignedByte());
+		if (length == 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length - 1];
+		record.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static long readVarLong(DataInputStream input, int firstByte) throws IOException {
+		long value = firstByte & 0x7F;
+		int b = firstByte;
+		int shift = 7;
+		while ((b & 0x80) != 0) {
+			b = input.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		return value;
+	}
+
+	private void close() {
+		closed = true;
+		try {
+			in.close();
+		} catch (IOException ioe) {
+			logger.error("Failed to close the stream", ioe); // NON-NLS
+		}
+	}
+}
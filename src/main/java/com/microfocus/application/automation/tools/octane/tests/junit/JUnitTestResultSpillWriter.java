@@ -0,0 +1,137 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes JUnit test results to the temporary spill file in a compact record format.
+ * Each record is prefixed by its length; module, package, class and runner names are written once
+ * and referenced by index afterwards, numbers are written as varints.
+ * Unlike ObjectOutputStream, nothing is retained per written result except the name dictionary.
+ * Read back by {@link JUnitTestResultSpillIterator}.
+ */
+public class JUnitTestResultSpillWriter implements Closeable {
+
+	static final int MAGIC = 0x4A555231; // "JUR1"
+
+	static final int DICT_NULL = 0;
+	static final int DICT_NEW = 1;
+	static final int DICT_REF_OFFSET = 2;
+
+	private final DataOutputStream out;
+	private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(512);
+	private final DataOutputStream record = new DataOutputStream(recordBuffer);
+	private final Map<String, Integer> dictionary = new HashMap<>();
+
+	public JUnitTestResultSpillWriter(OutputStream os) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(os));
+		out.writeInt(MAGIC);
+	}
+
+	public void write(JUnitTestResult result) throws IOException {
+		recordBuffer.reset();
+		writeDictionaryString(result.getModuleName());
+		writeDictionaryString(result.getPackageName());
+		writeDictionaryString(result.getClassName());
+		writeString(record, result.getTestName());
+		record.writeByte(result.getResult() == null ? -1 : result.getResult().ordinal());
+		writeVarLong(record, result.getDuration());
+		writeVarLong(record, result.getStarted());
+		TestError testError = result.getTestError();
+		record.writeBoolean(testError != null);
+		if (testError != null) {
+			writeString(record, testError.getStackTraceStr());
+			writeString(record, testError.getErrorType());
+			writeString(record, testError.getErrorMsg());
+		}
+		writeString(record, result.getExternalReportUrl());
+		writeString(record, result.getDescription());
+		writeDictionaryString(result.getRunnerType() == null ? null : result.getRunnerType().name());
+		writeString(record, result.getExternalRunId());
+		record.writeBoolean(result.isOctaneSupportsSteps());
+		//UFT iteration data is rare and owned by the SDK, keep java serialization for it
+		if (result.getUftResultData() == null) {
+			record.writeBoolean(false);
+		} else {
+			record.writeBoolean(true);
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+				oos.writeObject(result.getUftResultData());
+			}
+			writeVarLong(record, bos.size());
+			bos.writeTo(record);
+		}
+		record.flush();
+
+		writeVarLong(out, recordBuffer.size());
+		recordBuffer.writeTo(out);
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void writeDictionaryString(String value) throws IOException {
+		if (value == null) {
+			writeVarLong(record, DICT_NULL);
+			return;
+		}
+		Integer index = dictionary.get(value);
+		if (index != null) {
+			writeVarLong(record, index + DICT_REF_OFFSET);
+		} else {
+			dictionary.put(value, dictionary.size());
+			writeVarLong(record, DICT_NEW);
+			writeString(record, value);
+		}
+	}
+
+	static void writeString(DataOutput output, String value) throws IOException {
+		if (value == null) {
+			writeVarLong(output, 0);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(output, bytes.length + 1L);
+			output.write(bytes);
+		}
+	}
+
+	static void writeVarLong(DataOutput output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+}
@@ -55,10 +55,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.Logger;
 
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -150,39 +146,56 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
 	}
 
 	@Override
-	protected void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
+	protected void onStartElement(String localName) throws XMLStreamException, IOException, InterruptedException {
+        if ("file".equals(localName)) {  // NON-NLS
+            onFile(readElementText());
+        } else if (testingToolType.equals(TestingToolType.CODELESS)) {
+            handleCodelessTestStart(localName);
+        } else {
+            handleJUnitTestStart(localName);
+        }
+    }
+
+    @Override
+    protected void onEndElement(String localName) {
         if (testingToolType.equals(TestingToolType.CODELESS)) {
-            handleCodelessTest(event);
+            handleCodelessTestEnd(localName);
         } else {
-            handleJUnitTest(event);
+            handleJUnitTestEnd(localName);
         }
     }
 
-    private void handleJUnitTest(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
-        if (event instanceof StartElement) {
-            StartElement element = (StartElement) event;
-            String localName = element.getName().getLocalPart();
-            if ("file".equals(localName)) {  // NON-NLS
-                filePath = peekNextValue();
-                if(checkIsCodelessTestResult(filePath)) {
-                    testingToolType = TestingToolType.CODELESS;
-                    handleCodelessTest(event);
-                } else {
-                    filePath = readNextValue();
-                    testingToolType = TestingToolType.UFT;
-                    for (ModuleDetection detection : moduleDetection) {
-                        moduleNameFromFile = moduleName = detection.getModule(new FilePath(new File(filePath)));
-                        if (moduleName != null) {
-                            break;
-                        }
-                    }
+    // a file element starts either a regular junit suite or an iteration of a codeless test
+    private void onFile(String value) throws IOException, InterruptedException {
+        filePath = value;
+        if (checkIsCodelessTestResult(filePath)) { // start of a new iteration
+            testingToolType = TestingToolType.CODELESS;
+            String fileName = filePath.substring(filePath.lastIndexOf("\\") + 1);
+            testName = fileName.substring(0, fileName.lastIndexOf("-Report"));
+            readCodelessTestJsonResult(testName, filePath);
+            currentIterationSteps = new ArrayList<>();
+            currentJUnitTestResult = testNameToJunitResultMap.get(testName);
+        } else {
+            testingToolType = TestingToolType.UFT;
+            for (ModuleDetection detection : moduleDetection) {
+                moduleNameFromFile = moduleName = detection.getModule(new FilePath(new File(filePath)));
+                if (moduleName != null) {
+                    break;
                 }
-            } else if ("id".equals(localName)) {
-                id = readNextValue();
-            } else if ("case".equals(localName)) { // NON-NLS
+            }
+        }
+    }
+
+    private void handleJUnitTestStart(String localName) throws XMLStreamException, IOException, InterruptedException {
+        switch (localName) {
+            case "id":
+                id = readElementText();
+                break;
+            case "case": // NON-NLS
                 resetTestData();
-            } else if ("className".equals(localName)) { // NON-NLS
-                String fqn = readNextValue();
+                break;
+            case "className": { // NON-NLS
+                String fqn = readElementText();
                 int moduleIndex = fqn.indexOf("::");
                 if (moduleIndex > 0) {
                     moduleName = fqn.substring(0, moduleIndex);
@@ -196,152 +209,169 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
                 } else {
                     packageName = "";
                 }
-            } else if ("stdout".equals(localName)) {
-                String stdoutValue = readNextValue();
-                if (stdoutValue != null) {
-                    if ((hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) && stdoutValue.contains("Test result: Warning")) {
-                        errorMsg = "Test ended with 'Warning' status.";
-                        parseUftErrorMessages();
-                    }
+                break;
+            }
+            case "stdout": {
+                String stdoutValue = readElementText();
+                if ((hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) && stdoutValue.contains("Test result: Warning")) {
+                    errorMsg = "Test ended with 'Warning' status.";
+                    parseUftErrorMessages();
+                }
 
-                    externalURL = extractValueFromStdout(stdoutValue, "__octane_external_url_start__", "__octane_external_url_end__", externalURL);
-                    description = extractValueFromStdout(stdoutValue, "__octane_description_start__", "__octane_description_end__", description);
+                externalURL = extractValueFromStdout(stdoutValue, "__octane_external_url_start__", "__octane_external_url_end__", externalURL);
+                description = extractValueFromStdout(stdoutValue, "__octane_description_start__", "__octane_description_end__", description);
+                break;
+            }
+            case "testName": // NON-NLS
+                onTestName();
+                break;
+            case "duration": // NON-NLS
+                testDuration = parseTime(readElementText());
+                break;
+            case "skipped": // NON-NLS
+                if ("true".equals(readElementText())) { // NON-NLS
+                    status = TestResultStatus.SKIPPED;
                 }
-            } else if ("testName".equals(localName)) { // NON-NLS
-                testName = readNextValue();
-                if (testName != null && testName.endsWith("()")) {//clear ending () for gradle tests
-                    testName = testName.substring(0, testName.length() - 2);
+                break;
+            case "failedSince": // NON-NLS
+                if (!"0".equals(readElementText()) && !TestResultStatus.SKIPPED.equals(status)) {
+                    status = TestResultStatus.FAILED;
                 }
+                break;
+            case "errorStackTrace": // NON-NLS
+                onErrorStackTrace();
+                break;
+            case "errorDetails": // NON-NLS
+                onErrorDetails();
+                break;
+            default:
+                break;
+        }
+    }
 
-                if (hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) {
-                    if (testName != null && testName.contains("..")) { //resolve existence of ../ - for example c://a/../b => c://b
-                        testName = new File(FilenameUtils.separatorsToSystem(testName)).getCanonicalPath();
-                    }
-
-                    String myPackageName = packageName;
-                    String myClassName = className;
-                    String myTestName = testName;
-                    packageName = "";
-                    className = "";
-
-                    // if workspace is prefix of the method name, cut it off
-                    // currently this handling is needed for UFT tests
-                    int uftTextIndexStart = getUftTestIndexStart(workspace, sharedCheckOutDirectory, testName);
-                    if (uftTextIndexStart != -1) {
-                        String path = testName.substring(uftTextIndexStart).replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);;
-                        boolean isMBT = path.startsWith(MfMBTConverter.MBT_PARENT_SUB_DIR);
-                        if(isMBT){//remove MBT prefix
-                            //mbt test located in two level folder : ___mbt/_order
-                            path = path.substring(MfMBTConverter.MBT_PARENT_SUB_DIR.length() + 1);//remove ___mbt
-                            path = path.substring(path.indexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER));//remove order part
-                        }
+    private void onTestName() throws XMLStreamException, IOException, InterruptedException {
+        testName = readElementText();
+        if (testName != null && testName.endsWith("()")) {//clear ending () for gradle tests
+            testName = testName.substring(0, testName.length() - 2);
+        }
 
-                        path = StringUtils.strip(path, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+        if (hpRunnerType.equals(HPRunnerType.UFT) || hpRunnerType.equals(HPRunnerType.UFT_MBT)) {
+            if (testName != null && testName.contains("..")) { //resolve existence of ../ - for example c://a/../b => c://b
+                testName = new File(FilenameUtils.separatorsToSystem(testName)).getCanonicalPath();
+            }
 
-                        //split path to package and name fields
-                        if (path.contains(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER)) {
-                            int testNameStartIndex = path.lastIndexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
+            String myPackageName = packageName;
+            String myClassName = className;
+            String myTestName = testName;
+            packageName = "";
+            className = "";
+
+            // if workspace is prefix of the method name, cut it off
+            // currently this handling is needed for UFT tests
+            int uftTextIndexStart = getUftTestIndexStart(workspace, sharedCheckOutDirectory, testName);
+            if (uftTextIndexStart != -1) {
+                String path = testName.substring(uftTextIndexStart).replace(SdkConstants.FileSystem.LINUX_PATH_SPLITTER, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);;
+                boolean isMBT = path.startsWith(MfMBTConverter.MBT_PARENT_SUB_DIR);
+                if(isMBT){//remove MBT prefix
+                    //mbt test located in two level folder : ___mbt/_order
+                    path = path.substring(MfMBTConverter.MBT_PARENT_SUB_DIR.length() + 1);//remove ___mbt
+                    path = path.substring(path.indexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER));//remove order part
+                }
 
-                            testName = path.substring(testNameStartIndex + 1);
-                            packageName = path.substring(0, testNameStartIndex);
-                        } else {
-                            testName = path;
-                            if (isMBT) {
-                                testName = MfMBTConverter.decodeTestNameIfRequired(testName);
-                            }
-                        }
-                    }
+                path = StringUtils.strip(path, SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
 
-                    String cleanedTestName = cleanTestName(testName);
-                    boolean testReportCreated = true;
-                    if (additionalContext != null && additionalContext instanceof List) {
-                        //test folders are appear in the following format GUITest1[1], while [1] number of test. It possible that tests with the same name executed in the same job
-                        //by adding [1] or [2] we can differentiate between different instances.
-                        //We assume that test folders are sorted so in this section, once we found the test folder, we remove it from collection , in order to find the second instance in next iteration
-                        List<String> createdTests = (List<String>) additionalContext;
-                        String searchFor = cleanedTestName + "[";
-                        Optional<String> optional = createdTests.stream().filter(str -> str.startsWith(searchFor)).findFirst();
-                        if (optional.isPresent()) {
-                            cleanedTestName = optional.get();
-                            createdTests.remove(cleanedTestName);
-                        }
-                        testReportCreated = optional.isPresent();
-                    }
+                //split path to package and name fields
+                if (path.contains(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER)) {
+                    int testNameStartIndex = path.lastIndexOf(SdkConstants.FileSystem.WINDOWS_PATH_SPLITTER);
 
-                    if (testReportCreated) {
-                        final String basePath = ((List<String>) additionalContext).get(0);
-                        String nodeNameSubFolder = StringUtils.isNotEmpty(this.nodeName) ? nodeName +"/" : "";
-                        uftResultFilePath = Paths.get(basePath, "archive", "UFTReport", nodeNameSubFolder, cleanedTestName, "/Result/run_results.xml").toFile().getCanonicalPath();
-                        externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/UFTReport/" + nodeNameSubFolder + cleanedTestName + "/Result/run_results.html";
-                    } else {
-                        //if UFT didn't created test results page - add reference to Jenkins test results page
-                        externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/testReport/" + myPackageName + "/" + jenkinsTestClassFormat(myClassName) + "/" + jenkinsTestNameFormat(myTestName) + "/";
-                    }
-                } else if (hpRunnerType.equals(HPRunnerType.PerformanceCenter)) {
-                    externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/performanceTestsReports/pcRun/Report.html";
-                } else if (hpRunnerType.equals(HPRunnerType.StormRunnerLoad)) {
-                    externalURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
-                    if (StringUtils.isEmpty(externalURL) && additionalContext != null && additionalContext instanceof Collection) {
-                        externalURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
-                    }
-                }
-            } else if ("duration".equals(localName)) { // NON-NLS
-                testDuration = parseTime(readNextValue());
-            } else if ("skipped".equals(localName)) { // NON-NLS
-                if ("true".equals(readNextValue())) { // NON-NLS
-                    status = TestResultStatus.SKIPPED;
-                }
-            } else if ("failedSince".equals(localName)) { // NON-NLS
-                if (!"0".equals(readNextValue()) && !TestResultStatus.SKIPPED.equals(status)) {
-                    status = TestResultStatus.FAILED;
-                }
-            } else if ("errorStackTrace".equals(localName)) { // NON-NLS
-                status = TestResultStatus.FAILED;
-                stackTraceStr = "";
-                if (peek() instanceof Characters) {
-                    stackTraceStr = readNextValue();
-                    int index = stackTraceStr.indexOf("at ");
-                    if (index >= 0) {
-                        errorType = stackTraceStr.substring(0, index);
+                    testName = path.substring(testNameStartIndex + 1);
+                    packageName = path.substring(0, testNameStartIndex);
+                } else {
+                    testName = path;
+                    if (isMBT) {
+                        testName = MfMBTConverter.decodeTestNameIfRequired(testName);
                     }
                 }
-            } else if ("errorDetails".equals(localName)) { // NON-NLS
-                status = TestResultStatus.FAILED;
-                errorMsg = readNextValue();
-                int index = stackTraceStr.indexOf(':');
-                if (index >= 0) {
-                    errorType = stackTraceStr.substring(0, index);
-                }
-                if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
-                    parseUftErrorMessages();
+            }
+
+            String cleanedTestName = cleanTestName(testName);
+            boolean testReportCreated = true;
+            if (additionalContext != null && additionalContext instanceof List) {
+                //test folders are appear in the following format GUITest1[1], while [1] number of test. It possible that tests with the same name executed in the same job
+                //by adding [1] or [2] we can differentiate between different instances.
+                //We assume that test folders are sorted so in this section, once we found the test folder, we remove it from collection , in order to find the second instance in next iteration
+                List<String> createdTests = (List<String>) additionalContext;
+                String searchFor = cleanedTestName + "[";
+                Optional<String> optional = createdTests.stream().filter(str -> str.startsWith(searchFor)).findFirst();
+                if (optional.isPresent()) {
+                    cleanedTestName = optional.get();
+                    createdTests.remove(cleanedTestName);
                 }
+                testReportCreated = optional.isPresent();
             }
-        } else if (event instanceof EndElement) {
-            EndElement element = (EndElement) event;
-            String localName = element.getName().getLocalPart();
 
-            if ("case".equals(localName)) { // NON-NLS
-                TestError testError = new TestError(stackTraceStr, errorType, errorMsg);
+            if (testReportCreated) {
+                final String basePath = ((List<String>) additionalContext).get(0);
+                String nodeNameSubFolder = StringUtils.isNotEmpty(this.nodeName) ? nodeName +"/" : "";
+                uftResultFilePath = Paths.get(basePath, "archive", "UFTReport", nodeNameSubFolder, cleanedTestName, "/Result/run_results.xml").toFile().getCanonicalPath();
+                externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/UFTReport/" + nodeNameSubFolder + cleanedTestName + "/Result/run_results.html";
+            } else {
+                //if UFT didn't created test results page - add reference to Jenkins test results page
+                externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/testReport/" + myPackageName + "/" + jenkinsTestClassFormat(myClassName) + "/" + jenkinsTestNameFormat(myTestName) + "/";
+            }
+        } else if (hpRunnerType.equals(HPRunnerType.PerformanceCenter)) {
+            externalURL = jenkinsRootUrl + "job/" + jobName + "/" + buildId + "/artifact/performanceTestsReports/pcRun/Report.html";
+        } else if (hpRunnerType.equals(HPRunnerType.StormRunnerLoad)) {
+            externalURL = tryGetStormRunnerReportURLFromJunitFile(filePath);
+            if (StringUtils.isEmpty(externalURL) && additionalContext != null && additionalContext instanceof Collection) {
+                externalURL = tryGetStormRunnerReportURLFromLog((Collection) additionalContext);
+            }
+        }
+    }
 
-                if(this.testParserRegEx != null){
-                    splitTestNameByPattern();
-                }
-                if (hpRunnerType.equals(HPRunnerType.UFT_MBT) && StringUtils.isNotEmpty(uftResultFilePath)) {
-                    try {
-                        uftResultData = UftTestResultsUtils.getMBTData(new File(uftResultFilePath));
-                    } catch (Exception e) {
-                        logger.error("Failed to get MBT Data which includes steps results", e);
-                    }
-                }
-                if (stripPackageAndClass) {
-                    //workaround only for UFT - we do not want packageName="All-Tests" and className="&lt;None>" as it comes from JUnit report
-                    addItem(new JUnitTestResult(moduleName, "", "", testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
-                } else {
-                    addItem(new JUnitTestResult(moduleName, packageName, className, testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
+    private void onErrorStackTrace() throws XMLStreamException {
+        status = TestResultStatus.FAILED;
+        stackTraceStr = readElementText();
+        int index = stackTraceStr.indexOf("at ");
+        if (index >= 0) {
+            errorType = stackTraceStr.substring(0, index);
+        }
+    }
+
+    private void onErrorDetails() throws XMLStreamException {
+        status = TestResultStatus.FAILED;
+        errorMsg = readElementText();
+        int index = stackTraceStr.indexOf(':');
+        if (index >= 0) {
+            errorType = stackTraceStr.substring(0, index);
+        }
+        if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
+            parseUftErrorMessages();
+        }
+    }
+
+    private void handleJUnitTestEnd(String localName) {
+        if ("case".equals(localName)) { // NON-NLS
+            TestError testError = new TestError(stackTraceStr, errorType, errorMsg);
+
+            if(this.testParserRegEx != null){
+                splitTestNameByPattern();
+            }
+            if (hpRunnerType.equals(HPRunnerType.UFT_MBT) && StringUtils.isNotEmpty(uftResultFilePath)) {
+                try {
+                    uftResultData = UftTestResultsUtils.getMBTData(new File(uftResultFilePath));
+                } catch (Exception e) {
+                    logger.error("Failed to get MBT Data which includes steps results", e);
                 }
-            } else if ("suites".equals(localName)) {
-                finalizeCodelessTests();
             }
+            if (stripPackageAndClass) {
+                //workaround only for UFT - we do not want packageName="All-Tests" and className="&lt;None>" as it comes from JUnit report
+                addItem(new JUnitTestResult(moduleName, "", "", testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
+            } else {
+                addItem(new JUnitTestResult(moduleName, packageName, className, testName, status, testDuration, buildStarted, testError, externalURL, description, hpRunnerType,this.externalRunId, uftResultData, octaneSupportsSteps));
+            }
+        } else if ("suites".equals(localName)) {
+            finalizeCodelessTests();
         }
     }
 
@@ -352,102 +382,78 @@ public class JUnitXmlIterator extends AbstractXmlIterator<JUnitTestResult> {
     // the test at the close of the "suites" element. after each iteration is processed, we need to update the test duration
     // and status if there is a change
     // 2) the test's name is taken from the file name
-    private void handleCodelessTest(XMLEvent event) throws XMLStreamException, IOException, InterruptedException {
-        if (event instanceof StartElement) {
-            StartElement element = (StartElement) event;
-            String localName = element.getName().getLocalPart();
-            if ("file".equals(localName)) {  // NON-NLS
-                filePath = peekNextValue();
-                if(!checkIsCodelessTestResult(filePath)) {
-                    testingToolType = TestingToolType.UFT;
-                    handleJUnitTest(event);
-                } else { // start of a new iteration
-                    filePath = readNextValue();
-                    testingToolType = TestingToolType.CODELESS;
-                    String fileName = filePath.substring(filePath.lastIndexOf("\\") + 1);
-                    testName = fileName.substring(0, fileName.lastIndexOf("-Report"));
-                    readCodelessTestJsonResult(testName, filePath);
-                    currentIterationSteps = new ArrayList<>();
-                    currentJUnitTestResult = testNameToJunitResultMap.get(testName);
-                }
-            } else if ("suite".equals(localName)) { // start of iteration
+    private void handleCodelessTestStart(String localName) throws XMLStreamException {
+        switch (localName) {
+            case "suite": // start of iteration
                 resetTestData();
-            } else if ("case".equals(localName)) { // start of step
+                break;
+            case "case": // start of step
                 resetCaseData();
                 insideCaseElement = true;
-            } else if ("duration".equals(localName)) { // NON-NLS
+                break;
+            case "duration": // NON-NLS
                 if (insideCaseElement) {
-                    stepDuration = parseTime(readNextValue());
+                    stepDuration = parseTime(readElementText());
                 } else {
-                    testDuration = parseTime(readNextValue());
+                    testDuration = parseTime(readElementText());
                 }
-            } else if ("testName".equals(localName)) { //
-                stepName = readNextValue();
-            } else if ("skipped".equals(localName)) { // NON-NLS
-                if ("true".equals(readNextValue())) { // NON-NLS
+                break;
+            case "testName":
+                stepName = readElementText();
+                break;
+            case "skipped": // NON-NLS
+                if ("true".equals(readElementText())) { // NON-NLS
                     status = TestResultStatus.SKIPPED;
                 }
-            } else if ("failedSince".equals(localName)) { // NON-NLS
-                if (!"0".equals(readNextValue()) && !TestResultStatus.SKIPPED.equals(status)) {
+                break;
+            case "failedSince": // NON-NLS
+                if (!"0".equals(readElementText()) && !TestResultStatus.SKIPPED.equals(status)) {
                     status = TestResultStatus.FAILED;
                 }
-            } else if ("errorStackTrace".equals(localName)) { // NON-NLS
-                status = TestResultStatus.FAILED;
-                stackTraceStr = "";
-                if (peek() instanceof Characters) {
-                    stackTraceStr = readNextValue();
-                    int index = stackTraceStr.indexOf("at ");
-                    if (index >= 0) {
-                        errorType = stackTraceStr.substring(0, index);
-                    }
-                }
-            } else if ("errorDetails".equals(localName)) { // NON-NLS
-                status = TestResultStatus.FAILED;
-                errorMsg = readNextValue();
-                int index = stackTraceStr.indexOf(':');
-                if (index >= 0) {
-                    errorType = stackTraceStr.substring(0, index);
-                }
-                if ((hpRunnerType.equals(HPRunnerType.UFT)|| hpRunnerType.equals(HPRunnerType.UFT_MBT)) && StringUtils.isNotEmpty(errorMsg)) {
-                    parseUftErrorMessages();
+                break;
+            case "errorStackTrace": // NON-NLS
+                onErrorStackTrace();
+                break;
+            case "errorDetails": // NON-NLS
+                onErrorDetails();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void handleCodelessTestEnd(String localName) {
+        if ("case".equals(localName)) { // end step
+            UftResultStepData stepData = new UftResultStepData(Collections.singletonList(stepName), "", status.toPrettyName(), errorMsg, stepDuration);
+            currentIterationSteps.add(stepData);
+
+            insideCaseElement = false;
+        } else if ("suite".equals(localName)) { // end of iteration, add the junit result
+            UftResultIterationData iterationData = new UftResultIterationData(currentIterationSteps, testDuration);
+            TestResultStatus iterationStatus = TestResultStatus.fromPrettyName(calculateIterationStatus(iterationData));
+            if(currentJUnitTestResult == null) {
+                List<UftResultIterationData> iterations = new ArrayList<>();
+                iterations.add(iterationData);
+                TestError testError = null;
+                if(iterationStatus.equals(TestResultStatus.FAILED)) {
+                    testError = new TestError("", "", findFirstError(iterationData));
                 }
-            }
-        } else if (event instanceof EndElement) {
-            EndElement element = (EndElement) event;
-            String localName = element.getName().getLocalPart();
-
-            if ("case".equals(localName)) { // end step
-                UftResultStepData stepData = new UftResultStepData(Collections.singletonList(stepName), "", status.toPrettyName(), errorMsg, stepDuration);
-                currentIterationSteps.add(stepData);
-
-                insideCaseElement = false;
-            } else if ("suite".equals(localName)) { // end of iteration, add the junit result
-                UftResultIterationData iterationData = new UftResultIterationData(currentIterationSteps, testDuration);
-                TestResultStatus iterationStatus = TestResultStatus.fromPrettyName(calculateIterationStatus(iterationData));
-                if(currentJUnitTestResult == null) {
-                    List<UftResultIterationData> iterations = new ArrayList<>();
-                    iterations.add(iterationData);
-                    TestError testError = null;
-                    if(iterationStatus.equals(TestResultStatus.FAILED)) {
-                        testError = new TestError("", "", findFirstError(iterationData));
-                    }
-                    // strip the test counter from the test name. but leave it in the map as is since test name is not unique
-                    String actualTestName = testName.substring(testName.indexOf("_") + 1);
-                    currentJUnitTestResult = new JUnitTestResult("", "", "", actualTestName, iterationStatus, testDuration, buildStarted, testError,  "", "", hpRunnerType, this.externalRunId, iterations, octaneSupportsSteps);
-                    testNameToJunitResultMap.put(testName, currentJUnitTestResult);
-                } else { // new iteration to an existing test result
-                    currentJUnitTestResult.setDuration(currentJUnitTestResult.getDuration() + testDuration);
-                    currentJUnitTestResult.getUftResultData().add(iterationData);
-                    if (iterationStatus.equals(TestResultStatus.FAILED) && !currentJUnitTestResult.getResult().equals(TestResultStatus.FAILED)) {
-                        currentJUnitTestResult.setResult(TestResultStatus.FAILED);
-                        TestError testError = new TestError(stackTraceStr, errorType, findFirstError(iterationData));
-                        currentJUnitTestResult.setTestError(testError);
-                    }
+                // strip the test counter from the test name. but leave it in the map as is since test name is not unique
+                String actualTestName = testName.substring(testName.indexOf("_") + 1);
+                currentJUnitTestResult = new JUnitTestResult("", "", "", actualTestName, iterationStatus, testDuration, buildStarted, testError,  "", "", hpRunnerType, this.externalRunId, iterations, octaneSupportsSteps);
+                testNameToJunitResultMap.put(testName, currentJUnitTestResult);
+            } else { // new iteration to an existing test result
+                currentJUnitTestResult.setDuration(currentJUnitTestResult.getDuration() + testDuration);
+                currentJUnitTestResult.getUftResultData().add(iterationData);
+                if (iterationStatus.equals(TestResultStatus.FAILED) && !currentJUnitTestResult.getResult().equals(TestResultStatus.FAILED)) {
+                    currentJUnitTestResult.setResult(TestResultStatus.FAILED);
+                    TestError testError = new TestError(stackTraceStr, errorType, findFirstError(iterationData));
+                    currentJUnitTestResult.setTestError(testError);
                 }
-                testingToolType = TestingToolType.UFT;
-            } else if ("suites".equals(localName)) {
-                finalizeCodelessTests();
             }
+            testingToolType = TestingToolType.UFT;
+        } else if ("suites".equals(localName)) {
+            finalizeCodelessTests();
         }
     }
 
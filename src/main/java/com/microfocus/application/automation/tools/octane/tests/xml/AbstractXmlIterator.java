@@ -30,39 +30,43 @@ package com.microfocus.application.automation.tools.octane.tests.xml;
 
 import com.ctc.wstx.stax.WstxInputFactory;
 import hudson.util.IOUtils;
+import org.codehaus.stax2.XMLInputFactory2;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.Characters;
-import javax.xml.stream.events.EndElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
 import java.util.NoSuchElementException;
 
+/**
+ * Cursor based (XMLStreamReader) iterator: no event object is allocated per token,
+ * subclasses are notified with the local name of each start/end element only.
+ */
 public abstract class AbstractXmlIterator<E> {
 
     private InputStream is;
-    protected XMLEventReader reader;
-    private LinkedList<E> queue;
+    protected XMLStreamReader reader;
+    private ArrayDeque<E> queue;
     private boolean closed;
 
     public AbstractXmlIterator(InputStream is) throws XMLStreamException {
         this.is = is;
-        reader = createXmlInputFactory().createXMLEventReader(is);
-        queue = new LinkedList<>();
-    }
-
-    public XMLEvent peek() throws XMLStreamException {
-        return reader.peek();
+        reader = createXmlInputFactory().createXMLStreamReader(is);
+        queue = new ArrayDeque<>();
     }
 
     public boolean hasNext() throws XMLStreamException, IOException, InterruptedException {
         while (queue.isEmpty() && !closed) {
             if (reader.hasNext()) {
-                onEvent(reader.nextEvent());
+                int eventType = reader.next();
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    onStartElement(reader.getLocalName());
+                } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                    onEndElement(reader.getLocalName());
+                }
             } else {
                 try {
                     reader.close();
@@ -84,28 +88,20 @@ public abstract class AbstractXmlIterator<E> {
         }
     }
 
-    protected abstract void onEvent(XMLEvent event) throws XMLStreamException, IOException, InterruptedException;
+    protected abstract void onStartElement(String localName) throws XMLStreamException, IOException, InterruptedException;
+
+    protected abstract void onEndElement(String localName) throws XMLStreamException, IOException, InterruptedException;
 
     protected void addItem(E item) {
         queue.add(item);
     }
 
-    protected String readNextValue() throws XMLStreamException {
-        XMLEvent nextEvent = reader.nextEvent();
-        if(nextEvent instanceof EndElement){
-            return "";
-        } else {
-            return ((Characters)nextEvent).getData();
-        }
-    }
-
-    protected String peekNextValue() throws XMLStreamException {
-        XMLEvent event = reader.peek();
-        if(event instanceof EndElement){
-            return "";
-        } else {
-            return ((Characters)event).getData();
-        }
+    /**
+     * Reads the text of the current text-only element, the cursor is left on its end element
+     * (which is therefore not reported to {@link #onEndElement(String)}).
+     */
+    protected String readElementText() throws XMLStreamException {
+        return reader.getElementText();
     }
 
     private static XMLInputFactory createXmlInputFactory() {
@@ -113,6 +109,10 @@ public abstract class AbstractXmlIterator<E> {
         XMLInputFactory xmlFactory = new WstxInputFactory();
         xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
         xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        //element names repeat for every test case, interned names make the local name comparisons cheap
+        if (xmlFactory.isPropertySupported(XMLInputFactory2.P_INTERN_NAMES)) {
+            xmlFactory.setProperty(XMLInputFactory2.P_INTERN_NAMES, true);
+        }
         return xmlFactory;
     }
 }
@@ -81,6 +81,13 @@ public class TestResultXmlWriter {
 		}
 	}
 
+	/**
+	 * Write a test result without test runs, it tells Octane that no tests will be reported for the build
+	 */
+	public void writeNoResults() throws InterruptedException, XMLStreamException, IOException {
+		initialize(null);
+	}
+
 	public void close() throws XMLStreamException {
 		if (outputStream != null) {
 			writer.writeEndElement(); // test_runs
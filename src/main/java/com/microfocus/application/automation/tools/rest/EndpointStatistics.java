@@ -0,0 +1,95 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency counters of the requests sent to one REST endpoint.
+ */
+public final class EndpointStatistics {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long elapsedNanos, boolean failed) {
+        count.increment();
+        if (failed) {
+            failures.increment();
+        }
+        totalNanos.add(elapsedNanos);
+        maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    /**
+     * @return the number of requests sent
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the number of requests that failed or got an error status
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the total time spent in requests, in milliseconds
+     */
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos.sum());
+    }
+
+    /**
+     * @return the average request time, in milliseconds
+     */
+    public double getAverageMillis() {
+        long requests = count.sum();
+        return requests == 0 ? 0 : (double) totalNanos.sum() / requests / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the longest request time, in milliseconds
+     */
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d request(s), %d failed, avg %.1f ms, max %d ms, total %d ms",
+                getCount(), getFailures(), getAverageMillis(), getMaxMillis(), getTotalMillis());
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.rest;
+
+import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
+import com.microfocus.application.automation.tools.settings.RunnerMiscSettingsGlobalConfiguration;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.StreamingRequestBody;
+import hudson.ProxyConfiguration;
+import jenkins.model.Jenkins;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.HttpsURLConnection;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST client that sends its requests over persistent connections kept in a pool shared by all the clients.
+ * <p>
+ * The pool holds at most the configured number of connections per ALM server and closes the connections that stay
+ * idle for {@value #IDLE_CONNECTION_SECONDS} seconds. HTTPS connections are created with the same socket factory as
+ * the {@link RestClient} connections, so the TLS sessions are reused as well. The cookies are still handled by the
+ * client, the pooled connections carry no state of their own.
+ */
+public class PooledRestClient extends RestClient {
+
+    private static final int IDLE_CONNECTION_SECONDS = 30;
+    private static final int CONNECT_TIMEOUT_MILLIS = 20 * 1000;
+    private static final int MAX_ROUTES = 4;
+
+    private static PoolingHttpClientConnectionManager connectionManager;
+    private static CloseableHttpClient httpClient;
+
+    public PooledRestClient(String url, String domain, String project, String username) {
+        super(url, domain, project, username);
+    }
+
+    /**
+     * @return whether ALM connection pooling is enabled in the global settings, false where they are not available
+     */
+    static boolean isEnabled() {
+        try {
+            return RunnerMiscSettingsGlobalConfiguration.getInstance().isAlmConnectionPoolingEnabled();
+        } catch (NullPointerException | IllegalStateException ignored) {
+            // not running on the controller
+            return false;
+        }
+    }
+
+    private static synchronized CloseableHttpClient getHttpClient() {
+        int maxPerRoute = RunnerMiscSettingsGlobalConfiguration.DEFAULT_ALM_MAX_CONNECTIONS_PER_ROUTE;
+        try {
+            maxPerRoute = RunnerMiscSettingsGlobalConfiguration.getInstance().getAlmMaxConnectionsPerRoute();
+        } catch (NullPointerException | IllegalStateException ignored) {
+            // keep the default
+        }
+
+        if (httpClient == null) {
+            SSLConnectionSocketFactory sslSocketFactory = new SSLConnectionSocketFactory(
+                    HttpsURLConnection.getDefaultSSLSocketFactory(), NoopHostnameVerifier.INSTANCE);
+            connectionManager = new PoolingHttpClientConnectionManager(
+                    RegistryBuilder.<ConnectionSocketFactory>create()
+                            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                            .register("https", sslSocketFactory)
+                            .build());
+            httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setRoutePlanner(new SystemDefaultRoutePlanner(new JenkinsProxySelector()))
+                    .setRedirectStrategy(new LaxRedirectStrategy())
+                    .setDefaultRequestConfig(RequestConfig.custom().setConnectTimeout(CONNECT_TIMEOUT_MILLIS).build())
+                    .disableCookieManagement()
+                    .disableConnectionState()
+                    .evictExpiredConnections()
+                    .evictIdleConnections(IDLE_CONNECTION_SECONDS, TimeUnit.SECONDS)
+                    .build();
+        }
+        // follow changes of the settings
+        if (connectionManager.getDefaultMaxPerRoute() != maxPerRoute) {
+            connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+            connectionManager.setMaxTotal(maxPerRoute * MAX_ROUTES);
+        }
+        return httpClient;
+    }
+
+    @Override
+    protected Response doRequest(
+            String type,
+            String url,
+            byte[] data,
+            Map<String, String> headers) throws IOException {
+
+        RequestBuilder request = createRequest(type, url, headers);
+        if (data != null && data.length > 0) {
+            request.setEntity(new ByteArrayEntity(data));
+        }
+        return execute(request, url);
+    }
+
+    @Override
+    protected Response doStreamRequest(
+            String type,
+            String url,
+            StreamingRequestBody body,
+            Map<String, String> headers) throws IOException, InterruptedException {
+
+        RequestBuilder request = createRequest(type, url, headers);
+        request.setEntity(new StreamingEntity(body, body.getLength()));
+        return execute(request, url);
+    }
+
+    private RequestBuilder createRequest(String type, String url, Map<String, String> headers) {
+        RequestBuilder request = RequestBuilder.create(type).setUri(url);
+        // set all cookies for request
+        request.setHeader(RESTConstants.COOKIE, getCookiesString());
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            // the length is set from the entity, as HttpURLConnection does
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                request.setHeader(header.getKey(), header.getValue());
+            }
+        }
+        return request;
+    }
+
+    private Response execute(RequestBuilder request, String url) throws IOException {
+        try (CloseableHttpResponse httpResponse = getHttpClient().execute(request.build(), createContext())) {
+            Response ret = new Response();
+            int statusCode = httpResponse.getStatusLine().getStatusCode();
+            ret.setStatusCode(statusCode);
+            ret.setHeaders(getHeaderFields(httpResponse.getAllHeaders()));
+            // keep the failure HttpURLConnection reports for error statuses
+            if (statusCode == HttpURLConnection.HTTP_NOT_FOUND || statusCode == HttpURLConnection.HTTP_GONE) {
+                ret.setFailure(new FileNotFoundException(url));
+            } else if (statusCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                ret.setFailure(new IOException(
+                        String.format("Server returned HTTP response code: %d for URL: %s", statusCode, url)));
+            }
+
+            // reading the whole entity releases the connection back to the pool
+            HttpEntity entity = httpResponse.getEntity();
+            byte[] body = entity != null ? EntityUtils.toByteArray(entity) : null;
+            ret.setData(body != null ? body : new byte[0]);
+            return ret;
+        }
+    }
+
+    private static HttpClientContext createContext() {
+        HttpClientContext context = HttpClientContext.create();
+        ProxyConfiguration proxy = getProxyConfiguration();
+        if (proxy != null && proxy.getUserName() != null && !proxy.getUserName().isEmpty()) {
+            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(
+                    new AuthScope(proxy.name, proxy.port),
+                    new UsernamePasswordCredentials(proxy.getUserName(), proxy.getSecretPassword().getPlainText()));
+            context.setCredentialsProvider(credentialsProvider);
+        }
+        return context;
+    }
+
+    private static Map<String, List<String>> getHeaderFields(Header[] headers) {
+        Map<String, List<String>> headerFields = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : headers) {
+            List<String> values = headerFields.get(header.getName());
+            if (values == null) {
+                values = new ArrayList<String>(1);
+                headerFields.put(header.getName(), values);
+            }
+            values.add(header.getValue());
+        }
+        return headerFields;
+    }
+
+    private static ProxyConfiguration getProxyConfiguration() {
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        return jenkins != null ? jenkins.proxy : null;
+    }
+
+    /**
+     * Routes the pooled connections through the proxy configured in Jenkins, honoring its no proxy hosts.
+     */
+    private static final class JenkinsProxySelector extends ProxySelector {
+
+        @Override
+        public List<Proxy> select(URI uri) {
+            ProxyConfiguration proxy = getProxyConfiguration();
+            return Collections.singletonList(proxy != null ? proxy.createProxy(uri.getHost()) : Proxy.NO_PROXY);
+        }
+
+        @Override
+        public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+            // nothing to do, the connection failure is reported by the request
+        }
+    }
+
+    /**
+     * Entity writing a streamed body to the connection, sent in chunks when its length is unknown.
+     */
+    private static final class StreamingEntity extends AbstractHttpEntity {
+
+        private final StreamingRequestBody body;
+        private final long length;
+
+        StreamingEntity(StreamingRequestBody body, long length) {
+            this.body = body;
+            this.length = length;
+            setChunked(length < 0);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("The body is only written to the connection");
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try {
+                body.writeTo(out);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+}
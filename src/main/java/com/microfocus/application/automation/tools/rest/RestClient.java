@@ -29,6 +29,7 @@
 package com.microfocus.application.automation.tools.rest;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
@@ -39,9 +40,14 @@ import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -54,6 +60,7 @@ import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.StreamingRequestBody;
 import hudson.ProxyConfiguration;
 
 import com.microfocus.application.automation.tools.sse.sdk.HttpRequestDecorator;
@@ -69,11 +76,17 @@ import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
 public class RestClient implements Client {
 
     private final String _serverUrl;
-    protected Map<String, String> _cookies = new HashMap<String, String>();
+    protected Map<String, String> _cookies = new ConcurrentHashMap<String, String>();
     private final String _restPrefix;
     private final String _webuiPrefix;
     private final String _username;
     private final String XSRF_TOKEN_VALUE;
+    private final Map<String, EndpointStatistics> _endpointStatistics =
+            new ConcurrentHashMap<String, EndpointStatistics>();
+    private volatile Semaphore _requestPermits;
+
+    private static final int STREAMING_CHUNK_SIZE = 64 * 1024;
+    private static final Pattern ID_SEGMENT = Pattern.compile("(?<=/)\\d+(?=/|$)");
 
     /**
      * Configure SSL context for the client.
@@ -138,6 +151,17 @@ public class RestClient implements Client {
         _cookies.put("XSRF-TOKEN", XSRF_TOKEN_VALUE);
     }
 
+    /**
+     * Creates a client for the given ALM project. The client keeps its connections in a shared pool if ALM connection
+     * pooling is enabled in the global settings, see {@link PooledRestClient}.
+     */
+    public static RestClient create(String url, String domain, String project, String username) {
+        if (PooledRestClient.isEnabled()) {
+            return new PooledRestClient(url, domain, project, username);
+        }
+        return new RestClient(url, domain, project, username);
+    }
+
     public String getXsrfTokenValue() {
         return XSRF_TOKEN_VALUE;
     }
@@ -208,6 +232,27 @@ public class RestClient implements Client {
         return ret;
     }
 
+    /**
+     * Http post request with a body streamed to the server
+     */
+    @Override
+    public Response httpPostStream(
+            String url,
+            final StreamingRequestBody body,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel) {
+
+        Response ret = null;
+        try {
+            ret = doHttp(RESTConstants.POST, url, null, headers, resourceAccessLevel,
+                    (requestUrl, requestHeaders) -> doStreamRequest(RESTConstants.POST, requestUrl, body, requestHeaders));
+        } catch (Exception cause) {
+            throw new SSEException(cause);
+        }
+
+        return ret;
+    }
+
     /**
      * Http put request
      */
@@ -251,21 +296,39 @@ public class RestClient implements Client {
      * Do http request
      */
     private Response doHttp(
-            String type,
+            final String type,
             String url,
             String queryString,
-            byte[] data,
+            final byte[] data,
             Map<String, String> headers,
             ResourceAccessLevel resourceAccessLevel) {
 
+        return doHttp(type, url, queryString, headers, resourceAccessLevel,
+                (requestUrl, requestHeaders) -> doRequest(type, requestUrl, data, requestHeaders));
+    }
+
+    /**
+     * Do http request, sending it with the given sender
+     */
+    private Response doHttp(
+            String type,
+            String url,
+            String queryString,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel,
+            RequestSender sender) {
+
         Response ret;
         if ((queryString != null) && !queryString.isEmpty()) {
             url += "?" + queryString;
         }
+        Semaphore permits = _requestPermits;
+        if (permits != null) {
+            permits.acquireUninterruptibly();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
         try {
-            HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
-            connection.setRequestMethod(type);
-
             Map<String, String> decoratedHeaders = new HashMap<String, String>();
             if (headers != null) {
                 decoratedHeaders.putAll(headers);
@@ -276,17 +339,122 @@ public class RestClient implements Client {
                     getUsername(),
                     resourceAccessLevel);
 
-            prepareHttpRequest(connection, decoratedHeaders, data);
-            connection.connect();
-            ret = retrieveHtmlResponse(connection);
+            ret = sender.send(url, decoratedHeaders);
+            failed = ret.getFailure() != null;
             updateCookies(ret);
         } catch (Exception cause) {
             throw new SSEException(cause);
+        } finally {
+            recordRequest(type, url, System.nanoTime() - start, failed);
+            if (permits != null) {
+                permits.release();
+            }
         }
 
         return ret;
     }
 
+    /**
+     * Limit the number of requests sent at the same time. Clients given the same permits share the limit.
+     * @param permits
+     *            the permits a request holds while it is sent, null for no limit
+     */
+    public void setRequestPermits(Semaphore permits) {
+        _requestPermits = permits;
+    }
+
+    /**
+     * Send the request and retrieve its response
+     * @param type
+     *            the http method
+     * @param url
+     *            the request url, including the query string
+     * @param data
+     *            the request body, may be null
+     * @param headers
+     *            the request headers, the cookies of the client are added to them
+     * @return a response from the server, with its failure set if the server returned an error status
+     */
+    protected Response doRequest(
+            String type,
+            String url,
+            byte[] data,
+            Map<String, String> headers) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
+        connection.setRequestMethod(type);
+        prepareHttpRequest(connection, headers, data);
+        connection.connect();
+        return retrieveHtmlResponse(connection);
+    }
+
+    /**
+     * Send the request with a streamed body and retrieve its response. The body is sent with a fixed length
+     * when its length is known, in chunks otherwise, so it is never held in memory
+     * @param type
+     *            the http method
+     * @param url
+     *            the request url, including the query string
+     * @param body
+     *            the request body
+     * @param headers
+     *            the request headers, the cookies of the client are added to them
+     * @return a response from the server, with its failure set if the server returned an error status
+     */
+    protected Response doStreamRequest(
+            String type,
+            String url,
+            StreamingRequestBody body,
+            Map<String, String> headers) throws IOException, InterruptedException {
+
+        HttpURLConnection connection = (HttpURLConnection)ProxyConfiguration.open(new URL(url));
+        connection.setRequestMethod(type);
+        // set all cookies for request
+        connection.setRequestProperty(RESTConstants.COOKIE, getCookiesString());
+        setConnectionHeaders(connection, headers);
+        connection.setDoOutput(true);
+        long length = body.getLength();
+        if (length >= 0) {
+            connection.setFixedLengthStreamingMode(length);
+        } else {
+            connection.setChunkedStreamingMode(STREAMING_CHUNK_SIZE);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            body.writeTo(out);
+        }
+        return retrieveHtmlResponse(connection);
+    }
+
+    /**
+     * Record the latency of a request on its endpoint
+     */
+    private void recordRequest(String type, String url, long elapsedNanos, boolean failed) {
+        _endpointStatistics
+                .computeIfAbsent(getEndpoint(type, url), endpoint -> new EndpointStatistics())
+                .record(elapsedNanos, failed);
+    }
+
+    /**
+     * Get the endpoint of a request: its method and its path relative to the server, without the query string and
+     * with the entity ids replaced, so the requests on entities of the same type share their counters
+     */
+    String getEndpoint(String type, String url) {
+        int queryIndex = url.indexOf('?');
+        String path = queryIndex < 0 ? url : url.substring(0, queryIndex);
+        if (path.startsWith(_serverUrl)) {
+            path = path.substring(_serverUrl.length());
+        }
+        return type + " " + ID_SEGMENT.matcher(path).replaceAll("{id}");
+    }
+
+    /**
+     * Get the latency counters of the requests sent by this client, per endpoint
+     * @return the counters keyed by request method and path
+     */
+    public Map<String, EndpointStatistics> getEndpointStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<String, EndpointStatistics>(_endpointStatistics));
+    }
+
     /**
      * Prepare http request
      */
@@ -403,7 +571,7 @@ public class RestClient implements Client {
     /**
      * Get cookies string
      */
-    private String getCookiesString() {
+    protected String getCookiesString() {
         StringBuilder ret = new StringBuilder();
         if (!_cookies.isEmpty()) {
             for (Entry<String, String> entry : _cookies.entrySet()) {
@@ -426,4 +594,11 @@ public class RestClient implements Client {
     public Map<String, String> getCookies() {
         return _cookies;
     }
+
+    /**
+     * Sends a prepared request
+     */
+    private interface RequestSender {
+        Response send(String url, Map<String, String> headers) throws IOException, InterruptedException;
+    }
 }
@@ -34,14 +34,19 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
 import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
 import net.sf.json.JSONArray;
+import net.sf.json.JSONNull;
 import net.sf.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
 
 /**
  * The type Lr graph utils.
@@ -86,23 +91,59 @@ public final class LrGraphUtils {
                     "acceptable minimum and maximum transaction performance time ranges defined for your " +
                     "system.";
     public static final String SERIES = "series";
+    /**
+     * The constant SERIES_NAMES, the names of the columns of a columnar data set.
+     */
+    private static final String SERIES_NAMES = "names";
+    /**
+     * The constant COLUMNS, the values of a columnar data set, one array per series.
+     */
+    private static final String COLUMNS = "columns";
 
     private LrGraphUtils() {
     }
 
+    /**
+     * Builds the data set of all the graphs of a scenario.
+     *
+     * @param scenarioResults the scenario results
+     * @param columnar        whether the per transaction graphs hold their values as columns, see
+     *                        {@link #extractTransactionSet}
+     * @return the scenario data set
+     */
+    static JSONObject constructScenarioGraphData(Map.Entry<String, LrProjectScenarioResults> scenarioResults,
+                                                 boolean columnar) {
+        JSONObject scenarioData = new JSONObject();
+        scenarioData.put("scenarioStats", new JSONObject());
+
+        JSONObject scenarioGraphData = new JSONObject();
+        //Scenario SLA graphs
+        constructTotalHitsGraph(scenarioResults, scenarioGraphData);
+        constructAvgHitsGraph(scenarioResults, scenarioGraphData);
+        constructTotalThroughputGraph(scenarioResults, scenarioGraphData);
+        constructAverageThroughput(scenarioResults, scenarioGraphData);
+        constructErrorGraph(scenarioResults, scenarioGraphData);
+        constructAvgTransactionGraph(scenarioResults, scenarioGraphData, columnar);
+        constructPercentileTransactionGraph(scenarioResults, scenarioGraphData, columnar);
+
+        scenarioData.put("scenarioData", scenarioGraphData);
+        return scenarioData;
+    }
+
     /**
      * creates dataset for Percentile transaction graph
      *
      * @param scenarioResults   the relative scenario results to create the graph
      * @param scenarioGraphData the target graph data set
+     * @param columnar          whether to hold the values as columns
      */
     static void constructPercentileTransactionGraph(Map.Entry<String, LrProjectScenarioResults> scenarioResults,
-                                                    JSONObject scenarioGraphData) {
-        Map<Integer, TreeMap<String, PercentileTransactionWholeRun>> percentileTransactionResults =
+                                                    JSONObject scenarioGraphData, boolean columnar) {
+        SortedMap<Integer, TreeMap<String, PercentileTransactionWholeRun>> percentileTransactionResults =
                 scenarioResults.getValue().getPercentileTransactionResults();
         JSONObject percentileTransactionResultsGraphSet =
-                extractPercentileTransactionSet(percentileTransactionResults,
-                        scenarioResults.getValue().getTransactions());
+                extractTransactionSet(percentileTransactionResults, scenarioResults.getValue().getTransactions(),
+                        PercentileTransactionWholeRun::getActualValue, columnar);
         if (!percentileTransactionResultsGraphSet.getJSONArray(LABELS).isEmpty()) {
             percentileTransactionResultsGraphSet
                     .put(TITLE, PERCENTILE_TRANSACTION_RESPONSE_TIME);
@@ -116,35 +157,81 @@ public final class LrGraphUtils {
         }
     }
 
-    private static JSONObject extractPercentileTransactionSet(
-            Map<Integer, TreeMap<String, PercentileTransactionWholeRun>> graphData, HashSet<String> transactions) {
-        JSONObject graphDataSet = new JSONObject();
-        JSONArray labels = new JSONArray();
-
-        HashMap<String, ArrayList<Number>> percentileTrtData = new HashMap<String, ArrayList<Number>>(0);
-        for (String transaction : transactions) {
-            percentileTrtData.put(transaction, new ArrayList<Number>(0));
+    /**
+     * Extracts the values of each transaction per build.
+     * <p>
+     * The values are collected into one primitive column per transaction in a single pass over the builds. By default
+     * each column is written as a series object holding its name and data. A columnar data set holds the series names
+     * and the columns in two parallel arrays instead, which keeps the payload small when there are many transactions.
+     * Builds without a value for a transaction hold null.
+     *
+     * @param graphData    the transaction results keyed by build number
+     * @param transactions the names of all the transactions of the scenario
+     * @param valueOf      extracts the graph value out of a transaction result
+     * @param columnar     whether to hold the values as columns
+     * @return the graph data set
+     */
+    private static <T> JSONObject extractTransactionSet(SortedMap<Integer, TreeMap<String, T>> graphData,
+                                                        Set<String> transactions, ToDoubleFunction<T> valueOf,
+                                                        boolean columnar) {
+        List<String> names = new ArrayList<String>(new TreeSet<String>(transactions));
+        Map<String, Integer> columnIndexes = new HashMap<String, Integer>(names.size() * 2);
+        for (int i = 0; i < names.size(); i++) {
+            columnIndexes.put(names.get(i), i);
         }
 
-        for (Map.Entry<Integer, TreeMap<String, PercentileTransactionWholeRun>> result : graphData.entrySet()) {
-            labels.add(result.getKey());
+        int[] labels = new int[graphData.size()];
+        double[][] columns = new double[names.size()][graphData.size()];
+        for (double[] column : columns) {
+            Arrays.fill(column, Double.NaN);
+        }
 
-            for (String transaction : transactions) {
-                if (!result.getValue().containsKey(transaction)) {
-                    percentileTrtData.get(transaction).add(null);
-                    // TODO:change to null
-                    continue;
+        int row = 0;
+        for (Map.Entry<Integer, TreeMap<String, T>> result : graphData.entrySet()) {
+            labels[row] = result.getKey();
+            for (Map.Entry<String, T> transaction : result.getValue().entrySet()) {
+                Integer column = columnIndexes.get(transaction.getKey());
+                if (column != null) {
+                    columns[column][row] = valueOf.applyAsDouble(transaction.getValue());
                 }
-                percentileTrtData.get(transaction).add((result.getValue()).get(transaction).getActualValue());
             }
+            row++;
         }
 
-        graphDataSet.put(LABELS, labels);
-        graphDataSet.put(SERIES, createGraphDatasets(percentileTrtData));
-
+        JSONObject graphDataSet = new JSONObject();
+        graphDataSet.put(LABELS, JSONArray.fromObject(labels));
+        if (columnar) {
+            JSONArray columnData = new JSONArray();
+            for (double[] column : columns) {
+                columnData.add(toJsonArray(column));
+            }
+            graphDataSet.put(SERIES_NAMES, JSONArray.fromObject(names));
+            graphDataSet.put(COLUMNS, columnData);
+        } else {
+            JSONArray graphSeries = new JSONArray();
+            for (int i = 0; i < columns.length; i++) {
+                JSONObject dataset = new JSONObject();
+                dataset.put("name", names.get(i));
+                dataset.put("data", toJsonArray(columns[i]));
+                graphSeries.add(dataset);
+            }
+            graphDataSet.put(SERIES, graphSeries);
+        }
         return graphDataSet;
     }
 
+    private static JSONArray toJsonArray(double[] column) {
+        JSONArray data = new JSONArray();
+        for (double value : column) {
+            if (Double.isNaN(value)) {
+                data.add(JSONNull.getInstance());
+            } else {
+                data.add(value);
+            }
+        }
+        return data;
+    }
+
     private static JSONArray createGraphDatasets(Map<String, ArrayList<Number>> datasets) {
         JSONArray graphSeries = new JSONArray();
         for (Map.Entry<String, ArrayList<Number>> transactionData : datasets.entrySet()) {
@@ -163,13 +250,15 @@ public final class LrGraphUtils {
      *
      * @param scenarioResults   the scenario results
      * @param scenarioGraphData the scenario graph data
+     * @param columnar          whether to hold the values as columns
      */
     static void constructAvgTransactionGraph(Map.Entry<String, LrProjectScenarioResults> scenarioResults,
-                                             JSONObject scenarioGraphData) {
-        Map<Integer, TreeMap<String, AvgTransactionResponseTime>> avgTransactionResponseTimeResults =
+                                             JSONObject scenarioGraphData, boolean columnar) {
+        SortedMap<Integer, TreeMap<String, AvgTransactionResponseTime>> avgTransactionResponseTimeResults =
                 scenarioResults.getValue().getAvgTransactionResponseTimeResults();
         JSONObject avgTransactionResponseTimeGraphSet =
-                extractAvgTrtData(avgTransactionResponseTimeResults, scenarioResults.getValue().getTransactions());
+                extractTransactionSet(avgTransactionResponseTimeResults, scenarioResults.getValue().getTransactions(),
+                        AvgTransactionResponseTime::getActualValueAvg, columnar);
         if (!avgTransactionResponseTimeGraphSet.getJSONArray(LABELS).isEmpty()) {
             avgTransactionResponseTimeGraphSet.put(TITLE, "Average Transaction Response Time");
             avgTransactionResponseTimeGraphSet.put(X_AXIS_TITLE, "Build number");
@@ -184,36 +273,6 @@ public final class LrGraphUtils {
         }
     }
 
-    private static JSONObject extractAvgTrtData(Map<Integer, TreeMap<String, AvgTransactionResponseTime>> graphData,
-                                                HashSet<String> transactions) {
-        HashMap<String, ArrayList<Number>> averageTRTData = new HashMap<String, ArrayList<Number>>(0);
-        JSONObject graphDataSet = new JSONObject();
-
-        JSONArray labels = new JSONArray();
-
-        for (String transaction : transactions) {
-            averageTRTData.put(transaction, new ArrayList<Number>(0));
-        }
-
-        for (Map.Entry<Integer, TreeMap<String, AvgTransactionResponseTime>> result : graphData.entrySet()) {
-            labels.add(result.getKey());
-
-            for (String transaction : transactions) {
-                if (!result.getValue().containsKey(transaction)) {
-                    averageTRTData.get(transaction).add(null);
-                    // TODO:change to null
-                    continue;
-                }
-                averageTRTData.get(transaction).add((result.getValue()).get(transaction).getActualValueAvg());
-            }
-        }
-
-        graphDataSet.put(LABELS, labels);
-        JSONArray datasets = createGraphDatasets(averageTRTData);
-        graphDataSet.put(SERIES, datasets);
-        return graphDataSet;
-    }
-
     /**
      * Construct error graph.
      *
@@ -41,7 +41,6 @@ import com.microfocus.application.automation.tools.results.projectparser.perform
 import hudson.model.Action;
 import hudson.model.Job;
 import hudson.model.Run;
-import hudson.util.RunList;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.kohsuke.stapler.bind.JavaScriptMethod;
@@ -50,6 +49,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.logging.Logger;
@@ -69,14 +69,13 @@ public class PerformanceProjectAction implements Action {
      */
     private static final Logger LOGGER = Logger
             .getLogger(PerformanceProjectAction.class.getName());
-    private static final int MAX_DISPLAY_BUILDS = 20;
+    static final int MAX_DISPLAY_BUILDS = 20;
     /**
      * The Current project.
      */
     public final Job<?, ?> currentProject;
     private ArrayList<LrJobResults> jobLrResults;
     private int lastBuildId = -1;
-    private ArrayList<Integer> _workedBuilds;
     private ProjectLrResults _projectResult;
     private Collection<Action> projectActions;
 
@@ -87,7 +86,6 @@ public class PerformanceProjectAction implements Action {
      * @param job the job
      */
     public PerformanceProjectAction(Job<?, ?> job) {
-        this._workedBuilds = new ArrayList<Integer>();
         this.jobLrResults = new ArrayList<LrJobResults>();
         this.currentProject = job;
         projectActions = new ArrayList<>();
@@ -125,48 +123,35 @@ public class PerformanceProjectAction implements Action {
     public JSONObject getGraphData() {
         JSONObject projectDataSet = new JSONObject();
         if (_projectResult == null) {
-//            getUpdatedData();
             return new JSONObject();
         }
 
-
-        for (SortedMap.Entry<String, LrProjectScenarioResults> scenarioResults : _projectResult.getScenarioResults()
-                .entrySet()) {
-
-            JSONObject scenarioData = new JSONObject();
-            JSONObject scenarioStats = new JSONObject();
-            //            LrGraphUtils
-            //                    .constructVuserSummary(scenarioResults.getValue().getvUserSummary(), scenarioStats, _workedBuilds
-            //                            .size());
-            //            LrGraphUtils.constructDurationSummary(scenarioResults.getValue().getDurationData(), scenarioStats);
-            //            LrGraphUtils.constructConnectionSummary(scenarioResults.getValue().getMaxConnectionsCount(), scenarioStats);
-            //            LrGraphUtils.constructTransactionSummary(scenarioResults.getValue().getTransactionSum(), scenarioStats,
-            //                    _workedBuilds.size());
-
-
-            scenarioData.put("scenarioStats", scenarioStats);
-
-            JSONObject scenarioGraphData = new JSONObject();
-            //Scenario data graphs
-//            LrGraphUtils.constructVuserGraph(scenarioResults, scenarioGraphData);
-//            LrGraphUtils.constructConnectionsGraph(scenarioResults, scenarioGraphData);
-            //Scenario SLA graphs
-            LrGraphUtils.constructTotalHitsGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructAvgHitsGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructTotalThroughputGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructAverageThroughput(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructErrorGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructAvgTransactionGraph(scenarioResults, scenarioGraphData);
-            LrGraphUtils.constructPercentileTransactionGraph(scenarioResults, scenarioGraphData);
-
-            scenarioData.put("scenarioData", scenarioGraphData);
-
-            String scenarioName = scenarioResults.getKey();
-            projectDataSet.put(scenarioName, scenarioData);
+        PerformanceTrendIndex index = PerformanceTrendIndex.get(currentProject);
+        for (String scenarioName : _projectResult.getScenarioResults().keySet()) {
+            projectDataSet.put(scenarioName, index.getScenarioGraphData(_projectResult, scenarioName, false));
         }
         return projectDataSet;
     }
 
+    /**
+     * Gets the graph data of a single scenario.
+     * The data is cached until the builds shown on the trend change, see {@link PerformanceTrendIndex}.
+     *
+     * @param scenarioName the scenario name
+     * @param columnar     whether the per transaction graphs hold their values as parallel arrays of series names
+     *                     and columns rather than as series objects
+     * @return the graph data, empty if the scenario has no results
+     */
+    @JavaScriptMethod
+    public JSONObject getScenarioGraphData(String scenarioName, boolean columnar) {
+        if (_projectResult == null) {
+            return new JSONObject();
+        }
+        JSONObject scenarioData = PerformanceTrendIndex.get(currentProject)
+                .getScenarioGraphData(_projectResult, scenarioName, columnar);
+        return scenarioData != null ? scenarioData : new JSONObject();
+    }
+
 
     /**
      * Gets build performance report list.
@@ -227,49 +212,35 @@ public class PerformanceProjectAction implements Action {
 
     /**
      * Gets updated data.
+     * Only the builds completed since the previous call are loaded, see {@link PerformanceTrendIndex}.
      */
     public synchronized void getUpdatedData() {
-        if (!isUpdateDataNeeded()) {
-            return;
-        }
-
-        this._projectResult = new ProjectLrResults();
-
-        _workedBuilds = new ArrayList<Integer>();
-
-        RunList<? extends Run> projectBuilds = currentProject.getBuilds();
-
-        // updateLastBuild();
-
-        for (Run run : projectBuilds) {
-            PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
-            if (performanceJobReportAction == null) {
-                continue;
-            }
-            if (run.isBuilding()) {
-                continue;
-            }
-
-            int runNumber = run.getNumber();
-            if (_workedBuilds.contains(runNumber)) {
-                continue;
-            }
-
-
+        this._projectResult = PerformanceTrendIndex.get(currentProject)
+                .getProjectResult(currentProject, PerformanceProjectAction::foldProjectResults);
+    }
 
-            _workedBuilds.add(runNumber);
-            LrJobResults jobLrResult = performanceJobReportAction.getLrResultBuildDataset();
+    /**
+     * Joins the results of the given builds into the project results, newest build first.
+     *
+     * @param buildResults the LoadRunner results of the builds keyed by build number
+     * @return the project results
+     */
+    static ProjectLrResults foldProjectResults(NavigableMap<Integer, LrJobResults> buildResults) {
+        ProjectLrResults projectResult = new ProjectLrResults();
+        for (Map.Entry<Integer, LrJobResults> buildResult : buildResults.descendingMap().entrySet()) {
+            int runNumber = buildResult.getKey();
+            LrJobResults jobLrResult = buildResult.getValue();
 
             // get all the ran scenario results from this run and insert them into the project
             for (Map.Entry<String, JobLrScenarioResult> runResult : jobLrResult.getLrScenarioResults().entrySet()) {
                 // add the scenario if it's the first time it's ran in this build (allows scenarios to be also added
                 // at diffrent time)
-                if (!_projectResult.getScenarioResults().containsKey(runResult.getKey())) {
-                    _projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
+                if (!projectResult.getScenarioResults().containsKey(runResult.getKey())) {
+                    projectResult.addScenario(new LrProjectScenarioResults(runResult.getKey()));
                 }
                 // Join the SLA rule results
                 LrProjectScenarioResults lrProjectScenarioResults =
-                        _projectResult.getScenarioResults().get(runResult.getKey());
+                        projectResult.getScenarioResults().get(runResult.getKey());
                 if(lrProjectScenarioResults.getBuildCount() > MAX_DISPLAY_BUILDS)
                 {
                     continue;
@@ -289,9 +260,10 @@ public class PerformanceProjectAction implements Action {
             }
 
         }
+        return projectResult;
     }
 
-    private void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinDurationStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                    JobLrScenarioResult scenarioRunResult) {
         long scenarioConnectionMax = scenarioRunResult.getScenarioDuration();
         if (scenarioConnectionMax != DEFAULT_SCENARIO_DURATION) {
@@ -299,7 +271,7 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinTransactionScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                               JobLrScenarioResult scenarioRunResult) {
         SortedMap<Integer, TreeMap<String, TreeMap<String, Integer>>> projectTransactionPerRun =
                 lrProjectScenarioResults.getTransactionPerRun();
@@ -348,7 +320,7 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinVUserScenarioStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                         JobLrScenarioResult scenarioRunResult) {
         SortedMap<Integer, TreeMap<String, Integer>> vUserPerRun = lrProjectScenarioResults.getvUserPerRun();
         if (scenarioRunResult.vUserSum != null && !scenarioRunResult.vUserSum.isEmpty()) {
@@ -368,7 +340,7 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
+    private static void joinSceanrioConnectionsStats(int runNumber, LrProjectScenarioResults lrProjectScenarioResults,
                                               JobLrScenarioResult scenarioRunResult) {
         int scenarioConnectionMax = scenarioRunResult.getConnectionMax();
         if (scenarioConnectionMax != DEFAULT_CONNECTION_MAX) {
@@ -429,20 +401,6 @@ public class PerformanceProjectAction implements Action {
         }
     }
 
-    private boolean isUpdateDataNeeded() {
-//        final Run<?, ?> lastBuild = currentProject.getLastBuild();
-//        if (null == lastBuild) {
-//            return false;
-//        }
-//
-//        int latestBuildNumber = lastBuild.getNumber();
-//        if (latestBuildNumber == lastBuildId) {
-//            return true;
-//        }
-
-        return true;
-    }
-
 //    @Override
 //    public Collection<? extends Action> getProjectActions() {
 //        this.projectActions.add(this);
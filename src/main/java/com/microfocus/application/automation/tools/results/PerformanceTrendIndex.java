@@ -0,0 +1,518 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.AvgTransactionResponseTime;
+import com.microfocus.application.automation.tools.results.projectparser.performance.GoalResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrProjectScenarioResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTest;
+import com.microfocus.application.automation.tools.results.projectparser.performance.PercentileTransactionWholeRun;
+import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRange;
+import com.microfocus.application.automation.tools.results.projectparser.performance.TimeRangeResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import net.sf.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Incremental index of the LoadRunner results shown on the project performance trend.
+ * <p>
+ * The index keeps a summary of the latest builds that published a {@link PerformanceJobReportAction}, keyed by
+ * build number. The summary holds only the per scenario numbers the trend graphs are drawn from. A refresh only
+ * visits the builds completed since the previous refresh, and walks older builds only while the window is not full,
+ * so builds outside the displayed range are never loaded. Deleted builds are evicted by a {@link RunListener}, deleted
+ * and renamed jobs by an {@link ItemListener}. The index is persisted in the job folder so it survives a restart
+ * without reloading the build history.
+ * <p>
+ * The graph data sets built out of the project results are cached per scenario until the indexed builds change.
+ */
+public final class PerformanceTrendIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(PerformanceTrendIndex.class.getName());
+    private static final String INDEX_FILE_NAME = "lrTrendIndex.xml";
+    private static final int MAX_BUILDS = PerformanceProjectAction.MAX_DISPLAY_BUILDS;
+    private static final Map<String, PerformanceTrendIndex> indexes = new HashMap<>();
+
+    private transient ProjectLrResults projectResult;
+    private transient long version;
+    private transient long projectResultVersion = -1;
+    private transient Map<String, JSONObject> graphData = new HashMap<>();
+
+    // persisted state
+    private int lastScannedBuild;
+    private int oldestScannedBuild;
+    private TreeMap<Integer, BuildSummary> builds = new TreeMap<>();
+
+    private PerformanceTrendIndex() {
+    }
+
+    /**
+     * Gets the index of the given job, loading it from the job folder the first time.
+     *
+     * @param job the job
+     * @return the index
+     */
+    public static PerformanceTrendIndex get(Job<?, ?> job) {
+        synchronized (indexes) {
+            PerformanceTrendIndex index = indexes.get(job.getFullName());
+            if (index == null) {
+                index = new PerformanceTrendIndex();
+                index.load(job);
+                indexes.put(job.getFullName(), index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Gets the index of the given job only if one was built before.
+     */
+    private static PerformanceTrendIndex getIfExists(Job<?, ?> job) {
+        synchronized (indexes) {
+            PerformanceTrendIndex index = indexes.get(job.getFullName());
+            if (index == null && new File(job.getRootDir(), INDEX_FILE_NAME).exists()) {
+                index = get(job);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Drops the loaded indexes of the given item and of the items below it.
+     *
+     * @param fullName the full name of a job or folder
+     */
+    static void forget(String fullName) {
+        synchronized (indexes) {
+            Iterator<String> names = indexes.keySet().iterator();
+            while (names.hasNext()) {
+                String name = names.next();
+                if (name.equals(fullName) || name.startsWith(fullName + "/")) {
+                    names.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds the builds completed since the last call into the index and returns the project results of the indexed
+     * builds. The project results are rebuilt only when the indexed builds changed.
+     *
+     * @param job    the job of the index
+     * @param folder builds the project results out of the indexed build results
+     * @return the project results
+     */
+    public synchronized ProjectLrResults getProjectResult(Job<?, ?> job, ProjectResultFolder folder) {
+        refresh(job);
+        if (projectResult == null || projectResultVersion != version) {
+            NavigableMap<Integer, LrJobResults> buildResults = new TreeMap<>();
+            for (Map.Entry<Integer, BuildSummary> build : builds.entrySet()) {
+                buildResults.put(build.getKey(), build.getValue().toJobResults());
+            }
+            projectResult = folder.fold(buildResults);
+            projectResultVersion = version;
+            graphData.clear();
+        }
+        return projectResult;
+    }
+
+    /**
+     * Gets the graph data set of a scenario, building it only the first time it is asked for after the project
+     * results changed.
+     *
+     * @param result       the project results returned by {@link #getProjectResult}
+     * @param scenarioName the scenario name
+     * @param columnar     whether the per transaction graphs hold their values as columns
+     * @return the graph data set, or null if the scenario has no results
+     */
+    public synchronized JSONObject getScenarioGraphData(ProjectLrResults result, String scenarioName,
+                                                        boolean columnar) {
+        LrProjectScenarioResults scenarioResults = result.getScenarioResults().get(scenarioName);
+        if (scenarioResults == null) {
+            return null;
+        }
+        Map.Entry<String, LrProjectScenarioResults> scenario =
+                new AbstractMap.SimpleImmutableEntry<>(scenarioName, scenarioResults);
+        if (result != projectResult) {
+            // the results were already replaced by a newer version, don't cache data built out of them
+            return LrGraphUtils.constructScenarioGraphData(scenario, columnar);
+        }
+        String key = (columnar ? "columns:" : "series:") + scenarioName;
+        JSONObject scenarioGraphData = graphData.get(key);
+        if (scenarioGraphData == null) {
+            scenarioGraphData = LrGraphUtils.constructScenarioGraphData(scenario, columnar);
+            graphData.put(key, scenarioGraphData);
+        }
+        return scenarioGraphData;
+    }
+
+    /**
+     * @return a number that changes every time the indexed builds change
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the numbers of the indexed builds, oldest first
+     */
+    synchronized List<Integer> getBuildNumbers() {
+        return new ArrayList<>(builds.keySet());
+    }
+
+    synchronized void refresh(Job<?, ?> job) {
+        boolean changed = scanNewBuilds(job);
+        changed |= scanOlderBuilds(job);
+        if (changed) {
+            version++;
+            save(job);
+        }
+    }
+
+    /**
+     * Visits the builds newer than the last scanned one, newest first, until the window is full.
+     * Builds still running are visited again on the next refresh.
+     */
+    private boolean scanNewBuilds(Job<?, ?> job) {
+        Run<?, ?> lastBuild = job.getLastBuild();
+        if (lastBuild == null || lastBuild.getNumber() <= lastScannedBuild) {
+            return false;
+        }
+
+        boolean changed = false;
+        int indexedBuilds = 0;
+        int oldestVisitedBuild = lastBuild.getNumber();
+        int newLastScannedBuild = lastBuild.getNumber();
+        Run<?, ?> run = lastBuild;
+        while (run != null && run.getNumber() > lastScannedBuild && indexedBuilds < MAX_BUILDS) {
+            if (run.isBuilding()) {
+                newLastScannedBuild = run.getNumber() - 1;
+            } else if (index(run)) {
+                indexedBuilds++;
+                changed = true;
+            }
+            oldestVisitedBuild = run.getNumber();
+            run = run.getPreviousBuild();
+        }
+
+        if (indexedBuilds >= MAX_BUILDS) {
+            // the window is full of new builds, everything older is out of range
+            oldestScannedBuild = oldestVisitedBuild;
+        } else if (oldestScannedBuild == 0) {
+            oldestScannedBuild = Math.max(1, oldestVisitedBuild);
+        }
+        lastScannedBuild = newLastScannedBuild;
+        changed |= trim();
+        return changed;
+    }
+
+    /**
+     * Fills the window with builds older than the oldest scanned one, e.g. after builds were deleted.
+     */
+    private boolean scanOlderBuilds(Job<?, ?> job) {
+        if (builds.size() >= MAX_BUILDS || oldestScannedBuild <= 1) {
+            return false;
+        }
+
+        boolean changed = false;
+        Run<?, ?> run = job.getNearestOldBuild(oldestScannedBuild - 1);
+        while (run != null && builds.size() < MAX_BUILDS) {
+            changed |= index(run);
+            oldestScannedBuild = run.getNumber();
+            run = run.getPreviousBuild();
+        }
+        if (run == null) {
+            // reached the first build
+            oldestScannedBuild = 1;
+        }
+        return changed;
+    }
+
+    private boolean index(Run<?, ?> run) {
+        PerformanceJobReportAction performanceJobReportAction = run.getAction(PerformanceJobReportAction.class);
+        if (performanceJobReportAction == null || performanceJobReportAction.getLrResultBuildDataset() == null) {
+            return false;
+        }
+        builds.put(run.getNumber(), new BuildSummary(performanceJobReportAction.getLrResultBuildDataset()));
+        return true;
+    }
+
+    private boolean trim() {
+        boolean changed = false;
+        while (builds.size() > MAX_BUILDS) {
+            builds.pollFirstEntry();
+            changed = true;
+        }
+        if (changed) {
+            // builds below the window were dropped, scan them again if the window shrinks
+            oldestScannedBuild = builds.firstKey();
+        }
+        return changed;
+    }
+
+    synchronized void evict(Job<?, ?> job, int buildNumber) {
+        if (builds.remove(buildNumber) != null) {
+            version++;
+            save(job);
+        }
+    }
+
+    private static XmlFile getIndexFile(Job<?, ?> job) {
+        return new XmlFile(Items.XSTREAM2, new File(job.getRootDir(), INDEX_FILE_NAME));
+    }
+
+    private void load(Job<?, ?> job) {
+        XmlFile indexFile = getIndexFile(job);
+        if (!indexFile.exists()) {
+            return;
+        }
+        try {
+            indexFile.unmarshal(this);
+            if (builds == null) {
+                builds = new TreeMap<>();
+            }
+            trim();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to load the performance trend index of " + job.getFullName()
+                    + ", rebuilding it", e);
+            lastScannedBuild = 0;
+            oldestScannedBuild = 0;
+            builds = new TreeMap<>();
+        }
+    }
+
+    private void save(Job<?, ?> job) {
+        try {
+            getIndexFile(job).write(this);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the performance trend index of " + job.getFullName(), e);
+        }
+    }
+
+    /**
+     * Builds the project results out of the results of the indexed builds.
+     */
+    public interface ProjectResultFolder {
+        /**
+         * @param buildResults the results of the indexed builds keyed by build number
+         * @return the project results
+         */
+        ProjectLrResults fold(NavigableMap<Integer, LrJobResults> buildResults);
+    }
+
+    /**
+     * The trend numbers of one build: per scenario, the values plotted on the project graphs.
+     */
+    static final class BuildSummary {
+        private final Map<String, ScenarioSummary> scenarios = new HashMap<>();
+
+        BuildSummary(LrJobResults results) {
+            for (JobLrScenarioResult scenarioResult : results.getLrScenarioResults().values()) {
+                scenarios.put(scenarioResult.getScenarioName(), new ScenarioSummary(scenarioResult));
+            }
+        }
+
+        /**
+         * @return the build results holding only the summarized numbers
+         */
+        LrJobResults toJobResults() {
+            LrJobResults results = new LrJobResults();
+            for (Map.Entry<String, ScenarioSummary> scenario : scenarios.entrySet()) {
+                results.addScenario(scenario.getValue().toScenarioResult(scenario.getKey()));
+            }
+            return results;
+        }
+    }
+
+    private static final class ScenarioSummary {
+        private final int connectionMax;
+        private final long duration;
+        private final TreeMap<String, Integer> vUserSum;
+        private final TreeMap<String, Integer> transactionSum;
+        private final TreeMap<String, TreeMap<String, Integer>> transactionData;
+        private final List<GoalSummary> goals = new ArrayList<>();
+
+        ScenarioSummary(JobLrScenarioResult scenarioResult) {
+            connectionMax = scenarioResult.getConnectionMax();
+            duration = scenarioResult.getScenarioDuration();
+            vUserSum = scenarioResult.vUserSum != null ? new TreeMap<>(scenarioResult.vUserSum) : null;
+            transactionSum = scenarioResult.transactionSum;
+            transactionData = scenarioResult.transactionData;
+            for (GoalResult goalResult : scenarioResult.scenarioSlaResults) {
+                if (goalResult.getStatus() != LrTest.SLA_STATUS.NoData && GoalSummary.isPlotted(goalResult)) {
+                    goals.add(new GoalSummary(goalResult));
+                }
+            }
+        }
+
+        JobLrScenarioResult toScenarioResult(String scenarioName) {
+            JobLrScenarioResult scenarioResult = new JobLrScenarioResult(scenarioName);
+            scenarioResult.setConnectionMax(connectionMax);
+            scenarioResult.setScenarioDuration(duration);
+            scenarioResult.vUserSum = vUserSum;
+            scenarioResult.transactionSum = transactionSum;
+            scenarioResult.transactionData = transactionData;
+            for (GoalSummary goal : goals) {
+                scenarioResult.scenarioSlaResults.add(goal.toGoalResult());
+            }
+            return scenarioResult;
+        }
+    }
+
+    private static final class GoalSummary {
+        private final LrTest.SLA_GOAL goal;
+        private final LrTest.SLA_STATUS status;
+        private final String name;
+        private final double value;
+        private final boolean timeRanges;
+
+        GoalSummary(GoalResult goalResult) {
+            goal = goalResult.getSlaGoal();
+            status = goalResult.getStatus();
+            if (goalResult instanceof TimeRangeResult) {
+                TimeRangeResult timeRangeResult = (TimeRangeResult) goalResult;
+                value = timeRangeResult.getActualValueAvg();
+                timeRanges = !timeRangeResult.getTimeRanges().isEmpty();
+            } else {
+                value = ((WholeRunResult) goalResult).getActualValue();
+                timeRanges = false;
+            }
+            if (goalResult instanceof PercentileTransactionWholeRun) {
+                name = ((PercentileTransactionWholeRun) goalResult).getName();
+            } else if (goalResult instanceof AvgTransactionResponseTime) {
+                name = ((AvgTransactionResponseTime) goalResult).getName();
+            } else {
+                name = null;
+            }
+        }
+
+        static boolean isPlotted(GoalResult goalResult) {
+            switch (goalResult.getSlaGoal()) {
+                case AverageThroughput:
+                case TotalThroughput:
+                case AverageHitsPerSecond:
+                case TotalHits:
+                case PercentileTRT:
+                    return goalResult instanceof WholeRunResult;
+                case ErrorsPerSecond:
+                case AverageTRT:
+                    return goalResult instanceof TimeRangeResult;
+                default:
+                    return false;
+            }
+        }
+
+        GoalResult toGoalResult() {
+            GoalResult goalResult;
+            switch (goal) {
+                case PercentileTRT:
+                    PercentileTransactionWholeRun percentile = new PercentileTransactionWholeRun();
+                    percentile.setName(name);
+                    percentile.setActualValue(value);
+                    goalResult = percentile;
+                    break;
+                case AverageTRT:
+                    AvgTransactionResponseTime transactionTime = new AvgTransactionResponseTime();
+                    transactionTime.setName(name);
+                    goalResult = toTimeRangeResult(transactionTime);
+                    break;
+                case ErrorsPerSecond:
+                    goalResult = toTimeRangeResult(new TimeRangeResult());
+                    break;
+                default:
+                    goalResult = new WholeRunResult(value, 0);
+                    break;
+            }
+            goalResult.setSlaGoal(goal);
+            goalResult.setStatus(status);
+            return goalResult;
+        }
+
+        private TimeRangeResult toTimeRangeResult(TimeRangeResult timeRangeResult) {
+            if (timeRanges) {
+                // a single range keeps the average of all the original ranges
+                timeRangeResult.getTimeRanges().add(new TimeRange(value, 0, status, 0, 0, 0));
+            }
+            timeRangeResult.incActualValue(value);
+            return timeRangeResult;
+        }
+    }
+
+    /**
+     * Evicts deleted builds from the index of their job.
+     */
+    @Extension
+    public static class DeletedBuildListener extends RunListener<Run<?, ?>> {
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            PerformanceTrendIndex index = getIfExists(run.getParent());
+            if (index != null) {
+                index.evict(run.getParent(), run.getNumber());
+            }
+        }
+    }
+
+    /**
+     * Drops the loaded indexes of deleted and renamed jobs, a renamed job loads its index again from its new folder.
+     */
+    @Extension
+    public static class JobLocationListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            forget(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            forget(oldFullName);
+        }
+    }
+}
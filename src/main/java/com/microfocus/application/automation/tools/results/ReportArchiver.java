@@ -0,0 +1,259 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies report folders from the executing node to the master.
+ * The zip produced on the node is streamed straight into the target file on the master through a bounded buffer,
+ * so the size of a report folder no longer translates into master heap usage.
+ * An instance collects the transfer statistics of one build and prints them to the console at the end.
+ * <p>
+ * When created with more than one concurrent transfer, {@link #archiveAsync(FilePath, FilePath)} archives the report
+ * folders on a pool owned by the build. The number of transfers in flight is also bounded per agent channel, so
+ * concurrent builds running on the same agent share the same limit.
+ */
+public class ReportArchiver {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long BYTES_IN_KB = 1024L;
+    private static final long EXECUTOR_KEEP_ALIVE_SECONDS = 60L;
+
+    private static final Map<VirtualChannel, ChannelPermits> channelTransfers = new WeakHashMap<>();
+
+    private final int maxConcurrentTransfers;
+    private final List<Future<Long>> pendingTransfers = new ArrayList<>();
+    private ExecutorService executor;
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final AtomicLong transferNanos = new AtomicLong();
+    private final AtomicInteger archiveCount = new AtomicInteger();
+
+    public ReportArchiver() {
+        this(1);
+    }
+
+    /**
+     * @param maxConcurrentTransfers the maximum number of archives transferred at the same time, 1 archives
+     *                               every report folder on the calling thread
+     */
+    public ReportArchiver(int maxConcurrentTransfers) {
+        this.maxConcurrentTransfers = Math.max(1, maxConcurrentTransfers);
+    }
+
+    /**
+     * Zips the given folder (or file) on its node and streams the archive into the target file.
+     *
+     * @param source       the folder to archive, usually located on the node that executed the tests
+     * @param archivedFile the zip file to create
+     * @return the number of bytes written to the archive
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public long archive(FilePath source, FilePath archivedFile) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        CountingOutputStream out = new CountingOutputStream(new BufferedOutputStream(archivedFile.write(), BUFFER_SIZE));
+        try {
+            // don't use FileFilter for zip, or it will cause bug when files are on slave
+            source.zip(out);
+        } finally {
+            out.close();
+        }
+
+        long bytes = out.getByteCount();
+        transferredBytes.addAndGet(bytes);
+        transferNanos.addAndGet(System.nanoTime() - start);
+        archiveCount.incrementAndGet();
+        return bytes;
+    }
+
+    /**
+     * Archives the given folder like {@link #archive(FilePath, FilePath)}, in the background when concurrent
+     * transfers are enabled. Callers must invoke {@link #awaitPendingTransfers()} before using the archive.
+     *
+     * @param source       the folder to archive, usually located on the node that executed the tests
+     * @param archivedFile the zip file to create
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void archiveAsync(final FilePath source, final FilePath archivedFile) throws IOException, InterruptedException {
+        if (maxConcurrentTransfers == 1) {
+            archive(source, archivedFile);
+            return;
+        }
+
+        if (executor == null) {
+            // idle threads time out, so a build failing before awaitPendingTransfers() does not leak the pool
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrentTransfers, maxConcurrentTransfers,
+                    EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new NamingThreadFactory(new DaemonThreadFactory(), ReportArchiver.class.getSimpleName()));
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+
+        final Semaphore channelPermits = getChannelPermits(source.getChannel());
+        pendingTransfers.add(executor.submit(() -> {
+            channelPermits.acquire();
+            try {
+                return archive(source, archivedFile);
+            } finally {
+                channelPermits.release();
+            }
+        }));
+    }
+
+    /**
+     * Waits until all archives scheduled by {@link #archiveAsync(FilePath, FilePath)} are written.
+     * The first failed transfer is rethrown once all transfers are done.
+     *
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void awaitPendingTransfers() throws IOException, InterruptedException {
+        IOException failure = null;
+        try {
+            for (Future<Long> transfer : pendingTransfers) {
+                try {
+                    transfer.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof IOException ? (IOException) e.getCause() :
+                                new IOException(e.getCause());
+                    }
+                }
+            }
+        } finally {
+            pendingTransfers.clear();
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private Semaphore getChannelPermits(VirtualChannel channel) {
+        synchronized (channelTransfers) {
+            ChannelPermits permits = channelTransfers.get(channel);
+            // the limit was reconfigured, transfers still holding the previous permits release them there
+            if (permits == null || permits.size != maxConcurrentTransfers) {
+                permits = new ChannelPermits(maxConcurrentTransfers);
+                channelTransfers.put(channel, permits);
+            }
+            return permits.semaphore;
+        }
+    }
+
+    private static final class ChannelPermits {
+        private final int size;
+        private final Semaphore semaphore;
+
+        private ChannelPermits(int size) {
+            this.size = size;
+            this.semaphore = new Semaphore(size, true);
+        }
+    }
+
+    /**
+     * Copies the given folder (or file) into the target directory by archiving it into a temporary zip next to the
+     * target and extracting it there. The temporary zip is removed afterwards.
+     *
+     * @param source     the folder to copy
+     * @param targetDir  the directory the content is extracted to
+     * @param tmpZipName the name of the temporary zip created in the target directory
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void copy(FilePath source, FilePath targetDir, String tmpZipName) throws IOException, InterruptedException {
+        /*
+         * I did't use copyRecursiveTo or copyFrom due to bug in
+         * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
+         * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
+         * it to the master.
+         */
+        FilePath tmpZipFile = new FilePath(targetDir, tmpZipName);
+        try {
+            archive(source, tmpZipFile);
+            tmpZipFile.unzip(targetDir);
+        } finally {
+            tmpZipFile.delete();
+        }
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    public int getArchiveCount() {
+        return archiveCount.get();
+    }
+
+    /**
+     * Prints the amount of data transferred and the resulting throughput to the build console.
+     *
+     * @param listener the build listener
+     */
+    public void printStatistics(TaskListener listener) {
+        int count = archiveCount.get();
+        if (count == 0) {
+            return;
+        }
+
+        long bytes = transferredBytes.get();
+        long millis = TimeUnit.NANOSECONDS.toMillis(transferNanos.get());
+        long throughput = millis == 0 ? bytes / BYTES_IN_KB : (bytes * 1000 / millis) / BYTES_IN_KB;
+        listener.getLogger().println(String.format("Archived %d report(s): %d KB in %d ms (%d KB/s)",
+                count, bytes / BYTES_IN_KB, millis, throughput));
+    }
+}
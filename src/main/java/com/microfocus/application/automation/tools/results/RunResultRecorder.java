@@ -37,6 +37,7 @@ import com.microfocus.application.automation.tools.run.PcBuilder;
 import com.microfocus.application.automation.tools.run.RunFromAlmBuilder;
 import com.microfocus.application.automation.tools.run.RunFromFileBuilder;
 import com.microfocus.application.automation.tools.run.SseBuilder;
+import com.microfocus.application.automation.tools.settings.RunnerMiscSettingsGlobalConfiguration;
 import com.microfocus.application.automation.tools.uft.utils.UftToolUtils;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -82,9 +83,6 @@ import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.util.*;
 
-import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNode;
-import static com.microfocus.application.automation.tools.results.projectparser.performance.XmlParserUtil.getNodeAttr;
-
 /**
  * using {@link JUnitResultArchiver};
  *
@@ -109,8 +107,6 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	private static final String TRANSACTION_SUMMARY_FOLDER = "TransactionSummary";
 	private static final String RICH_REPORT_FOLDER = "RichReport";
 	private static final String TRANSACTION_REPORT_NAME = "TransactionReport";
-	private static final String SLA_ACTUAL_VALUE_LABEL = "ActualValue";
-	private static final String SLA_GOAL_VALUE_LABEL = "GoalValue";
 	private static final String NO_RICH_REPORTS_ERROR = "Template contains no rich reports.";
 	private static final String NO_TRANSACTION_SUMMARY_REPORT_ERROR = "Template contains no transaction summary " +
 			"report.";
@@ -120,7 +116,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	private static final String RESULT = "Result";
 
 	private final ResultsPublisherModel _resultsPublisherModel;
-	private List<FilePath> runReportList;
+	private Map<String, FilePath> runReports;
 
 
 	/**
@@ -135,33 +131,6 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 	}
 
-	private static void addTimeRanges(TimeRangeResult transactionTimeRange, Element slaRuleElement) {
-		Node timeRangeNode;
-		Element timeRangeElement;
-		NodeList timeRanges = slaRuleElement.getElementsByTagName("TimeRangeInfo");
-		if (timeRanges == null || timeRanges.getLength() == 0) {
-			return;
-		}
-		// Taking the goal per transaction -
-		double generalGoalValue = Double.parseDouble(((Element) timeRanges.item(0)).getAttribute(SLA_GOAL_VALUE_LABEL));
-		transactionTimeRange.setGoalValue(generalGoalValue);
-
-		for (int k = 0; k < timeRanges.getLength(); k++) {
-			timeRangeNode = timeRanges.item(k);
-			timeRangeElement = (Element) timeRangeNode;
-			double actualValue = Double.parseDouble(timeRangeElement.getAttribute(SLA_ACTUAL_VALUE_LABEL));
-			double goalValue = Double.parseDouble(timeRangeElement.getAttribute(SLA_GOAL_VALUE_LABEL));
-			int loadValue = Integer.parseInt(timeRangeElement.getAttribute("LoadValue"));
-			double startTime = Double.parseDouble(timeRangeElement.getAttribute("StartTime"));
-			double endTIme = Double.parseDouble(timeRangeElement.getAttribute("EndTime"));
-			transactionTimeRange.incActualValue(actualValue);
-			LrTest.SLA_STATUS slaStatus = LrTest.SLA_STATUS
-					.checkStatus(timeRangeElement.getFirstChild().getTextContent());
-			TimeRange timeRange = new TimeRange(actualValue, goalValue, slaStatus, loadValue, startTime, endTIme);
-			transactionTimeRange.getTimeRanges().add(timeRange);
-		}
-	}
-
 	@Override
 	public DescriptorImpl getDescriptor() {
 
@@ -189,7 +158,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	                            @Nonnull TaskListener listener, @Nonnull Map<String, String> builderResultNames)
 			throws IOException, InterruptedException {
 		final List<String> mergedResultNames = new ArrayList<String>();
-		runReportList = new ArrayList<FilePath>();
+		runReports = new LinkedHashMap<String, FilePath>();
 		final List<String> fileSystemResultNames = new ArrayList<String>();
 		fileSystemResultNames.add(builderResultNames.get(RunFromFileBuilder.class.getName()));
 
@@ -243,11 +212,11 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			listener.error(ARCHIVING_TEST_REPORTS_FAILED_DUE_TO_XML_PARSING_ERROR + e);
 		}
 
-		if ((runReportList != null) && !(runReportList.isEmpty())) {
+		if ((runReports != null) && !(runReports.isEmpty())) {
 			LrJobResults jobDataSet = null;
 			try {
 				jobDataSet = buildJobDataset(listener);
-			} catch (ParserConfigurationException | SAXException e) {
+			} catch (IOException e) {
 				listener.error(ARCHIVING_TEST_REPORTS_FAILED_DUE_TO_XML_PARSING_ERROR + e);
 			}
 
@@ -378,6 +347,13 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 				listener.getLogger().println("Failed to get the current Node: " + e.getMessage());
 			}
 		}
+		int archivingThreads = RunnerMiscSettingsGlobalConfiguration.DEFAULT_REPORT_ARCHIVING_THREADS;
+		try {
+			archivingThreads = RunnerMiscSettingsGlobalConfiguration.getInstance().getReportArchivingThreads();
+		} catch (NullPointerException | IllegalStateException ignored) {
+			// keep the default
+		}
+		ReportArchiver reportArchiver = new ReportArchiver(archivingThreads);
 		for (String resultsFilePath : resultFiles) {
 			FilePath resultsFile = projectWS.child(resultsFilePath);
 			List<ReportMetaData> ReportInfoToCollect = new ArrayList<ReportMetaData>();
@@ -408,6 +384,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 					Node testCaseNode = testSuiteElement.getElementsByTagName("testcase").item(0);
 					if (testCaseNode == null) {
 						listener.getLogger().println("No report folder was found in results");
+						reportArchiver.awaitPendingTransfers();
+						reportArchiver.printStatistics(listener);
 						return;
 					}
 					if (testCaseNode.getNodeType() == Node.ELEMENT_NODE) {
@@ -427,20 +405,23 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 						String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, testFolder.getName(), "LR");
 						FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
 
-						if (archiveFolder(reportFolder, testStatus, archivedFile, listener)) {
+						if (archiveFolder(reportFolder, testStatus, archivedFile, listener, reportArchiver)) {
 							zipFileNames.add(zipFileName);
 						}
 
 						createRichReports(reportFolder, testFolderPath, artifactsDir, reportNames, testResult,
 								listener);
-						createHtmlReport(reportFolder, testFolderPath, artifactsDir, reportNames, testResult);
+						createHtmlReport(reportFolder, testFolderPath, artifactsDir, reportNames, testResult,
+								reportArchiver);
 						createTransactionSummary(reportFolder, testFolderPath, artifactsDir, reportNames, testResult);
 						try {
-							FilePath testSla = copyRunReport(reportFolder, build.getRootDir(), testFolder.getName());
+							FilePath testSla = copyRunReport(reportFolder, build.getRootDir(), testFolder.getName(),
+									reportArchiver);
 							if (testSla == null) {
 								listener.getLogger().println("no RunReport.xml file was created");
 							} else {
-								runReportList.add(testSla);
+								// parse the report on the node, the copy is only kept as part of the build record
+								runReports.put(testFolder.getName(), new FilePath(reportFolder, "RunReport.xml"));
 							}
 						} catch (IOException | InterruptedException e) {
 							listener.getLogger().println(e);
@@ -549,25 +530,9 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 								FilePath testFolder = new FilePath(channel, testFolderPath);
 								String zipFileName = getUniqueZipFileNameInFolder(zipFileNames, (StringUtils.isBlank(nodeName) ? "" : nodeName + "_") + testFolder.getName(), "UFT");
 								zipFileNames.add(zipFileName);
-								ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-
-								// don't use FileFilter for zip, or it will cause bug when files are on slave
-								reportFolder.zip(outstr);
-
-								/*
-								 * I did't use copyRecursiveTo or copyFrom due to bug in
-								 * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
-								 * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
-								 * it to the master.
-								 */
-
-								ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
 
 								FilePath archivedFile = new FilePath(new FilePath(artifactsDir), zipFileName);
-								archivedFile.copyFrom(instr);
-
-								outstr.close();
-								instr.close();
+								reportArchiver.archiveAsync(reportFolder, archivedFile);
 
 								// add to Report list
 								String zipFileUrlName = "artifact/" + zipFileName;
@@ -582,7 +547,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 				}
 
 				if (isHtmlReport && !ReportInfoToCollect.isEmpty()) {
-					collectAndPrepareHtmlReports(build, listener, ReportInfoToCollect, runWorkspace, nodeName);
+					collectAndPrepareHtmlReports(build, listener, ReportInfoToCollect, runWorkspace, nodeName,
+							reportArchiver);
 				}
 
 				if (!ReportInfoToCollect.isEmpty()) {
@@ -610,6 +576,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 				}
 			}
 		}
+		reportArchiver.awaitPendingTransfers();
+		reportArchiver.printStatistics(listener);
 	}
 
 	private void writeReportMetaData2XML(List<ReportMetaData> htmlReportsInfo, String xmlFile, TaskListener _logger) {
@@ -674,7 +642,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 
 	}
 
-	private Boolean collectAndPrepareHtmlReports(Run build, TaskListener listener, List<ReportMetaData> htmlReportsInfo, FilePath runWorkspace, String nodeName) {
+	private Boolean collectAndPrepareHtmlReports(Run build, TaskListener listener, List<ReportMetaData> htmlReportsInfo,
+	                                             FilePath runWorkspace, String nodeName, ReportArchiver reportArchiver) {
 		File reportMainDir = new File(new File(build.getRootDir(), "archive"), "UFTReport");
 		if (StringUtils.isNotBlank(nodeName)) {
 			reportMainDir = new File(reportMainDir, nodeName);
@@ -696,7 +665,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 						String testFolderPath = dir.getPath().substring(0, dir.getPath().lastIndexOf('\\'));
 						String stResPath = new File(testFolderPath, subdir).getAbsolutePath();
 						if (UftToolUtils.getFilePath(nodeName, stResPath).exists()) {
-							archiveAndCopyReportFolder(runWorkspace, reportDir, stResPath);
+							archiveAndCopyReportFolder(runWorkspace, reportDir, stResPath, reportArchiver);
 						}
 					}
 				} catch (Exception e){
@@ -705,7 +674,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 				//for example:  C:\Program Files (x86)\Jenkins\workspace\job_name
 
 				// archive and copy to the subdirs of master
-				archiveAndCopyReportFolder(runWorkspace, reportDir, htmlReportDir);
+				archiveAndCopyReportFolder(runWorkspace, reportDir, htmlReportDir, reportArchiver);
 				// zip copy and unzip
 				// now,all the files are in the C:\Program Files (x86)
 				// \Jenkins\jobs\testAction\builds\35\archive\UFTReport\Report
@@ -756,29 +725,14 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 		return true;
 	}
 
-	private void archiveAndCopyReportFolder(FilePath runWorkspace, File reportDir, String htmlReportDir) throws IOException, InterruptedException {
+	private void archiveAndCopyReportFolder(FilePath runWorkspace, File reportDir, String htmlReportDir,
+	                                        ReportArchiver reportArchiver) throws IOException, InterruptedException {
 		FilePath rootTarget = new FilePath(reportDir);
 
 		FilePath source  = new FilePath(runWorkspace, htmlReportDir);
 
-		ByteArrayOutputStream outStr = new ByteArrayOutputStream();
-		source.zip(outStr);
-
-		ByteArrayInputStream inStr= new ByteArrayInputStream(outStr.toByteArray());
-		String zipFileName = "UFT_Report_HTML_tmp.zip";
-		FilePath archivedFile = new FilePath(rootTarget, zipFileName);
-
-		//copy from slave to master
-		archivedFile.copyFrom(inStr);
-
-		// end zip copy and unzip
-		archivedFile.unzip(rootTarget);
-
-		//delete temporary archive UFT_Report_HTML_tmp.zip
-		archivedFile.delete();
-
-		outStr.close();
-		inStr.close();
+		//copy from slave to master through the temporary archive UFT_Report_HTML_tmp.zip
+		reportArchiver.copy(source, rootTarget, "UFT_Report_HTML_tmp.zip");
 	}
 
 	/**
@@ -788,27 +742,21 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	 * @param reportFolder
 	 * @param buildDir
 	 * @param scenarioName
+	 * @param reportArchiver
 	 * @return
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
-	private FilePath copyRunReport(FilePath reportFolder, File buildDir, String scenarioName)
-			throws IOException, InterruptedException {
+	private FilePath copyRunReport(FilePath reportFolder, File buildDir, String scenarioName,
+	                               ReportArchiver reportArchiver) throws IOException, InterruptedException {
 		FilePath slaReportFilePath = new FilePath(reportFolder, "RunReport.xml");
 		if (slaReportFilePath.exists()) {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			slaReportFilePath.zip(baos);
 			File slaDirectory = new File(buildDir, "RunReport");
 			if (!slaDirectory.exists()) {
 				slaDirectory.mkdir();
 			}
-			ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
 			FilePath slaDirectoryFilePath = new FilePath(slaDirectory);
-			FilePath tmpZipFile = new FilePath(slaDirectoryFilePath, "runReport.zip");
-			tmpZipFile.copyFrom(bais);
-			bais.close();
-			baos.close();
-			tmpZipFile.unzip(slaDirectoryFilePath);
+			reportArchiver.copy(slaReportFilePath, slaDirectoryFilePath, "runReport.zip");
 			FilePath slaFile = new FilePath(slaDirectoryFilePath, "RunReport.xml");
 			slaFile.getBaseName();
 			slaFile.renameTo(new FilePath(slaDirectoryFilePath, scenarioName + ".xml"));
@@ -821,7 +769,8 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	}
 
 	private boolean archiveFolder(FilePath reportFolder, String testStatus, FilePath archivedFile,
-	                              TaskListener listener) throws IOException, InterruptedException {
+	                              TaskListener listener, ReportArchiver reportArchiver)
+			throws IOException, InterruptedException {
 		String archiveTestResultMode = _resultsPublisherModel.getArchiveTestResultsMode();
 		boolean archiveTestResult;
 
@@ -832,23 +781,7 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			if (reportFolder.exists()) {
 
 				listener.getLogger().println("Zipping report folder: " + reportFolder);
-
-				ByteArrayOutputStream outstr = new ByteArrayOutputStream();
-				reportFolder.zip(outstr);
-
-				/*
-				 * I did't use copyRecursiveTo or copyFrom due to bug in
-				 * jekins:https://issues.jenkins-ci.org/browse /JENKINS-9189 //(which is
-				 * cleaimed to have been fixed, but not. So I zip the folder to stream and copy
-				 * it to the master.
-				 */
-
-				ByteArrayInputStream instr = new ByteArrayInputStream(outstr.toByteArray());
-
-				archivedFile.copyFrom(instr);
-
-				outstr.close();
-				instr.close();
+				reportArchiver.archiveAsync(reportFolder, archivedFile);
 				return true;
 			} else {
 				listener.getLogger().println("No report folder was found in: " + reportFolder);
@@ -880,12 +813,14 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	 * @param artifactsDir
 	 * @param reportNames
 	 * @param testResult
+	 * @param reportArchiver
 	 * @throws IOException
 	 * @throws InterruptedException
 	 */
 	@SuppressWarnings("squid:S134")
 	private void createHtmlReport(FilePath reportFolder, String testFolderPath, File artifactsDir,
-	                              List<String> reportNames, TestResult testResult) throws IOException, InterruptedException {
+	                              List<String> reportNames, TestResult testResult, ReportArchiver reportArchiver)
+			throws IOException, InterruptedException {
 		String archiveTestResultMode = _resultsPublisherModel.getArchiveTestResultsMode();
 		boolean createReport = archiveTestResultMode.equals(ResultsPublisherModel.CreateHtmlReportResults.getValue());
 
@@ -895,23 +830,15 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 			if (srcDirectoryFilePath.exists()) {
 				FilePath srcFilePath = new FilePath(srcDirectoryFilePath, IE_REPORT_FOLDER);
 				if (srcFilePath.exists()) {
-					ByteArrayOutputStream baos = new ByteArrayOutputStream();
-					srcFilePath.zip(baos);
 					File reportDirectory = new File(artifactsDir.getParent(), PERFORMANCE_REPORT_FOLDER);
 					if (!reportDirectory.exists()) {
 						reportDirectory.mkdir();
 					}
-					ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
 					FilePath reportDirectoryFilePath = new FilePath(reportDirectory);
-					FilePath tmpZipFile = new FilePath(reportDirectoryFilePath, "tmp.zip");
-					tmpZipFile.copyFrom(bais);
-					bais.close();
-					baos.close();
-					tmpZipFile.unzip(reportDirectoryFilePath);
+					reportArchiver.copy(srcFilePath, reportDirectoryFilePath, "tmp.zip");
 					String newFolderName = org.apache.commons.io.FilenameUtils.getName(testFolderPathFile.getPath());
 					FileUtils.moveDirectory(new File(reportDirectory, IE_REPORT_FOLDER),
 							new File(reportDirectory, newFolderName));
-					tmpZipFile.delete();
 					outputReportFiles(reportNames, reportDirectory, testResult, "Performance Report",
 							HTML_REPORT_FOLDER);
 				}
@@ -1225,219 +1152,29 @@ public class RunResultRecorder extends Recorder implements Serializable, MatrixA
 	}
 
 	private LrJobResults buildJobDataset(TaskListener listener)
-			throws ParserConfigurationException, SAXException, IOException, InterruptedException {
+			throws IOException, InterruptedException {
 		listener.getLogger().println("Parsing test run dataset for performance report");
 		LrJobResults jobResults = new LrJobResults();
 
 		// read each RunReport.xml
-		for (FilePath reportFilePath : runReportList) {
-			JobLrScenarioResult jobLrScenarioResult = parseScenarioResults(reportFilePath);
+		for (Map.Entry<String, FilePath> runReport : runReports.entrySet()) {
+			JobLrScenarioResult jobLrScenarioResult = parseScenarioResults(runReport.getValue(), runReport.getKey());
 			jobResults.addScenario(jobLrScenarioResult);
 		}
 
 		return jobResults;
 	}
 
-	private JobLrScenarioResult parseScenarioResults(FilePath slaFilePath)
-			throws ParserConfigurationException, SAXException, IOException, InterruptedException {
-		JobLrScenarioResult jobLrScenarioResult = new JobLrScenarioResult(slaFilePath.getBaseName());
-
-		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-
-		Document doc = dBuilder.parse(slaFilePath.read());
-
-		processSLA(jobLrScenarioResult, doc);
-		processLrScenarioStats(jobLrScenarioResult, doc);
-		// TODO: add fail / Pass count
-		return jobLrScenarioResult;
-	}
-
-	private void processLrScenarioStats(JobLrScenarioResult jobLrScenarioResult, Document doc) {
-
-		NodeList rootNodes = doc.getChildNodes();
-		Node root = getNode("Runs", rootNodes);
-		Element generalNode = (Element) getNode("General", root.getChildNodes());
-		NodeList generalNodeChildren = generalNode.getChildNodes();
-
-		extractVUserScenarioReult(jobLrScenarioResult, generalNodeChildren);
-		extractTransactionScenarioResult(jobLrScenarioResult, generalNodeChildren);
-		extractConnectionsScenarioResult(jobLrScenarioResult, generalNodeChildren);
-		extractDuration(jobLrScenarioResult, generalNodeChildren);
-	}
-
-	private void extractDuration(JobLrScenarioResult jobLrScenarioResult, NodeList generalNodeChildren) {
-		Node ScenrioDurationNode = getNode("Time", generalNodeChildren);
-		String scenarioDurationAttr = getNodeAttr("Duration", ScenrioDurationNode);
-		jobLrScenarioResult.setScenarioDuration(Long.valueOf(scenarioDurationAttr));
-	}
-
-	private void extractConnectionsScenarioResult(JobLrScenarioResult jobLrScenarioResult,
-	                                              NodeList generalNodeChildren) {
-		Node connections = getNode("Connections", generalNodeChildren);
-		jobLrScenarioResult.setConnectionMax(Integer.valueOf(getNodeAttr("MaxCount", connections)));
-	}
-
-	private void extractTransactionScenarioResult(JobLrScenarioResult jobLrScenarioResult,
-	                                              NodeList generalNodeChildren) {
-		int atrrCount;
-		Node transactions = getNode("Transactions", generalNodeChildren);
-		atrrCount = transactions.getAttributes().getLength();
-		for (int atrrIndx = 0; atrrIndx < atrrCount; atrrIndx++) {
-			Node vUserAttr = transactions.getAttributes().item(atrrIndx);
-			jobLrScenarioResult.transactionSum.put(vUserAttr.getNodeName(), Integer.valueOf(vUserAttr.getNodeValue()));
-		}
-
-		NodeList transactionNodes = transactions.getChildNodes();
-		int transactionNodesCount = transactionNodes.getLength();
-		for (int transIdx = 0; transIdx < transactionNodesCount; transIdx++) {
-			if (transactionNodes.item(transIdx).getNodeType() != Node.ELEMENT_NODE) {
-				continue;
-			}
-			Element transaction = (Element) transactionNodes.item(transIdx);
-			TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
-			transactionData.put("Pass", Integer.valueOf(transaction.getAttribute("Pass")));
-			transactionData.put("Fail", Integer.valueOf(transaction.getAttribute("Fail")));
-			transactionData.put("Stop", Integer.valueOf(transaction.getAttribute("Stop")));
-			jobLrScenarioResult.transactionData.put(transaction.getAttribute("Name"), transactionData);
-		}
-	}
-
-	private void extractVUserScenarioReult(JobLrScenarioResult jobLrScenarioResult, NodeList generalNodeChildren) {
-		Node vUser = getNode("VUsers", generalNodeChildren);
-		int atrrCount = vUser.getAttributes().getLength();
-		for (int atrrIndx = 0; atrrIndx < atrrCount; atrrIndx++) {
-			Node vUserAttr = vUser.getAttributes().item(atrrIndx);
-			jobLrScenarioResult.vUserSum.put(vUserAttr.getNodeName(), Integer.valueOf(vUserAttr.getNodeValue()));
-		}
-	}
-
-	private void processSLA(JobLrScenarioResult jobLrScenarioResult, Document doc) {
-		Node slaRuleNode;
-		Element slaRuleElement;
-
-		NodeList rootNodes = doc.getChildNodes();
-		Node root = getNode("Runs", rootNodes);
-		Element slaRoot = (Element) getNode("SLA", root.getChildNodes());
-		NodeList slaRuleResults = slaRoot.getChildNodes();
-
-		for (int j = 0; j < slaRuleResults.getLength(); j++) {
-			slaRuleNode = slaRuleResults.item(j);
-			if (slaRuleNode.getNodeType() != Node.ELEMENT_NODE) {
-				continue;
-			}
-			slaRuleElement = (Element) slaRuleNode;
-			// check type by mesurment field:
-			LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(slaRuleElement.getAttribute("Measurement"));
-
-			processSlaRule(jobLrScenarioResult, slaRuleElement, slaGoal);
-		}
-
-	}
-
-	private void processSlaRule(JobLrScenarioResult jobLrScenarioResult, Element slaRuleElement,
-	                            LrTest.SLA_GOAL slaGoal) {
-		switch (slaGoal) {
-			case AverageThroughput:
-				WholeRunResult averageThroughput = new WholeRunResult();
-				averageThroughput.setSlaGoal(LrTest.SLA_GOAL.AverageThroughput);
-				averageThroughput.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				averageThroughput.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				averageThroughput.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				averageThroughput
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(averageThroughput);
-				break;
-			case TotalThroughput:
-				WholeRunResult totalThroughput = new WholeRunResult();
-				totalThroughput.setSlaGoal(LrTest.SLA_GOAL.TotalThroughput);
-				totalThroughput.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				totalThroughput.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				totalThroughput.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				totalThroughput
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(totalThroughput);
-
-				break;
-			case AverageHitsPerSecond:
-				WholeRunResult averageHitsPerSecond = new WholeRunResult();
-				averageHitsPerSecond.setSlaGoal(LrTest.SLA_GOAL.AverageHitsPerSecond);
-				averageHitsPerSecond.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				averageHitsPerSecond.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				averageHitsPerSecond.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				averageHitsPerSecond
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(averageHitsPerSecond);
-
-				break;
-			case TotalHits:
-				WholeRunResult totalHits = new WholeRunResult();
-				totalHits.setSlaGoal(LrTest.SLA_GOAL.TotalHits);
-				totalHits.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				totalHits.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				totalHits.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				totalHits.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(totalHits);
-
-				break;
-			case ErrorsPerSecond:
-				TimeRangeResult errPerSec = new AvgTransactionResponseTime();
-				errPerSec.setSlaGoal(LrTest.SLA_GOAL.ErrorsPerSecond);
-				errPerSec.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				errPerSec.setLoadThrashold(slaRuleElement.getAttribute("SLALoadThresholdValue"));
-				errPerSec.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim())); // Might
-				// not
-				// work
-				// due
-				// to
-				// time
-				// ranges
-				addTimeRanges(errPerSec, slaRuleElement);
-				jobLrScenarioResult.scenarioSlaResults.add(errPerSec);
-
-				break;
-			case PercentileTRT:
-				PercentileTransactionWholeRun percentileTransactionWholeRun = new PercentileTransactionWholeRun();
-				percentileTransactionWholeRun.setSlaGoal(LrTest.SLA_GOAL.PercentileTRT);
-				percentileTransactionWholeRun.setName(slaRuleElement.getAttribute("TransactionName"));
-				percentileTransactionWholeRun
-						.setActualValue(Double.valueOf(slaRuleElement.getAttribute(SLA_ACTUAL_VALUE_LABEL)));
-				percentileTransactionWholeRun
-						.setGoalValue(Double.valueOf(slaRuleElement.getAttribute(SLA_GOAL_VALUE_LABEL)));
-				percentileTransactionWholeRun.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				percentileTransactionWholeRun.setPrecentage(Double.valueOf(slaRuleElement.getAttribute("Percentile")));
-				percentileTransactionWholeRun
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim()));
-				jobLrScenarioResult.scenarioSlaResults.add(percentileTransactionWholeRun);
-
-				break;
-			case AverageTRT:
-				AvgTransactionResponseTime transactionTimeRange = new AvgTransactionResponseTime();
-				transactionTimeRange.setSlaGoal(LrTest.SLA_GOAL.AverageTRT);
-				transactionTimeRange.setName(slaRuleElement.getAttribute("TransactionName"));
-				transactionTimeRange.setFullName(slaRuleElement.getAttribute(SLA_ULL_NAME));
-				transactionTimeRange.setLoadThrashold(slaRuleElement.getAttribute("SLALoadThresholdValue"));
-				transactionTimeRange
-						.setStatus(LrTest.SLA_STATUS.checkStatus(slaRuleElement.getLastChild().getTextContent().trim())); // Might
-				// not
-				// work
-				// due
-				// to
-				// time
-				// ranges
-				addTimeRanges(transactionTimeRange, slaRuleElement);
-				jobLrScenarioResult.scenarioSlaResults.add(transactionTimeRange);
-				break;
-			case Bad:
-				break;
-		}
+	private JobLrScenarioResult parseScenarioResults(FilePath slaFilePath, String scenarioName)
+			throws IOException, InterruptedException {
+		return slaFilePath.act(new RunReportParser.ParseCallable(scenarioName));
 	}
 
 	@Override
 	public void perform(@Nonnull Run<?, ?> build, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener)
 			throws InterruptedException, IOException {
 
-		runReportList = new ArrayList<FilePath>();
+		runReports = new LinkedHashMap<String, FilePath>();
 		final List<String> mergedResultNames = new ArrayList<String>();
 		final List<String> almResultNames = new ArrayList<String>();
 		final List<String> fileSystemResultNames = new ArrayList<String>();
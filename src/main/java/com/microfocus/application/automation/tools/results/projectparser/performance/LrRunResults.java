@@ -28,7 +28,10 @@
 
 package com.microfocus.application.automation.tools.results.projectparser.performance;
 
-public class LrRunResults {
+import java.io.Serializable;
+
+public class LrRunResults implements Serializable {
+    private static final long serialVersionUID = 1L;
     protected int _totalFailures;
     protected int _totalErrors;
     protected double _time;
@@ -0,0 +1,334 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Single pass parser of the LoadRunner RunReport.xml into a {@link JobLrScenarioResult}.
+ * <p>
+ * The report is read with a cursor based StAX reader, so neither a DOM nor the transaction and time range elements
+ * are kept in memory. {@link ParseCallable} runs the parser where the report is located and only the resulting
+ * {@link JobLrScenarioResult} crosses the remoting channel.
+ */
+public final class RunReportParser {
+
+    private static final String RUNS = "Runs";
+    private static final String GENERAL = "General";
+    private static final String SLA = "SLA";
+    private static final String TIME = "Time";
+    private static final String VUSERS = "VUsers";
+    private static final String TRANSACTIONS = "Transactions";
+    private static final String CONNECTIONS = "Connections";
+    private static final String TIME_RANGE_INFO = "TimeRangeInfo";
+    private static final String SLA_ACTUAL_VALUE_LABEL = "ActualValue";
+    private static final String SLA_GOAL_VALUE_LABEL = "GoalValue";
+    private static final String SLA_FULL_NAME = "FullName";
+    private static final String SLA_LOAD_THRESHOLD_VALUE = "SLALoadThresholdValue";
+    private static final String TRANSACTION_NAME = "TransactionName";
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private RunReportParser() {
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Parses a RunReport.xml.
+     *
+     * @param in           the report content
+     * @param scenarioName the name of the scenario the report belongs to
+     * @return the scenario result
+     * @throws XMLStreamException if the report is not well formed
+     */
+    public static JobLrScenarioResult parse(InputStream in, String scenarioName) throws XMLStreamException {
+        JobLrScenarioResult jobLrScenarioResult = new JobLrScenarioResult(scenarioName);
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            int depth = 0;
+            String section = null;
+            String generalEntry = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                    if (depth == 1) {
+                        section = null;
+                    } else if (depth == 2) {
+                        generalEntry = null;
+                    }
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+
+                depth++;
+                String name = reader.getLocalName();
+                if (depth == 1 && !RUNS.equalsIgnoreCase(name)) {
+                    throw new XMLStreamException("Unexpected root element " + name, reader.getLocation());
+                } else if (depth == 2) {
+                    section = name;
+                } else if (depth == 3 && GENERAL.equalsIgnoreCase(section)) {
+                    generalEntry = name;
+                    processGeneral(reader, name, jobLrScenarioResult);
+                } else if (depth == 4 && TRANSACTIONS.equalsIgnoreCase(generalEntry)) {
+                    processTransaction(reader, jobLrScenarioResult);
+                } else if (depth == 3 && SLA.equalsIgnoreCase(section)) {
+                    processSlaRule(reader, jobLrScenarioResult);
+                    // the rule was consumed up to its end element
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return jobLrScenarioResult;
+    }
+
+    private static void processGeneral(XMLStreamReader reader, String name, JobLrScenarioResult jobLrScenarioResult) {
+        if (TIME.equalsIgnoreCase(name)) {
+            jobLrScenarioResult.setScenarioDuration(Long.valueOf(getAttributeIgnoreCase(reader, "Duration")));
+        } else if (VUSERS.equalsIgnoreCase(name)) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                jobLrScenarioResult.vUserSum.put(reader.getAttributeLocalName(i),
+                        Integer.valueOf(reader.getAttributeValue(i)));
+            }
+        } else if (TRANSACTIONS.equalsIgnoreCase(name)) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                jobLrScenarioResult.transactionSum.put(reader.getAttributeLocalName(i),
+                        Integer.valueOf(reader.getAttributeValue(i)));
+            }
+        } else if (CONNECTIONS.equalsIgnoreCase(name)) {
+            jobLrScenarioResult.setConnectionMax(Integer.valueOf(getAttributeIgnoreCase(reader, "MaxCount")));
+        }
+    }
+
+    /**
+     * Reads a Transaction element nested in Transactions.
+     */
+    private static void processTransaction(XMLStreamReader reader, JobLrScenarioResult jobLrScenarioResult) {
+        TreeMap<String, Integer> transactionData = new TreeMap<String, Integer>();
+        transactionData.put("Pass", Integer.valueOf(getAttribute(reader, "Pass")));
+        transactionData.put("Fail", Integer.valueOf(getAttribute(reader, "Fail")));
+        transactionData.put("Stop", Integer.valueOf(getAttribute(reader, "Stop")));
+        jobLrScenarioResult.transactionData.put(getAttribute(reader, "Name"), transactionData);
+    }
+
+    /**
+     * Reads an SLA rule starting at its start element and ending at its end element.
+     */
+    private static void processSlaRule(XMLStreamReader reader, JobLrScenarioResult jobLrScenarioResult)
+            throws XMLStreamException {
+        LrTest.SLA_GOAL slaGoal = LrTest.SLA_GOAL.checkGoal(getAttribute(reader, "Measurement"));
+        String actualValue = getAttribute(reader, SLA_ACTUAL_VALUE_LABEL);
+        String goalValue = getAttribute(reader, SLA_GOAL_VALUE_LABEL);
+        String fullName = getAttribute(reader, SLA_FULL_NAME);
+        String transactionName = getAttribute(reader, TRANSACTION_NAME);
+        String percentile = getAttribute(reader, "Percentile");
+        String loadThreshold = getAttribute(reader, SLA_LOAD_THRESHOLD_VALUE);
+
+        // the status is the text of the last child of the rule, after the time ranges if there are any
+        StringBuilder lastChildText = new StringBuilder();
+        boolean lastChildIsElement = false;
+        List<TimeRangeInfo> timeRanges = new ArrayList<>();
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (depth == 0) {
+                    lastChildText.setLength(0);
+                    lastChildIsElement = true;
+                }
+                depth++;
+                if (TIME_RANGE_INFO.equals(reader.getLocalName())) {
+                    TimeRangeInfo timeRange = readTimeRange(reader);
+                    timeRanges.add(timeRange);
+                    lastChildText.append(timeRange.status);
+                    depth--;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                if (depth == 0 && lastChildIsElement) {
+                    lastChildText.setLength(0);
+                    lastChildIsElement = false;
+                }
+                lastChildText.append(reader.getText());
+            }
+        }
+        LrTest.SLA_STATUS status = LrTest.SLA_STATUS.checkStatus(lastChildText.toString().trim());
+
+        switch (slaGoal) {
+            case AverageThroughput:
+            case TotalThroughput:
+            case AverageHitsPerSecond:
+            case TotalHits:
+                WholeRunResult wholeRunResult = new WholeRunResult();
+                wholeRunResult.setSlaGoal(slaGoal);
+                wholeRunResult.setActualValue(Double.valueOf(actualValue));
+                wholeRunResult.setGoalValue(Double.valueOf(goalValue));
+                wholeRunResult.setFullName(fullName);
+                wholeRunResult.setStatus(status);
+                jobLrScenarioResult.scenarioSlaResults.add(wholeRunResult);
+                break;
+            case ErrorsPerSecond:
+                TimeRangeResult errPerSec = new AvgTransactionResponseTime();
+                errPerSec.setSlaGoal(LrTest.SLA_GOAL.ErrorsPerSecond);
+                errPerSec.setFullName(fullName);
+                errPerSec.setLoadThrashold(loadThreshold);
+                errPerSec.setStatus(status);
+                addTimeRanges(errPerSec, timeRanges);
+                jobLrScenarioResult.scenarioSlaResults.add(errPerSec);
+                break;
+            case PercentileTRT:
+                PercentileTransactionWholeRun percentileTransactionWholeRun = new PercentileTransactionWholeRun();
+                percentileTransactionWholeRun.setSlaGoal(LrTest.SLA_GOAL.PercentileTRT);
+                percentileTransactionWholeRun.setName(transactionName);
+                percentileTransactionWholeRun.setActualValue(Double.valueOf(actualValue));
+                percentileTransactionWholeRun.setGoalValue(Double.valueOf(goalValue));
+                percentileTransactionWholeRun.setFullName(fullName);
+                percentileTransactionWholeRun.setPrecentage(Double.valueOf(percentile));
+                percentileTransactionWholeRun.setStatus(status);
+                jobLrScenarioResult.scenarioSlaResults.add(percentileTransactionWholeRun);
+                break;
+            case AverageTRT:
+                AvgTransactionResponseTime transactionTimeRange = new AvgTransactionResponseTime();
+                transactionTimeRange.setSlaGoal(LrTest.SLA_GOAL.AverageTRT);
+                transactionTimeRange.setName(transactionName);
+                transactionTimeRange.setFullName(fullName);
+                transactionTimeRange.setLoadThrashold(loadThreshold);
+                transactionTimeRange.setStatus(status);
+                addTimeRanges(transactionTimeRange, timeRanges);
+                jobLrScenarioResult.scenarioSlaResults.add(transactionTimeRange);
+                break;
+            case Bad:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Reads a TimeRangeInfo element starting at its start element and ending at its end element.
+     */
+    private static TimeRangeInfo readTimeRange(XMLStreamReader reader) throws XMLStreamException {
+        TimeRangeInfo timeRange = new TimeRangeInfo();
+        timeRange.actualValue = Double.parseDouble(getAttribute(reader, SLA_ACTUAL_VALUE_LABEL));
+        timeRange.goalValue = Double.parseDouble(getAttribute(reader, SLA_GOAL_VALUE_LABEL));
+        timeRange.loadValue = Integer.parseInt(getAttribute(reader, "LoadValue"));
+        timeRange.startTime = Double.parseDouble(getAttribute(reader, "StartTime"));
+        timeRange.endTime = Double.parseDouble(getAttribute(reader, "EndTime"));
+        timeRange.status = reader.getElementText();
+        return timeRange;
+    }
+
+    private static void addTimeRanges(TimeRangeResult transactionTimeRange, List<TimeRangeInfo> timeRanges) {
+        if (timeRanges.isEmpty()) {
+            return;
+        }
+        // Taking the goal per transaction -
+        transactionTimeRange.setGoalValue(timeRanges.get(0).goalValue);
+
+        for (TimeRangeInfo timeRangeInfo : timeRanges) {
+            transactionTimeRange.incActualValue(timeRangeInfo.actualValue);
+            LrTest.SLA_STATUS slaStatus = LrTest.SLA_STATUS.checkStatus(timeRangeInfo.status);
+            transactionTimeRange.getTimeRanges().add(new TimeRange(timeRangeInfo.actualValue, timeRangeInfo.goalValue,
+                    slaStatus, timeRangeInfo.loadValue, timeRangeInfo.startTime, timeRangeInfo.endTime));
+        }
+    }
+
+    private static String getAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null ? "" : value;
+    }
+
+    private static String getAttributeIgnoreCase(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributeLocalName(i).equalsIgnoreCase(name)) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return "";
+    }
+
+    private static final class TimeRangeInfo {
+        private double actualValue;
+        private double goalValue;
+        private int loadValue;
+        private double startTime;
+        private double endTime;
+        private String status;
+    }
+
+    /**
+     * Parses the RunReport.xml on the node it is located on.
+     */
+    public static final class ParseCallable extends MasterToSlaveFileCallable<JobLrScenarioResult> {
+        private static final long serialVersionUID = 1L;
+        private final String scenarioName;
+
+        public ParseCallable(String scenarioName) {
+            this.scenarioName = scenarioName;
+        }
+
+        @Override
+        public JobLrScenarioResult invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(f))) {
+                return parse(in, scenarioName);
+            } catch (XMLStreamException e) {
+                throw new IOException("Failed to parse " + f + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
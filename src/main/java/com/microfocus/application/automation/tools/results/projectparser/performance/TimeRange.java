@@ -28,10 +28,13 @@
 
 package com.microfocus.application.automation.tools.results.projectparser.performance;
 
+import java.io.Serializable;
+
 /**
  * The type Time range.
  */
-public class TimeRange {
+public class TimeRange implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private LrTest.SLA_STATUS slaStatus = LrTest.SLA_STATUS.bad;
     private double _actualValue;
@@ -37,6 +37,7 @@ import java.util.Map;
 import com.microfocus.application.automation.tools.common.Pair;
 import com.microfocus.application.automation.tools.rest.RestClient;
 import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.rest.CreateAlmEntitiesRequest;
 import com.microfocus.application.automation.tools.results.service.rest.CreateAlmEntityRequest;
 import com.microfocus.application.automation.tools.results.service.rest.GetAlmEntityRequest;
 import com.microfocus.application.automation.tools.results.service.rest.UpdateAlmEntityRequest;
@@ -62,7 +63,7 @@ public class AlmRestTool {
 	}
 
 	public AlmRestTool (AlmRestInfo almLoginInfo, Logger logger) {
-		this.restClient = new RestClient(
+		this.restClient = RestClient.create(
         							almLoginInfo.getServerUrl(),
         							almLoginInfo.getDomain(),
         							almLoginInfo.getProject(),
@@ -244,6 +245,54 @@ public class AlmRestTool {
 
 	}
 
+    /**
+     * Get all the ALM entities matching the query, requesting them page by page.
+     * Fails when any page cannot be read, so that a partial list is never taken for the complete one.
+     */
+	public <E extends AlmEntity > List<E> getAllAlmEntities( E entity, String queryString, int pageSize) throws ExternalEntityUploadException {
+
+		List<E> ret = new ArrayList<E>();
+		int startIndex = 1;
+		while (true) {
+			List<E> page = getAlmEntityPage(entity, String.format("%s&page-size=%d&start-index=%d", queryString, pageSize, startIndex));
+			ret.addAll(page);
+			if (page.size() < pageSize) {
+				return ret;
+			}
+			startIndex += pageSize;
+		}
+	}
+
+    /**
+     * Get one page of ALM entities, failing when the page cannot be read
+     */
+	protected <E extends AlmEntity > List<E> getAlmEntityPage( E entity, String queryString) throws ExternalEntityUploadException {
+
+		Response response;
+		try {
+			GetAlmEntityRequest getRequest = new GetAlmEntityRequest(entity, getRestClient(), queryString);
+			response = getRequest.perform();
+		} catch (Exception e) {
+			throw new ExternalEntityUploadException("Failed to get Entity:" + entity.toString() +" with query string:" +queryString, e);
+		}
+
+		if(!response.isOk()) {
+			throw new ExternalEntityUploadException("Failed to get Entity:" + entity.toString() +" with query string:" +queryString
+					+ ", status code " + response.getStatusCode(), response.getFailure());
+		}
+		if(response.toString().equals("")) {
+			return new ArrayList<E>();
+		}
+
+		try {
+			List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
+			List entities = getAlmEntityList(entities2, entity.getClass());
+			return entities;
+		} catch (Exception e) {
+			throw new ExternalEntityUploadException("Failed to read Entity:" + entity.toString() +" with query string:" +queryString, e);
+		}
+	}
+
     /**
      * Create ALM entity
      */
@@ -269,6 +318,39 @@ public class AlmRestTool {
 		
 	}
 
+    /**
+     * Create ALM entities of the same type with a single request.
+     * Returns the created entities in the order they were sent, or null if the server refused the bulk request.
+     */
+	public <E extends AlmEntity> List<E> createAlmEntities (List<E> entities, String[] fieldsForCreation) throws ExternalEntityUploadException {
+
+		if(entities.isEmpty()) {
+			return new ArrayList<E>();
+		}
+
+		E first = entities.get(0);
+		List<List<Pair<String, String>>> attrsForCreation = new ArrayList<List<Pair<String, String>>>();
+		for(E entity : entities) {
+			attrsForCreation.add(getPairListForAlmEntityFields(entity, fieldsForCreation));
+		}
+
+		CreateAlmEntitiesRequest createRequest = new CreateAlmEntitiesRequest(getRestClient(), first.getRestPrefix(), attrsForCreation);
+		Response response = createRequest.execute();
+		if(!response.isOk() || response.toString().equals("")) {
+			_logger.log("Bulk creation of " + first.getRestPrefix() + " was refused, creating them one by one");
+			return null;
+		}
+
+		List<Map<String, String>> entities2 = XPathUtils.toEntities(response.toString());
+		List created = getAlmEntityList(entities2, first.getClass());
+		if(created.size() != entities.size()) {
+			_logger.log("Failed to create Entities:" + first.getRestPrefix());
+			throw new ExternalEntityUploadException("Failed to create Entities:" + first.getRestPrefix()
+					+ ", expected " + entities.size() + " but got " + created.size());
+		}
+		return created;
+	}
+
     /**
      * Update ALM entity
      */
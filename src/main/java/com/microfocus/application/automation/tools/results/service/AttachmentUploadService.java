@@ -24,100 +24,186 @@
 
 package com.microfocus.application.automation.tools.results.service;
 
+import com.microfocus.application.automation.tools.common.Pair;
+import com.microfocus.application.automation.tools.common.SSEException;
 import com.microfocus.application.automation.tools.rest.RestClient;
 import com.microfocus.application.automation.tools.results.service.rest.CreateAttachment;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.StreamingRequestBody;
 import hudson.FilePath;
 import hudson.model.Run;
-import org.apache.commons.io.IOUtils;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import org.apache.tools.ant.DirectoryScanner;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Uploads the files matching a pattern as attachments of an ALM entity.
+ * The files are streamed from the build folder or the workspace to ALM, they are never held in memory.
+ */
 public class AttachmentUploadService {
 
     private Run<?, ?> run;
     private FilePath workspace;
     private RestClient restClient;
     private Logger logger;
+    private int uploadThreads;
 
     private static AttachmentUploadService aus;
 
     public static void init(Run<?, ?> run, FilePath workspace, RestClient restClient, Logger logger) {
-        aus = new AttachmentUploadService(run, workspace, restClient, logger);
+        init(run, workspace, restClient, logger, 1);
+    }
+
+    /**
+     * @param uploadThreads the number of files matching one pattern that are uploaded at the same time
+     */
+    public static void init(Run<?, ?> run, FilePath workspace, RestClient restClient, Logger logger, int uploadThreads) {
+        aus = new AttachmentUploadService(run, workspace, restClient, logger, uploadThreads);
     }
 
     public static AttachmentUploadService getInstance() {
         return aus;
     }
 
-    private AttachmentUploadService(Run<?, ?> run, FilePath workspace, RestClient restClient, Logger logger) {
+    private AttachmentUploadService(Run<?, ?> run, FilePath workspace, RestClient restClient, Logger logger, int uploadThreads) {
         this.run = run;
         this.workspace = workspace;
         this.restClient = restClient;
         this.logger = logger;
+        this.uploadThreads = Math.max(1, uploadThreads);
     }
 
     public boolean upload(String fileName, String entityCollectionName, String entityId) {
+        return upload(fileName, entityCollectionName, entityId, logger);
+    }
+
+    /**
+     * @param logger the logger of the upload the attachment belongs to
+     */
+    public boolean upload(String fileName, String entityCollectionName, String entityId, Logger logger) {
+        List<Pair<String, FilePath>> files = findFiles(fileName, logger);
+        if (files == null) {
+            return false;
+        }
+
+        if (uploadThreads == 1 || files.size() <= 1) {
+            boolean result = true;
+            for (Pair<String, FilePath> file : files) {
+                result &= upload(file.getSecond(), file.getFirst(), entityCollectionName, entityId, logger);
+            }
+            return result;
+        }
+        return uploadConcurrently(files, entityCollectionName, entityId, logger);
+    }
+
+    /**
+     * Find the files in the build folder, or in the workspace when none is in the build folder.
+     * @return the files with their attachment names, null if the workspace could not be listed
+     */
+    private List<Pair<String, FilePath>> findFiles(String fileName, Logger logger) {
+        List<Pair<String, FilePath>> files = new ArrayList<>();
+
         DirectoryScanner ds = new DirectoryScanner();
         ds.setBasedir(run.getRootDir());
         ds.setIncludes(new String[] {fileName});
         ds.scan();
 
-        boolean result = true;
-
         if (ds.getIncludedFilesCount() > 0) {
             // Find in build folder.
-            for (int i = 0; i < ds.getIncludedFilesCount(); i++) {
-                String filePath = run.getRootDir().getAbsolutePath() + File.separator + ds.getIncludedFiles()[i];
-                logger.log("INFO: Fould file: " + filePath);
-
-                try (FileInputStream in = new FileInputStream(new File(filePath))) {
-                    result = upload(IOUtils.toByteArray(in), ds.getIncludedFiles()[i], entityCollectionName, entityId);
-                } catch (IOException e) {
-                    logger.log("ERR: Read file failed. " + e.getMessage());
-                    result = false;
-                }
+            for (String includedFile : ds.getIncludedFiles()) {
+                File file = new File(run.getRootDir(), includedFile);
+                logger.log("INFO: Fould file: " + file.getAbsolutePath());
+                files.add(new Pair<String, FilePath>(includedFile, new FilePath(file)));
             }
         } else {
             // Find in workspace
-            FilePath[] fileList = new FilePath[0];
             try {
-                fileList = workspace.list(fileName);
+                for (FilePath f : workspace.list(fileName)) {
+                    logger.log("INFO: Fould file: " + f.getRemote() + "| name: " + f.getName());
+                    files.add(new Pair<String, FilePath>(f.getName(), f));
+                }
             } catch (IOException | InterruptedException e) {
                 logger.log("ERR: List  " + fileName + " in workspace failed. " + e.getMessage());
-                result = false;
+                return null;
             }
+        }
+        return files;
+    }
 
-            for (FilePath f : fileList) {
-                logger.log("INFO: Fould file: " + f.getRemote() + "| name: " + f.getName());
+    private boolean uploadConcurrently(List<Pair<String, FilePath>> files,
+                                       final String entityCollectionName, final String entityId,
+                                       final Logger logger) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(uploadThreads, files.size()),
+                new NamingThreadFactory(new DaemonThreadFactory(), AttachmentUploadService.class.getSimpleName()));
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (final Pair<String, FilePath> file : files) {
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return upload(file.getSecond(), file.getFirst(), entityCollectionName, entityId, logger);
+                    }
+                }));
+            }
 
-                try (InputStream in  = f.read()) {
-                    logger.log("INFO: InputSteam read get: " + in.toString());
-                    result = upload(IOUtils.toByteArray(in), f.getName(), entityCollectionName, entityId);
-                } catch (IOException | InterruptedException e) {
-                    logger.log("ERR: Read file failed. " + e.getMessage());
+            boolean result = true;
+            for (Future<Boolean> future : futures) {
+                try {
+                    result &= future.get();
+                } catch (ExecutionException e) {
+                    logger.log("ERR: Attachment upload failed. " + e.getCause());
                     result = false;
                 }
             }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.log("ERR: Attachment upload interrupted.");
+            return false;
+        } finally {
+            executor.shutdownNow();
         }
-
-        return result;
     }
 
-    private boolean upload(byte[] fileContent, String filename, String entityCollectionName, String entityId) {
+    private boolean upload(final FilePath file, String filename, String entityCollectionName, String entityId,
+                           Logger logger) {
         logger.log("INFO: Uploading file: " + filename);
         CreateAttachment ca = new CreateAttachment(entityCollectionName,
                 restClient,
                 entityId,
                 filename,
-                fileContent);
-        Response re = ca.perform();
+                new StreamingRequestBody() {
+                    @Override
+                    public long getLength() throws IOException, InterruptedException {
+                        return file.length();
+                    }
+
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException, InterruptedException {
+                        file.copyTo(out);
+                    }
+                });
+
+        Response re;
+        try {
+            re = ca.perform();
+        } catch (SSEException e) {
+            logger.log("ERR: Read file failed. " + e.getMessage());
+            return false;
+        }
 
         if (re.getStatusCode() != HttpURLConnection.HTTP_CREATED) {
             logger.log("INFO: Stauts " + re.getStatusCode());
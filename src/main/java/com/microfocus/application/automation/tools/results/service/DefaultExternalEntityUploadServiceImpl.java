@@ -30,10 +30,14 @@ package com.microfocus.application.automation.tools.results.service;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import com.microfocus.application.automation.tools.results.parser.ReportParserManager;
@@ -60,9 +64,20 @@ import hudson.FilePath;
 public class DefaultExternalEntityUploadServiceImpl implements
 		IExternalEntityUploadService {
 
+	private static final int PAGE_SIZE = 2000;
+	private static final int BULK_SIZE = 200;
+	private static final int ID_QUERY_SIZE = 100;
+
 	Logger logger;
 	private AlmRestTool restTool;
 	private FilePath workspace;
+
+	// Existing and newly created tests of the test folder, by class and method name
+	private Map<String, List<AlmTest>> testsByClassAndMethod;
+	// Whether all the existing tests of the test folder could be listed, otherwise they are looked up per class and method
+	private boolean testFolderIndexed;
+	private Map<String, AlmTestConfig> mainTestConfigs = new HashMap<String, AlmTestConfig>();
+	private boolean bulkCreationSupported = true;
 	
 	public DefaultExternalEntityUploadServiceImpl(AlmRestTool restTool, FilePath workspace, Logger logger) {
 		this.restTool = restTool;
@@ -84,62 +99,125 @@ public class DefaultExternalEntityUploadServiceImpl implements
 							};
 	}
 	
-	private AlmTest importTest(AlmTest test , int testFolderId, String testingTool, String testdesigner) throws ExternalEntityUploadException{
+	private static String getClassAndMethodKey(String className, String methodName) {
+		return (String.valueOf(className) + "\n" + String.valueOf(methodName)).toLowerCase();
+	}
+
+	private void loadTestsOfFolder(int testFolderId) {
+
+		String queryString = String.format("query={parent-id[%s];subtype-id[EXTERNAL-TEST]}&fields=id,name,ut-package-name,ut-class-name,ut-method-name,testing-framework",
+											String.valueOf(testFolderId));
+		testsByClassAndMethod = new HashMap<String, List<AlmTest>>();
+		List<AlmTestImpl> existingTests;
+		try {
+			existingTests = restTool.getAllAlmEntities(new AlmTestImpl(), queryString, PAGE_SIZE);
+		} catch (ExternalEntityUploadException e) {
+			logger.log("INFO: Failed to list the tests of the test folder, looking them up one by one. " + e.getMessage());
+			testFolderIndexed = false;
+			return;
+		}
+
+		testFolderIndexed = true;
+		for(AlmTestImpl existingTest : existingTests) {
+			addTestToIndex(existingTest);
+		}
+	}
+
+	private List<AlmTest> findTestsOfFolder(int testFolderId, String className, String methodName) {
+
+		String queryString = String.format("query={parent-id[%s];subtype-id[EXTERNAL-TEST];ut-class-name[%s];ut-method-name[%s]}&fields=id,name,ut-package-name,ut-class-name,ut-method-name,testing-framework&page-size=2000",
+											String.valueOf(testFolderId),
+											AlmRestTool.getEncodedString(className),
+											AlmRestTool.getEncodedString(methodName));
+		return new ArrayList<AlmTest>(restTool.getAlmEntity(new AlmTestImpl(), queryString));
+	}
+
+	private void addTestToIndex(AlmTest test) {
+		String key = getClassAndMethodKey((String) test.getFieldValue(AlmTest.TS_UT_CLASS_NAME), (String) test.getFieldValue(AlmTest.TS_UT_METHOD_NAME));
+		List<AlmTest> tests = testsByClassAndMethod.get(key);
+		if(tests == null) {
+			tests = new ArrayList<AlmTest>();
+			testsByClassAndMethod.put(key, tests);
+		}
+		tests.add(test);
+	}
+
+	/**
+	 * Finds the test in the test folder index. When it is not there, the test is prepared for creation,
+	 * added to the index and to the list of tests to create.
+	 */
+	private AlmTest importTest(AlmTest test , int testFolderId, String testingTool, String testdesigner, List<AlmTest> testsToCreate) {
 
 		String className = (String) test.getFieldValue(AlmTest.TS_UT_CLASS_NAME);
 		String methodName = (String) test.getFieldValue(AlmTest.TS_UT_METHOD_NAME);
 		String packageName = (String) test.getFieldValue(AlmTest.TS_UT_PACKAGE_NAME);
 		String testingFramework = (String) test.getFieldValue(AlmTest.TS_TESTING_FRAMEWORK);
-		
-		String queryString = String.format("query={parent-id[%s];subtype-id[EXTERNAL-TEST];ut-class-name[%s];ut-method-name[%s]}&fields=id,name,ut-package-name,ut-class-name,ut-method-name,testing-framework&page-size=2000", 
-											String.valueOf(testFolderId),
-											AlmRestTool.getEncodedString(className),
-											AlmRestTool.getEncodedString(methodName));		
-		List<AlmTestImpl> existingTests = restTool.getAlmEntity(new AlmTestImpl(), queryString);
-		
-		AlmTestImpl importedTest = null;//restTool.getEntityUnderParentFolder(AlmTestImpl.class, testFolderId, test.getName());
-		
+
+		String key = getClassAndMethodKey(className, methodName);
+		List<AlmTest> existingTests = testsByClassAndMethod.get(key);
+		if(existingTests == null && !testFolderIndexed) {
+			existingTests = findTestsOfFolder(testFolderId, className, methodName);
+			testsByClassAndMethod.put(key, existingTests);
+		}
+
 		if(existingTests != null && existingTests.size() >0) {
-			boolean exists = false;
-			Map<String, AlmTestImpl> existingTestMap = new HashMap<String, AlmTestImpl> ();
-			
-			for(AlmTestImpl existingTest : existingTests) {
+			Set<String> existingTestNames = new HashSet<String>();
+
+			for(AlmTest existingTest : existingTests) {
 				if(existingTest.getKey().endsWith(test.getKey())) {
-					exists = true;
-					importedTest = existingTest;
-					break;
+					return existingTest;
 				}
-				existingTestMap.put(existingTest.getName(), existingTest);
+				existingTestNames.add(existingTest.getName());
 			}
-			
-			if(!exists) {
-				String tempName = className + "_" + methodName;
-				if(!existingTestMap.containsKey(tempName)) {
+
+			String tempName = className + "_" + methodName;
+			if(!existingTestNames.contains(tempName)) {
+				test.setFieldValue(AlmTest.TEST_NAME, tempName);
+			} else {
+				tempName = packageName + "_" +tempName;
+				if(!existingTestNames.contains(tempName)) {
 					test.setFieldValue(AlmTest.TEST_NAME, tempName);
-				} else { 
-					tempName = packageName + "_" +tempName;
-					if(!existingTestMap.containsKey(tempName)) {
+				} else {
+					tempName = tempName +"_" +testingFramework;
+					if(!existingTestNames.contains(tempName)) {
 						test.setFieldValue(AlmTest.TEST_NAME, tempName);
-					} else {
-						tempName = tempName +"_" +testingFramework;
-						if(!existingTestMap.containsKey(tempName)) {
-							test.setFieldValue(AlmTest.TEST_NAME, tempName);
-						}
 					}
 				}
-				
 			}
 		}
-		
-		if(importedTest	== null) {
-			test.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(testFolderId));	
-			test.setFieldValue(AlmTest.TS_TESTING_TOOL, testingTool);
-			test.setFieldValue(AlmTest.TEST_RESPONSIBLE, testdesigner);
-			return restTool.createAlmEntity(test, getTestCreationFields());
-		}
 
+		test.setFieldValue(AlmCommonProperties.PARENT_ID, String.valueOf(testFolderId));
+		test.setFieldValue(AlmTest.TS_TESTING_TOOL, testingTool);
+		test.setFieldValue(AlmTest.TEST_RESPONSIBLE, testdesigner);
+		addTestToIndex(test);
+		testsToCreate.add(test);
+		return test;
+	}
 
-		return importedTest;
+	/**
+	 * Creates the entities in bulk requests of at most BULK_SIZE entities and copies the ids
+	 * of the created entities back. Falls back to one request per entity when the server
+	 * does not accept bulk creation.
+	 */
+	private <E extends AlmEntity> List<E> createAlmEntities(List<E> entities, String[] fieldsForCreation) throws ExternalEntityUploadException {
+
+		List<E> created = new ArrayList<E>(entities.size());
+		for(int i = 0; i < entities.size(); i += BULK_SIZE) {
+			List<E> chunk = entities.subList(i, Math.min(i + BULK_SIZE, entities.size()));
+			List<E> createdChunk = bulkCreationSupported ? restTool.createAlmEntities(chunk, fieldsForCreation) : null;
+			if(createdChunk == null) {
+				bulkCreationSupported = false;
+				createdChunk = new ArrayList<E>(chunk.size());
+				for(E entity : chunk) {
+					createdChunk.add(restTool.createAlmEntity(entity, fieldsForCreation));
+				}
+			}
+			for(int k = 0; k < chunk.size(); k++) {
+				chunk.get(k).setId(createdChunk.get(k).getId());
+			}
+			created.addAll(createdChunk);
+		}
+		return created;
 	}
 	
 	private String [] getTestSetCreationFields() {
@@ -165,17 +243,64 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		return importedTestset;
 	}
 	
-	private AlmTestConfig getMainTestConfig(AlmTest test){
-	
-        AlmTestConfigImpl testConfigImpl = new AlmTestConfigImpl();
-        String queryString = String.format("query={parent-id[%s]}&fields=id,name", String.valueOf(test.getId()) );
-        List<AlmTestConfigImpl> testconfigs = restTool.getAlmEntity(testConfigImpl, queryString);
+	/**
+	 * Loads the main test configuration of the given tests, querying many tests at once.
+	 * When such a query fails, the tests of that query are looked up one by one.
+	 */
+	private void loadMainTestConfigs(Collection<String> testIds) {
+
+		List<String> missing = new ArrayList<String>();
+		for(String testId : testIds) {
+			if(!mainTestConfigs.containsKey(testId)) {
+				missing.add(testId);
+			}
+		}
+
+		for(int i = 0; i < missing.size(); i += ID_QUERY_SIZE) {
+			List<String> chunk = missing.subList(i, Math.min(i + ID_QUERY_SIZE, missing.size()));
+			String queryString = String.format("query={parent-id[%s]}&fields=id,name,parent-id", join(chunk, "%20OR%20"));
+			List<AlmTestConfigImpl> testconfigs;
+			try {
+				testconfigs = restTool.getAllAlmEntities(new AlmTestConfigImpl(), queryString, PAGE_SIZE);
+			} catch (ExternalEntityUploadException e) {
+				logger.log("INFO: Failed to list the test configurations, looking them up one by one. " + e.getMessage());
+				for(String testId : chunk) {
+					AlmTestConfig testconfig = getMainTestConfig(testId);
+					if(testconfig != null) {
+						mainTestConfigs.put(testId, testconfig);
+					}
+				}
+				continue;
+			}
+			for(AlmTestConfigImpl testconfig : testconfigs) {
+				String testId = testconfig.getFieldValue(AlmCommonProperties.PARENT_ID);
+				if(!mainTestConfigs.containsKey(testId)) {
+					mainTestConfigs.put(testId, testconfig);
+				}
+			}
+		}
+	}
+
+	private AlmTestConfig getMainTestConfig(String testId){
+
+		String queryString = String.format("query={parent-id[%s]}&fields=id,name", testId);
+		List<AlmTestConfigImpl> testconfigs = restTool.getAlmEntity(new AlmTestConfigImpl(), queryString);
 		if(testconfigs != null && testconfigs.size() >0) {
 			return testconfigs.get(0);
 		} else {
 			return null;
 		}
-		
+	}
+
+	private static String join(List<String> values, String separator) {
+		StringBuilder builder = new StringBuilder();
+		for(String value : values) {
+			if(builder.length() > 0) {
+				builder.append(separator);
+			}
+			builder.append(value);
+		}
+		return builder.toString();
 	}
 	
 	private String [] getTestInstanceCreationFields (){
@@ -188,24 +313,74 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 	}
 	
-	private AlmTestInstance importTestInstance(AlmTestInstance testinstance, String testsetId, String testId, String testconfigId, String tester) throws ExternalEntityUploadException{
-		
-		String queryString = String.format("query={cycle-id[%s];test-config-id[%s];test-id[%s]}&fields=id,name",
-										String.valueOf(testsetId), String.valueOf(testconfigId), String.valueOf(testId) );
+	private static String getTestInstanceKey(String testId, String testconfigId) {
+		return testId + "_" + testconfigId;
+	}
+
+	/**
+	 * Loads the test instances of the test set by test and configuration, or returns null when they cannot be listed.
+	 */
+	private Map<String, AlmTestInstance> loadTestInstances(String testsetId) {
+
+		String queryString = String.format("query={cycle-id[%s]}&fields=id,name,test-id,test-config-id", String.valueOf(testsetId));
+		List<AlmTestInstanceImpl> testInstances;
+		try {
+			testInstances = restTool.getAllAlmEntities(new AlmTestInstanceImpl(), queryString, PAGE_SIZE);
+		} catch (ExternalEntityUploadException e) {
+			logger.log("INFO: Failed to list the test instances of the test set, looking them up one by one. " + e.getMessage());
+			return null;
+		}
+
+		Map<String, AlmTestInstance> testInstancesByKey = new HashMap<String, AlmTestInstance>();
+		for(AlmTestInstanceImpl testInstance : testInstances) {
+			String key = getTestInstanceKey(
+					testInstance.getFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID),
+					testInstance.getFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID));
+			if(!testInstancesByKey.containsKey(key)) {
+				testInstancesByKey.put(key, testInstance);
+			}
+		}
+		return testInstancesByKey;
+	}
 
-        List<AlmTestInstanceImpl> testInstances = restTool.getAlmEntity(new AlmTestInstanceImpl(), queryString);
+	private AlmTestInstance findTestInstance(String testsetId, String testId, String testconfigId) {
 
-		if(testInstances!=null && testInstances.size() > 0){
+		String queryString = String.format("query={cycle-id[%s];test-config-id[%s];test-id[%s]}&fields=id,name",
+										String.valueOf(testsetId), String.valueOf(testconfigId), String.valueOf(testId) );
+		List<AlmTestInstanceImpl> testInstances = restTool.getAlmEntity(new AlmTestInstanceImpl(), queryString);
+		if(testInstances != null && testInstances.size() > 0) {
 			return testInstances.get(0);
 		} else {
+			return null;
+		}
+	}
 
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTSET_ID, String.valueOf(testsetId));
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID, String.valueOf(testconfigId));
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID, String.valueOf(testId));
-			testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTER_NAME, tester);
-
-			return restTool.createAlmEntity(testinstance, getTestInstanceCreationFields());
+	/**
+	 * Finds the test instance among the instances of the test set, looking it up on the server when the
+	 * instances of the test set could not be listed. When it is not there, the instance is prepared for
+	 * creation and added to the list of instances to create.
+	 */
+	private AlmTestInstance importTestInstance(AlmTestInstance testinstance, String testsetId, String testId, String testconfigId, String tester,
+											   Map<String, AlmTestInstance> testInstancesByKey, boolean testInstancesIndexed,
+											   List<AlmTestInstance> testInstancesToCreate) {
+
+		String key = getTestInstanceKey(testId, testconfigId);
+		AlmTestInstance existingTestInstance = testInstancesByKey.get(key);
+		if(existingTestInstance == null && !testInstancesIndexed) {
+			existingTestInstance = findTestInstance(testsetId, testId, testconfigId);
+		}
+		if(existingTestInstance != null) {
+			testInstancesByKey.put(key, existingTestInstance);
+			return existingTestInstance;
 		}
+
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTSET_ID, String.valueOf(testsetId));
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID, String.valueOf(testconfigId));
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID, String.valueOf(testId));
+		testinstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TESTER_NAME, tester);
+		testInstancesByKey.put(key, testinstance);
+		testInstancesToCreate.add(testinstance);
+		return testinstance;
 	}
 	
     private String generateImportRunName() {
@@ -242,7 +417,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
     	};
     }
     
-	private AlmRun generateRun(String tester, 
+	private void prepareRun(String tester,
 								AlmRun run, 
 								String testsetId, 
 								String testId, 
@@ -250,7 +425,7 @@ public class DefaultExternalEntityUploadServiceImpl implements
 								String testconfigId, 
 								String subversion,
 								String jobName,
-								String buildUrl) throws ExternalEntityUploadException{
+								String buildUrl) {
 		
 		run.setFieldValue(AlmRun.RUN_CONFIG_ID, String.valueOf(testconfigId));
 		run.setFieldValue(AlmRun.RUN_CYCLE_ID, String.valueOf(testsetId));
@@ -268,10 +443,6 @@ public class DefaultExternalEntityUploadServiceImpl implements
 		
 		run.setFieldValue(AlmCommonProperties.NAME, generateImportRunName());
 		run.setFieldValue(AlmCommonProperties.OWNER, tester);
-		
-		return restTool.createAlmEntity(run, getRunCreationFields());
-
-
 	}
 
 	private String[] getCreationFieldsForTestFolder() {
@@ -428,6 +599,8 @@ public class DefaultExternalEntityUploadServiceImpl implements
 
 		List<String> importedTestsetIds = new ArrayList<String>();
 
+		loadTestsOfFolder(testFolderId);
+
 		for (AlmTestSet testset : testsets){
 			AlmTestSet importedTestSet = importTestSet(testset, testsetFolderId);
 			if(importedTestSet == null ) {
@@ -441,6 +614,10 @@ public class DefaultExternalEntityUploadServiceImpl implements
 				continue;
 			}
 
+			// Resolve the tests of all the instances first and create the missing ones together
+			List<AlmTestInstance> instancesToImport = new ArrayList<AlmTestInstance>();
+			List<AlmTest> importedTests = new ArrayList<AlmTest>();
+			List<AlmTest> testsToCreate = new ArrayList<AlmTest>();
 			for(AlmEntity testinstanceEntity: testinstances){
 				AlmTestInstance testInstance = (AlmTestInstance) testinstanceEntity;
 				List<AlmEntity> tests = testInstance.getRelatedEntities().get(EntityRelation.TEST_TO_TESTINSTANCE_REALIZATION_RELATION);
@@ -448,35 +625,63 @@ public class DefaultExternalEntityUploadServiceImpl implements
 					continue;
 				}
 
-				AlmTest test = (AlmTest) tests.get(0);
-				AlmTest importedTest = importTest(test, testFolderId, testingTool, tester);
-				if(importedTest == null) {
+				instancesToImport.add(testInstance);
+				importedTests.add(importTest((AlmTest) tests.get(0), testFolderId, testingTool, tester, testsToCreate));
+			}
+			createAlmEntities(testsToCreate, getTestCreationFields());
+
+			Set<String> testIds = new LinkedHashSet<String>();
+			for(AlmTest importedTest : importedTests) {
+				testIds.add(importedTest.getId());
+			}
+			loadMainTestConfigs(testIds);
+
+			Map<String, AlmTestInstance> testInstancesByKey = loadTestInstances(importedTestSet.getId());
+			boolean testInstancesIndexed = testInstancesByKey != null;
+			if(!testInstancesIndexed) {
+				testInstancesByKey = new HashMap<String, AlmTestInstance>();
+			}
+			List<AlmTestInstance> importedTestInstances = new ArrayList<AlmTestInstance>();
+			List<AlmTestInstance> testInstancesToCreate = new ArrayList<AlmTestInstance>();
+			for(int i = 0; i < instancesToImport.size(); i++) {
+				AlmTest importedTest = importedTests.get(i);
+				AlmTestConfig mainTestConfig = mainTestConfigs.get(importedTest.getId());
+				if(mainTestConfig == null) {
+					importedTestInstances.add(null);
 					continue;
 				}
-				
-				AlmTestConfig mainTestConfig = getMainTestConfig(importedTest);
-				if(mainTestConfig == null) {
+				importedTestInstances.add(importTestInstance(instancesToImport.get(i), importedTestSet.getId(), importedTest.getId(), mainTestConfig.getId(), tester,
+						testInstancesByKey, testInstancesIndexed, testInstancesToCreate));
+			}
+			createAlmEntities(testInstancesToCreate, getTestInstanceCreationFields());
+
+			List<AlmRun> runsToCreate = new ArrayList<AlmRun>();
+			for(int i = 0; i < instancesToImport.size(); i++) {
+				AlmTestInstance importedTestInstance = importedTestInstances.get(i);
+				if(importedTestInstance == null) {
 					continue;
 				}
 
-				AlmTestInstance importedTestInstance = importTestInstance(testInstance, importedTestSet.getId(), importedTest.getId(), mainTestConfig.getId(), tester);
-				List<AlmEntity> runs = testInstance.getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
+				List<AlmEntity> runs = instancesToImport.get(i).getRelatedEntities().get(EntityRelation.TESTINSTANCE_TO_RUN_REALIZATION_RELATION);
 				if(runs == null || runs.size() <= 0) {
 					continue;
 				}
 				
+				AlmTest importedTest = importedTests.get(i);
 				AlmRun run = (AlmRun) runs.get(0);
-				generateRun(tester, 
+				prepareRun(tester, 
 							run,  
 							importedTestSet.getId(),
 							importedTest.getId(), 
 							importedTestInstance.getId(), 
-							mainTestConfig.getId(), 
+							mainTestConfigs.get(importedTest.getId()).getId(), 
 							subversion,
 							jobName,
 							buildUrl
 							);
+				runsToCreate.add(run);
 			}
+			createAlmEntities(runsToCreate, getRunCreationFields());
 		}
 
 		return importedTestsetIds;
@@ -31,6 +31,7 @@ package com.microfocus.application.automation.tools.results.service.rest;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.ResourceAccessLevel;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.StreamingRequestBody;
 import com.microfocus.application.automation.tools.sse.sdk.request.PostRequest;
 import com.microfocus.adm.performancecenter.plugins.common.rest.RESTConstants;
 
@@ -43,6 +44,7 @@ public class CreateAttachment extends PostRequest {
     private String testsetId;
     private String fileName;
     private byte[] filecontent;
+    private StreamingRequestBody fileBody;
     private String entityCollectionName;
 
     private static final String CONTENT_TYPE = "application/octet-stream";
@@ -56,6 +58,15 @@ public class CreateAttachment extends PostRequest {
         this.filecontent = filecontent;
     }
 
+    public CreateAttachment(String entityCollectionName, Client client, String id, String fileName, StreamingRequestBody fileBody) {
+        super(client, "");
+        this.entityCollectionName = entityCollectionName;
+        this.client = client;
+        this.testsetId = id;
+        this.fileName = fileName;
+        this.fileBody = fileBody;
+    }
+
     @Override
     protected Map<String, String> getHeaders() {
         Map<String, String> ret = new HashMap<String, String>();
@@ -74,6 +85,13 @@ public class CreateAttachment extends PostRequest {
 
     @Override
     public Response perform() {
+        if (fileBody != null) {
+            return client.httpPostStream(
+                    getUrl(),
+                    fileBody,
+                    getHeaders(),
+                    ResourceAccessLevel.PROTECTED);
+        }
         return client.httpPost(
                 getUrl(),
                 getDataBytes(),
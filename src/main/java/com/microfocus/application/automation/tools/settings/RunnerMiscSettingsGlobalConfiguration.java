@@ -54,15 +54,28 @@ public class RunnerMiscSettingsGlobalConfiguration extends GlobalConfiguration i
 
     public static final String DEFAULT_BRANCHES = "master main trunk mainline";
 
+    public static final int DEFAULT_REPORT_ARCHIVING_THREADS = 1;
+    public static final int MAX_REPORT_ARCHIVING_THREADS = 32;
+
+    public static final int DEFAULT_ALM_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int MAX_ALM_MAX_CONNECTIONS_PER_ROUTE = 100;
+
     private String dateFormat;
     private String defaultBranches;
     private boolean agentToControllerEnabled;
+    private int reportArchivingThreads;
+    private boolean almConnectionPoolingEnabled;
+    private int almMaxConnectionsPerRoute;
 
     @DataBoundConstructor
-    public RunnerMiscSettingsGlobalConfiguration(String mfDateFormat, String defaultBranches,boolean agentToControllerEnabled) {
+    public RunnerMiscSettingsGlobalConfiguration(String mfDateFormat, String defaultBranches,boolean agentToControllerEnabled, int reportArchivingThreads,
+                                                 boolean almConnectionPoolingEnabled, int almMaxConnectionsPerRoute) {
         setDateFormat(mfDateFormat);
         setDefaultBranches(defaultBranches);
         setAgentToControllerEnabled(agentToControllerEnabled);
+        setReportArchivingThreads(reportArchivingThreads);
+        setAlmConnectionPoolingEnabled(almConnectionPoolingEnabled);
+        setAlmMaxConnectionsPerRoute(almMaxConnectionsPerRoute);
     }
 
     public RunnerMiscSettingsGlobalConfiguration() {
@@ -138,6 +151,52 @@ public class RunnerMiscSettingsGlobalConfiguration extends GlobalConfiguration i
         save();
     }
 
+    /**
+     * @return the maximum number of report folders archived concurrently per build and per agent channel
+     */
+    public int getReportArchivingThreads() {
+        return reportArchivingThreads > 0 ? reportArchivingThreads : DEFAULT_REPORT_ARCHIVING_THREADS;
+    }
+
+    public void setReportArchivingThreads(int reportArchivingThreads) {
+        if (reportArchivingThreads < 1) {
+            this.reportArchivingThreads = DEFAULT_REPORT_ARCHIVING_THREADS;
+        } else {
+            this.reportArchivingThreads = Math.min(reportArchivingThreads, MAX_REPORT_ARCHIVING_THREADS);
+        }
+
+        save();
+    }
+
+    /**
+     * @return whether the ALM REST clients keep their connections alive in a shared pool
+     */
+    public boolean isAlmConnectionPoolingEnabled() {
+        return almConnectionPoolingEnabled;
+    }
+
+    public void setAlmConnectionPoolingEnabled(boolean almConnectionPoolingEnabled) {
+        this.almConnectionPoolingEnabled = almConnectionPoolingEnabled;
+        save();
+    }
+
+    /**
+     * @return the maximum number of pooled connections to a single ALM server
+     */
+    public int getAlmMaxConnectionsPerRoute() {
+        return almMaxConnectionsPerRoute > 0 ? almMaxConnectionsPerRoute : DEFAULT_ALM_MAX_CONNECTIONS_PER_ROUTE;
+    }
+
+    public void setAlmMaxConnectionsPerRoute(int almMaxConnectionsPerRoute) {
+        if (almMaxConnectionsPerRoute < 1) {
+            this.almMaxConnectionsPerRoute = DEFAULT_ALM_MAX_CONNECTIONS_PER_ROUTE;
+        } else {
+            this.almMaxConnectionsPerRoute = Math.min(almMaxConnectionsPerRoute, MAX_ALM_MAX_CONNECTIONS_PER_ROUTE);
+        }
+
+        save();
+    }
+
     public FormValidation doCheckDateFormat(@QueryParameter String value) {
         if (!StringUtils.isNullOrEmpty(value)) {
             try {
@@ -160,4 +219,37 @@ public class RunnerMiscSettingsGlobalConfiguration extends GlobalConfiguration i
         return FormValidation.warning("Will fallback to default pattern.");
     }
 
+    public FormValidation doCheckReportArchivingThreads(@QueryParameter String value) {
+        if (StringUtils.isNullOrEmpty(value)) {
+            return FormValidation.warning("Will fallback to " + DEFAULT_REPORT_ARCHIVING_THREADS + ".");
+        }
+
+        try {
+            int threads = Integer.parseInt(value.trim());
+            if (threads < 1 || threads > MAX_REPORT_ARCHIVING_THREADS) {
+                return FormValidation.error("Value must be between 1 and " + MAX_REPORT_ARCHIVING_THREADS + ".");
+            }
+        } catch (NumberFormatException ignored) {
+            return FormValidation.error("Value must be a number.");
+        }
+
+        return FormValidation.ok();
+    }
+
+    public FormValidation doCheckAlmMaxConnectionsPerRoute(@QueryParameter String value) {
+        if (StringUtils.isNullOrEmpty(value)) {
+            return FormValidation.warning("Will fallback to " + DEFAULT_ALM_MAX_CONNECTIONS_PER_ROUTE + ".");
+        }
+
+        try {
+            int connections = Integer.parseInt(value.trim());
+            if (connections < 1 || connections > MAX_ALM_MAX_CONNECTIONS_PER_ROUTE) {
+                return FormValidation.error("Value must be between 1 and " + MAX_ALM_MAX_CONNECTIONS_PER_ROUTE + ".");
+            }
+        } catch (NumberFormatException ignored) {
+            return FormValidation.error("Value must be a number.");
+        }
+
+        return FormValidation.ok();
+    }
 }
@@ -57,7 +57,7 @@ public class SSEBuilderPerformer {
 
         RestClient restClient;
 
-        restClient = new RestClient(args.getUrl(),
+        restClient = RestClient.create(args.getUrl(),
                 args.getDomain(),
                 args.getProject(),
                 args.getUsername());
@@ -152,7 +152,7 @@ public class AUTEnvironmentBuilderPerformer {
     private RestClient getClient() {
         if (restClient == null) {
             restClient =
-                    new RestClient(
+                    RestClient.create(
                             model.getAlmServerUrl(),
                             model.getAlmDomain(),
                             model.getAlmProject(),
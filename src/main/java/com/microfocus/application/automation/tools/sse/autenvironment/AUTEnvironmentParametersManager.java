@@ -33,15 +33,19 @@ import com.microfocus.application.automation.tools.model.AutEnvironmentParameter
 import com.microfocus.application.automation.tools.sse.autenvironment.request.get.GetAutEnvFoldersByIdRequest;
 import com.microfocus.application.automation.tools.sse.autenvironment.request.get.GetParametersByAutEnvConfIdRequest;
 import com.microfocus.application.automation.tools.sse.autenvironment.request.put.PutAutEnvironmentParametersBulkRequest;
+import com.microfocus.application.automation.tools.sse.common.EntitiesReader;
 import com.microfocus.application.automation.tools.sse.common.JsonHandler;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 import hudson.util.VariableResolver;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Created by barush on 29/10/2014.
@@ -50,6 +54,10 @@ public class AUTEnvironmentParametersManager {
 
     public final static String PARAMETER_PATH_DELIMITER = "/";
 
+    private final static int FOLDERS_CHUNK_SIZE = 500;
+    private final static int UPDATE_CHUNK_SIZE =
+            Integer.getInteger(AUTEnvironmentParametersManager.class.getName() + ".updateChunkSize", 1000);
+
     private Logger logger;
     private Client client;
     private List<AutEnvironmentParameterModel> parametersToAssign;
@@ -83,99 +91,118 @@ public class AUTEnvironmentParametersManager {
     }
 
     public Collection<AUTEnvironmnentParameter> getParametersToUpdate() {
+        long start = System.currentTimeMillis();
         parameters = getAllParametersByAutEnvConfId();
         Map<String, AUTEnvironmentFolder> parametersFolders = getAllRelevantParametersFolders();
 
+        Map<String, AUTEnvironmnentParameter> parametersByPath =
+                new HashMap<String, AUTEnvironmnentParameter>();
         for (AUTEnvironmnentParameter parameter : parameters.values()) {
             parameter.setFullPath(parametersFolders.get(parameter.getParentId()).getPath()
                     + PARAMETER_PATH_DELIMITER
                     + parameter.getName());
-
+            parametersByPath.putIfAbsent(toPathKey(parameter.getFullPath()), parameter);
         }
+        logger.log(String.format(
+                "Loaded %d parameters in %d folders of AUT Environment Configuration with ID: [%s] in %d ms",
+                parameters.size(),
+                parametersFolders.size(),
+                autEnvironmentConfigurationId,
+                System.currentTimeMillis() - start));
 
         resolveValuesOfParameters();
-        return getResolvedParametersWithAssignedValues();
+        return getResolvedParametersWithAssignedValues(parametersByPath);
     }
 
     public void updateParametersValues(Collection<AUTEnvironmnentParameter> parametersToUpdate) {
 
-        Response response =
-                new PutAutEnvironmentParametersBulkRequest(client, parametersToUpdate).execute();
-        if (!response.isOk()) {
-            throw new SSEException(
-                    String.format(
-                            "Failed to update the parameters of AUT Environment Configuration with ID: [%s]",
-                            autEnvironmentConfigurationId),
-                    response.getFailure());
+        long start = System.currentTimeMillis();
+        List<AUTEnvironmnentParameter> parametersList =
+                new ArrayList<AUTEnvironmnentParameter>(parametersToUpdate);
+        for (int i = 0; i < parametersList.size(); i += UPDATE_CHUNK_SIZE) {
+            Response response =
+                    new PutAutEnvironmentParametersBulkRequest(
+                            client,
+                            parametersList.subList(i, Math.min(parametersList.size(), i + UPDATE_CHUNK_SIZE)))
+                            .execute();
+            if (!response.isOk()) {
+                throw new SSEException(
+                        String.format(
+                                "Failed to update the parameters of AUT Environment Configuration with ID: [%s]",
+                                autEnvironmentConfigurationId),
+                        response.getFailure());
+            }
         }
-        logger.log("Submitted all parameters to ALM");
+        logger.log(String.format(
+                "Submitted all parameters to ALM (%d parameters in %d ms)",
+                parametersList.size(),
+                System.currentTimeMillis() - start));
     }
 
     private Map<String, AUTEnvironmnentParameter> getAllParametersByAutEnvConfId() {
 
         Map<String, AUTEnvironmnentParameter> parametersMap =
                 new HashMap<String, AUTEnvironmnentParameter>();
-        Response response =
-                new GetParametersByAutEnvConfIdRequest(client, autEnvironmentConfigurationId).execute();
-        if (!response.isOk()) {
-            throw new SSEException(
-                    String.format(
-                            "Failed to retrieve the parameters of AUT Environment Configuration with ID: [%s]",
-                            autEnvironmentConfigurationId),
-                    response.getFailure());
-        }
-
-        List<Map<String, String>> parameters = XPathUtils.toEntities(response.toString());
-
-        for (Map<String, String> parameter : parameters) {
-
-            String id = parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_ID_FIELD);
-            AUTEnvironmnentParameter param =
-                    new AUTEnvironmnentParameter(
-                            id,
-                            parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_PARENT_ID_FIELD),
-                            parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_NAME_FIELD));
-            parametersMap.put(id, param);
-
-        }
+        int[] totalResults = { 0 };
+        int startIndex = 1;
+        int read;
+        do {
+            Response response =
+                    new GetParametersByAutEnvConfIdRequest(
+                            client,
+                            autEnvironmentConfigurationId,
+                            startIndex).execute();
+            if (!response.isOk()) {
+                throw new SSEException(
+                        String.format(
+                                "Failed to retrieve the parameters of AUT Environment Configuration with ID: [%s]",
+                                autEnvironmentConfigurationId),
+                        response.getFailure());
+            }
+            totalResults[0] = 0;
+            read = readEntities(response, total -> totalResults[0] = total, parameter -> {
+                String id = parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_ID_FIELD);
+                AUTEnvironmnentParameter param =
+                        new AUTEnvironmnentParameter(
+                                id,
+                                parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_PARENT_ID_FIELD),
+                                parameter.get(AUTEnvironmnentParameter.ALM_PARAMETER_NAME_FIELD));
+                parametersMap.put(id, param);
+            });
+            startIndex += read;
+        } while (read > 0 && startIndex <= totalResults[0]);
 
         return parametersMap;
 
     }
 
+    /**
+     * Gets the folders of all the parameters and their ancestors up to the root folder, with as few requests as the
+     * depth of the folders tree
+     */
     private Map<String, AUTEnvironmentFolder> getAllRelevantParametersFolders() {
 
         Map<String, AUTEnvironmentFolder> parametersFolders =
                 new HashMap<String, AUTEnvironmentFolder>();
-        StringBuilder foldersToGet = new StringBuilder(parametersRootFolderId);
-
+        Set<String> requestedFolders = new HashSet<String>();
+        Set<String> foldersToGet = new LinkedHashSet<String>();
+        foldersToGet.add(parametersRootFolderId);
         for (AUTEnvironmnentParameter parameter : parameters.values()) {
-            foldersToGet.append("%20OR%20" + parameter.getParentId());
-        }
-
-        Response response =
-                new GetAutEnvFoldersByIdRequest(client, foldersToGet.toString()).execute();
-        if (!response.isOk()) {
-            throw new SSEException(
-                    String.format(
-                            "Failed to retrieve parameters folders of AUT Environment Configuration with ID: [%s]",
-                            autEnvironmentConfigurationId),
-                    response.getFailure());
+            foldersToGet.add(parameter.getParentId());
         }
 
-        List<Map<String, String>> folders = XPathUtils.toEntities(response.toString());
-
-        for (Map<String, String> folder : folders) {
-
-            String folderId = folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_ID_FIELD);
-            if (!parametersFolders.containsKey(folderId)) {
-                AUTEnvironmentFolder autEnvironmentFolder =
-                        new AUTEnvironmentFolder(
-                                folderId,
-                                folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_PARENT_ID_FIELD),
-                                folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_NAME_FIELD));
-                parametersFolders.put(folderId, autEnvironmentFolder);
-
+        while (!foldersToGet.isEmpty()) {
+            getParametersFolders(new ArrayList<String>(foldersToGet), parametersFolders);
+            requestedFolders.addAll(foldersToGet);
+            foldersToGet = new LinkedHashSet<String>();
+            for (AUTEnvironmentFolder folder : parametersFolders.values()) {
+                String parentId = folder.getParentId();
+                if (!folder.getId().equals(parametersRootFolderId)
+                        && !StringUtils.isNullOrEmpty(parentId)
+                        && !parametersFolders.containsKey(parentId)
+                        && !requestedFolders.contains(parentId)) {
+                    foldersToGet.add(parentId);
+                }
             }
         }
 
@@ -185,27 +212,77 @@ public class AUTEnvironmentParametersManager {
         return parametersFolders;
     }
 
+    private void getParametersFolders(List<String> folderIds, Map<String, AUTEnvironmentFolder> parametersFolders) {
+
+        for (int i = 0; i < folderIds.size(); i += FOLDERS_CHUNK_SIZE) {
+            String foldersToGet =
+                    String.join("%20OR%20", folderIds.subList(i, Math.min(folderIds.size(), i + FOLDERS_CHUNK_SIZE)));
+            Response response = new GetAutEnvFoldersByIdRequest(client, foldersToGet).execute();
+            if (!response.isOk()) {
+                throw new SSEException(
+                        String.format(
+                                "Failed to retrieve parameters folders of AUT Environment Configuration with ID: [%s]",
+                                autEnvironmentConfigurationId),
+                        response.getFailure());
+            }
+
+            readEntities(response, total -> {}, folder -> {
+                String folderId = folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_ID_FIELD);
+                if (!parametersFolders.containsKey(folderId)) {
+                    AUTEnvironmentFolder autEnvironmentFolder =
+                            new AUTEnvironmentFolder(
+                                    folderId,
+                                    folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_PARENT_ID_FIELD),
+                                    folder.get(AUTEnvironmentFolder.ALM_PARAMETER_FOLDER_NAME_FIELD));
+                    parametersFolders.put(folderId, autEnvironmentFolder);
+                }
+            });
+        }
+    }
+
+    private int readEntities(
+            Response response,
+            IntConsumer totalResults,
+            Consumer<Map<String, String>> entityConsumer) {
+
+        try {
+            return EntitiesReader.read(new ByteArrayInputStream(response.getData()), totalResults, entityConsumer);
+        } catch (XMLStreamException cause) {
+            throw new SSEException(cause);
+        }
+    }
+
+    /**
+     * Paths are calculated once per folder, each folder reuses the path of its parent
+     */
     private String calculatePaths(
             AUTEnvironmentFolder folder,
             Map<String, AUTEnvironmentFolder> parametersFolders) {
 
+        if (!StringUtils.isNullOrEmpty(folder.getPath())) {
+            return folder.getPath();
+        }
+
         String calculatedPath;
-        if (folder.getId().equals(parametersRootFolderId)) {
+        AUTEnvironmentFolder parent = parametersFolders.get(folder.getParentId());
+        if (folder.getId().equals(parametersRootFolderId) || parent == null) {
             calculatedPath = folder.getName();
         } else {
             calculatedPath =
-                    StringUtils.isNullOrEmpty(folder.getPath())
-                            ? calculatePaths(
-                            parametersFolders.get(folder.getParentId()),
-                            parametersFolders)
+                    calculatePaths(parent, parametersFolders)
                             + PARAMETER_PATH_DELIMITER
-                            + folder.getName() : folder.getPath();
+                            + folder.getName();
         }
 
         folder.setPath(calculatedPath);
         return calculatedPath;
     }
 
+    private static String toPathKey(String path) {
+
+        return path.toLowerCase(Locale.ROOT);
+    }
+
     private void resolveValuesOfParameters() {
 
         boolean shouldLoadJsonObject = true;
@@ -243,26 +320,23 @@ public class AUTEnvironmentParametersManager {
 
     }
 
-    private Collection<AUTEnvironmnentParameter> getResolvedParametersWithAssignedValues() {
+    private Collection<AUTEnvironmnentParameter> getResolvedParametersWithAssignedValues(
+            Map<String, AUTEnvironmnentParameter> parametersByPath) {
 
         Collection<AUTEnvironmnentParameter> valuesToReturn =
                 new ArrayList<AUTEnvironmnentParameter>();
         for (AutEnvironmentParameterModel parameterByModel : parametersToAssign) {
-            String parameterPathByModel = parameterByModel.getName();
-            for (AUTEnvironmnentParameter parameter : parameters.values()) {
-                if (parameterPathByModel.equalsIgnoreCase(parameter.getFullPath())) {
-                    String resolvedValue = parameterByModel.getResolvedValue();
-                    parameter.setValue(resolvedValue);
-                    logger.log(String.format(
-                            "Parameter: [%s] of type: [%s] will get the value: [%s] ",
-                            parameter.getFullPath(),
-                            parameterByModel.getParamType(),
-                            resolvedValue));
-                    valuesToReturn.add(parameter);
-                    break;
-                }
+            AUTEnvironmnentParameter parameter = parametersByPath.get(toPathKey(parameterByModel.getName()));
+            if (parameter != null) {
+                String resolvedValue = parameterByModel.getResolvedValue();
+                parameter.setValue(resolvedValue);
+                logger.log(String.format(
+                        "Parameter: [%s] of type: [%s] will get the value: [%s] ",
+                        parameter.getFullPath(),
+                        parameterByModel.getParamType(),
+                        resolvedValue));
+                valuesToReturn.add(parameter);
             }
-
         }
         logger.log(parametersToAssign.size() > 0
                 ? "Finished assignment of values for all parameters"
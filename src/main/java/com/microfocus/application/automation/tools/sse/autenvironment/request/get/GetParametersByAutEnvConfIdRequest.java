@@ -37,12 +37,24 @@ import com.microfocus.application.automation.tools.sse.sdk.request.GeneralGetReq
  */
 public class GetParametersByAutEnvConfIdRequest extends GeneralGetRequest {
     
+    public static final int PAGE_SIZE = 2000;
+    
     String configurationId;
+    private final int startIndex;
     
     public GetParametersByAutEnvConfIdRequest(Client client, String configurationId) {
         
+        this(client, configurationId, 1);
+    }
+    
+    /**
+     * @param startIndex 1 based index of the first parameter of the page
+     */
+    public GetParametersByAutEnvConfIdRequest(Client client, String configurationId, int startIndex) {
+        
         super(client);
         this.configurationId = configurationId;
+        this.startIndex = startIndex;
     }
     
     @Override
@@ -54,6 +66,10 @@ public class GetParametersByAutEnvConfIdRequest extends GeneralGetRequest {
     @Override
     protected String getQueryString() {
         
-        return String.format("query={app-param-value-set-id[%s]}&page-size=2000", configurationId);
+        return String.format(
+                "query={app-param-value-set-id[%s]}&page-size=%d&start-index=%d",
+                configurationId,
+                PAGE_SIZE,
+                startIndex);
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/***
+ * Streams the entities of an ALM REST response, one entity at a time, without building a DOM of the whole response.
+ * Each entity is handed over as a map of field name to field value, like {@link XPathUtils#toEntities(String)}.
+ */
+public class EntitiesReader {
+
+    private static final XMLInputFactory factory = createFactory();
+
+    private EntitiesReader() {
+    }
+
+    /**
+     * @param xml            response XML
+     * @param totalResults   gets the TotalResults attribute of the response before its entities are read, if it has one
+     * @param entityConsumer gets each entity of the response
+     * @return number of entities read
+     */
+    public static int read(InputStream xml, IntConsumer totalResults, Consumer<Map<String, String>> entityConsumer)
+            throws XMLStreamException {
+
+        XMLStreamReader reader = factory.createXMLStreamReader(xml);
+        try {
+            int count = 0;
+            Map<String, String> entity = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT && entity != null && "Entity".equals(reader.getLocalName())) {
+                    entityConsumer.accept(entity);
+                    entity = null;
+                    count++;
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "Entities":
+                            String total = reader.getAttributeValue(null, "TotalResults");
+                            if (!StringUtils.isNullOrEmpty(total)) {
+                                totalResults.accept(Integer.parseInt(total.trim()));
+                            }
+                            break;
+                        case "Entity":
+                            entity = new HashMap<String, String>();
+                            break;
+                        case "Field":
+                            if (entity != null) {
+                                entity.put(reader.getAttributeValue(null, "Name"), readFieldValue(reader));
+                            }
+                            break;
+                        case "RelatedEntities":
+                            skipElement(reader);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the first value of a field, null if it has no value or an empty one
+     */
+    private static String readFieldValue(XMLStreamReader reader) throws XMLStreamException {
+
+        String ret = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (ret == null && depth == 1 && "Value".equals(reader.getLocalName())) {
+                    String value = reader.getElementText();
+                    ret = value.isEmpty() ? null : value;
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+
+        return ret;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+
+        XMLInputFactory ret = XMLInputFactory.newInstance();
+        ret.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        ret.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return ret;
+    }
+}
@@ -33,8 +33,10 @@ import java.util.*;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import com.microfocus.application.automation.tools.common.SSEException;
@@ -46,6 +48,8 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 
 /***
+ * Parsers and compiled XPath expressions are created once per thread and reused, as creating them costs more than
+ * parsing a typical ALM response.
  * 
  * @author Effi Bar-She'an
  * @author Dani Schreiber
@@ -54,6 +58,19 @@ import org.xml.sax.InputSource;
 
 public class XPathUtils {
 
+    private static final String ENTITY_FIELDS = "Entity/Fields/Field";
+
+    private static final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        try {
+            return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        } catch (ParserConfigurationException cause) {
+            throw new SSEException(cause);
+        }
+    });
+
+    private static final ThreadLocal<Map<String, XPathExpression>> expressions =
+            ThreadLocal.withInitial(HashMap::new);
+
     public static Map<String, String> getEntityFieldsMap(String xml) {
         Document document = getDocument(xml);
         NodeList entities = document.getElementsByTagName("Field");
@@ -97,9 +114,20 @@ public class XPathUtils {
     
     public static String getAttributeValue(String xml, String attrName) {
         
-        NodeList nodes = getChildNodes(xml, "Entity/Fields/Field");
-        String ret = StringUtils.EMPTY_STRING;
-        for (int i = 0; i < nodes.getLength(); i++) {
+        return getAttributeValues(xml, attrName).get(attrName);
+    }
+    
+    /**
+     * Gets the values of several fields of an entity, parsing the XML once
+     * 
+     * @return field name to value, an empty string for a field the entity doesn't have
+     */
+    public static Map<String, String> getAttributeValues(String xml, String... attrNames) {
+        
+        Map<String, String> ret = new HashMap<String, String>();
+        Set<String> remaining = new HashSet<String>(Arrays.asList(attrNames));
+        NodeList nodes = getChildNodes(xml, ENTITY_FIELDS);
+        for (int i = 0; i < nodes.getLength() && !remaining.isEmpty(); i++) {
             Node currNode = nodes.item(i);
             String attr;
             try {
@@ -107,11 +135,13 @@ public class XPathUtils {
             } catch (Throwable cause) {
                 throw new SSEException(cause);
             }
-            if (attr.equals(attrName)) {
-                ret = getFieldValue(currNode);
-                break;
+            if (remaining.remove(attr)) {
+                ret.put(attr, getFieldValue(currNode));
             }
         }
+        for (String attrName : remaining) {
+            ret.put(attrName, StringUtils.EMPTY_STRING);
+        }
         
         return ret;
     }
@@ -135,9 +165,7 @@ public class XPathUtils {
         NodeList ret = null;
         try {
             Document document = getDocument(xml);
-            XPathFactory factory = XPathFactory.newInstance();
-            XPathExpression expression = factory.newXPath().compile(xpath);
-            ret = (NodeList) expression.evaluate(document, XPathConstants.NODESET);
+            ret = (NodeList) getExpression(xpath).evaluate(document, XPathConstants.NODESET);
         } catch (Throwable cause) {
             throw new SSEException(cause);
         }
@@ -145,6 +173,18 @@ public class XPathUtils {
         return ret;
     }
     
+    private static XPathExpression getExpression(String xpath) throws XPathExpressionException {
+        
+        Map<String, XPathExpression> compiled = expressions.get();
+        XPathExpression ret = compiled.get(xpath);
+        if (ret == null) {
+            ret = XPathFactory.newInstance().newXPath().compile(xpath);
+            compiled.put(xpath, ret);
+        }
+        
+        return ret;
+    }
+    
     private static String getNecessaryAttribute(Node node, String attributeName) {
         
         if (!node.hasAttributes()) {
@@ -169,13 +209,15 @@ public class XPathUtils {
     public static Document getDocument(String xml) {
         
         Document ret = null;
+        DocumentBuilder builder = documentBuilder.get();
         try {
-            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
             InputSource inputSource = new InputSource();
             inputSource.setCharacterStream(new StringReader(xml));
             ret = builder.parse(inputSource);
         } catch (Throwable cause) {
             throw new SSEException(cause);
+        } finally {
+            builder.reset();
         }
         
         return ret;
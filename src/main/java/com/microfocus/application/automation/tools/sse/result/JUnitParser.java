@@ -45,6 +45,37 @@ import com.microfocus.application.automation.tools.sse.result.model.junit.Testsu
 public class JUnitParser {
 
     private String entityId;
+    private String entityName;
+    private String runEntityId;
+    private String url;
+    private String domain;
+    private String project;
+    private Map<String, Testsuite> testSetIdToTestsuite;
+    
+    public JUnitParser() {
+        
+    }
+    
+    /**
+     * Creates a parser that builds the model one test instance run at a time, see
+     * {@link #addTestInstanceRun(Map)} and {@link #getTestsuites()}
+     */
+    public JUnitParser(
+            String entityId,
+            String entityName,
+            String runEntityId,
+            String url,
+            String domain,
+            String project) {
+        
+        this.entityId = entityId;
+        this.entityName = entityName;
+        this.runEntityId = runEntityId;
+        this.url = url;
+        this.domain = domain;
+        this.project = project;
+        this.testSetIdToTestsuite = new HashMap<String, Testsuite>();
+    }
     
     public Testsuites toModel(
             List<Map<String, String>> testInstanceRuns,
@@ -68,6 +99,28 @@ public class JUnitParser {
         return createTestsuites(testSetIdToTestsuite);
     }
     
+    /**
+     * Adds the test case of a test instance run to the test suite of its test set
+     */
+    public void addTestInstanceRun(Map<String, String> testInstanceRun) {
+        
+        Testsuite testsuite = testSetIdToTestsuite.get(getTestSetId(testInstanceRun));
+        if (testsuite == null) {
+            testsuite = new Testsuite();
+            testSetIdToTestsuite.put(getTestSetId(testInstanceRun), testsuite);
+        }
+        testsuite.getTestcase().add(
+                getTestcase(testInstanceRun, entityName, runEntityId, url, domain, project));
+    }
+    
+    /**
+     * @return the test suites of the test instance runs added so far, null if none was added
+     */
+    public Testsuites getTestsuites() {
+        
+        return testSetIdToTestsuite.isEmpty() ? null : createTestsuites(testSetIdToTestsuite);
+    }
+    
     private Testsuites createTestsuites(Map<String, Testsuite> testSetIdToTestsuite) {
         
         Testsuites ret = new Testsuites();
@@ -74,4 +74,14 @@ public class LabPublisher extends Publisher {
         
         return new GetLabRunEntityTestSetRunsRequest(_client, _runId);
     }
+    
+    @Override
+    protected GetRequest getRunEntityTestSetRunsRequest(
+            Client client,
+            String runId,
+            int pageSize,
+            int startIndex) {
+        
+        return new GetLabRunEntityTestSetRunsRequest(_client, _runId, pageSize, startIndex);
+    }
 }
@@ -35,6 +35,8 @@ import com.microfocus.application.automation.tools.sse.sdk.Response;
 import com.microfocus.application.automation.tools.sse.sdk.request.GetPCRunEntityTestSetRunsRequest;
 import com.microfocus.application.automation.tools.sse.sdk.request.GetRequest;
 
+import java.util.Map;
+
 /**
  * 
  * @author Effi Bar-She'an
@@ -54,9 +56,11 @@ public class PCPublisher extends Publisher {
         try {
             Response response = getEntityName(nameSuffix);
             if (response.isOk() && !response.toString().equals("")) {
-                String runId = XPathUtils.getAttributeValue(response.toString(), "id");
-                String testId = XPathUtils.getAttributeValue(response.toString(), "testcycl-id");
-                String testSetId = XPathUtils.getAttributeValue(response.toString(), "cycle-id");
+                Map<String, String> values =
+                        XPathUtils.getAttributeValues(response.toString(), "id", "testcycl-id", "cycle-id");
+                String runId = values.get("id");
+                String testId = values.get("testcycl-id");
+                String testSetId = values.get("cycle-id");
                 ret =
                         String.format(
                                 "PC Test ID: %s, Run ID: %s, Test Set ID: %s",
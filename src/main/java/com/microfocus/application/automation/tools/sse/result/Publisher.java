@@ -28,11 +28,16 @@
 
 package com.microfocus.application.automation.tools.sse.result;
 
-import java.util.List;
-import java.util.Map;
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
 
-import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
+import com.microfocus.application.automation.tools.sse.common.EntitiesReader;
 import com.microfocus.application.automation.tools.sse.result.model.junit.Testsuites;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
@@ -43,6 +48,9 @@ import com.microfocus.application.automation.tools.sse.sdk.request.GetRunEntityN
 
 public abstract class Publisher extends Handler {
     
+    // number of test set runs fetched per request when the run entity supports paging
+    private static final int PAGE_SIZE = Integer.getInteger(Publisher.class.getName() + ".pageSize", 2000);
+    
     public Publisher(Client client, String entityId, String runId) {
         
         super(client, entityId, runId);
@@ -55,24 +63,13 @@ public abstract class Publisher extends Handler {
             String project,
             Logger logger) {
         
-        Testsuites ret = null;
-        GetRequest testSetRunsRequest = getRunEntityTestSetRunsRequest(_client, _runId);
-        Response response = testSetRunsRequest.execute();
-        List<Map<String, String>> testInstanceRun = getTestInstanceRun(response, logger);
         String entityName = getEntityName(nameSuffix, logger);
-        if (testInstanceRun != null && testInstanceRun.size() > 0) {
-            ret =
-                    new JUnitParser().toModel(
-                            testInstanceRun,
-                            this.getEntityId(),
-                            entityName,
-                            _runId,
-                            url,
-                            domain,
-                            project);
+        JUnitParser parser = new JUnitParser(this.getEntityId(), entityName, _runId, url, domain, project);
+        if (!readTestInstanceRuns(parser, logger)) {
+            return null;
         }
         
-        return ret;
+        return parser.getTestsuites();
     }
     
     protected Response getEntityName(String nameSuffix) {
@@ -80,24 +77,111 @@ public abstract class Publisher extends Handler {
         return new GetRunEntityNameRequest(_client, nameSuffix, _entityId).execute();
     }
     
-    protected List<Map<String, String>> getTestInstanceRun(Response response, Logger logger) {
+    /**
+     * Streams the test instance runs of the run entity into the parser. Paged run entities are fetched a page at a
+     * time, the next page is fetched while the current one is parsed. Every page up to the total results announced
+     * by the server has to be read, a failed or empty page before that total fails the whole read.
+     * 
+     * @return false if a response could not be fetched or parsed
+     */
+    private boolean readTestInstanceRuns(JUnitParser parser, Logger logger) {
         
-        List<Map<String, String>> ret = null;
+        if (PAGE_SIZE <= 0 || getRunEntityTestSetRunsRequest(_client, _runId, PAGE_SIZE, 1) == null) {
+            Response response = getRunEntityTestSetRunsRequest(_client, _runId).execute();
+            return readTestInstanceRuns(response, parser, logger, total -> {}) >= 0;
+        }
+        
+        ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ALM test set runs prefetch " + _runId);
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            if (!StringUtils.isNullOrEmpty(response.toString())) {
-                ret = XPathUtils.toEntities(response.toString());
+            Future<Response> page = prefetcher.submit(() -> fetchPage(1));
+            int startIndex = 1;
+            AtomicInteger totalResults = new AtomicInteger(-1);
+            while (page != null) {
+                Response response = page.get();
+                if (!response.isOk()) {
+                    logger.log(String.format(
+                            "Failed to fetch TestInstanceRuns starting at %d. Status code: %d",
+                            startIndex,
+                            response.getStatusCode()));
+                    return false;
+                }
+                int nextIndex = startIndex + PAGE_SIZE;
+                AtomicReference<Future<Response>> nextPage = new AtomicReference<>();
+                // total results are read before the entities, so the next page is fetched while this one is parsed
+                int count = readTestInstanceRuns(response, parser, logger, total -> {
+                    totalResults.set(total);
+                    if (total >= nextIndex) {
+                        nextPage.set(prefetcher.submit(() -> fetchPage(nextIndex)));
+                    }
+                });
+                if (count < 0) {
+                    return false;
+                }
+                if (count == 0 && startIndex <= totalResults.get()) {
+                    logger.log(String.format(
+                            "Got no TestInstanceRuns starting at %d while %d were expected",
+                            startIndex,
+                            totalResults.get()));
+                    return false;
+                }
+                page = count == 0 ? null : nextPage.get();
+                startIndex = nextIndex;
             }
-
-            if (ret ==null || ret.size() == 0) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.log(String.format("Interrupted while fetching TestInstanceRuns of run %s", _runId));
+            return false;
+        } catch (ExecutionException e) {
+            logger.log(String.format(
+                    "Failed to fetch TestInstanceRuns. Exception: %s",
+                    e.getCause().getMessage()));
+            return false;
+        } finally {
+            prefetcher.shutdownNow();
+        }
+        
+        return true;
+    }
+    
+    private Response fetchPage(int startIndex) {
+        
+        return getRunEntityTestSetRunsRequest(_client, _runId, PAGE_SIZE, startIndex).execute();
+    }
+    
+    /**
+     * @return number of test instance runs read from the response, -1 if it could not be parsed
+     */
+    private int readTestInstanceRuns(
+            Response response,
+            JUnitParser parser,
+            Logger logger,
+            IntConsumer totalResultsListener) {
+        
+        byte[] data = response.getData();
+        int ret = 0;
+        try {
+            if (data != null && data.length > 0) {
+                ret = EntitiesReader.read(
+                        new ByteArrayInputStream(data),
+                        totalResultsListener,
+                        parser::addTestInstanceRun);
+            }
+            
+            if (ret == 0) {
                 logger.log(String.format(
                         "Parse TestInstanceRuns from response XML got no result. Response: %s",
-                        response.toString()));
+                        data == null ? "" : response.toString()));
             }
         } catch (Throwable cause) {
             logger.log(String.format(
                     "Failed to parse TestInstanceRuns response XML. Exception: %s, XML: %s",
                     cause.getMessage(),
-                    response.toString()));
+                    data == null ? "" : response.toString()));
+            ret = -1;
         }
         
         return ret;
@@ -105,5 +189,21 @@ public abstract class Publisher extends Handler {
     
     protected abstract GetRequest getRunEntityTestSetRunsRequest(Client client, String runId);
     
+    /**
+     * Gets a page of the test set runs of the run entity
+     * 
+     * @param pageSize   maximum number of test set runs in the page
+     * @param startIndex index of the first test set run of the page, starting from 1
+     * @return the request, null if the run entity does not support paging
+     */
+    protected GetRequest getRunEntityTestSetRunsRequest(
+            Client client,
+            String runId,
+            int pageSize,
+            int startIndex) {
+        
+        return null;
+    }
+    
     protected abstract String getEntityName(String nameSuffix, Logger logger);
 }
@@ -50,6 +50,12 @@ public interface Client {
             Map<String, String> headers,
             ResourceAccessLevel resourceAccessLevel);
 
+    Response httpPostStream(
+            String url,
+            StreamingRequestBody body,
+            Map<String, String> headers,
+            ResourceAccessLevel resourceAccessLevel);
+
     Response httpPut(
             String url,
             byte[] data,
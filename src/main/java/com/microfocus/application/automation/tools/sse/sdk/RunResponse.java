@@ -28,6 +28,8 @@
 
 package com.microfocus.application.automation.tools.sse.sdk;
 
+import java.util.Map;
+
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
 import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 
@@ -44,9 +46,9 @@ public class RunResponse {
     
     public void initialize(Response response) {
         
-        String xml = response.toString();
-        _successStatus = XPathUtils.getAttributeValue(xml, "SuccessStaus");
-        _runId = parseRunId(XPathUtils.getAttributeValue(xml, "info"));
+        Map<String, String> values = XPathUtils.getAttributeValues(response.toString(), "SuccessStaus", "info");
+        _successStatus = values.get("SuccessStaus");
+        _runId = parseRunId(values.get("info"));
     }
     
     protected String parseRunId(String runIdResponse) {
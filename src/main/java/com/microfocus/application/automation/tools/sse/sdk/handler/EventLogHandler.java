@@ -28,11 +28,11 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
-import java.util.List;
+import java.io.ByteArrayInputStream;
 import java.util.Map;
 
+import com.microfocus.application.automation.tools.sse.common.EntitiesReader;
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
-import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
@@ -55,16 +55,15 @@ public class EventLogHandler extends Handler {
         Response eventLog = null;
         try {
             eventLog = getEventLog();
-            String xml = eventLog.toString();
-            List<Map<String, String>> entities = XPathUtils.toEntities(xml);
-            for (Map<String, String> currEntity : entities) {
+            // only events newer than the last read are requested, the check is kept for servers ignoring the filter
+            EntitiesReader.read(new ByteArrayInputStream(eventLog.getData()), total -> {}, currEntity -> {
                 if (isNew(currEntity)) {
                     logger.log(String.format(
                             "%s:%s",
                             currEntity.get("creation-time"),
                             currEntity.get("description")));
                 }
-            }
+            });
             ret = true;
         } catch (Throwable cause) {
             logger.log(String.format(
@@ -92,7 +91,7 @@ public class EventLogHandler extends Handler {
     
     private Response getEventLog() {
         
-        return new EventLogRequest(_client, _timeslotId).execute();
+        return new EventLogRequest(_client, _timeslotId, _lastRead).execute();
     }
     
 }
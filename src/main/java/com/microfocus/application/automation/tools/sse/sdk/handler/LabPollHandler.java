@@ -28,6 +28,9 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
 import com.microfocus.application.automation.tools.sse.common.XPathUtils;
 import com.microfocus.application.automation.tools.sse.sdk.Client;
@@ -37,6 +40,7 @@ import com.microfocus.application.automation.tools.sse.sdk.request.GetLabRunEnti
 import com.microfocus.application.automation.tools.sse.sdk.request.PollSSERunRequest;
 
 /***
+ * Lab runs of all the builds on the same ALM project are polled together by {@link RunStatusPoller}.
  * 
  * @author Effi Bar-She'an
  * @author Dani Schreiber
@@ -45,6 +49,8 @@ import com.microfocus.application.automation.tools.sse.sdk.request.PollSSERunReq
 public class LabPollHandler extends PollHandler {
     
     private EventLogHandler _eventLogHandler;
+    private Response _parsedResponse;
+    private Map<String, String> _parsedValues;
     
     public LabPollHandler(Client client, String entityId) {
         
@@ -77,6 +83,14 @@ public class LabPollHandler extends PollHandler {
         return new PollSSERunRequest(_client, _runId).execute();
     }
     
+    @Override
+    protected Response getPollResponse() throws InterruptedException {
+        
+        Response response = RunStatusPoller.poll(_client, _runId, getInterval());
+        
+        return response != null ? response : getResponse();
+    }
+    
     @Override
     protected void log(Logger logger) {
         
@@ -88,11 +102,11 @@ public class LabPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String endTime = XPathUtils.getAttributeValue(xml, "end-time");
+            Map<String, String> values = getRunValues(response);
+            String endTime = values.get("end-time");
             if (!StringUtils.isNullOrEmpty(endTime)) {
-                String startTime = XPathUtils.getAttributeValue(xml, "start-time");
-                String currentRunState = XPathUtils.getAttributeValue(xml, "state");
+                String startTime = values.get("start-time");
+                String currentRunState = values.get("state");
                 logger.log(String.format(
                         "Timeslot %s is %s.\nRun start time: %s, Run end time: %s",
                         _timeslotId,
@@ -109,15 +123,31 @@ public class LabPollHandler extends PollHandler {
         return ret;
     }
     
+    @Override
+    protected long getExpectedDuration(Response response) {
+        
+        long ret = 0;
+        try {
+            String duration = getRunValues(response).get("duration-in-minutes");
+            if (!StringUtils.isNullOrEmpty(duration)) {
+                ret = TimeUnit.MINUTES.toMillis(Long.parseLong(duration.trim()));
+            }
+        } catch (Throwable cause) {
+            // unknown duration, keep polling by state changes only
+        }
+        
+        return ret;
+    }
+    
     @Override
     protected boolean logRunEntityResults(Response response, Logger logger) {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String state = XPathUtils.getAttributeValue(xml, "state");
-            String completedSuccessfully =
-                    XPathUtils.getAttributeValue(xml, "completed-successfully");
+            Map<String, String> values =
+                    XPathUtils.getAttributeValues(response.toString(), "state", "completed-successfully");
+            String state = values.get("state");
+            String completedSuccessfully = values.get("completed-successfully");
             logger.log(String.format(
                     "Run state of %s: %s, Completed successfully: %s",
                     _runId,
@@ -132,6 +162,24 @@ public class LabPollHandler extends PollHandler {
         return ret;
     }
     
+    /**
+     * @return the fields of the run polled, parsed once for all the checks of a poll
+     */
+    private Map<String, String> getRunValues(Response response) {
+        
+        if (response != _parsedResponse) {
+            _parsedValues = XPathUtils.getAttributeValues(
+                    response.toString(),
+                    "end-time",
+                    "start-time",
+                    "state",
+                    "duration-in-minutes");
+            _parsedResponse = response;
+        }
+        
+        return _parsedValues;
+    }
+    
     private void setTimeslotId(Response runEntityResponse, Logger logger) {
         
         _timeslotId = getTimeslotId(runEntityResponse, logger);
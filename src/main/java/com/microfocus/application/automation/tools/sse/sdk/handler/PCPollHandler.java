@@ -30,6 +30,7 @@ package com.microfocus.application.automation.tools.sse.sdk.handler;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import com.microfocus.application.automation.tools.sse.common.StringUtils;
 import com.microfocus.application.automation.tools.sse.common.XPathUtils;
@@ -69,9 +70,10 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String pcEndTime = XPathUtils.getAttributeValue(xml, "pc-end-time");
-            String status = XPathUtils.getAttributeValue(xml, "status");
+            Map<String, String> values =
+                    XPathUtils.getAttributeValues(response.toString(), "pc-end-time", "status");
+            String pcEndTime = values.get("pc-end-time");
+            String status = values.get("status");
             if (!StringUtils.isNullOrEmpty(pcEndTime)) {
                 logger.log(String.format("PC test end time: %s", pcEndTime));
                 ret = true;
@@ -93,9 +95,9 @@ public class PCPollHandler extends PollHandler {
         
         boolean ret = false;
         try {
-            String xml = response.toString();
-            String status = XPathUtils.getAttributeValue(xml, "status");
-            String state = XPathUtils.getAttributeValue(xml, "state");
+            Map<String, String> values = XPathUtils.getAttributeValues(response.toString(), "status", "state");
+            String status = values.get("status");
+            String state = values.get("state");
             logger.log(String.format("Run status of %s: %s, State: %s", _runId, status, state));
             ret = true;
             
@@ -28,12 +28,22 @@
 
 package com.microfocus.application.automation.tools.sse.sdk.handler;
 
+import java.util.Arrays;
+
 import com.microfocus.application.automation.tools.sse.sdk.Client;
 import com.microfocus.application.automation.tools.sse.sdk.Logger;
 import com.microfocus.application.automation.tools.sse.sdk.Response;
 
+/**
+ * Polls a run entity until it is finished.
+ * <p>
+ * The interval starts at the configured one and doubles, up to a maximum, while the polled state does not change. It
+ * goes back to the configured interval when the state changes or when the run gets near its expected completion.
+ */
 public abstract class PollHandler extends Handler {
     
+    private static final long MAX_INTERVAL = Long.getLong(PollHandler.class.getName() + ".maxInterval", 60000);
+    
     private int _interval = 5000; // millisecond
     
     public PollHandler(Client client, String entityId) {
@@ -62,9 +72,10 @@ public abstract class PollHandler extends Handler {
     protected boolean doPoll(Logger logger) throws InterruptedException {
         boolean ret = false;
         int failures = 0;
+        PollBackoff backoff = new PollBackoff(_interval, MAX_INTERVAL, System.currentTimeMillis());
 
         while (failures < 3) {
-            Response response = getResponse();
+            Response response = getPollResponse();
             if (isOk(response, logger)) {
                 log(logger);
                 if (isFinished(response, logger)) {
@@ -75,7 +86,8 @@ public abstract class PollHandler extends Handler {
             } else {
                 ++failures;
             }
-            if (sleep(logger)) { // interrupted
+            long expectedDuration = response.isOk() ? getExpectedDuration(response) : 0;
+            if (sleep(backoff.getNextDelay(response, expectedDuration, System.currentTimeMillis()), logger)) {
                 break;
             }
         }
@@ -91,6 +103,27 @@ public abstract class PollHandler extends Handler {
     
     protected abstract Response getResponse();
     
+    /**
+     * @return the response of a poll, may be fetched together with the polls of other runs
+     */
+    protected Response getPollResponse() throws InterruptedException {
+        
+        return getResponse();
+    }
+    
+    protected int getInterval() {
+        
+        return _interval;
+    }
+    
+    /**
+     * @return expected time in milliseconds from the start of polling till the run is finished, 0 if unknown
+     */
+    protected long getExpectedDuration(Response response) {
+        
+        return 0;
+    }
+    
     protected boolean isOk(Response response, Logger logger) {
         
         boolean ret = false;
@@ -107,11 +140,11 @@ public abstract class PollHandler extends Handler {
         return ret;
     }
     
-    protected boolean sleep(Logger logger) throws InterruptedException {
+    protected boolean sleep(long delay, Logger logger) throws InterruptedException {
         
         boolean ret = false;
         try {
-            Thread.sleep(_interval);
+            Thread.sleep(delay);
         } catch (InterruptedException ex) {
             logger.log("Interrupted while polling");
             throw ex;
@@ -121,4 +154,50 @@ public abstract class PollHandler extends Handler {
     }
     
     protected void log(Logger logger) {}
+    
+    /**
+     * Delay before the next try of one polling
+     */
+    static class PollBackoff {
+        
+        private final long _interval;
+        private final long _maxInterval;
+        private final long _start;
+        private long _delay;
+        private byte[] _lastData;
+        
+        PollBackoff(long interval, long maxInterval, long start) {
+            
+            _interval = interval;
+            _maxInterval = Math.max(interval, maxInterval);
+            _start = start;
+            _delay = interval;
+        }
+        
+        /**
+         * @param response the response of the last try
+         * @param expectedDuration expected time in milliseconds from the start till the run is finished, 0 if unknown
+         * @param now the current time in milliseconds
+         * @return the delay in milliseconds
+         */
+        long getNextDelay(Response response, long expectedDuration, long now) {
+            
+            if (response.isOk()) {
+                byte[] data = response.getData();
+                if (_lastData != null && Arrays.equals(data, _lastData)) {
+                    _delay = Math.min(_delay * 2, _maxInterval);
+                } else {
+                    _delay = _interval;
+                }
+                _lastData = data;
+                
+                if (expectedDuration > 0 && now + _delay >= _start + expectedDuration) {
+                    // near the expected completion, don't miss it by a long interval
+                    _delay = _interval;
+                }
+            }
+            
+            return _delay;
+        }
+    }
 }
@@ -0,0 +1,246 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk.handler;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.lang.StringEscapeUtils;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import com.microfocus.application.automation.tools.sse.common.EntitiesReader;
+import com.microfocus.application.automation.tools.sse.common.RestXmlUtils;
+import com.microfocus.application.automation.tools.sse.sdk.Client;
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+import com.microfocus.application.automation.tools.sse.sdk.request.GetLabRunEntitiesDataRequest;
+
+/**
+ * Checks the status of the lab runs of all the builds polling the same ALM project.
+ * <p>
+ * Polls of runs that are due within a short window of each other are sent as one query by the list of run ids, and
+ * each polling gets the entity of its own run back. The first polling thread of a window waits for the window to end
+ * and sends the query on behalf of the others. A single due run is polled by its own thread, as is a run missing from
+ * the query results.
+ * <p>
+ * A poller only keeps the session of its pending polls, and is dropped as soon as it has no poll left.
+ */
+class RunStatusPoller {
+    
+    private static final long BATCH_WINDOW = Long.getLong(RunStatusPoller.class.getName() + ".window", 1000);
+    private static final Map<String, RunStatusPoller> _pollers = new HashMap<String, RunStatusPoller>();
+    
+    private final String _key;
+    private final Map<String, PendingPoll> _pending = new LinkedHashMap<String, PendingPoll>();
+    private Client _client;
+    private boolean _leading;
+    private long _batchTime;
+    
+    private RunStatusPoller(String key) {
+        
+        _key = key;
+    }
+    
+    /**
+     * @param maxDelay longest time in milliseconds to wait for other runs to be polled with this one
+     * @return the response for the run entity, null if the run is to be polled by itself
+     */
+    static Response poll(Client client, String runId, long maxDelay) throws InterruptedException {
+        
+        PendingPoll pending = new PendingPoll();
+        RunStatusPoller poller;
+        boolean leader;
+        // added under the lock of the pollers so that an idle poller is not dropped in between
+        synchronized (_pollers) {
+            poller = _pollers.computeIfAbsent(client.buildRestRequest("procedure-runs"), RunStatusPoller::new);
+            leader = poller.add(client, runId, pending, maxDelay);
+        }
+        if (leader) {
+            poller.lead();
+        }
+        
+        return pending.await();
+    }
+    
+    /**
+     * @return true if the calling thread is to lead the batch
+     */
+    private synchronized boolean add(Client client, String runId, PendingPoll pending, long maxDelay) {
+        
+        PendingPoll previous = _pending.put(runId, pending);
+        if (previous != null) {
+            previous._result.complete(null);
+        }
+        // any of the polling builds' sessions can query the project, the latest one is surely alive
+        _client = client;
+        long time = System.currentTimeMillis() + Math.max(0, Math.min(BATCH_WINDOW, maxDelay));
+        if (!_leading || time < _batchTime) {
+            _batchTime = time;
+            notifyAll();
+        }
+        boolean leader = !_leading;
+        _leading = true;
+        
+        return leader;
+    }
+    
+    /**
+     * Waits till the batch is due and fetches it on the calling thread
+     */
+    private void lead() throws InterruptedException {
+        
+        Map<String, PendingPoll> batch;
+        Client client;
+        InterruptedException interrupted = null;
+        synchronized (this) {
+            try {
+                long wait;
+                while ((wait = _batchTime - System.currentTimeMillis()) > 0) {
+                    wait(wait);
+                }
+            } catch (InterruptedException ex) {
+                interrupted = ex;
+            }
+            client = _client;
+            batch = take();
+        }
+        dropIfIdle();
+        if (interrupted != null) {
+            // the other pollings fall back to polling by themselves
+            for (PendingPoll pending : batch.values()) {
+                pending._result.complete(null);
+            }
+            throw interrupted;
+        }
+        if (batch.size() > 1) {
+            fetchAll(client, batch);
+        } else {
+            for (PendingPoll pending : batch.values()) {
+                pending._result.complete(null);
+            }
+        }
+    }
+    
+    /**
+     * Takes the pending polls along with the session to send them with, the next batch brings its own session
+     */
+    private Map<String, PendingPoll> take() {
+        
+        Map<String, PendingPoll> batch = new LinkedHashMap<String, PendingPoll>(_pending);
+        _pending.clear();
+        _client = null;
+        _leading = false;
+        
+        return batch;
+    }
+    
+    /**
+     * Drops the poller of the project unless polls were added since its batch was taken
+     */
+    private void dropIfIdle() {
+        
+        synchronized (_pollers) {
+            synchronized (this) {
+                if (_pending.isEmpty() && !_leading) {
+                    _pollers.remove(_key, this);
+                }
+            }
+        }
+    }
+    
+    private void fetchAll(Client client, Map<String, PendingPoll> batch) {
+        
+        Map<String, Response> runs = new HashMap<String, Response>();
+        Response response;
+        try {
+            Response entities =
+                    new GetLabRunEntitiesDataRequest(client, new ArrayList<String>(batch.keySet())).execute();
+            if (entities.isOk()) {
+                EntitiesReader.read(
+                        new ByteArrayInputStream(entities.getData()),
+                        total -> {},
+                        entity -> runs.put(entity.get("id"), toResponse(entity, entities)));
+            }
+            response = entities;
+        } catch (Exception cause) {
+            response = new Response(cause);
+        }
+        for (Map.Entry<String, PendingPoll> run : batch.entrySet()) {
+            Response runResponse = runs.get(run.getKey());
+            if (runResponse != null) {
+                run.getValue()._result.complete(runResponse);
+            } else if (response.isOk()) {
+                run.getValue()._result.complete(null);
+            } else {
+                // counted as a failed try by each polling
+                run.getValue()._result.complete(response);
+            }
+        }
+    }
+    
+    /**
+     * @return a response holding the entity alone, as a request for the single run would
+     */
+    private static Response toResponse(Map<String, String> entity, Response response) {
+        
+        StringBuilder xml = new StringBuilder("<Entity Type=\"procedure-run\"><Fields>");
+        for (Map.Entry<String, String> field : entity.entrySet()) {
+            String value = field.getValue();
+            xml.append(RestXmlUtils.fieldXml(
+                    StringEscapeUtils.escapeXml(field.getKey()),
+                    value == null ? "" : StringEscapeUtils.escapeXml(value)));
+        }
+        xml.append("</Fields></Entity>");
+        
+        return new Response(
+                response.getHeaders(),
+                xml.toString().getBytes(StandardCharsets.UTF_8),
+                null,
+                response.getStatusCode());
+    }
+    
+    private static class PendingPoll {
+        
+        private final CompletableFuture<Response> _result = new CompletableFuture<Response>();
+        
+        private Response await() throws InterruptedException {
+            
+            try {
+                return _result.get();
+            } catch (ExecutionException ex) {
+                throw new SSEException(ex.getCause());
+            }
+        }
+    }
+}
@@ -33,18 +33,31 @@ import com.microfocus.application.automation.tools.sse.sdk.Client;
 public class EventLogRequest extends GetRequest {
     
     private final String _timeslotId;
+    private final int _lastRead;
     
     public EventLogRequest(Client client, String timeslotId) {
         
+        this(client, timeslotId, -1);
+    }
+    
+    /**
+     * @param lastRead id of the last event already read, only newer events are requested. -1 for all the events.
+     */
+    public EventLogRequest(Client client, String timeslotId, int lastRead) {
+        
         super(client, timeslotId);
         _timeslotId = timeslotId;
+        _lastRead = lastRead;
     }
     
     @Override
     protected String getSuffix() {
         
+        String newEvents = _lastRead >= 0 ? String.format(";id[%%3E%d]", _lastRead) : "";
+        
         return String.format(
-                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]}&fields=id,event-type,creation-time,action,description",
-                _timeslotId);
+                "event-log-reads?query={context[\"*Timeslot:%%20%s%%3B*\"]%s}&fields=id,event-type,creation-time,action,description",
+                _timeslotId,
+                newEvents);
     }
 }
\ No newline at end of file
@@ -41,9 +41,25 @@ import java.util.Map;
  */
 public class GetLabRunEntityTestSetRunsRequest extends GetRequest {
     
+    private static final int DEFAULT_PAGE_SIZE = 2000;
+    
+    private final int _pageSize;
+    private final int _startIndex;
+    
     public GetLabRunEntityTestSetRunsRequest(Client client, String runId) {
         
+        this(client, runId, DEFAULT_PAGE_SIZE, 1);
+    }
+    
+    /**
+     * @param pageSize   maximum number of test set runs in the response
+     * @param startIndex index of the first test set run in the response, starting from 1
+     */
+    public GetLabRunEntityTestSetRunsRequest(Client client, String runId, int pageSize, int startIndex) {
+        
         super(client, runId);
+        _pageSize = pageSize;
+        _startIndex = startIndex;
     }
     
     @Override
@@ -54,7 +70,11 @@ public class GetLabRunEntityTestSetRunsRequest extends GetRequest {
     @Override
     protected String getQueryString() {
         
-        return String.format("query={procedure-run[%s]}&page-size=2000", _runId);
+        return String.format(
+                "query={procedure-run[%s]}&page-size=%d&start-index=%d",
+                _runId,
+                _pageSize,
+                _startIndex);
     }
 
     @Override
@@ -206,15 +206,42 @@ function isMultipleTransactionGraph(graphKey) {
     return false;
 };
 
+/**
+ * Rebuilds the chart series of the graphs sent as columns (parallel arrays of series names and values)
+ * @param scenarioData - the graphs of a scenario
+ * @returns the graphs with a series array each
+ */
+function columnsToSeries(scenarioData) {
+    Object.keys(scenarioData).forEach(function(graphKey)
+    {
+        let graph = scenarioData[graphKey];
+        if(graph.columns !== undefined)
+        {
+            graph.series = graph.columns.map(function(column, index)
+            {
+                return {name: graph.names[index], data: column};
+            });
+            delete graph.columns;
+            delete graph.names;
+        }
+    });
+    return scenarioData;
+};
+
 /**
  * Updates the graph view per scenario key
  * @param scenarioKey - the selected scenario
  */
 function updateGraphs(scenarioKey)
 {
-    instance.getGraphData(function(t)
+    instance.getScenarioGraphData(scenarioKey, true, function(t)
     {
-        let graphsData = (t.responseObject())[scenarioKey];
+        let graphsData = t.responseObject();
+        if(graphsData.scenarioData === undefined)
+        {
+            return;
+        }
+        columnsToSeries(graphsData.scenarioData);
         ReactDOM.render(<ChartDashboard graphsData = {graphsData.scenarioData} dataProcessFunc = {isMultipleTransactionGraph}/>
             ,document.querySelector('.graphCon'));
         // ReactDOM.render(<ScenarioTable scenName = {scenarioKey} scenData = {graphsData.scenarioStats}/>,
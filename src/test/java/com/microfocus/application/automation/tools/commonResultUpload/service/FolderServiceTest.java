@@ -0,0 +1,234 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.commonResultUpload.service;
+
+import com.microfocus.application.automation.tools.common.SSEException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class FolderServiceTest {
+
+    private FakeRestService restService;
+    private FolderService folderService;
+
+    @Before
+    public void setUp() {
+        restService = new FakeRestService();
+        restService.add("test-folders", "10", "2", "root");
+        restService.add("test-folders", "11", "10", "sub1");
+        restService.add("test-folders", "12", "11", "sub1-1");
+        restService.add("test-folders", "13", "10", "sub2");
+        restService.add("tests", "100", "12", "deep");
+        restService.add("tests", "101", "13", "twice");
+        restService.add("tests", "102", "11", "twice");
+        folderService = new FolderService(restService);
+    }
+
+    @Test
+    public void testFolderTreeIsDepthFirst() {
+        assertEquals(Arrays.asList("10", "11", "12", "13"), folderService.getFolderTree("test-folders", "10"));
+        int requests = restService.requests;
+        assertEquals(Arrays.asList("11", "12"), folderService.getFolderTree("test-folders", "11"));
+        assertEquals(requests, restService.requests);
+    }
+
+    @Test
+    public void testFindEntityInSubFolderOnce() {
+        Map<String, String> folder = folderService.createOrFindPath("test-folders", "2", "root");
+        assertEquals("10", folder.get("id"));
+
+        Map<String, String> found = folderService.findEntityInFolder(folder, entity("Deep"),
+                "tests", "test-folders", new String[]{"id", "name"});
+        assertNotNull(found);
+        assertEquals("100", found.get("id"));
+
+        int requests = restService.requests;
+        assertNull(folderService.findEntityInFolder(folder, entity("missing"),
+                "tests", "test-folders", new String[]{"id", "name"}));
+        // The first folder in depth first order wins
+        assertEquals("102", folderService.findEntityInFolder(folder, entity("twice"),
+                "tests", "test-folders", new String[]{"id", "name"}).get("id"));
+        assertEquals(folder, folderService.createOrFindPath("test-folders", "2", "root"));
+        assertEquals(requests, restService.requests);
+    }
+
+    @Test
+    public void testCreatedEntityIsFound() {
+        Map<String, String> folder = folderService.createOrFindPath("test-folders", "2", "root");
+        assertNull(folderService.findEntityInFolder(folder, entity("new"),
+                "tests", "test-folders", new String[]{"id", "name"}));
+
+        Map<String, String> created = new HashMap<>();
+        created.put("id", "200");
+        created.put("name", "new");
+        created.put("parent-id", "13");
+        folderService.entityCreated("tests", created);
+
+        int requests = restService.requests;
+        Map<String, String> test = entity("new");
+        assertEquals("200", folderService.findEntityInFolder(folder, test,
+                "tests", "test-folders", new String[]{"id", "name"}).get("id"));
+        assertEquals("13", test.get("parent-id"));
+        assertNull(test.get(CriteriaTranslator.CRITERIA_PREFIX + "name"));
+        assertEquals(requests, restService.requests);
+    }
+
+    @Test
+    public void testFailedPageIsNotCached() {
+        Map<String, String> folder = folderService.createOrFindPath("test-folders", "2", "root");
+
+        restService.failing = "test-folders";
+        try {
+            folderService.getFolderTree("test-folders", "10");
+            fail("A failed folder page must not be taken as an empty listing");
+        } catch (SSEException expected) {
+        }
+        restService.failing = "tests";
+        try {
+            folderService.findEntityInFolder(folder, entity("deep"), "tests", "test-folders", new String[]{"id", "name"});
+            fail("A failed entity page must not be taken as an empty listing");
+        } catch (SSEException expected) {
+        }
+
+        restService.failing = null;
+        assertEquals(Arrays.asList("10", "11", "12", "13"), folderService.getFolderTree("test-folders", "10"));
+        assertEquals("100", folderService.findEntityInFolder(folder, entity("deep"),
+                "tests", "test-folders", new String[]{"id", "name"}).get("id"));
+    }
+
+    @Test(timeout = 10000)
+    public void testLookupsDoNotWaitForOtherRequests() throws Exception {
+        restService.blocking = "test-set-folders";
+        Thread blocked = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                folderService.getFolderTree("test-set-folders", "1");
+            }
+        });
+        blocked.start();
+        restService.blocked.await();
+
+        assertEquals(Arrays.asList("10", "11", "12", "13"), folderService.getFolderTree("test-folders", "10"));
+        restService.release.countDown();
+        blocked.join();
+    }
+
+    private static Map<String, String> entity(String name) {
+        Map<String, String> entity = new HashMap<>();
+        entity.put("name", name);
+        return entity;
+    }
+
+    private static class FakeRestService extends RestService {
+
+        private final Map<String, List<Map<String, String>>> entities = new HashMap<>();
+        private int requests;
+        private String failing;
+        private String blocking;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        FakeRestService() {
+            super(null, null, null);
+        }
+
+        void add(String prefix, String id, String parentId, String name) {
+            Map<String, String> entity = new HashMap<>();
+            entity.put("id", id);
+            entity.put("parent-id", parentId);
+            entity.put("name", name);
+            if (!entities.containsKey(prefix)) {
+                entities.put(prefix, new ArrayList<Map<String, String>>());
+            }
+            entities.get(prefix).add(entity);
+        }
+
+        @Override
+        public List<Map<String, String>> get(String id, String restPrefix, String queryString) {
+            requests++;
+            if (restPrefix.equals(failing)) {
+                return null;
+            }
+            if (restPrefix.equals(blocking)) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<Map<String, String>> result = new ArrayList<>();
+            if (queryString.contains("start-index=") && !queryString.contains("start-index=1")) {
+                return result;
+            }
+            List<String> parentIds = Arrays.asList(between(queryString, "parent-id[", "]").split("%20OR%20"));
+            String name = queryString.contains("name[") ? decode(between(queryString, "name[", "]")) : null;
+            List<Map<String, String>> candidates = entities.get(restPrefix);
+            for (Map<String, String> entity : candidates != null ? candidates : new ArrayList<Map<String, String>>()) {
+                if (parentIds.contains(entity.get("parent-id"))
+                        && (name == null || name.equalsIgnoreCase("\"" + entity.get("name") + "\""))) {
+                    result.add(new HashMap<>(entity));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, String> create(String restPrefix, Map<String, String> valueMap) {
+            throw new UnsupportedOperationException();
+        }
+
+        private static String between(String s, String start, String end) {
+            int i = s.indexOf(start) + start.length();
+            return s.substring(i, s.indexOf(end, i));
+        }
+
+        private static String decode(String s) {
+            try {
+                return URLDecoder.decode(s, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
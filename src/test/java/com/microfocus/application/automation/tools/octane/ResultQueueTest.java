@@ -0,0 +1,152 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane;
+
+import com.squareup.tape.QueueFile;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests on the file persistence of AbstractResultQueueImpl
+ */
+public class ResultQueueTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testItemsSurviveReopen() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "queue.dat");
+		TestQueue queue = new TestQueue(file);
+		ResultQueue.QueueItem item = new ResultQueue.QueueItem("folder/job", "type", 12);
+		item.setSendAfter(1234L);
+		item.setInstanceId("instance");
+		queue.add(item);
+		queue.add("job", 13, "workspace");
+		queue.close();
+
+		queue = new TestQueue(file);
+		Assert.assertEquals(2, queue.size());
+		ResultQueue.QueueItem first = queue.peekFirst();
+		Assert.assertEquals("folder/job", first.getProjectName());
+		Assert.assertEquals("type", first.getType());
+		Assert.assertEquals(12, first.getBuildNumber());
+		Assert.assertEquals(1234L, first.getSendAfter());
+		Assert.assertEquals("instance", first.getInstanceId());
+		Assert.assertNull(first.getWorkspace());
+		queue.remove();
+
+		ResultQueue.QueueItem second = queue.peekFirst();
+		Assert.assertEquals("job", second.getProjectName());
+		Assert.assertEquals("workspace", second.getWorkspace());
+		Assert.assertNull(second.getType());
+		Assert.assertNull(second.getInstanceId());
+		queue.remove();
+
+		Assert.assertNull(queue.peekFirst());
+		Assert.assertEquals(0, queue.size());
+		queue.close();
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "queue.dat");
+		TestQueue queue = new TestQueue(file);
+		List<ResultQueue.QueueItem> items = new ArrayList<>();
+		for (int i = 1; i <= 1000; i++) {
+			items.add(new ResultQueue.QueueItem("job", i));
+		}
+		queue.add(items);
+		queue.add("job", 1001);
+		Assert.assertEquals(1001, queue.size());
+
+		Assert.assertEquals(1, queue.peekFirst().getBuildNumber());
+		queue.remove();
+		Assert.assertEquals(2, queue.peekFirst().getBuildNumber());
+		Assert.assertTrue(queue.failed());
+		Assert.assertEquals(1000, queue.size());
+		queue.close();
+
+		// the batch is one element of the file, items removed from it are seen again after reopen
+		queue = new TestQueue(file);
+		Assert.assertEquals(1002, queue.size());
+		for (int i = 1; i <= 1001; i++) {
+			Assert.assertEquals(i, queue.peekFirst().getBuildNumber());
+			queue.remove();
+		}
+		ResultQueue.QueueItem failed = queue.peekFirst();
+		Assert.assertEquals(2, failed.getBuildNumber());
+		Assert.assertEquals(1, failed.getFailCount());
+		queue.remove();
+		Assert.assertNull(queue.peekFirst());
+		queue.close();
+	}
+
+	@Test
+	public void testLegacyJsonItems() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "queue.dat");
+		QueueFile queueFile = new QueueFile(file);
+		queueFile.add(("{\"project\":\"legacy\",\"build\":5,\"count\":2,\"workspace\":\"ws\",\"type\":\"t\"," +
+				"\"sendAfter\":10,\"instanceId\":\"id\"}").getBytes(StandardCharsets.UTF_8));
+		queueFile.close();
+
+		TestQueue queue = new TestQueue(file);
+		queue.add("new", 6);
+		Assert.assertEquals(2, queue.size());
+
+		ResultQueue.QueueItem legacy = queue.peekFirst();
+		Assert.assertEquals("legacy", legacy.getProjectName());
+		Assert.assertEquals(5, legacy.getBuildNumber());
+		Assert.assertEquals(2, legacy.getFailCount());
+		Assert.assertEquals("ws", legacy.getWorkspace());
+		Assert.assertEquals("t", legacy.getType());
+		Assert.assertEquals(10L, legacy.getSendAfter());
+		Assert.assertEquals("id", legacy.getInstanceId());
+		queue.remove();
+
+		Assert.assertEquals("new", queue.peekFirst().getProjectName());
+		queue.remove();
+		Assert.assertNull(queue.peekFirst());
+		queue.close();
+	}
+
+	private static final class TestQueue extends AbstractResultQueueImpl {
+		private TestQueue(File file) throws IOException {
+			init(file);
+		}
+	}
+}
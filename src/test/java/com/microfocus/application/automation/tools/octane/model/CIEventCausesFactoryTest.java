@@ -0,0 +1,119 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model;
+
+import com.hp.octane.integrations.dto.causes.CIEventCause;
+import com.microfocus.application.automation.tools.octane.tests.ExtensionUtil;
+import com.microfocus.application.automation.tools.octane.tests.build.BuildHandlerUtils;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepEndNode;
+import org.jenkinsci.plugins.workflow.cps.nodes.StepStartNode;
+import org.jenkinsci.plugins.workflow.flow.GraphListener;
+import org.jenkinsci.plugins.workflow.graph.FlowNode;
+import org.jenkinsci.plugins.workflow.graphanalysis.DepthFirstScanner;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class CIEventCausesFactoryTest {
+
+	@ClassRule
+	public static final JenkinsRule rule = new JenkinsRule();
+
+	@Test
+	public void testStageCausesOfNestedStagesInParallel() throws Exception {
+		WorkflowJob job = rule.jenkins.createProject(WorkflowJob.class, "stage-causes-pipeline");
+		job.setDefinition(new CpsFlowDefinition("" +
+				"stage('build') { echo 'build' }\n" +
+				"parallel(\n" +
+				"  'branch-a': { stage('a-outer') { stage('a-inner') { echo 'a' } } },\n" +
+				"  'branch-b': { stage('b-outer') { echo 'b' } }\n" +
+				")\n" +
+				"stage('deploy') { echo 'deploy' }", true));
+		WorkflowRun run = rule.assertBuildStatusSuccess(job.scheduleBuild2(0));
+
+		String pipeline = "UPSTREAM " + BuildHandlerUtils.getJobCiId(run) + "#1" + describe(CIEventCausesFactory.processCauses(run));
+		String outer = "UPSTREAM a-outer#1[" + pipeline + "]";
+		Map<String, String> causes = ExtensionUtil.getInstance(rule, StageCausesRecorder.class).causes;
+
+		assertEquals("[" + pipeline + "]", causes.get("STARTED build"));
+		assertEquals("[" + pipeline + "]", causes.get("FINISHED build"));
+		assertEquals("[" + pipeline + "]", causes.get("STARTED a-outer"));
+		assertEquals("[" + pipeline + "]", causes.get("FINISHED a-outer"));
+		assertEquals("[" + outer + "]", causes.get("STARTED a-inner"));
+		assertEquals("[" + outer + "]", causes.get("FINISHED a-inner"));
+		assertEquals("[" + pipeline + "]", causes.get("STARTED b-outer"));
+		assertEquals("[" + pipeline + "]", causes.get("FINISHED b-outer"));
+		//  each branch joined before the stage brings its own chain of causes
+		assertEquals("[" + pipeline + ", " + pipeline + "]", causes.get("STARTED deploy"));
+		assertEquals("[" + pipeline + ", " + pipeline + "]", causes.get("FINISHED deploy"));
+
+		//  causes cached while the pipeline was running are the ones calculated from scratch on the completed pipeline
+		for (FlowNode node : new DepthFirstScanner().allNodes(run.getExecution())) {
+			if (BuildHandlerUtils.isStageStartNode(node)) {
+				assertEquals(causes.get("STARTED " + node.getDisplayName()), describe(CIEventCausesFactory.processCauses(node)));
+			}
+		}
+	}
+
+	private static String describe(List<CIEventCause> causes) {
+		if (causes == null) {
+			return "[]";
+		}
+		return causes.stream()
+				.map(cause -> cause.getType() + " " + cause.getProject() + "#" + cause.getBuildCiId() + describe(cause.getCauses()))
+				.collect(Collectors.joining(", ", "[", "]"));
+	}
+
+	@TestExtension
+	public static class StageCausesRecorder implements GraphListener {
+		private final Map<String, String> causes = new ConcurrentHashMap<>();
+
+		@Override
+		public void onNewHead(FlowNode node) {
+			//  stage events carry the causes of the stage start node, as WorkflowListenerOctaneImpl sends them
+			if (BuildHandlerUtils.isStageStartNode(node)) {
+				causes.put("STARTED " + node.getDisplayName(), describe(CIEventCausesFactory.processCauses(node)));
+			} else if (BuildHandlerUtils.isStageEndNode(node)) {
+				StepStartNode startNode = ((StepEndNode) node).getStartNode();
+				causes.put("FINISHED " + startNode.getDisplayName(), describe(CIEventCausesFactory.processCauses(startNode)));
+			}
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.model.processors.projects;
+
+import com.hp.octane.integrations.dto.snapshots.CIBuildStatus;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+@SuppressWarnings({"squid:S2699", "squid:S3658", "squid:S2259", "squid:S1872", "squid:S2925", "squid:S109", "squid:S1607", "squid:S2701"})
+public class BuildParameterIndexTest {
+
+	private static final String PARAM_NAME = "suiteRunId";
+	private static final String INDEX_FILE_NAME = "octaneBuildParameterIndex.xml";
+
+	@Rule
+	public final JenkinsRule jenkins = new JenkinsRule();
+
+	@Test
+	public void testFirstLookupIndexesExistingBuilds() throws Exception {
+		FreeStyleProject project = createProject("param-index-first");
+		build(project, "1001");
+		build(project, "1002");
+		build(project, "1001");
+		Assert.assertFalse(new File(project.getRootDir(), INDEX_FILE_NAME).exists());
+
+		BuildParameterIndex index = BuildParameterIndex.get(project);
+
+		Assert.assertEquals(Integer.valueOf(3), index.findBuildNumber(project, PARAM_NAME, "1001"));
+		Assert.assertEquals(Integer.valueOf(2), index.findBuildNumber(project, PARAM_NAME, "1002"));
+		Assert.assertNull(index.findBuildNumber(project, PARAM_NAME, "1003"));
+		Assert.assertTrue(new File(project.getRootDir(), INDEX_FILE_NAME).exists());
+	}
+
+	@Test
+	public void testStartedBuildIsAddedToIndex() throws Exception {
+		FreeStyleProject project = createProject("param-index-started");
+		build(project, "1001");
+		BuildParameterIndex index = BuildParameterIndex.get(project);
+		Assert.assertEquals(Integer.valueOf(1), index.findBuildNumber(project, PARAM_NAME, "1001"));
+
+		build(project, "1002");
+
+		// the listener saved the new build before any lookup refreshed the index
+		String persisted = FileUtils.readFileToString(new File(project.getRootDir(), INDEX_FILE_NAME), StandardCharsets.UTF_8);
+		Assert.assertTrue(persisted.contains("1002"));
+		Assert.assertTrue(persisted.contains("<lastIndexedBuild>2</lastIndexedBuild>"));
+		Assert.assertEquals(Integer.valueOf(2), index.findBuildNumber(project, PARAM_NAME, "1002"));
+	}
+
+	@Test
+	public void testDeletedNewestBuildFallsBackToOlderBuild() throws Exception {
+		FreeStyleProject project = createProject("param-index-deleted");
+		build(project, "1001");
+		build(project, "1002");
+		FreeStyleBuild newest = build(project, "1001");
+		BuildParameterIndex index = BuildParameterIndex.get(project);
+		Assert.assertEquals(Integer.valueOf(3), index.findBuildNumber(project, PARAM_NAME, "1001"));
+
+		newest.delete();
+
+		Assert.assertEquals(Integer.valueOf(1), index.findBuildNumber(project, PARAM_NAME, "1001"));
+		assertFinished(project, "1001");
+	}
+
+	@Test
+	public void testStaleIndexIsRebuilt() throws Exception {
+		FreeStyleProject project = createProject("param-index-stale");
+		FreeStyleBuild build = build(project, "1001");
+		BuildParameterIndex index = BuildParameterIndex.get(project);
+		Assert.assertEquals(Integer.valueOf(1), index.findBuildNumber(project, PARAM_NAME, "1001"));
+
+		build.replaceAction(new ParametersAction(new StringParameterValue(PARAM_NAME, "1002")));
+
+		Assert.assertEquals(CIBuildStatus.UNAVAILABLE,
+				JobProcessorFactory.getFlowProcessor(project).getBuildStatus(PARAM_NAME, "1001").getBuildStatus());
+		Assert.assertNull(index.findBuildNumber(project, PARAM_NAME, "1001"));
+		Assert.assertEquals(Integer.valueOf(1), index.findBuildNumber(project, PARAM_NAME, "1002"));
+	}
+
+	@Test
+	public void testLookupAfterReload() throws Exception {
+		FreeStyleProject project = createProject("param-index-reload");
+		build(project, "1001");
+		build(project, "1002");
+		Assert.assertEquals(Integer.valueOf(2), BuildParameterIndex.get(project).findBuildNumber(project, PARAM_NAME, "1002"));
+
+		jenkins.jenkins.reload();
+		BuildParameterIndex.forget(project.getFullName());
+		FreeStyleProject reloaded = jenkins.jenkins.getItemByFullName("param-index-reload", FreeStyleProject.class);
+
+		BuildParameterIndex index = BuildParameterIndex.get(reloaded);
+		Assert.assertEquals(Integer.valueOf(1), index.findBuildNumber(reloaded, PARAM_NAME, "1001"));
+		Assert.assertEquals(Integer.valueOf(2), index.findBuildNumber(reloaded, PARAM_NAME, "1002"));
+		assertFinished(reloaded, "1002");
+	}
+
+	private FreeStyleProject createProject(String name) throws Exception {
+		FreeStyleProject project = jenkins.createFreeStyleProject(name);
+		project.addProperty(new ParametersDefinitionProperty(new StringParameterDefinition(PARAM_NAME, "")));
+		return project;
+	}
+
+	private FreeStyleBuild build(FreeStyleProject project, String value) throws Exception {
+		return jenkins.assertBuildStatusSuccess(
+				project.scheduleBuild2(0, new ParametersAction(new StringParameterValue(PARAM_NAME, value))));
+	}
+
+	private static void assertFinished(FreeStyleProject project, String value) {
+		Assert.assertEquals(CIBuildStatus.FINISHED,
+				JobProcessorFactory.getFlowProcessor(project).getBuildStatus(PARAM_NAME, value).getBuildStatus());
+	}
+}
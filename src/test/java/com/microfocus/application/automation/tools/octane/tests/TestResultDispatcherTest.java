@@ -0,0 +1,170 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests;
+
+import com.microfocus.application.automation.tools.octane.ResultQueue;
+import hudson.model.TaskListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests on the queue rotation, the bounded pool and the restart recovery of TestResultDispatcher
+ */
+public class TestResultDispatcherTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final List<TestDispatcher> dispatchers = new ArrayList<>();
+
+	@After
+	public void tearDown() {
+		dispatchers.forEach(TestDispatcher::close);
+		System.clearProperty("TestResultDispatcher.Threads");
+		System.clearProperty("TestResultDispatcher.Capacity");
+	}
+
+	@Test
+	public void testRotationDropsRunsProcessedBehindARunInProgress() throws Exception {
+		System.setProperty("TestResultDispatcher.Threads", "2");
+		TestDispatcher dispatcher = createDispatcher(new File(temporaryFolder.getRoot(), "queue.dat"));
+		dispatcher.blocked = "job #1";
+
+		enqueue(dispatcher, 1, 2, 3);
+		waitFor(() -> dispatcher.processedKeys.size() == 2);
+		// the head of the file queue is still in progress, processed runs behind it are kept until the rotation
+		Assert.assertEquals(3, dispatcher.getQueueSize());
+
+		dispatcher.doExecute(TaskListener.NULL);
+		Assert.assertEquals(1, dispatcher.getQueueSize());
+		Assert.assertEquals(1, dispatcher.getInProgressCount());
+
+		dispatcher.release.countDown();
+		Assert.assertTrue(dispatcher.awaitIdle(10, TimeUnit.SECONDS));
+		Assert.assertEquals(0, dispatcher.getQueueSize());
+		Assert.assertEquals(Arrays.asList("job #2", "job #3", "job #1"), dispatcher.processedKeys);
+		Assert.assertEquals(3, dispatcher.getProcessedCount());
+	}
+
+	@Test
+	public void testRunsRejectedByAFullPoolAreProcessedByTheRotation() throws Exception {
+		System.setProperty("TestResultDispatcher.Threads", "1");
+		System.setProperty("TestResultDispatcher.Capacity", "1");
+		TestDispatcher dispatcher = createDispatcher(new File(temporaryFolder.getRoot(), "queue.dat"));
+		dispatcher.blocked = "job #1";
+
+		// #1 runs, #2 waits in the pool queue, #3 is rejected
+		enqueue(dispatcher, 1, 2, 3);
+		Assert.assertEquals(2, dispatcher.getInProgressCount());
+
+		dispatcher.release.countDown();
+		waitFor(() -> dispatcher.processedKeys.size() == 2);
+		Assert.assertFalse(dispatcher.awaitIdle(1, TimeUnit.SECONDS));
+		Assert.assertEquals(1, dispatcher.getQueueSize());
+
+		dispatcher.doExecute(TaskListener.NULL);
+		Assert.assertTrue(dispatcher.awaitIdle(10, TimeUnit.SECONDS));
+		Assert.assertEquals(0, dispatcher.getQueueSize());
+		Assert.assertEquals(Arrays.asList("job #1", "job #2", "job #3"), dispatcher.processedKeys);
+	}
+
+	@Test
+	public void testRunsLeftBeforeRestartAreProcessed() throws Exception {
+		File queueFile = new File(temporaryFolder.getRoot(), "queue.dat");
+		TestDispatcher beforeRestart = createDispatcher(queueFile);
+		beforeRestart.blocked = "job #1";
+
+		enqueue(beforeRestart, 1, 2);
+		waitFor(() -> beforeRestart.processedKeys.size() == 1);
+		beforeRestart.close();
+
+		TestDispatcher afterRestart = createDispatcher(queueFile);
+		Assert.assertEquals(2, afterRestart.getQueueSize());
+
+		afterRestart.doExecute(TaskListener.NULL);
+		Assert.assertTrue(afterRestart.awaitIdle(10, TimeUnit.SECONDS));
+		Assert.assertEquals(0, afterRestart.getQueueSize());
+		Assert.assertTrue(afterRestart.processedKeys.containsAll(Arrays.asList("job #1", "job #2")));
+	}
+
+	private TestDispatcher createDispatcher(File queueFile) throws Exception {
+		TestDispatcher dispatcher = new TestDispatcher();
+		dispatcher.setTestResultQueue(new TestResultQueue(queueFile));
+		dispatchers.add(dispatcher);
+		return dispatcher;
+	}
+
+	private static void enqueue(TestResultDispatcher dispatcher, int... buildNumbers) {
+		for (int buildNumber : buildNumbers) {
+			dispatcher.enqueue(new ResultQueue.QueueItem("job", buildNumber));
+		}
+	}
+
+	private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+		while (!condition.getAsBoolean()) {
+			Assert.assertTrue("condition not met in time", System.currentTimeMillis() < deadline);
+			Thread.sleep(50);
+		}
+	}
+
+	/**
+	 * Records the processed runs instead of processing their test results, the blocked run waits for the release
+	 */
+	private static class TestDispatcher extends TestResultDispatcher {
+		private final List<String> processedKeys = Collections.synchronizedList(new ArrayList<>());
+		private final CountDownLatch release = new CountDownLatch(1);
+		private volatile String blocked;
+
+		@Override
+		void processItem(ResultQueue.QueueItem item, String key) {
+			if (key.equals(blocked)) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			processedKeys.add(key);
+		}
+	}
+}
@@ -41,12 +41,14 @@ import hudson.model.AbstractBuild;
 import hudson.model.AbstractProject;
 import hudson.model.Result;
 import hudson.util.Secret;
+import jenkins.model.Jenkins;
 import org.junit.Assert;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class TestUtils {
 
@@ -69,6 +71,9 @@ public class TestUtils {
 		if (!build.getResult().isBetterOrEqualTo(Result.UNSTABLE)) { // avoid expensive build.getLog() until condition is met
 			Assert.fail("Build status: " + build.getResult() + ", log follows:\n" + build.getLog());
 		}
+		// test results are processed in the background once the build is finalized
+		Assert.assertTrue("Test results were not processed in time",
+				Jenkins.get().getExtensionList(TestResultDispatcher.class).get(0).awaitIdle(60, TimeUnit.SECONDS));
 		return build;
 	}
 
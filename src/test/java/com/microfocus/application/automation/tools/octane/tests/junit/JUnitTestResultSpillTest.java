@@ -0,0 +1,132 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.hp.octane.integrations.testresults.XmlWritableTestResult;
+import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests on the compact test results spill format
+ */
+public class JUnitTestResultSpillTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		List<JUnitTestResult> results = new ArrayList<>();
+		results.add(new JUnitTestResult("module", "com.example", "FirstTest", "testPassed", TestResultStatus.PASSED, 12, 1600000000000L, null, null, null, null, null, null, false));
+		results.add(new JUnitTestResult("module", "com.example", "FirstTest", "testFailed", TestResultStatus.FAILED, 0, 1600000000012L,
+				new TestError("at com.example.FirstTest.testFailed(FirstTest.java:10)\u00e9", "java.lang.AssertionError", "expected <1>"),
+				"http://report", "some description", HPRunnerType.UFT, "run-1", null, true));
+		results.add(new JUnitTestResult(null, "", "SecondTest", null, TestResultStatus.SKIPPED, 300000, 0, null, null, null, null, null, null, false));
+
+		Iterator<XmlWritableTestResult> iterator = new JUnitTestResultSpillIterator(new ByteArrayInputStream(writeCompact(results)));
+		for (JUnitTestResult expected : results) {
+			Assert.assertTrue(iterator.hasNext());
+			JUnitTestResult actual = (JUnitTestResult) iterator.next();
+			Assert.assertEquals(expected.getModuleName(), actual.getModuleName());
+			Assert.assertEquals(expected.getPackageName(), actual.getPackageName());
+			Assert.assertEquals(expected.getClassName(), actual.getClassName());
+			Assert.assertEquals(expected.getTestName(), actual.getTestName());
+			Assert.assertEquals(expected.getResult(), actual.getResult());
+			Assert.assertEquals(expected.getDuration(), actual.getDuration());
+			Assert.assertEquals(expected.getStarted(), actual.getStarted());
+			Assert.assertEquals(expected.getExternalReportUrl(), actual.getExternalReportUrl());
+			Assert.assertEquals(expected.getDescription(), actual.getDescription());
+			Assert.assertEquals(expected.getRunnerType(), actual.getRunnerType());
+			Assert.assertEquals(expected.getExternalRunId(), actual.getExternalRunId());
+			Assert.assertEquals(expected.isOctaneSupportsSteps(), actual.isOctaneSupportsSteps());
+			if (expected.getTestError() == null) {
+				Assert.assertNull(actual.getTestError());
+			} else {
+				Assert.assertEquals(expected.getTestError().getStackTraceStr(), actual.getTestError().getStackTraceStr());
+				Assert.assertEquals(expected.getTestError().getErrorType(), actual.getTestError().getErrorType());
+				Assert.assertEquals(expected.getTestError().getErrorMsg(), actual.getTestError().getErrorMsg());
+			}
+		}
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testCompactFormatAgainstJavaSerialization() throws IOException, ClassNotFoundException {
+		List<JUnitTestResult> results = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			results.add(new JUnitTestResult("module-" + (i % 3), "com.example.package" + (i % 10), "Test" + (i / 50), "test" + i,
+					TestResultStatus.PASSED, i % 1000, 1600000000000L + i, null, null, null, HPRunnerType.NONE, null, null, false));
+		}
+
+		byte[] serialized = writeSerialized(results);
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+			for (JUnitTestResult expected : results) {
+				Assert.assertEquals(expected.getTestName(), ((JUnitTestResult) ois.readObject()).getTestName());
+			}
+		}
+
+		byte[] compact = writeCompact(results);
+		Iterator<XmlWritableTestResult> iterator = new JUnitTestResultSpillIterator(new ByteArrayInputStream(compact));
+		for (JUnitTestResult expected : results) {
+			Assert.assertTrue(iterator.hasNext());
+			JUnitTestResult actual = (JUnitTestResult) iterator.next();
+			Assert.assertEquals(expected.getModuleName(), actual.getModuleName());
+			Assert.assertEquals(expected.getPackageName(), actual.getPackageName());
+			Assert.assertEquals(expected.getClassName(), actual.getClassName());
+			Assert.assertEquals(expected.getTestName(), actual.getTestName());
+			Assert.assertEquals(expected.getDuration(), actual.getDuration());
+			Assert.assertEquals(expected.getStarted(), actual.getStarted());
+		}
+		Assert.assertFalse(iterator.hasNext());
+		Assert.assertTrue(compact.length < serialized.length);
+	}
+
+	private static byte[] writeCompact(List<JUnitTestResult> results) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (JUnitTestResultSpillWriter writer = new JUnitTestResultSpillWriter(bos)) {
+			for (JUnitTestResult result : results) {
+				writer.write(result);
+			}
+		}
+		return bos.toByteArray();
+	}
+
+	private static byte[] writeSerialized(List<JUnitTestResult> results) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(bos))) {
+			for (JUnitTestResult result : results) {
+				oos.writeObject(result);
+			}
+		}
+		return bos.toByteArray();
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.octane.tests.junit;
+
+import com.microfocus.application.automation.tools.octane.tests.HPRunnerType;
+import hudson.FilePath;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Tests on JUnitXmlIterator over junitResult.xml content
+ */
+public class JUnitXmlIteratorTest {
+
+	// a few suites of 100 cases, the last one partial
+	private static final int SYNTHETIC_CASES = 250;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testCaseFields() throws Exception {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><result><suites><suite>" +
+				"<file>TEST-suite.xml</file><name>suite</name><duration>1.5</duration><cases>" +
+				"<case><duration>0.25</duration><className>module1::com.example.FirstTest</className><testName>testOne()</testName>" +
+				"<stdout>output __octane_description_start__ first &amp; only __octane_description_end__</stdout>" +
+				"<skipped>false</skipped><failedSince>0</failedSince></case>" +
+				"<case><duration>1,234.5</duration><className>SecondTest</className><testName>testTwo</testName>" +
+				"<errorStackTrace>java.lang.AssertionError: expected &lt;1&gt;\n\tat SecondTest.testTwo(SecondTest.java:5)</errorStackTrace>" +
+				"<errorDetails>expected &lt;1&gt;</errorDetails><skipped>false</skipped><failedSince>3</failedSince></case>" +
+				"<case><duration>0</duration><className>com.example.ThirdTest</className><testName>testThree</testName>" +
+				"<skipped>true</skipped><failedSince>0</failedSince></case>" +
+				"</cases></suite></suites><duration>1.5</duration><keepLongStdio>false</keepLongStdio></result>";
+
+		JUnitXmlIterator iterator = createIterator(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+		Assert.assertTrue(iterator.hasNext());
+		JUnitTestResult first = iterator.next();
+		Assert.assertEquals("module1", first.getModuleName());
+		Assert.assertEquals("com.example", first.getPackageName());
+		Assert.assertEquals("FirstTest", first.getClassName());
+		Assert.assertEquals("testOne", first.getTestName());
+		Assert.assertEquals(TestResultStatus.PASSED, first.getResult());
+		Assert.assertEquals(250, first.getDuration());
+		Assert.assertEquals("first & only", first.getDescription());
+
+		JUnitTestResult second = iterator.next();
+		Assert.assertEquals("", second.getModuleName());
+		Assert.assertEquals("", second.getPackageName());
+		Assert.assertEquals("SecondTest", second.getClassName());
+		Assert.assertEquals(TestResultStatus.FAILED, second.getResult());
+		Assert.assertEquals(1234500, second.getDuration());
+		Assert.assertEquals("java.lang.AssertionError", second.getTestError().getErrorType());
+		Assert.assertEquals("expected <1>", second.getTestError().getErrorMsg());
+
+		JUnitTestResult third = iterator.next();
+		Assert.assertEquals("ThirdTest", third.getClassName());
+		Assert.assertEquals(TestResultStatus.SKIPPED, third.getResult());
+
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void testSyntheticSuite() throws Exception {
+		File resultFile = temporaryFolder.newFile("junitResult.xml");
+		writeSyntheticResult(resultFile, SYNTHETIC_CASES);
+
+		try (InputStream is = new BufferedInputStream(new FileInputStream(resultFile))) {
+			JUnitXmlIterator iterator = createIterator(is);
+			for (int i = 0; i < SYNTHETIC_CASES; i++) {
+				Assert.assertTrue(iterator.hasNext());
+				JUnitTestResult result = iterator.next();
+				int suite = i / 100;
+				Assert.assertEquals("com.example.pkg" + (suite % 50), result.getPackageName());
+				Assert.assertEquals("Suite" + suite, result.getClassName());
+				Assert.assertEquals("test" + i, result.getTestName());
+				if (i % 10 == 5) {
+					Assert.assertEquals(TestResultStatus.FAILED, result.getResult());
+					Assert.assertEquals("java.lang.AssertionError", result.getTestError().getErrorType());
+					Assert.assertEquals("failure " + i, result.getTestError().getErrorMsg());
+				} else {
+					Assert.assertEquals(i % 10 == 7 ? TestResultStatus.SKIPPED : TestResultStatus.PASSED, result.getResult());
+				}
+			}
+			Assert.assertFalse(iterator.hasNext());
+		}
+	}
+
+	private JUnitXmlIterator createIterator(InputStream is) throws Exception {
+		return new JUnitXmlIterator(is, Collections.singletonList(new ModuleDetection.Default()), new FilePath(temporaryFolder.getRoot()), null,
+				"job", "1", 0, false, HPRunnerType.NONE, "http://localhost:8080/", null, null, false, "");
+	}
+
+	private static void writeSyntheticResult(File file, int cases) throws IOException {
+		int casesPerSuite = 100;
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<result>\n<suites>\n");
+			for (int i = 0; i < cases; i++) {
+				int suite = i / casesPerSuite;
+				if (i % casesPerSuite == 0) {
+					writer.write("<suite><file>TEST-com.example.pkg" + (suite % 50) + ".Suite" + suite + ".xml</file><name>Suite" + suite +
+							"</name><duration>1.0</duration><cases>\n");
+				}
+				writer.write("<case><duration>0.0" + (i % 10) + "</duration><className>com.example.pkg" + (suite % 50) + ".Suite" + suite +
+						"</className><testName>test" + i + "</testName>");
+				if (i % 10 == 5) {
+					writer.write("<errorStackTrace>java.lang.AssertionError: failure " + i + "\n\tat com.example.Suite.test(Suite.java:" + i +
+							")</errorStackTrace><errorDetails>failure " + i + "</errorDetails>");
+				}
+				writer.write("<skipped>" + (i % 10 == 7) + "</skipped><failedSince>" + (i % 10 == 5 ? 1 : 0) + "</failedSince></case>\n");
+				if (i % casesPerSuite == casesPerSuite - 1 || i == cases - 1) {
+					writer.write("</cases></suite>\n");
+				}
+			}
+			writer.write("</suites>\n<duration>1.0</duration>\n<keepLongStdio>false</keepLongStdio>\n</result>\n");
+		}
+	}
+}
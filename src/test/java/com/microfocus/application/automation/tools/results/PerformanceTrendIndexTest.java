@@ -0,0 +1,151 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import com.microfocus.application.automation.tools.results.projectparser.performance.JobLrScenarioResult;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrJobResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrProjectScenarioResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.LrTest;
+import com.microfocus.application.automation.tools.results.projectparser.performance.ProjectLrResults;
+import com.microfocus.application.automation.tools.results.projectparser.performance.WholeRunResult;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PerformanceTrendIndexTest {
+
+    @Rule
+    public JenkinsRule jenkins = new JenkinsRule();
+
+    @Test
+    public void testNewBuildIsAdded() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("lr-trend-add");
+        buildWithResults(project, 10);
+        jenkins.buildAndAssertSuccess(project);
+
+        PerformanceTrendIndex index = PerformanceTrendIndex.get(project);
+        index.refresh(project);
+        assertEquals(Collections.singletonList(1), index.getBuildNumbers());
+        long version = index.getVersion();
+
+        buildWithResults(project, 30);
+        ProjectLrResults result = index.getProjectResult(project, PerformanceProjectAction::foldProjectResults);
+
+        assertEquals(Arrays.asList(1, 3), index.getBuildNumbers());
+        assertTrue(index.getVersion() > version);
+        LrProjectScenarioResults scenario = result.getScenarioResults().get("Scenario1");
+        assertEquals(10, scenario.getAverageThroughputResults().get(1).getActualValue(), 0);
+        assertEquals(30, scenario.getAverageThroughputResults().get(3).getActualValue(), 0);
+        assertEquals(Integer.valueOf(5), scenario.getMaxConnectionsCount().get(3));
+    }
+
+    @Test
+    public void testDeletedBuildIsEvicted() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("lr-trend-delete");
+        buildWithResults(project, 10);
+        FreeStyleBuild second = buildWithResults(project, 20);
+
+        PerformanceTrendIndex index = PerformanceTrendIndex.get(project);
+        index.refresh(project);
+        assertEquals(Arrays.asList(1, 2), index.getBuildNumbers());
+
+        second.delete();
+
+        assertEquals(Collections.singletonList(1), index.getBuildNumbers());
+        ProjectLrResults result = index.getProjectResult(project, PerformanceProjectAction::foldProjectResults);
+        assertFalse(result.getScenarioResults().get("Scenario1").getAverageThroughputResults().containsKey(2));
+    }
+
+    @Test
+    public void testIndexSurvivesReload() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("lr-trend-reload");
+        buildWithResults(project, 10);
+        buildWithResults(project, 20);
+        PerformanceTrendIndex.get(project).refresh(project);
+
+        File indexFile = new File(project.getRootDir(), "lrTrendIndex.xml");
+        assertTrue(indexFile.exists());
+        // only the trend numbers are persisted, not the build results
+        assertFalse(FileUtils.readFileToString(indexFile, StandardCharsets.UTF_8).contains("LrJobResults"));
+
+        PerformanceTrendIndex.forget(project.getFullName());
+        PerformanceTrendIndex reloaded = PerformanceTrendIndex.get(project);
+
+        assertEquals(Arrays.asList(1, 2), reloaded.getBuildNumbers());
+        ProjectLrResults result = reloaded.getProjectResult(project, PerformanceProjectAction::foldProjectResults);
+        assertEquals(20, result.getScenarioResults().get("Scenario1").getAverageThroughputResults().get(2)
+                .getActualValue(), 0);
+    }
+
+    @Test
+    public void testRenamedJobLoadsIndexFromNewFolder() throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("lr-trend-old-name");
+        buildWithResults(project, 10);
+        PerformanceTrendIndex oldIndex = PerformanceTrendIndex.get(project);
+        oldIndex.refresh(project);
+
+        project.renameTo("lr-trend-new-name");
+
+        PerformanceTrendIndex newIndex = PerformanceTrendIndex.get(project);
+        assertFalse(newIndex == oldIndex);
+        assertEquals(Collections.singletonList(1), newIndex.getBuildNumbers());
+    }
+
+    private FreeStyleBuild buildWithResults(FreeStyleProject project, double throughput) throws Exception {
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+        build.addAction(new PerformanceJobReportAction(build, createResults(throughput)));
+        return build;
+    }
+
+    private static LrJobResults createResults(double throughput) {
+        WholeRunResult averageThroughput = new WholeRunResult(throughput, 100);
+        averageThroughput.setSlaGoal(LrTest.SLA_GOAL.AverageThroughput);
+        averageThroughput.setStatus(LrTest.SLA_STATUS.Passed);
+
+        JobLrScenarioResult scenarioResult = new JobLrScenarioResult("Scenario1");
+        scenarioResult.setConnectionMax(5);
+        scenarioResult.scenarioSlaResults.add(averageThroughput);
+
+        LrJobResults results = new LrJobResults();
+        results.addScenario(scenarioResult);
+        return results;
+    }
+}
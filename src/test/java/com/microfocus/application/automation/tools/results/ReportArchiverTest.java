@@ -0,0 +1,129 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results;
+
+import hudson.FilePath;
+import hudson.util.StreamTaskListener;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReportArchiverTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testArchiveWritesZipAndCountsBytes() throws Exception {
+        FilePath report = createReportFolder();
+        FilePath archivedFile = new FilePath(temporaryFolder.newFolder("archive")).child("Test_Report.zip");
+
+        ReportArchiver archiver = new ReportArchiver();
+        long bytes = archiver.archive(report, archivedFile);
+
+        assertTrue(archivedFile.exists());
+        assertEquals(archivedFile.length(), bytes);
+        assertEquals(bytes, archiver.getTransferredBytes());
+        assertEquals(1, archiver.getArchiveCount());
+    }
+
+    @Test
+    public void testCopyExtractsContentAndRemovesTemporaryZip() throws Exception {
+        FilePath report = createReportFolder();
+        FilePath target = new FilePath(temporaryFolder.newFolder("target"));
+
+        ReportArchiver archiver = new ReportArchiver();
+        archiver.copy(report, target, "tmp.zip");
+
+        assertFalse(target.child("tmp.zip").exists());
+        assertEquals("<html/>", target.child("Report/run_results.html").readToString());
+        assertEquals("<Results/>", target.child("Report/Resources/run_results.xml").readToString());
+    }
+
+    @Test
+    public void testArchiveAsyncWritesAllArchives() throws Exception {
+        FilePath archiveDir = new FilePath(temporaryFolder.newFolder("archive"));
+
+        ReportArchiver archiver = new ReportArchiver(4);
+        for (int i = 0; i < 10; i++) {
+            archiver.archiveAsync(createReportFolder(), archiveDir.child("Test" + i + "_Report.zip"));
+        }
+        archiver.awaitPendingTransfers();
+
+        assertEquals(10, archiver.getArchiveCount());
+        assertEquals(10, archiveDir.list().size());
+        long totalBytes = 0;
+        for (FilePath archivedFile : archiveDir.list()) {
+            totalBytes += archivedFile.length();
+        }
+        assertEquals(totalBytes, archiver.getTransferredBytes());
+    }
+
+    @Test(expected = IOException.class)
+    public void testAwaitPendingTransfersRethrowsFailure() throws Exception {
+        // the parent of the archive is a regular file, so the archive cannot be created
+        FilePath notADirectory = new FilePath(temporaryFolder.newFile("archive"));
+
+        ReportArchiver archiver = new ReportArchiver(2);
+        archiver.archiveAsync(createReportFolder(), notADirectory.child("Test_Report.zip"));
+        archiver.awaitPendingTransfers();
+    }
+
+    @Test
+    public void testPrintStatistics() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        StreamTaskListener listener = new StreamTaskListener(log, StandardCharsets.UTF_8);
+
+        ReportArchiver archiver = new ReportArchiver();
+        archiver.printStatistics(listener);
+        assertEquals(0, log.size());
+
+        archiver.archive(createReportFolder(), new FilePath(temporaryFolder.newFile("Test_Report.zip")));
+        archiver.printStatistics(listener);
+        listener.getLogger().flush();
+        assertTrue(log.toString("UTF-8").startsWith("Archived 1 report(s)"));
+    }
+
+    private FilePath createReportFolder() throws Exception {
+        File root = temporaryFolder.newFolder();
+        FilePath report = new FilePath(root).child("Report");
+        report.child("run_results.html").write("<html/>", "UTF-8");
+        report.child("Resources/run_results.xml").write("<Results/>", "UTF-8");
+        return report;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.projectparser.performance;
+
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunReportParserTest {
+
+    private static final String RUN_REPORT =
+            "/com/microfocus/application/automation/tools/results/RunReport.xml";
+
+    @Test
+    public void parseGeneralStatistics() throws Exception {
+        JobLrScenarioResult result = parse(RUN_REPORT);
+
+        assertEquals(Integer.valueOf(344), result.vUserSum.get("Passed"));
+        assertEquals(Integer.valueOf(364), result.vUserSum.get("Stopped"));
+        assertEquals(Integer.valueOf(292), result.vUserSum.get("Failed"));
+        assertEquals(Integer.valueOf(1000), result.vUserSum.get("Count"));
+        assertEquals(Integer.valueOf(11000), result.transactionSum.get("Count"));
+        assertEquals(11, result.transactionData.size());
+        assertEquals(Integer.valueOf(299), result.transactionData.get("transTes_0").get("Fail"));
+        assertEquals(1272, result.getConnectionMax());
+        assertEquals(94560, result.getScenarioDuration());
+    }
+
+    @Test
+    public void parseSlaRules() throws Exception {
+        JobLrScenarioResult result = parse(RUN_REPORT);
+
+        assertEquals(10, result.scenarioSlaResults.size());
+        GoalResult totalHits = result.scenarioSlaResults.get(0);
+        assertEquals(LrTest.SLA_GOAL.TotalHits, totalHits.getSlaGoal());
+        assertEquals(LrTest.SLA_STATUS.Passed, totalHits.getStatus());
+
+        GoalResult percentile = result.scenarioSlaResults.get(4);
+        assertEquals(LrTest.SLA_GOAL.PercentileTRT, percentile.getSlaGoal());
+        assertEquals("CGI", ((PercentileTransactionWholeRun) percentile).getName());
+        assertEquals(LrTest.SLA_STATUS.Failed, percentile.getStatus());
+
+        // the status of a time range rule follows its TimeRanges element
+        TimeRangeResult errorsPerSecond = (TimeRangeResult) result.scenarioSlaResults.get(9);
+        assertEquals(LrTest.SLA_GOAL.ErrorsPerSecond, errorsPerSecond.getSlaGoal());
+        assertEquals(LrTest.SLA_STATUS.Failed, errorsPerSecond.getStatus());
+        assertEquals(38, errorsPerSecond.getTimeRanges().size());
+        assertEquals(LrTest.SLA_STATUS.Failed, errorsPerSecond.getTimeRanges().get(7).getSlaStatus());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void rejectsUnexpectedRoot() throws Exception {
+        String xml = "<Report><General/></Report>";
+        RunReportParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), "scenario");
+    }
+
+    @Test
+    public void ignoresExternalEntities() throws Exception {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE Runs [<!ENTITY ext SYSTEM \"file:///etc/passwd\">]>"
+                + "<Runs><General><VUsers Count=\"1\"/></General><SLA/></Runs>";
+        JobLrScenarioResult result =
+                RunReportParser.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), "scenario");
+        assertEquals(Integer.valueOf(1), result.vUserSum.get("Count"));
+        assertTrue(result.scenarioSlaResults.isEmpty());
+    }
+
+    private static JobLrScenarioResult parse(String resource) throws IOException, XMLStreamException {
+        try (InputStream in = RunReportParserTest.class.getResourceAsStream(resource)) {
+            return RunReportParser.parse(in, "RunReport");
+        }
+    }
+}
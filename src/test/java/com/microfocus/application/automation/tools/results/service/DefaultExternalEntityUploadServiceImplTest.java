@@ -0,0 +1,304 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.results.service;
+
+import com.microfocus.application.automation.tools.rest.RestClient;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmCommonProperties;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmEntity;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTest;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestConfigImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestImpl;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstance;
+import com.microfocus.application.automation.tools.results.service.almentities.AlmTestInstanceImpl;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DefaultExternalEntityUploadServiceImplTest {
+
+	private static final String REPORT = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+			"<result plugin=\"junit@1.2-beta-4\">\n" +
+			"  <suites>\n" +
+			"    <suite>\n" +
+			"      <name>prog1prj1.TestProg1Prj1Test1</name>\n" +
+			"      <duration>0.003</duration>\n" +
+			"      <timestamp>2015-05-12T12:23:27</timestamp>\n" +
+			"      <cases>\n" +
+			"        <case>\n" +
+			"          <duration>0.002</duration>\n" +
+			"          <className>prog1prj1.TestProg1Prj1Test1</className>\n" +
+			"          <testName>testMethod1</testName>\n" +
+			"          <skipped>false</skipped>\n" +
+			"          <failedSince>0</failedSince>\n" +
+			"        </case>\n" +
+			"        <case>\n" +
+			"          <duration>0.001</duration>\n" +
+			"          <className>prog1prj1.TestProg1Prj1Test1</className>\n" +
+			"          <testName>testMethod2</testName>\n" +
+			"          <skipped>false</skipped>\n" +
+			"          <failedSince>0</failedSince>\n" +
+			"        </case>\n" +
+			"      </cases>\n" +
+			"    </suite>\n" +
+			"  </suites>\n" +
+			"</result>\n";
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private String reportFilePath;
+
+	@Before
+	public void writeReport() throws Exception {
+		File report = tmp.newFile("junitResult.xml");
+		FileUtils.writeStringToFile(report, REPORT, StandardCharsets.UTF_8);
+		reportFilePath = report.getAbsolutePath();
+	}
+
+	@Test
+	public void testGetAllAlmEntitiesReadsEveryPage() throws Exception {
+		PagedAlmRestTool restTool = new PagedAlmRestTool(Arrays.asList(tests(2), tests(2), tests(1)));
+
+		assertEquals(5, restTool.getAllAlmEntities(new AlmTestImpl(), "query={parent-id[1]}", 2).size());
+		assertEquals(Arrays.asList(
+				"query={parent-id[1]}&page-size=2&start-index=1",
+				"query={parent-id[1]}&page-size=2&start-index=3",
+				"query={parent-id[1]}&page-size=2&start-index=5"), restTool.queries);
+	}
+
+	@Test
+	public void testGetAllAlmEntitiesFailsWhenAPageFails() {
+		PagedAlmRestTool restTool = new PagedAlmRestTool(Arrays.asList(tests(2), null, tests(1)));
+
+		try {
+			restTool.getAllAlmEntities(new AlmTestImpl(), "query={parent-id[1]}", 2);
+			fail("a failed page must not be taken for the last one");
+		} catch (ExternalEntityUploadException e) {
+			assertEquals(2, restTool.queries.size());
+		}
+	}
+
+	@Test
+	public void testExistingEntitiesAreMatchedFromTheListings() throws Exception {
+		FakeAlmRestTool restTool = new FakeAlmRestTool(false);
+
+		upload(restTool);
+
+		assertTrue(restTool.lookups.isEmpty());
+		assertExistingEntitiesReused(restTool);
+	}
+
+	@Test
+	public void testExistingEntitiesAreLookedUpWhenListingsFail() throws Exception {
+		FakeAlmRestTool restTool = new FakeAlmRestTool(true);
+
+		upload(restTool);
+
+		assertTrue(restTool.lookups.stream().anyMatch(query -> query.contains("ut-method-name[")));
+		assertTrue(restTool.lookups.stream().anyMatch(query -> query.startsWith("query={parent-id[")));
+		assertTrue(restTool.lookups.stream().anyMatch(query -> query.contains("test-id[")));
+		assertExistingEntitiesReused(restTool);
+	}
+
+	private void upload(FakeAlmRestTool restTool) throws ExternalEntityUploadException {
+		IExternalEntityUploadService service = new DefaultExternalEntityUploadServiceImpl(restTool, null, new SystemOutLogger());
+		List<String> testsetIds = service.uploadExternalTestSet(null, reportFilePath, "Import\\junit", "Import\\junit",
+				"JUnit", "Jenkins", "1", "local", "http://localhost:8080/");
+		assertEquals(1, testsetIds.size());
+	}
+
+	private static void assertExistingEntitiesReused(FakeAlmRestTool restTool) {
+		//  only testMethod2 is new, testMethod1 and its instance exist in ALM already
+		assertEquals(1, restTool.created("tests").size());
+		assertEquals("testMethod2", restTool.created("tests").get(0).getFieldValue(AlmTest.TS_UT_METHOD_NAME));
+		assertEquals(1, restTool.created("test-instances").size());
+		assertEquals(2, restTool.created("runs").size());
+	}
+
+	private static List<AlmTestImpl> tests(int count) {
+		List<AlmTestImpl> tests = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			tests.add(new AlmTestImpl());
+		}
+		return tests;
+	}
+
+	/**
+	 * Serves the given pages, a null page fails.
+	 */
+	private static class PagedAlmRestTool extends AlmRestTool {
+		private final List<List<AlmTestImpl>> pages;
+		private final List<String> queries = new ArrayList<>();
+
+		private PagedAlmRestTool(List<List<AlmTestImpl>> pages) {
+			super((RestClient) null, new SystemOutLogger());
+			this.pages = pages;
+		}
+
+		@Override
+		protected <E extends AlmEntity> List<E> getAlmEntityPage(E entity, String queryString) throws ExternalEntityUploadException {
+			List<AlmTestImpl> page = pages.get(queries.size());
+			queries.add(queryString);
+			if (page == null) {
+				throw new ExternalEntityUploadException("page failed");
+			}
+			return (List<E>) page;
+		}
+	}
+
+	/**
+	 * ALM project holding the test testMethod1 with its test configuration and its instance in every test set.
+	 */
+	private static class FakeAlmRestTool extends AlmRestTool {
+		private static final Pattern PARENT_IDS = Pattern.compile("parent-id\\[([^\\]]*)\\]");
+		private static final String EXISTING_TEST_ID = "1001";
+
+		private final boolean listingsFail;
+		private final List<String> lookups = new ArrayList<>();
+		private final List<AlmEntity> created = new ArrayList<>();
+		private int nextId = 100;
+
+		private FakeAlmRestTool(boolean listingsFail) {
+			super((RestClient) null, new SystemOutLogger());
+			this.listingsFail = listingsFail;
+		}
+
+		private List<AlmEntity> created(String restPrefix) {
+			List<AlmEntity> result = new ArrayList<>();
+			for (AlmEntity entity : created) {
+				if (restPrefix.equals(entity.getRestPrefix())) {
+					result.add(entity);
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public boolean login() {
+			return true;
+		}
+
+		@Override
+		public String getActualUsername() {
+			return "tester";
+		}
+
+		@Override
+		public <E extends AlmEntity> E getEntityUnderParentFolder(Class<E> entityClass, int parentId, String entityName) {
+			return null;
+		}
+
+		@Override
+		protected <E extends AlmEntity> List<E> getAlmEntityPage(E entity, String queryString) throws ExternalEntityUploadException {
+			if (listingsFail) {
+				throw new ExternalEntityUploadException("listing failed");
+			}
+			return find(entity, queryString);
+		}
+
+		@Override
+		public <E extends AlmEntity> List<E> getAlmEntity(E entity, String queryString) {
+			lookups.add(queryString);
+			return find(entity, queryString);
+		}
+
+		@Override
+		public <E extends AlmEntity> E createAlmEntity(E entity, String[] fieldsForCreation) {
+			entity.setId(String.valueOf(nextId++));
+			created.add(entity);
+			return entity;
+		}
+
+		@Override
+		public <E extends AlmEntity> List<E> createAlmEntities(List<E> entities, String[] fieldsForCreation) {
+			return null;
+		}
+
+		private <E extends AlmEntity> List<E> find(E entity, String queryString) {
+			List<AlmEntity> result = new ArrayList<>();
+			if (entity instanceof AlmTestImpl) {
+				if (!queryString.contains("ut-method-name[") || queryString.contains(AlmRestTool.getEncodedString("testMethod1"))) {
+					result.add(existingTest());
+				}
+			} else if (entity instanceof AlmTestConfigImpl) {
+				Matcher matcher = PARENT_IDS.matcher(queryString);
+				if (matcher.find()) {
+					for (String testId : matcher.group(1).split("%20OR%20")) {
+						result.add(testConfig(testId));
+					}
+				}
+			} else if (entity instanceof AlmTestInstanceImpl) {
+				if (!queryString.contains("test-id[") || queryString.contains("test-id[" + EXISTING_TEST_ID + "]")) {
+					result.add(existingTestInstance());
+				}
+			}
+			return (List<E>) result;
+		}
+
+		private static AlmTestImpl existingTest() {
+			AlmTestImpl test = new AlmTestImpl();
+			test.setId(EXISTING_TEST_ID);
+			test.setFieldValue(AlmCommonProperties.NAME, "TestProg1Prj1Test1_testMethod1");
+			test.setFieldValue(AlmTest.TS_UT_PACKAGE_NAME, "prog1prj1");
+			test.setFieldValue(AlmTest.TS_UT_CLASS_NAME, "TestProg1Prj1Test1");
+			test.setFieldValue(AlmTest.TS_UT_METHOD_NAME, "testMethod1");
+			test.setFieldValue(AlmTest.TS_TESTING_FRAMEWORK, "JUnit");
+			return test;
+		}
+
+		private static AlmTestConfigImpl testConfig(String testId) {
+			AlmTestConfigImpl testConfig = new AlmTestConfigImpl();
+			testConfig.setId("2" + testId);
+			testConfig.setFieldValue(AlmCommonProperties.PARENT_ID, testId);
+			return testConfig;
+		}
+
+		private static AlmTestInstanceImpl existingTestInstance() {
+			AlmTestInstanceImpl testInstance = new AlmTestInstanceImpl();
+			testInstance.setId("3001");
+			testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_TEST_ID, EXISTING_TEST_ID);
+			testInstance.setFieldValue(AlmTestInstance.TEST_INSTANCE_CONFIG_ID, "2" + EXISTING_TEST_ID);
+			return testInstance;
+		}
+	}
+}
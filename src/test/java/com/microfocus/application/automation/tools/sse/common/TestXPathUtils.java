@@ -0,0 +1,141 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.common;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+public class TestXPathUtils extends TestCase {
+
+    private final String RUNNING = new String(RUNNING_DATA);
+
+    @Test
+    public void testGetAttributeValues() {
+
+        Map<String, String> values =
+                XPathUtils.getAttributeValues(RUNNING, "current-run-state", "start-time", "no-such-field");
+        Assert.assertEquals("Running", values.get("current-run-state"));
+        Assert.assertEquals("2013-03-03 16:12:10", values.get("start-time"));
+        Assert.assertEquals(StringUtils.EMPTY_STRING, values.get("no-such-field"));
+        Assert.assertEquals(3, values.size());
+    }
+
+    @Test
+    public void testGetAttributeValuesSameAsFieldByField() throws Exception {
+
+        String[] names = { "end-time", "start-time", "current-run-state", "duration-in-minutes", "description" };
+        Map<String, String> values = XPathUtils.getAttributeValues(RUNNING, names);
+        for (String name : names) {
+            Assert.assertEquals(readField(RUNNING, name), values.get(name));
+            Assert.assertEquals(readField(RUNNING, name), XPathUtils.getAttributeValue(RUNNING, name));
+        }
+    }
+
+    @Test
+    public void testParsersAreReusedAcrossFailuresAndThreads() throws Exception {
+
+        try {
+            XPathUtils.getAttributeValue("<Entity><Fields>", "id");
+            Assert.fail();
+        } catch (Exception expected) {
+            // the parser of this thread has to stay usable
+        }
+        Assert.assertEquals("Running", XPathUtils.getAttributeValue(RUNNING, "current-run-state"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+            for (int i = 0; i < 200; i++) {
+                String xml = String.format(TIMESLOT_DATA_FORMAT, "State" + i);
+                tasks.add(() -> XPathUtils.getAttributeValue(xml, "current-run-state"));
+            }
+            List<Future<String>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < results.size(); i++) {
+                Assert.assertEquals("State" + i, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The fields read on each poll of a lab or performance test run
+     */
+    @Test
+    public void testGetAttributeValuesOfPolledRuns() throws Exception {
+
+        String[] names = { "end-time", "start-time", "current-run-state", "duration-in-minutes",
+                "state", "status", "pc-start-time", "pc-end-time" };
+        for (byte[] data : new byte[][] { RUNNING_DATA, FINISHED_DATA, PC_RUNNING_DATA, PC_FINISHED_DATA }) {
+            String xml = new String(data);
+            Map<String, String> values = XPathUtils.getAttributeValues(xml, names);
+            Assert.assertEquals(names.length, values.size());
+            for (String name : names) {
+                Assert.assertEquals(name, readField(xml, name), values.get(name));
+            }
+        }
+    }
+
+    /**
+     * Reads one field the way XPathUtils did before it read several fields in one pass
+     */
+    private static String readField(String xml, String name) throws Exception {
+
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                new InputSource(new StringReader(xml)));
+        NodeList fields = (NodeList) XPathFactory.newInstance().newXPath().compile("Entity/Fields/Field")
+                .evaluate(document, XPathConstants.NODESET);
+        for (int i = 0; i < fields.getLength(); i++) {
+            Node field = fields.item(i);
+            if (name.equals(field.getAttributes().getNamedItem("Name").getNodeValue())) {
+                Node value = field.getFirstChild();
+                return value != null && value.getFirstChild() != null ? value.getFirstChild().getNodeValue() : null;
+            }
+        }
+        return StringUtils.EMPTY_STRING;
+    }
+}
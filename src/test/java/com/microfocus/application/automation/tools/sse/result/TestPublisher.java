@@ -29,8 +29,12 @@
 package com.microfocus.application.automation.tools.sse.result;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.microfocus.application.automation.tools.sse.common.TestCase;
 import com.microfocus.application.automation.tools.sse.result.model.junit.JUnitTestCaseStatus;
@@ -109,6 +113,46 @@ public class TestPublisher extends TestCase {
         Assert.assertNotNull(testsuites);
     }
 
+    @Test
+    public void testPagedPublish() {
+
+        int total = 2500;
+        PagingMockClient client = new PagingMockClient(URL, DOMAIN, PROJECT, total, USER);
+        Testsuites testsuites = publish(client);
+
+        Assert.assertNotNull(testsuites);
+        int testcases = 0;
+        for (Testsuite testsuite : testsuites.getTestsuite()) {
+            testcases += testsuite.getTestcase().size();
+        }
+        Assert.assertEquals(total, testcases);
+        Assert.assertEquals(2, client.getStartIndexes().size());
+        Assert.assertTrue(client.getStartIndexes().contains(1));
+        Assert.assertTrue(client.getStartIndexes().contains(2001));
+    }
+
+    @Test
+    public void testPagedPublishWithFailedPage() {
+
+        PagingMockClient client =
+                new PagingMockClient(URL, DOMAIN, PROJECT, 2500, USER, 2001, HttpURLConnection.HTTP_INTERNAL_ERROR);
+        Testsuites testsuites = publish(client);
+
+        Assert.assertNull(testsuites);
+        Assert.assertTrue(client.getStartIndexes().contains(2001));
+    }
+
+    @Test
+    public void testPagedPublishWithEmptyPage() {
+
+        PagingMockClient client =
+                new PagingMockClient(URL, DOMAIN, PROJECT, 2500, USER, 2001, HttpURLConnection.HTTP_OK);
+        Testsuites testsuites = publish(client);
+
+        Assert.assertNull(testsuites);
+        Assert.assertTrue(client.getStartIndexes().contains(2001));
+    }
+
     private boolean containsStatus(List<Testsuite> testsuites, String status) {
 
         boolean ret = false;
@@ -153,4 +197,74 @@ public class TestPublisher extends TestCase {
             return new Response(null, _bytes, null, HttpURLConnection.HTTP_OK);
         }
     }
+
+    private class PagingMockClient extends RestClient4Test {
+
+        private final int _total;
+        private final int _brokenStartIndex;
+        private final int _brokenStatusCode;
+        private final List<Integer> _startIndexes = Collections.synchronizedList(new ArrayList<Integer>());
+
+        public PagingMockClient(String url, String domain, String project, int total, String username) {
+
+            this(url, domain, project, total, username, -1, HttpURLConnection.HTTP_OK);
+        }
+
+        /**
+         * The page starting at brokenStartIndex fails with brokenStatusCode, or comes back empty if it is HTTP_OK
+         */
+        public PagingMockClient(
+                String url,
+                String domain,
+                String project,
+                int total,
+                String username,
+                int brokenStartIndex,
+                int brokenStatusCode) {
+
+            super(url, domain, project, username);
+            _total = total;
+            _brokenStartIndex = brokenStartIndex;
+            _brokenStatusCode = brokenStatusCode;
+        }
+
+        public List<Integer> getStartIndexes() {
+
+            return _startIndexes;
+        }
+
+        @Override
+        public Response httpGet(
+                String url,
+                String queryString,
+                Map<String, String> headers,
+                ResourceAccessLevel resourceAccessLevel) {
+
+            StringBuilder xml = new StringBuilder(String.format("<Entities TotalResults=\"%d\">", _total));
+            Matcher matcher = Pattern.compile("page-size=(\\d+)&start-index=(\\d+)").matcher(
+                    queryString == null ? "" : queryString);
+            if (matcher.find()) {
+                int pageSize = Integer.parseInt(matcher.group(1));
+                int startIndex = Integer.parseInt(matcher.group(2));
+                _startIndexes.add(startIndex);
+                if (startIndex == _brokenStartIndex) {
+                    return new Response(
+                            null,
+                            xml.append("</Entities>").toString().getBytes(),
+                            null,
+                            _brokenStatusCode);
+                }
+                for (int i = startIndex; i < startIndex + pageSize && i <= _total; i++) {
+                    xml.append(String.format(
+                            "<Entity Type=\"procedure-testset-instance-run\"><Fields><Field Name=\"run-id\"><Value>%d</Value></Field><Field Name=\"test-config-name\"><Value>test%d</Value></Field><Field Name=\"testset-name\"><Value>set%d</Value></Field><Field Name=\"testcycl-id\"><Value>%d</Value></Field><Field Name=\"status\"><Value>Passed</Value></Field></Fields><RelatedEntities/></Entity>",
+                            i,
+                            i,
+                            i % 10,
+                            i % 10));
+                }
+            }
+
+            return new Response(null, xml.append("</Entities>").toString().getBytes(), null, HttpURLConnection.HTTP_OK);
+        }
+    }
 }
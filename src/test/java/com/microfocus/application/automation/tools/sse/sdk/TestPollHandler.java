@@ -29,7 +29,14 @@
 package com.microfocus.application.automation.tools.sse.sdk;
 
 import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.microfocus.application.automation.tools.sse.common.TestCase;
 import org.junit.Assert;
@@ -247,4 +254,62 @@ public class TestPollHandler extends TestCase {
         }
     }
     
+    @Test
+    public void testLabPollsOfSeveralRunsAreBatched() throws Exception {
+        
+        MockRestClientSeveralRuns client = new MockRestClientSeveralRuns(URL, DOMAIN, PROJECT, USER);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (String runId : new String[] { "1", "2" }) {
+                results.add(executor.submit(() -> {
+                    PollHandler pollHandler = new PollHandlerFactory().create(client, "BVS", "12", 1000);
+                    pollHandler.setRunId(runId);
+                    return pollHandler.poll(new ConsoleLogger());
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, client._batches.get());
+    }
+    
+    private class MockRestClientSeveralRuns extends RestClient4Test {
+        
+        private final AtomicInteger _batches = new AtomicInteger();
+        
+        public MockRestClientSeveralRuns(String url, String domain, String project, String username) {
+            
+            super(url, domain, project, username);
+        }
+        
+        @Override
+        public Response httpGet(String url, String queryString, Map<String, String> headers, ResourceAccessLevel resourceAccessLevel) {
+            
+            byte[] data = null;
+            if (url.endsWith("procedure-runs")) {
+                _batches.incrementAndGet();
+                Assert.assertTrue(queryString.contains("id[1%20OR%202]") || queryString.contains("id[2%20OR%201]"));
+                data = String.format("<Entities TotalResults=\"2\">%s%s</Entities>", runXml("1"), runXml("2")).getBytes();
+            } else if (url.contains("procedure-runs/")) {
+                data = RUN_ENTITY_DATA_FORMAT;
+            } else if (url.contains("event-log-reads")) {
+                data = EVENT_LOG_DATA;
+            } else {
+                Assert.fail();
+            }
+            
+            return new Response(null, data, null, HttpURLConnection.HTTP_OK);
+        }
+        
+        private String runXml(String runId) {
+            
+            return String.format(
+                    "<Entity Type=\"procedure-run\"><Fields><Field Name=\"id\"><Value>%s</Value></Field><Field Name=\"end-time\"><Value>2012-12-30 11:44:48</Value></Field><Field Name=\"state\"><Value>Finished</Value></Field></Fields><RelatedEntities/></Entity>",
+                    runId);
+        }
+    }
 }
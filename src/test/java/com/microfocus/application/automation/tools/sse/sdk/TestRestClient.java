@@ -32,8 +32,16 @@ import com.microfocus.application.automation.tools.sse.common.TestCase;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.microfocus.application.automation.tools.rest.EndpointStatistics;
 import com.microfocus.application.automation.tools.rest.RestClient;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 @SuppressWarnings("squid:S2699")
 public class TestRestClient extends TestCase {
     
@@ -68,4 +76,73 @@ public class TestRestClient extends TestCase {
                 url);
     }
 
+    @Test
+    public void testEndpointStatistics() {
+        RestClient client = new RestClient(URL, DOMAIN, PROJECT, USER) {
+            @Override
+            protected Response doRequest(String type, String url, byte[] data, Map<String, String> headers) {
+                Response response = new Response();
+                response.setStatusCode(url.contains("/13") ? 404 : 200);
+                if (response.getStatusCode() == 404) {
+                    response.setFailure(new Exception("not found"));
+                }
+                response.setHeaders(Collections.<String, List<String>>emptyMap());
+                response.setData(new byte[0]);
+                return response;
+            }
+        };
+
+        client.httpGet(client.buildRestRequest("tests/12"), "fields=id", null, ResourceAccessLevel.PROTECTED);
+        client.httpGet(client.buildRestRequest("tests/13"), null, null, ResourceAccessLevel.PROTECTED);
+        client.httpPost(client.buildRestRequest("tests"), new byte[0], null, ResourceAccessLevel.PROTECTED);
+
+        Map<String, EndpointStatistics> statistics = client.getEndpointStatistics();
+        Assert.assertEquals(2, statistics.size());
+        EndpointStatistics getTest = statistics.get(
+                String.format("GET rest/domains/%s/projects/%s/tests/{id}", DOMAIN, PROJECT));
+        Assert.assertNotNull(getTest);
+        Assert.assertEquals(2, getTest.getCount());
+        Assert.assertEquals(1, getTest.getFailures());
+        Assert.assertEquals(1, statistics.get(
+                String.format("POST rest/domains/%s/projects/%s/tests", DOMAIN, PROJECT)).getCount());
+    }
+
+    @Test
+    public void testHttpPostStream() {
+        final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        RestClient client = new RestClient(URL, DOMAIN, PROJECT, USER) {
+            @Override
+            protected Response doStreamRequest(String type, String url, StreamingRequestBody body,
+                                               Map<String, String> headers) throws IOException, InterruptedException {
+                Assert.assertEquals("POST", type);
+                Assert.assertEquals("file.zip", headers.get("Slug"));
+                body.writeTo(sent);
+                Response response = new Response();
+                response.setStatusCode(201);
+                response.setHeaders(Collections.<String, List<String>>emptyMap());
+                response.setData(new byte[0]);
+                return response;
+            }
+        };
+
+        Response response = client.httpPostStream(client.buildRestRequest("runs/12/attachments"),
+                new StreamingRequestBody() {
+                    @Override
+                    public long getLength() {
+                        return 3;
+                    }
+
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException {
+                        out.write(new byte[]{1, 2, 3});
+                    }
+                },
+                Collections.singletonMap("Slug", "file.zip"),
+                ResourceAccessLevel.PROTECTED);
+
+        Assert.assertEquals(201, response.getStatusCode());
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, sent.toByteArray());
+        Assert.assertEquals(1, client.getEndpointStatistics().get(
+                String.format("POST rest/domains/%s/projects/%s/runs/{id}/attachments", DOMAIN, PROJECT)).getCount());
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Certain versions of software and/or documents ("Material") accessible here may contain branding from
+ * Hewlett-Packard Company (now HP Inc.) and Hewlett Packard Enterprise Company.  As of September 1, 2017,
+ * the Material is now offered by Micro Focus, a separately owned and operated company.  Any reference to the HP
+ * and Hewlett Packard Enterprise/HPE marks is historical in nature, and the HP and Hewlett Packard Enterprise/HPE
+ * marks are the property of their respective owners.
+ * __________________________________________________________________
+ * MIT License
+ *
+ * (c) Copyright 2012-2021 Micro Focus or one of its affiliates.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software,
+ * and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ * ___________________________________________________________________
+ */
+
+package com.microfocus.application.automation.tools.sse.sdk.handler;
+
+import java.net.HttpURLConnection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.microfocus.application.automation.tools.sse.sdk.Response;
+
+public class TestPollBackoff {
+    
+    private static final long INTERVAL = 5000;
+    private static final long MAX_INTERVAL = 60000;
+    private static final long START = 1000000;
+    
+    @Test
+    public void testDelayDoublesWhileResponseIsUnchanged() {
+        
+        PollHandler.PollBackoff backoff = new PollHandler.PollBackoff(INTERVAL, MAX_INTERVAL, START);
+        
+        Assert.assertEquals(5000, backoff.getNextDelay(response("Running"), 0, START));
+        Assert.assertEquals(10000, backoff.getNextDelay(response("Running"), 0, START));
+        Assert.assertEquals(20000, backoff.getNextDelay(response("Running"), 0, START));
+        Assert.assertEquals(40000, backoff.getNextDelay(response("Running"), 0, START));
+        Assert.assertEquals(60000, backoff.getNextDelay(response("Running"), 0, START));
+        Assert.assertEquals(60000, backoff.getNextDelay(response("Running"), 0, START));
+    }
+    
+    @Test
+    public void testDelayResetsWhenResponseChanges() {
+        
+        PollHandler.PollBackoff backoff = new PollHandler.PollBackoff(INTERVAL, MAX_INTERVAL, START);
+        backoff.getNextDelay(response("Running"), 0, START);
+        Assert.assertEquals(10000, backoff.getNextDelay(response("Running"), 0, START));
+        
+        Assert.assertEquals(5000, backoff.getNextDelay(response("Finishing"), 0, START));
+        Assert.assertEquals(10000, backoff.getNextDelay(response("Finishing"), 0, START));
+    }
+    
+    @Test
+    public void testDelayResetsNearExpectedDuration() {
+        
+        long expectedDuration = 120000;
+        PollHandler.PollBackoff backoff = new PollHandler.PollBackoff(INTERVAL, MAX_INTERVAL, START);
+        backoff.getNextDelay(response("Running"), expectedDuration, START);
+        Assert.assertEquals(10000, backoff.getNextDelay(response("Running"), expectedDuration, START + 10000));
+        Assert.assertEquals(20000, backoff.getNextDelay(response("Running"), expectedDuration, START + 20000));
+        
+        // the doubled delay would pass the expected completion
+        Assert.assertEquals(5000, backoff.getNextDelay(response("Running"), expectedDuration, START + 100000));
+        Assert.assertEquals(5000, backoff.getNextDelay(response("Running"), expectedDuration, START + 110000));
+    }
+    
+    @Test
+    public void testFailedResponseKeepsDelay() {
+        
+        PollHandler.PollBackoff backoff = new PollHandler.PollBackoff(INTERVAL, MAX_INTERVAL, START);
+        backoff.getNextDelay(response("Running"), 0, START);
+        Assert.assertEquals(10000, backoff.getNextDelay(response("Running"), 0, START));
+        
+        Assert.assertEquals(10000, backoff.getNextDelay(new Response(new RuntimeException("failed")), 0, START));
+        Assert.assertEquals(20000, backoff.getNextDelay(response("Running"), 0, START));
+    }
+    
+    private static Response response(String state) {
+        
+        return new Response(null, state.getBytes(), null, HttpURLConnection.HTTP_OK);
+    }
+}